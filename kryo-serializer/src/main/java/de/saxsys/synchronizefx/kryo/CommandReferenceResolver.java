@@ -0,0 +1,47 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.kryo;
+
+import java.util.UUID;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+import de.saxsys.synchronizefx.core.metamodel.commands.Value;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.util.MapReferenceResolver;
+
+/**
+ * Disables the reference tracking of {@link Kryo} for commands and the classes they consist of.
+ * 
+ * <p>
+ * Commands, {@link Value}s and {@link UUID}s never contain cycles and are not shared between commands. Tracking
+ * references for them would only add a reference marker to the wire format for every occurrence. References are still
+ * tracked for all other classes like {@link String}s and user defined value objects.
+ * </p>
+ */
+final class CommandReferenceResolver extends MapReferenceResolver {
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public boolean useReferences(final Class type) {
+        return super.useReferences(type) && type != UUID.class && type != Value.class
+                && !Command.class.isAssignableFrom(type);
+    }
+}
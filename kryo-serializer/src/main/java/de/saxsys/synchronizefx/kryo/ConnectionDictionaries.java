@@ -0,0 +1,68 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.kryo;
+
+import de.saxsys.synchronizefx.kryo.serializer.SchemaDictionary;
+import de.saxsys.synchronizefx.kryo.serializer.UUIDDictionary;
+
+/**
+ * The dictionaries that are kept for one direction of a connection.
+ */
+final class ConnectionDictionaries {
+
+    private final UUIDDictionary ids = new UUIDDictionary();
+    private final SchemaDictionary schemas = new SchemaDictionary();
+
+    /**
+     * @return The dictionary for interned ids of observable objects.
+     */
+    UUIDDictionary getIds() {
+        return ids;
+    }
+
+    /**
+     * @return The dictionary for the schemas of observable objects.
+     */
+    SchemaDictionary getSchemas() {
+        return schemas;
+    }
+
+    /**
+     * Makes everything that was added to the dictionaries since the last commit permanent.
+     * 
+     * @see UUIDDictionary#commit()
+     * @see SchemaDictionary#commit()
+     */
+    void commit() {
+        ids.commit();
+        schemas.commit();
+    }
+
+    /**
+     * Reverts everything that was added to the dictionaries since the last commit.
+     * 
+     * @see UUIDDictionary#rollback()
+     * @see SchemaDictionary#rollback()
+     */
+    void rollback() {
+        ids.rollback();
+        schemas.rollback();
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.kryo;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import de.saxsys.synchronizefx.core.clientserver.StreamingSerializer;
+import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+
+/**
+ * Serializes the commands for a single connection and interns the ids and the schemas of observable objects.
+ * 
+ * <p>
+ * Each direction of the connection has its own dictionaries. The dictionaries for outgoing data are filled while
+ * serializing and the ones for incoming data are filled with the announcements found while deserializing. Therefore
+ * both peers need to process the data in exactly the order it is transfered.
+ * </p>
+ * 
+ * <p>
+ * Entries added to the outgoing dictionaries are only kept when the whole message could be serialized. Otherwise the
+ * peer would never receive their announcements and would misinterpret all later references to them.
+ * </p>
+ * 
+ * @see KryoSerializer#setUUIDInterning(boolean)
+ */
+final class InterningConnectionSerializer implements StreamingSerializer {
+
+    private final KryoSerializer parent;
+    private final ConnectionDictionaries outgoing = new ConnectionDictionaries();
+    private final ConnectionDictionaries incoming = new ConnectionDictionaries();
+
+    /**
+     * @param parent The serializer that contains the Kryo configuration to use.
+     */
+    InterningConnectionSerializer(final KryoSerializer parent) {
+        this.parent = parent;
+    }
+
+    @Override
+    public byte[] serialize(final List<Command> commands) {
+        synchronized (outgoing) {
+            try {
+                final byte[] serialized = parent.serialize(commands, outgoing);
+                outgoing.commit();
+                return serialized;
+            } catch (final RuntimeException e) {
+                outgoing.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public void serialize(final List<Command> commands, final OutputStream target) throws SynchronizeFXException {
+        synchronized (outgoing) {
+            try {
+                parent.serialize(commands, target, outgoing);
+                outgoing.commit();
+            } catch (final RuntimeException e) {
+                outgoing.rollback();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public List<Command> deserialize(final byte[] commands) {
+        synchronized (incoming) {
+            return parent.deserialize(commands, incoming);
+        }
+    }
+
+    @Override
+    public List<Command> deserialize(final ByteBuffer commands) throws SynchronizeFXException {
+        synchronized (incoming) {
+            return parent.deserialize(commands, incoming);
+        }
+    }
+}
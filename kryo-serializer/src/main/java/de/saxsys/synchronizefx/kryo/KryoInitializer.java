@@ -19,19 +19,43 @@
 
 package de.saxsys.synchronizefx.kryo;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
 
+import javafx.scene.paint.Color;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddToSet;
+import de.saxsys.synchronizefx.core.metamodel.commands.ClearReferences;
+import de.saxsys.synchronizefx.core.metamodel.commands.CreateObservableObject;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
+import de.saxsys.synchronizefx.core.metamodel.commands.PutToMap;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
+import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromMap;
+import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromSet;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
 import de.saxsys.synchronizefx.core.metamodel.commands.SetPropertyValue;
+import de.saxsys.synchronizefx.core.metamodel.commands.SetRootElement;
 import de.saxsys.synchronizefx.core.metamodel.commands.Value;
+import de.saxsys.synchronizefx.kryo.serializer.AddAllToListSerializer;
 import de.saxsys.synchronizefx.kryo.serializer.AddToListSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.AddToSetSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.ClearReferencesSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.ColorSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.CreateObservableObjectSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.PermuteListSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.PutToMapSerializer;
 import de.saxsys.synchronizefx.kryo.serializer.RemoveFromListSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.RemoveFromMapSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.RemoveFromSetSerializer;
 import de.saxsys.synchronizefx.kryo.serializer.ReplaceInListSerializer;
 import de.saxsys.synchronizefx.kryo.serializer.SetPropertyValueSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.SetRootElementSerializer;
 import de.saxsys.synchronizefx.kryo.serializer.UUIDSerializer;
 import de.saxsys.synchronizefx.kryo.serializer.ValueSerializer;
 
@@ -42,21 +66,47 @@ import com.esotericsoftware.kryo.Serializer;
  * Initializes {@link Kryo} instances with all the Serializers needed for SynchronizeFX and the one the user
  * registerend.
  * 
- * A new {@link Kryo} instance is created for each {@link Thread} to ensure thread-safety.
+ * <p>
+ * Every command class and some common value types are registered so that only a small class id instead of the class
+ * name is written for them. The ids depend on the order of the registrations, so changing this order changes the
+ * wire format.
+ * </p>
+ * 
+ * {@link Kryo} instances are not thread safe. They are handed out to threads by the {@link KryoPool}.
  */
-final class KryoInitializer extends ThreadLocal<Kryo> {
+final class KryoInitializer {
 
     private List<CustomSerializers<?>> customSerializers = new LinkedList<>();
 
-    @Override
-    protected Kryo initialValue() {
-        Kryo kryo = new Kryo();
+    /**
+     * Creates a new {@link Kryo} instance that is able to serialize SynchronizeFX commands and all classes that where
+     * registered up to now.
+     * 
+     * @return The new instance.
+     */
+    Kryo create() {
+        Kryo kryo = new Kryo(new CommandReferenceResolver());
         kryo.register(UUID.class, new UUIDSerializer());
         kryo.register(Value.class, new ValueSerializer());
         kryo.register(SetPropertyValue.class, new SetPropertyValueSerializer());
         kryo.register(AddToList.class, new AddToListSerializer());
         kryo.register(RemoveFromList.class, new RemoveFromListSerializer());
         kryo.register(ReplaceInList.class, new ReplaceInListSerializer());
+        kryo.register(CreateObservableObject.class, new CreateObservableObjectSerializer());
+        kryo.register(SetRootElement.class, new SetRootElementSerializer());
+        kryo.register(ClearReferences.class, new ClearReferencesSerializer());
+        kryo.register(PutToMap.class, new PutToMapSerializer());
+        kryo.register(RemoveFromMap.class, new RemoveFromMapSerializer());
+        kryo.register(AddToSet.class, new AddToSetSerializer());
+        kryo.register(RemoveFromSet.class, new RemoveFromSetSerializer());
+        kryo.register(AddAllToList.class, new AddAllToListSerializer());
+        kryo.register(PermuteList.class, new PermuteListSerializer());
+        kryo.register(LinkedList.class);
+
+        kryo.register(Date.class);
+        kryo.register(BigDecimal.class);
+        kryo.register(BigInteger.class);
+        kryo.register(Color.class, new ColorSerializer());
 
         synchronized (customSerializers) {
             for (CustomSerializers<?> serializer : customSerializers) {
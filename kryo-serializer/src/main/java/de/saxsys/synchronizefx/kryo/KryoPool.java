@@ -0,0 +1,236 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.kryo;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * A bounded pool of {@link Kryo} instances that are shared between threads.
+ * 
+ * <p>
+ * Creating and configuring a {@link Kryo} instance is expensive. Instead of keeping one instance for every thread,
+ * which adds up for transmitters with a thread for every connection, threads borrow an instance for a single
+ * serialization and return it afterwards. Each instance comes with {@link Input} and {@link Output} objects whose
+ * buffers are reused as well.
+ * </p>
+ * 
+ * <p>
+ * The pool never blocks. When it is empty a new instance is created. When it is full, returned instances are left to
+ * the garbage collector.
+ * </p>
+ */
+final class KryoPool {
+
+    /**
+     * The maximum number of idle instances that are kept when no other value is configured.
+     */
+    static final int DEFAULT_MAX_IDLE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private static final int INITIAL_BUFFER_SIZE = 256;
+    private static final int STREAM_BUFFER_SIZE = 4096;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final KryoInitializer initializer = new KryoInitializer();
+    private final Queue<PooledKryo> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final int maxIdle;
+
+    /**
+     * Incremented whenever the configuration changes so that instances created with an old configuration are
+     * discarded.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Initializes the pool.
+     * 
+     * @param maxIdle The maximum number of instances that are kept for reuse.
+     */
+    KryoPool(final int maxIdle) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("The maximum number of pooled Kryo instances must not be negative.");
+        }
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * See {@link KryoSerializer#registerSerializableClass(Class, Serializer)}.
+     * 
+     * <p>
+     * Instances that where created before this call are not returned by {@link #borrow()} anymore.
+     * </p>
+     * 
+     * @param clazz see {@link KryoSerializer#registerSerializableClass(Class, Serializer)}.
+     * @param serializer see {@link KryoSerializer#registerSerializableClass(Class, Serializer)}.
+     * @param <T> see {@link KryoSerializer#registerSerializableClass(Class, Serializer)}.
+     */
+    <T> void registerSerializableClass(final Class<T> clazz, final Serializer<T> serializer) {
+        initializer.registerSerializableClass(clazz, serializer);
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Takes an instance from the pool or creates a new one if the pool is empty.
+     * 
+     * <p>
+     * The instance must be returned with {@link #release(PooledKryo)} when it is no longer used.
+     * </p>
+     * 
+     * @return An instance that is exclusively used by the caller until it is released.
+     */
+    PooledKryo borrow() {
+        final int currentGeneration = generation.get();
+        PooledKryo pooled = idle.poll();
+        while (pooled != null) {
+            idleCount.decrementAndGet();
+            if (pooled.generation == currentGeneration) {
+                hits.incrementAndGet();
+                return pooled;
+            }
+            pooled = idle.poll();
+        }
+        misses.incrementAndGet();
+        return new PooledKryo(initializer.create(), currentGeneration);
+    }
+
+    /**
+     * Returns an instance to the pool.
+     * 
+     * @param pooled An instance that was obtained by {@link #borrow()}. It must not be used after this call.
+     */
+    void release(final PooledKryo pooled) {
+        pooled.reset();
+        if (pooled.generation != generation.get()) {
+            return;
+        }
+        if (idleCount.incrementAndGet() > maxIdle) {
+            idleCount.decrementAndGet();
+            return;
+        }
+        idle.offer(pooled);
+    }
+
+    /**
+     * @return How often {@link #borrow()} could reuse an instance.
+     */
+    long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return How often {@link #borrow()} needed to create a new instance.
+     */
+    long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of instances that currently wait for reuse.
+     */
+    int getIdle() {
+        return idleCount.get();
+    }
+
+    /**
+     * A {@link Kryo} instance together with the {@link Input} and {@link Output} objects that are used with it.
+     */
+    static final class PooledKryo {
+        private final Kryo kryo;
+        private final int generation;
+        private final Output output = new Output(INITIAL_BUFFER_SIZE, -1);
+        private final Input arrayInput = new Input();
+        private final Input streamInput = new Input(STREAM_BUFFER_SIZE);
+
+        private PooledKryo(final Kryo kryo, final int generation) {
+            this.kryo = kryo;
+            this.generation = generation;
+        }
+
+        /**
+         * @return The Kryo instance.
+         */
+        Kryo getKryo() {
+            return kryo;
+        }
+
+        /**
+         * @return An empty output that collects all data in its buffer.
+         */
+        Output output() {
+            output.clear();
+            return output;
+        }
+
+        /**
+         * @param target The stream the returned output should write to.
+         * @return An output that writes to <code>target</code>. It must be flushed by the caller.
+         */
+        Output output(final OutputStream target) {
+            output.setOutputStream(target);
+            return output;
+        }
+
+        /**
+         * @param buffer The array to read from. It is not copied.
+         * @param offset The index of the first byte to read.
+         * @param count The number of bytes to read.
+         * @return An input that reads the given bytes.
+         */
+        Input input(final byte[] buffer, final int offset, final int count) {
+            arrayInput.setBuffer(buffer, offset, count);
+            return arrayInput;
+        }
+
+        /**
+         * @param source The stream to read from.
+         * @return An input that reads from the stream.
+         */
+        Input input(final InputStream source) {
+            streamInput.setInputStream(source);
+            return streamInput;
+        }
+
+        /**
+         * Drops all references to the data of the last usage and shrinks buffers that grew too large.
+         */
+        private void reset() {
+            output.setOutputStream(null);
+            if (output.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+                output.setBuffer(new byte[INITIAL_BUFFER_SIZE], -1);
+            }
+            arrayInput.setBuffer(EMPTY);
+            streamInput.setInputStream(null);
+        }
+    }
+}
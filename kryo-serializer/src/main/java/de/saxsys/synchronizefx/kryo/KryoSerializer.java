@@ -19,30 +19,61 @@
 
 package de.saxsys.synchronizefx.kryo;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.LinkedList;
 import java.util.List;
 
+import de.saxsys.synchronizefx.core.clientserver.ConnectionAwareSerializer;
+import de.saxsys.synchronizefx.core.clientserver.StreamingSerializer;
+import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
 import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+import de.saxsys.synchronizefx.kryo.KryoPool.PooledKryo;
+import de.saxsys.synchronizefx.kryo.serializer.SchemaDictionary;
+import de.saxsys.synchronizefx.kryo.serializer.UUIDDictionary;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
 import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.ByteBufferInputStream;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
 /**
  * Serializes SynchronizeFX {@link Command}s by using the Kryo library.
  */
-public class KryoSerializer implements de.saxsys.synchronizefx.core.clientserver.Serializer {
-    private KryoInitializer kryo = new KryoInitializer();
+public class KryoSerializer implements ConnectionAwareSerializer, StreamingSerializer {
+    private final KryoPool pool;
+    private volatile boolean internUUIDs;
+
+    /**
+     * Initializes a serializer that keeps up to {@link KryoPool#DEFAULT_MAX_IDLE} {@link Kryo} instances for reuse.
+     */
+    public KryoSerializer() {
+        this(KryoPool.DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Initializes a serializer with a custom size for the pool of {@link Kryo} instances.
+     * 
+     * <p>
+     * A {@link Kryo} instance is borrowed from the pool for every serialization and deserialization. If the pool is
+     * empty a new instance is created, so the size does not limit the number of threads that can use this serializer
+     * concurrently. It only limits the number of instances that are kept for reuse afterwards.
+     * </p>
+     * 
+     * @param maxPooledKryos The maximum number of {@link Kryo} instances that are kept for reuse.
+     */
+    public KryoSerializer(final int maxPooledKryos) {
+        this.pool = new KryoPool(maxPooledKryos);
+    }
 
     /**
      * Registers a class that may be send over the network.
      * 
      * Use this method only before the first invocation of either {@link KryoSerializer#serialize(List)} or
-     * {@link KryoSerializer#deserialize(byte[])}. If you invoke it after these methods it is not guaranteed that the
-     * {@link Kryo} used by these methods will actually use your serializers.
+     * {@link KryoSerializer#deserialize(byte[])}. If you invoke it after these methods it is not guaranteed that
+     * serializations that are already in progress will use your serializers.
      * 
      * @param clazz The class that's maybe send.
      * @param serializer An optional serializer for this class. If it's null than the default serialization of kryo
@@ -50,7 +81,68 @@ public class KryoSerializer implements de.saxsys.synchronizefx.core.clientserver
      * @param <T> see clazz parameter.
      */
     public <T> void registerSerializableClass(final Class<T> clazz, final Serializer<T> serializer) {
-        kryo.registerSerializableClass(clazz, serializer);
+        pool.registerSerializableClass(clazz, serializer);
+    }
+
+    /**
+     * The number of serializations and deserializations that could reuse a pooled {@link Kryo} instance.
+     * 
+     * @return The number of reuses since this serializer was created.
+     */
+    public long getKryoPoolHits() {
+        return pool.getHits();
+    }
+
+    /**
+     * The number of serializations and deserializations that had to create a new {@link Kryo} instance because the
+     * pool was empty.
+     * 
+     * <p>
+     * If this number keeps growing while the number of threads that use this serializer stays the same, the pool size
+     * passed to {@link #KryoSerializer(int)} is too small.
+     * </p>
+     * 
+     * @return The number of newly created instances since this serializer was created.
+     */
+    public long getKryoPoolMisses() {
+        return pool.getMisses();
+    }
+
+    /**
+     * Enables or disables the interning of {@link java.util.UUID}s for connections.
+     * 
+     * <p>
+     * When enabled, the serializers created by {@link #createConnectionSerializer()} keep a dictionary of the ids of
+     * observable objects that where already transfered over their connection. Subsequent references to such an id are
+     * then send as a small integer instead of 16 bytes. This reduces the size of steady state updates like
+     * {@link de.saxsys.synchronizefx.core.metamodel.commands.SetPropertyValue} considerably. The class name and the
+     * property names of observable objects are then also only transfered once per connection instead of once per
+     * message.
+     * </p>
+     * 
+     * <p>
+     * The interned wire format is not compatible with the default one. Enable it on all peers or on none. It only
+     * takes effect for transmitters which use {@link #createConnectionSerializer()}. Transmitters that use this
+     * object directly keep using the default wire format.
+     * </p>
+     * 
+     * <p>
+     * Change this setting only before the first connection is established.
+     * </p>
+     * 
+     * @param intern <code>true</code> to enable interning, <code>false</code> to disable it. It is disabled by
+     *            default.
+     */
+    public void setUUIDInterning(final boolean intern) {
+        this.internUUIDs = intern;
+    }
+
+    @Override
+    public de.saxsys.synchronizefx.core.clientserver.Serializer createConnectionSerializer() {
+        if (!internUUIDs) {
+            return this;
+        }
+        return new InterningConnectionSerializer(this);
     }
 
     /**
@@ -63,18 +155,64 @@ public class KryoSerializer implements de.saxsys.synchronizefx.core.clientserver
      */
     @Override
     public byte[] serialize(final List<Command> commands) {
-        final ByteArrayOutputStream outStream = new ByteArrayOutputStream();
-        final Output output = new Output(outStream);
-        kryo.get().writeObject(output, commands);
-        output.close();
-        byte[] bytes = outStream.toByteArray();
+        return serialize(commands, (ConnectionDictionaries) null);
+    }
+
+    /**
+     * Serializes commands and optionally interns the ids and schemas contained in them.
+     * 
+     * @param commands The commands to serialize.
+     * @param dictionaries The dictionaries of the connection or <code>null</code> to write the data without state of
+     *            a connection.
+     * @return The commands in serialized form.
+     */
+    byte[] serialize(final List<Command> commands, final ConnectionDictionaries dictionaries) {
+        final PooledKryo pooled = pool.borrow();
         try {
-            outStream.close();
-        } catch (IOException e) {
-            // This will not happen, as there is no real I/O. Everything happens in RAM.
-            e.printStackTrace();
+            final Output output = pooled.output();
+            write(pooled.getKryo(), commands, output, dictionaries);
+            return output.toBytes();
+        } finally {
+            pool.release(pooled);
+        }
+    }
+
+    /**
+     * Serializes SynchronizeFX {@link Command}s directly into a stream.
+     * 
+     * To deserialize them, use {@link KryoSerializer#deserialize(ByteBuffer)} or
+     * {@link KryoSerializer#deserialize(byte[])}. This method is thread safe.
+     * 
+     * @param commands The commands to serialize.
+     * @param target The stream to write the serialized commands to.
+     * @throws SynchronizeFXException When writing to the stream failed.
+     */
+    @Override
+    public void serialize(final List<Command> commands, final OutputStream target) throws SynchronizeFXException {
+        serialize(commands, target, null);
+    }
+
+    /**
+     * Serializes commands into a stream and optionally interns the ids and schemas contained in them.
+     * 
+     * @param commands The commands to serialize.
+     * @param target The stream to write the serialized commands to.
+     * @param dictionaries The dictionaries of the connection or <code>null</code> to write the data without state of
+     *            a connection.
+     * @throws SynchronizeFXException When writing to the stream failed.
+     */
+    void serialize(final List<Command> commands, final OutputStream target, final ConnectionDictionaries dictionaries)
+        throws SynchronizeFXException {
+        final PooledKryo pooled = pool.borrow();
+        try {
+            final Output output = pooled.output(target);
+            write(pooled.getKryo(), commands, output, dictionaries);
+            output.flush();
+        } catch (final KryoException e) {
+            throw new SynchronizeFXException("The commands could not be serialized.", e);
+        } finally {
+            pool.release(pooled);
         }
-        return bytes;
     }
 
     /**
@@ -87,8 +225,107 @@ public class KryoSerializer implements de.saxsys.synchronizefx.core.clientserver
      * @return The original {@link Command}s.
      */
     @Override
-    @SuppressWarnings("unchecked")
     public List<Command> deserialize(final byte[] commands) {
-        return kryo.get().readObject(new Input(commands), LinkedList.class);
+        return deserialize(commands, null);
+    }
+
+    /**
+     * Deserializes commands and optionally resolves interned ids and schemas contained in them.
+     * 
+     * @param commands The serialized commands.
+     * @param dictionaries The dictionaries of the connection or <code>null</code> if the data was written without
+     *            state of a connection.
+     * @return The original {@link Command}s.
+     */
+    List<Command> deserialize(final byte[] commands, final ConnectionDictionaries dictionaries) {
+        final PooledKryo pooled = pool.borrow();
+        try {
+            return read(pooled.getKryo(), pooled.input(commands, 0, commands.length), dictionaries);
+        } finally {
+            pool.release(pooled);
+        }
+    }
+
+    /**
+     * Deserializes SynchronizeFX {@link Command}s directly from a buffer.
+     * 
+     * <p>
+     * The content of buffers that are backed by an array is read without copying it. This method is thread save.
+     * </p>
+     * 
+     * @param commands The buffer that contains the serialized commands in its remaining bytes. The position of the
+     *            buffer is not changed.
+     * @return The original {@link Command}s.
+     * @throws SynchronizeFXException When the buffer does not contain valid serialized commands.
+     */
+    @Override
+    public List<Command> deserialize(final ByteBuffer commands) throws SynchronizeFXException {
+        return deserialize(commands, null);
+    }
+
+    /**
+     * Deserializes commands from a buffer and optionally resolves interned ids and schemas contained in them.
+     * 
+     * @param commands The buffer that contains the serialized commands.
+     * @param dictionaries The dictionaries of the connection or <code>null</code> if the data was written without
+     *            state of a connection.
+     * @return The original {@link Command}s.
+     * @throws SynchronizeFXException When the buffer does not contain valid serialized commands.
+     */
+    List<Command> deserialize(final ByteBuffer commands, final ConnectionDictionaries dictionaries)
+        throws SynchronizeFXException {
+        final PooledKryo pooled = pool.borrow();
+        try {
+            final Input input;
+            if (commands.hasArray()) {
+                input = pooled.input(commands.array(), commands.arrayOffset() + commands.position(),
+                        commands.remaining());
+            } else {
+                input = pooled.input(new ByteBufferInputStream(commands.duplicate()));
+            }
+            return read(pooled.getKryo(), input, dictionaries);
+        } catch (final KryoException e) {
+            throw new SynchronizeFXException("The commands could not be deserialized.", e);
+        } finally {
+            pool.release(pooled);
+        }
+    }
+
+    /**
+     * Writes commands with a {@link Kryo} instance borrowed from the pool.
+     */
+    private void write(final Kryo kryo, final List<Command> commands, final Output output,
+            final ConnectionDictionaries dictionaries) {
+        useDictionaries(kryo, dictionaries);
+        kryo.writeObject(output, commands);
+    }
+
+    /**
+     * Reads commands with a {@link Kryo} instance borrowed from the pool.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Command> read(final Kryo kryo, final Input input, final ConnectionDictionaries dictionaries) {
+        useDictionaries(kryo, dictionaries);
+        return kryo.readObject(input, LinkedList.class);
+    }
+
+    /**
+     * Makes the serializers use the dictionaries of a connection for the next object graph that is written or read.
+     * 
+     * <p>
+     * Without a connection, ids are not interned and schemas of observable objects are only reused within the same
+     * object graph. The graph context is cleared by Kryo after each object graph, so the dictionaries do not leak to
+     * serializations of other connections that use the same {@link Kryo} instance.
+     * </p>
+     */
+    @SuppressWarnings("unchecked")
+    private void useDictionaries(final Kryo kryo, final ConnectionDictionaries dictionaries) {
+        if (dictionaries == null) {
+            kryo.getGraphContext().remove(UUIDDictionary.class);
+            kryo.getGraphContext().put(SchemaDictionary.class, new SchemaDictionary());
+        } else {
+            kryo.getGraphContext().put(UUIDDictionary.class, dictionaries.getIds());
+            kryo.getGraphContext().put(SchemaDictionary.class, dictionaries.getSchemas());
+        }
     }
 }
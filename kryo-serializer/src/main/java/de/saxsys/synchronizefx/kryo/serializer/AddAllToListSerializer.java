@@ -0,0 +1,63 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.saxsys.synchronizefx.kryo.serializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
+import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand.ListVersionChange;
+import de.saxsys.synchronizefx.core.metamodel.commands.Value;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Serializes and deserializes {@link AddAllToList} commands.
+ */
+public class AddAllToListSerializer extends Serializer<AddAllToList> {
+
+    @Override
+    public void write(final Kryo kryo, final Output output, final AddAllToList object) {
+        kryo.writeObject(output, object.getListId());
+        kryo.writeObject(output, object.getListVersionChange().getFromVersion(), UUIDSerializer.TRANSIENT_IDS);
+        kryo.writeObject(output, object.getListVersionChange().getToVersion(), UUIDSerializer.TRANSIENT_IDS);
+        output.writeVarInt(object.getValues().size(), true);
+        for (final Value value : object.getValues()) {
+            kryo.writeObject(output, value);
+        }
+        output.writeInt(object.getPosition());
+    }
+
+    @Override
+    public AddAllToList read(final Kryo kryo, final Input input, final Class<AddAllToList> type) {
+        final UUID listId = kryo.readObject(input, UUID.class);
+        final UUID fromVersion = kryo.readObject(input, UUID.class, UUIDSerializer.TRANSIENT_IDS);
+        final UUID toVersion = kryo.readObject(input, UUID.class, UUIDSerializer.TRANSIENT_IDS);
+        final int size = input.readVarInt(true);
+        final List<Value> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(kryo.readObject(input, Value.class));
+        }
+        return new AddAllToList(listId, new ListVersionChange(fromVersion, toVersion), values, input.readInt());
+    }
+}
@@ -40,15 +40,18 @@ public class AddToListSerializer extends Serializer<AddToList> {
     @Override
     public void write(final Kryo kryo, final Output output, final AddToList object) {
         kryo.writeObject(output, object.getListId());
-        kryo.writeObject(output, object.getListVersionChange().getFromVersion());
-        kryo.writeObject(output, object.getListVersionChange().getToVersion());
+        kryo.writeObject(output, object.getListVersionChange().getFromVersion(), UUIDSerializer.TRANSIENT_IDS);
+        kryo.writeObject(output, object.getListVersionChange().getToVersion(), UUIDSerializer.TRANSIENT_IDS);
         kryo.writeObject(output, object.getValue());
         output.writeInt(object.getPosition());
     }
 
     @Override
     public AddToList read(final Kryo kryo, final Input input, final Class<AddToList> type) {
-        return new AddToList(kryo.readObject(input, UUID.class), new ListVersionChange(kryo.readObject(input,
-                UUID.class), kryo.readObject(input, UUID.class)), kryo.readObject(input, Value.class), input.readInt());
+        final UUID listId = kryo.readObject(input, UUID.class);
+        final UUID fromVersion = kryo.readObject(input, UUID.class, UUIDSerializer.TRANSIENT_IDS);
+        final UUID toVersion = kryo.readObject(input, UUID.class, UUIDSerializer.TRANSIENT_IDS);
+        return new AddToList(listId, new ListVersionChange(fromVersion, toVersion), kryo.readObject(input,
+                Value.class), input.readInt());
     }
 }
@@ -0,0 +1,59 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.kryo.serializer;
+
+import javafx.scene.paint.Color;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Serializes and deserializes JavaFX {@link Color}s.
+ * 
+ * <p>
+ * {@link Color} has no default constructor and can therefore not be serialized by the default serializer of Kryo.
+ * JavaFX stores the components of a color with float precision, so they are written as floats without loosing
+ * information.
+ * </p>
+ */
+public class ColorSerializer extends Serializer<Color> {
+
+    /**
+     * Initializes the serializer.
+     */
+    public ColorSerializer() {
+        setImmutable(true);
+    }
+
+    @Override
+    public void write(final Kryo kryo, final Output output, final Color object) {
+        output.writeFloat((float) object.getRed());
+        output.writeFloat((float) object.getGreen());
+        output.writeFloat((float) object.getBlue());
+        output.writeFloat((float) object.getOpacity());
+    }
+
+    @Override
+    public Color read(final Kryo kryo, final Input input, final Class<Color> type) {
+        return new Color(input.readFloat(), input.readFloat(), input.readFloat(), input.readFloat());
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.kryo.serializer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+
+import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+import de.saxsys.synchronizefx.core.metamodel.commands.CreateObservableObject;
+import de.saxsys.synchronizefx.kryo.serializer.SchemaDictionary.Schema;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Serializes and deserializes {@link CreateObservableObject} commands.
+ * 
+ * <p>
+ * The class name and the ordered property names of an object form its schema. When a {@link SchemaDictionary} is
+ * stored in the graph context of the {@link Kryo} instance under the key {@code SchemaDictionary.class}, a schema is
+ * only written the first time it is used. Further objects with the same schema only reference it by a variable
+ * length integer. The ids of the properties follow in the order of the schema. Without a dictionary the schema is
+ * written for every object.
+ * </p>
+ * 
+ * <p>
+ * Names are written as objects so that Kryo writes only a reference for names that already occurred in the same
+ * object graph.
+ * </p>
+ */
+public class CreateObservableObjectSerializer extends Serializer<CreateObservableObject> {
+
+    private static final int NEW_SCHEMA = 0;
+    private static final int FIRST_SCHEMA_REFERENCE = 1;
+
+    @Override
+    public void write(final Kryo kryo, final Output output, final CreateObservableObject object) {
+        kryo.writeObject(output, object.getObjectId());
+        final Map<String, UUID> properties = object.getPropertyNameToId();
+        @SuppressWarnings("unchecked")
+        final SchemaDictionary dictionary = (SchemaDictionary) kryo.getGraphContext().get(SchemaDictionary.class);
+        final int schema = dictionary == null ? -1 : dictionary.idOf(object.getClassName(), properties.keySet());
+        if (schema >= 0) {
+            output.writeVarInt(schema + FIRST_SCHEMA_REFERENCE, true);
+        } else {
+            output.writeVarInt(NEW_SCHEMA, true);
+            kryo.writeObject(output, object.getClassName());
+            output.writeVarInt(properties.size(), true);
+            for (final String name : properties.keySet()) {
+                kryo.writeObject(output, name);
+            }
+            if (dictionary != null) {
+                dictionary.assign(object.getClassName(), properties.keySet());
+            }
+        }
+        for (final Entry<String, UUID> property : properties.entrySet()) {
+            kryo.writeObject(output, property.getValue());
+        }
+    }
+
+    @Override
+    public CreateObservableObject read(final Kryo kryo, final Input input, final Class<CreateObservableObject> type) {
+        final CreateObservableObject command = new CreateObservableObject();
+        command.setObjectId(kryo.readObject(input, UUID.class));
+        @SuppressWarnings("unchecked")
+        final SchemaDictionary dictionary = (SchemaDictionary) kryo.getGraphContext().get(SchemaDictionary.class);
+
+        final String className;
+        final List<String> names;
+        final int tag = input.readVarInt(true);
+        if (tag == NEW_SCHEMA) {
+            className = kryo.readObject(input, String.class);
+            final int size = input.readVarInt(true);
+            names = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                names.add(kryo.readObject(input, String.class));
+            }
+            if (dictionary != null) {
+                dictionary.define(className, names);
+            }
+        } else {
+            if (dictionary == null) {
+                throw new SynchronizeFXException("Received a reference to a schema but no schema dictionary is used.");
+            }
+            final Schema schema = dictionary.get(tag - FIRST_SCHEMA_REFERENCE);
+            className = schema.getClassName();
+            names = schema.getPropertyNames();
+        }
+
+        command.setClassName(className);
+        final Map<String, UUID> properties = new LinkedHashMap<>(names.size() * 2);
+        for (final String name : names) {
+            properties.put(name, kryo.readObject(input, UUID.class));
+        }
+        command.setPropertyNameToId(properties);
+        return command;
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.saxsys.synchronizefx.kryo.serializer;
+
+import java.util.UUID;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand.ListVersionChange;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Serializes and deserializes {@link PermuteList} commands.
+ * 
+ * <p>
+ * Reversing or rotating a range of a list are written without the new position of each element. All other
+ * permutations are written as variable length encoded positions.
+ * </p>
+ */
+public class PermuteListSerializer extends Serializer<PermuteList> {
+
+    private static final byte EXPLICIT = 0;
+    private static final byte REVERSED = 1;
+    private static final byte ROTATED = 2;
+
+    @Override
+    public void write(final Kryo kryo, final Output output, final PermuteList object) {
+        kryo.writeObject(output, object.getListId());
+        kryo.writeObject(output, object.getListVersionChange().getFromVersion(), UUIDSerializer.TRANSIENT_IDS);
+        kryo.writeObject(output, object.getListVersionChange().getToVersion(), UUIDSerializer.TRANSIENT_IDS);
+        output.writeInt(object.getStartPosition());
+
+        final int[] permutation = object.getPermutation();
+        output.writeVarInt(permutation.length, true);
+        if (isReversal(permutation)) {
+            output.writeByte(REVERSED);
+        } else if (isRotation(permutation)) {
+            output.writeByte(ROTATED);
+            output.writeVarInt(permutation[0], true);
+        } else {
+            output.writeByte(EXPLICIT);
+            for (final int position : permutation) {
+                output.writeVarInt(position, true);
+            }
+        }
+    }
+
+    @Override
+    public PermuteList read(final Kryo kryo, final Input input, final Class<PermuteList> type) {
+        final UUID listId = kryo.readObject(input, UUID.class);
+        final UUID fromVersion = kryo.readObject(input, UUID.class, UUIDSerializer.TRANSIENT_IDS);
+        final UUID toVersion = kryo.readObject(input, UUID.class, UUIDSerializer.TRANSIENT_IDS);
+        final int startPosition = input.readInt();
+
+        final int[] permutation = new int[input.readVarInt(true)];
+        final byte kind = input.readByte();
+        if (kind == REVERSED) {
+            for (int i = 0; i < permutation.length; i++) {
+                permutation[i] = permutation.length - 1 - i;
+            }
+        } else if (kind == ROTATED) {
+            final int distance = input.readVarInt(true);
+            for (int i = 0; i < permutation.length; i++) {
+                permutation[i] = (i + distance) % permutation.length;
+            }
+        } else {
+            for (int i = 0; i < permutation.length; i++) {
+                permutation[i] = input.readVarInt(true);
+            }
+        }
+        return new PermuteList(listId, new ListVersionChange(fromVersion, toVersion), startPosition, permutation);
+    }
+
+    private boolean isReversal(final int[] permutation) {
+        for (int i = 0; i < permutation.length; i++) {
+            if (permutation[i] != permutation.length - 1 - i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isRotation(final int[] permutation) {
+        if (permutation.length == 0) {
+            return false;
+        }
+        final int distance = permutation[0];
+        for (int i = 1; i < permutation.length; i++) {
+            if (permutation[i] != (i + distance) % permutation.length) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
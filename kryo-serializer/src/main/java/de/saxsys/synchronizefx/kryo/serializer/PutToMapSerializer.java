@@ -0,0 +1,52 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.kryo.serializer;
+
+import java.util.UUID;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.PutToMap;
+import de.saxsys.synchronizefx.core.metamodel.commands.Value;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Serializes and deserializes {@link PutToMap} commands.
+ */
+public class PutToMapSerializer extends Serializer<PutToMap> {
+
+    @Override
+    public void write(final Kryo kryo, final Output output, final PutToMap object) {
+        kryo.writeObject(output, object.getMapId());
+        kryo.writeObject(output, object.getKey());
+        kryo.writeObject(output, object.getValue());
+    }
+
+    @Override
+    public PutToMap read(final Kryo kryo, final Input input, final Class<PutToMap> type) {
+        final PutToMap command = new PutToMap();
+        command.setMapId(kryo.readObject(input, UUID.class));
+        command.setKey(kryo.readObject(input, Value.class));
+        command.setValue(kryo.readObject(input, Value.class));
+        return command;
+    }
+}
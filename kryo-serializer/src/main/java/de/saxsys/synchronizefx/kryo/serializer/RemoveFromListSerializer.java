@@ -40,16 +40,19 @@ public class RemoveFromListSerializer extends Serializer<RemoveFromList> {
     @Override
     public void write(final Kryo kryo, final Output output, final RemoveFromList input) {
         kryo.writeObject(output, input.getListId());
-        kryo.writeObject(output, input.getListVersionChange().getFromVersion());
-        kryo.writeObject(output, input.getListVersionChange().getToVersion());
+        kryo.writeObject(output, input.getListVersionChange().getFromVersion(), UUIDSerializer.TRANSIENT_IDS);
+        kryo.writeObject(output, input.getListVersionChange().getToVersion(), UUIDSerializer.TRANSIENT_IDS);
         output.writeInt(input.getStartPosition());
         output.writeInt(input.getRemoveCount());
     }
 
     @Override
     public RemoveFromList read(final Kryo kryo, final Input input, final Class<RemoveFromList> clazz) {
-        return new RemoveFromList(kryo.readObject(input, UUID.class), new ListVersionChange(kryo.readObject(input,
-                UUID.class), kryo.readObject(input, UUID.class)), input.readInt(), input.readInt());
+        final UUID listId = kryo.readObject(input, UUID.class);
+        final UUID fromVersion = kryo.readObject(input, UUID.class, UUIDSerializer.TRANSIENT_IDS);
+        final UUID toVersion = kryo.readObject(input, UUID.class, UUIDSerializer.TRANSIENT_IDS);
+        return new RemoveFromList(listId, new ListVersionChange(fromVersion, toVersion), input.readInt(),
+                input.readInt());
     }
 
 }
@@ -40,15 +40,18 @@ public class ReplaceInListSerializer extends Serializer<ReplaceInList> {
     @Override
     public void write(final Kryo kryo, final Output output, final ReplaceInList input) {
         kryo.writeObject(output, input.getListId());
-        kryo.writeObject(output, input.getListVersionChange().getFromVersion());
-        kryo.writeObject(output, input.getListVersionChange().getToVersion());
+        kryo.writeObject(output, input.getListVersionChange().getFromVersion(), UUIDSerializer.TRANSIENT_IDS);
+        kryo.writeObject(output, input.getListVersionChange().getToVersion(), UUIDSerializer.TRANSIENT_IDS);
         kryo.writeObject(output, input.getValue());
         output.writeInt(input.getPosition());
     }
 
     @Override
     public ReplaceInList read(final Kryo kryo, final Input input, final Class<ReplaceInList> type) {
-        return new ReplaceInList(kryo.readObject(input, UUID.class), new ListVersionChange(kryo.readObject(input,
-                UUID.class), kryo.readObject(input, UUID.class)), kryo.readObject(input, Value.class), input.readInt());
+        final UUID listId = kryo.readObject(input, UUID.class);
+        final UUID fromVersion = kryo.readObject(input, UUID.class, UUIDSerializer.TRANSIENT_IDS);
+        final UUID toVersion = kryo.readObject(input, UUID.class, UUIDSerializer.TRANSIENT_IDS);
+        return new ReplaceInList(listId, new ListVersionChange(fromVersion, toVersion), kryo.readObject(input,
+                Value.class), input.readInt());
     }
 }
@@ -0,0 +1,209 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.kryo.serializer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+
+/**
+ * Assigns small ids to the schemas of observable objects, that is their class name together with the ordered names of
+ * their properties.
+ * 
+ * <p>
+ * The sending side assigns ids with {@link #assign(String, Collection)} and transfers the complete schema the first
+ * time it is used. The receiving side mirrors this with {@link #define(String, List)}. As there are only few domain
+ * classes, schemas are never dropped.
+ * </p>
+ * 
+ * <p>
+ * Assignments on the sending side only become permanent with {@link #commit()}. If the message they were made for
+ * could not be serialized, the receiving side never sees the schemas. {@link #rollback()} then removes them again so
+ * that both sides assign the same ids to the following schemas.
+ * </p>
+ * 
+ * <p>
+ * Instances are not thread safe. They are used by exactly one serialization or deserialization at a time.
+ * </p>
+ */
+public final class SchemaDictionary {
+
+    private final Map<String, List<Schema>> schemasByClass = new HashMap<>();
+    private final List<Schema> schemas = new ArrayList<>();
+    private int committedSize;
+
+    /**
+     * Looks up the id of a schema on the sending side.
+     * 
+     * @param className
+     *            The name of the class of the observable object.
+     * @param propertyNames
+     *            The names of the properties of the observable object in the order in which they are transfered.
+     * @return The id of the schema or <code>-1</code> if no id was assigned to it yet.
+     */
+    public int idOf(final String className, final Collection<String> propertyNames) {
+        final List<Schema> candidates = schemasByClass.get(className);
+        if (candidates == null) {
+            return -1;
+        }
+        for (final Schema candidate : candidates) {
+            if (candidate.hasPropertyNames(propertyNames)) {
+                return candidate.id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Assigns an id to a schema that is not known yet on the sending side.
+     * 
+     * @param className
+     *            The name of the class of the observable object.
+     * @param propertyNames
+     *            The names of the properties of the observable object in the order in which they are transfered.
+     * @return The id that was assigned to the schema.
+     */
+    public int assign(final String className, final Collection<String> propertyNames) {
+        return define(className, new ArrayList<>(propertyNames));
+    }
+
+    /**
+     * Makes all assignments done since the last commit permanent.
+     * 
+     * <p>
+     * Call this on the sending side once the message that contains the schemas of these assignments was serialized
+     * successfully.
+     * </p>
+     */
+    public void commit() {
+        committedSize = schemas.size();
+    }
+
+    /**
+     * Reverts all assignments done since the last commit.
+     * 
+     * <p>
+     * Call this on the sending side when the message that contains the schemas of these assignments could not be
+     * serialized.
+     * </p>
+     */
+    public void rollback() {
+        while (schemas.size() > committedSize) {
+            final Schema schema = schemas.remove(schemas.size() - 1);
+            final List<Schema> candidates = schemasByClass.get(schema.className);
+            candidates.remove(schema);
+            if (candidates.isEmpty()) {
+                schemasByClass.remove(schema.className);
+            }
+        }
+    }
+
+    /**
+     * Stores a schema that was transfered completely on the receiving side.
+     * 
+     * <p>
+     * Ids are assigned in the order in which schemas are defined. Therefore the receiving side must define schemas
+     * in the order in which they where assigned on the sending side.
+     * </p>
+     * 
+     * @param className
+     *            The name of the class of the observable object.
+     * @param propertyNames
+     *            The names of the properties of the observable object in the order in which they are transfered.
+     * @return The id that was assigned to the schema.
+     */
+    public int define(final String className, final List<String> propertyNames) {
+        final Schema schema = new Schema(schemas.size(), className, Collections.unmodifiableList(propertyNames));
+        schemas.add(schema);
+        List<Schema> candidates = schemasByClass.get(className);
+        if (candidates == null) {
+            candidates = new LinkedList<>();
+            schemasByClass.put(className, candidates);
+        }
+        candidates.add(schema);
+        return schema.id;
+    }
+
+    /**
+     * Resolves a schema id on the receiving side.
+     * 
+     * @param id
+     *            The id to resolve.
+     * @return The schema with this id.
+     * @throws SynchronizeFXException
+     *             When no schema with this id was defined.
+     */
+    public Schema get(final int id) throws SynchronizeFXException {
+        if (id < 0 || id >= schemas.size()) {
+            throw new SynchronizeFXException("A reference to the schema " + id
+                    + " was received but no schema was announced for it.");
+        }
+        return schemas.get(id);
+    }
+
+    /**
+     * The class name and the ordered property names of observable objects.
+     */
+    public static final class Schema {
+        private final int id;
+        private final String className;
+        private final List<String> propertyNames;
+
+        private Schema(final int id, final String className, final List<String> propertyNames) {
+            this.id = id;
+            this.className = className;
+            this.propertyNames = propertyNames;
+        }
+
+        /**
+         * @return The name of the class of the observable object.
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * @return The names of the properties in the order in which their ids are transfered.
+         */
+        public List<String> getPropertyNames() {
+            return propertyNames;
+        }
+
+        private boolean hasPropertyNames(final Collection<String> names) {
+            if (names.size() != propertyNames.size()) {
+                return false;
+            }
+            final Iterator<String> expected = propertyNames.iterator();
+            for (final String name : names) {
+                if (!name.equals(expected.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
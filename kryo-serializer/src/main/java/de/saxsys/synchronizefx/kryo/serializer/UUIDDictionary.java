@@ -0,0 +1,200 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.kryo.serializer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+
+/**
+ * Maps {@link UUID}s to small slot numbers for one direction of a single connection.
+ * 
+ * <p>
+ * The sending side assigns slots to ids with {@link #assign(UUID)} and announces each new assignment on the wire. The
+ * receiving side mirrors these announcements with {@link #define(int, UUID)}. When all slots are in use, the slot that
+ * was assigned longest ago is reused, so the memory needed by a dictionary is bounded by its capacity.
+ * </p>
+ * 
+ * <p>
+ * Assignments on the sending side only become permanent with {@link #commit()}. If the message they were made for
+ * could not be serialized, the receiving side never sees their announcements. {@link #rollback()} then restores the
+ * state of the last commit so that both sides stay in sync.
+ * </p>
+ * 
+ * <p>
+ * Instances are not thread safe. They are used by exactly one serialization or deserialization at a time.
+ * </p>
+ */
+public final class UUIDDictionary {
+
+    /**
+     * The number of slots a dictionary has when no other capacity is specified.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final int INITIAL_SIZE = 64;
+
+    private final int capacity;
+    private final Map<UUID, Integer> slotsById = new HashMap<>();
+    private UUID[] idsBySlot = new UUID[INITIAL_SIZE];
+    private int nextSlot;
+
+    private final Map<Integer, UUID> replacedSinceCommit = new LinkedHashMap<>();
+    private int committedNextSlot;
+
+    /**
+     * Creates a dictionary with {@link #DEFAULT_CAPACITY} slots.
+     */
+    public UUIDDictionary() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a dictionary with a custom number of slots.
+     * 
+     * @param capacity
+     *            The maximal number of ids this dictionary keeps.
+     */
+    public UUIDDictionary(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of a UUID dictionary must be at least 1.");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Looks up the slot of an id on the sending side.
+     * 
+     * @param id
+     *            The id to look up.
+     * @return The slot the id is assigned to or <code>-1</code> if it is not assigned to any slot.
+     */
+    public int slotOf(final UUID id) {
+        final Integer slot = slotsById.get(id);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Assigns an id that is not known yet to a slot on the sending side.
+     * 
+     * <p>
+     * If all slots are in use, the id that was assigned longest ago is dropped.
+     * </p>
+     * 
+     * @param id
+     *            The id to assign.
+     * @return The slot the id was assigned to.
+     */
+    public int assign(final UUID id) {
+        final int slot = nextSlot;
+        nextSlot = (nextSlot + 1) % capacity;
+        if (!replacedSinceCommit.containsKey(slot)) {
+            replacedSinceCommit.put(slot, slot < idsBySlot.length ? idsBySlot[slot] : null);
+        }
+        define(slot, id);
+        return slot;
+    }
+
+    /**
+     * Makes all assignments done since the last commit permanent.
+     * 
+     * <p>
+     * Call this on the sending side once the message that contains the announcements of these assignments was
+     * serialized successfully.
+     * </p>
+     */
+    public void commit() {
+        replacedSinceCommit.clear();
+        committedNextSlot = nextSlot;
+    }
+
+    /**
+     * Reverts all assignments done since the last commit.
+     * 
+     * <p>
+     * Call this on the sending side when the message that contains the announcements of these assignments could not
+     * be serialized.
+     * </p>
+     */
+    public void rollback() {
+        // An id can move to another slot when it is dropped and assigned again, so all ids assigned since the last
+        // commit are removed before the replaced ones are restored.
+        for (final Integer slot : replacedSinceCommit.keySet()) {
+            slotsById.remove(idsBySlot[slot]);
+        }
+        for (final Map.Entry<Integer, UUID> replaced : replacedSinceCommit.entrySet()) {
+            idsBySlot[replaced.getKey()] = replaced.getValue();
+            if (replaced.getValue() != null) {
+                slotsById.put(replaced.getValue(), replaced.getKey());
+            }
+        }
+        replacedSinceCommit.clear();
+        nextSlot = committedNextSlot;
+    }
+
+    /**
+     * Stores an id in a slot on the receiving side as it was announced by the sending side.
+     * 
+     * @param slot
+     *            The slot to store the id in.
+     * @param id
+     *            The id to store.
+     * @throws SynchronizeFXException
+     *             When the slot is outside of the capacity of this dictionary.
+     */
+    public void define(final int slot, final UUID id) throws SynchronizeFXException {
+        if (slot < 0 || slot >= capacity) {
+            throw new SynchronizeFXException("An id was announced for slot " + slot
+                    + " which is outside of the capacity of the UUID dictionary (" + capacity
+                    + "). Maybe the peers use different dictionary capacities?");
+        }
+        if (slot >= idsBySlot.length) {
+            idsBySlot = Arrays.copyOf(idsBySlot, Math.min(capacity, Math.max(slot + 1, idsBySlot.length * 2)));
+        }
+        final UUID replaced = idsBySlot[slot];
+        if (replaced != null) {
+            slotsById.remove(replaced);
+        }
+        idsBySlot[slot] = id;
+        slotsById.put(id, slot);
+    }
+
+    /**
+     * Resolves a slot that was announced by the sending side on the receiving side.
+     * 
+     * @param slot
+     *            The slot to resolve.
+     * @return The id stored in the slot.
+     * @throws SynchronizeFXException
+     *             When no id was announced for the slot.
+     */
+    public UUID get(final int slot) throws SynchronizeFXException {
+        final UUID id = slot >= 0 && slot < idsBySlot.length ? idsBySlot[slot] : null;
+        if (id == null) {
+            throw new SynchronizeFXException("A reference to the UUID dictionary slot " + slot
+                    + " was received but no id was announced for it.");
+        }
+        return id;
+    }
+}
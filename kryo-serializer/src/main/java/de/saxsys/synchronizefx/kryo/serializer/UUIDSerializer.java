@@ -29,18 +29,97 @@ import com.esotericsoftware.kryo.io.Output;
 /**
  * Serializes and deserializes {@link UUID} instances.
  * 
+ * <p>
+ * By default an id is written as two longs. When a {@link UUIDDictionary} is stored in the graph context of the
+ * {@link Kryo} instance under the key {@code UUIDDictionary.class}, ids are interned instead. The first occurrence of
+ * an id announces a dictionary slot for it and all further occurrences only reference this slot as a variable length
+ * integer.
+ * </p>
+ * 
+ * <p>
+ * Ids that are used only once like command ids or list versions should not be interned as they would only displace
+ * the long living ids of observable objects from the dictionary. Use {@link #TRANSIENT_IDS} for them.
+ * </p>
+ * 
  * @author raik.bieniek
  * 
  */
 public final class UUIDSerializer extends Serializer<UUID> {
+
+    /**
+     * A serializer for ids that are never interned, even when a {@link UUIDDictionary} is used.
+     */
+    public static final UUIDSerializer TRANSIENT_IDS = new UUIDSerializer(false);
+
+    private static final int NOT_INTERNED = 0;
+    private static final int NEW_SLOT = 1;
+    private static final int FIRST_SLOT_REFERENCE = 2;
+
+    private final boolean intern;
+
+    /**
+     * Creates a serializer that interns ids when a {@link UUIDDictionary} is used.
+     */
+    public UUIDSerializer() {
+        this(true);
+    }
+
+    private UUIDSerializer(final boolean intern) {
+        this.intern = intern;
+    }
+
     @Override
     public UUID read(final Kryo kryo, final Input input, final Class<UUID> type) {
-        return new UUID(input.readLong(), input.readLong());
+        @SuppressWarnings("unchecked")
+        final UUIDDictionary dictionary = (UUIDDictionary) kryo.getGraphContext().get(UUIDDictionary.class);
+        if (dictionary == null) {
+            return readLongs(input);
+        }
+        final int tag = input.readVarInt(true);
+        switch (tag) {
+            case NOT_INTERNED:
+                return readLongs(input);
+            case NEW_SLOT:
+                return readNewSlot(input, dictionary);
+            default:
+                return dictionary.get(tag - FIRST_SLOT_REFERENCE);
+        }
     }
 
     @Override
     public void write(final Kryo kryo, final Output output, final UUID object) {
+        @SuppressWarnings("unchecked")
+        final UUIDDictionary dictionary = (UUIDDictionary) kryo.getGraphContext().get(UUIDDictionary.class);
+        if (dictionary == null) {
+            writeLongs(output, object);
+        } else if (!intern) {
+            output.writeVarInt(NOT_INTERNED, true);
+            writeLongs(output, object);
+        } else {
+            final int slot = dictionary.slotOf(object);
+            if (slot >= 0) {
+                output.writeVarInt(slot + FIRST_SLOT_REFERENCE, true);
+            } else {
+                output.writeVarInt(NEW_SLOT, true);
+                output.writeVarInt(dictionary.assign(object), true);
+                writeLongs(output, object);
+            }
+        }
+    }
+
+    private UUID readNewSlot(final Input input, final UUIDDictionary dictionary) {
+        final int slot = input.readVarInt(true);
+        final UUID id = readLongs(input);
+        dictionary.define(slot, id);
+        return id;
+    }
+
+    private UUID readLongs(final Input input) {
+        return new UUID(input.readLong(), input.readLong());
+    }
+
+    private void writeLongs(final Output output, final UUID object) {
         output.writeLong(object.getMostSignificantBits());
         output.writeLong(object.getLeastSignificantBits());
     }
-}
\ No newline at end of file
+}
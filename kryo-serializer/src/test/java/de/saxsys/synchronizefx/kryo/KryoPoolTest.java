@@ -0,0 +1,218 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.kryo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+import de.saxsys.synchronizefx.core.metamodel.commands.SetPropertyValue;
+import de.saxsys.synchronizefx.core.metamodel.commands.Value;
+import de.saxsys.synchronizefx.kryo.KryoPool.PooledKryo;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@link KryoPool} reuses {@link com.esotericsoftware.kryo.Kryo} instances and their buffers correctly.
+ */
+public class KryoPoolTest {
+
+    private static final int ONE_MEBIBYTE = 1024 * 1024;
+
+    private final KryoPool cut = new KryoPool(2);
+
+    /**
+     * Released instances should be reused by the next borrower.
+     */
+    @Test
+    public void shouldReuseReleasedInstances() {
+        final PooledKryo first = cut.borrow();
+        cut.release(first);
+        final PooledKryo second = cut.borrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(cut.getMisses()).isEqualTo(1);
+        assertThat(cut.getHits()).isEqualTo(1);
+    }
+
+    /**
+     * An instance that is in use should never be handed out to a second borrower.
+     */
+    @Test
+    public void shouldCreateNewInstancesWhileAllInstancesAreInUse() {
+        final PooledKryo first = cut.borrow();
+        final PooledKryo second = cut.borrow();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getKryo()).isNotSameAs(first.getKryo());
+        assertThat(cut.getMisses()).isEqualTo(2);
+        assertThat(cut.getHits()).isEqualTo(0);
+    }
+
+    /**
+     * Instances that are released while the pool is full should be dropped.
+     */
+    @Test
+    public void shouldKeepAtMostMaxIdleInstances() {
+        final List<PooledKryo> borrowed = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            borrowed.add(cut.borrow());
+        }
+        for (final PooledKryo pooled : borrowed) {
+            cut.release(pooled);
+        }
+
+        assertThat(cut.getIdle()).isEqualTo(2);
+
+        for (int i = 0; i < 3; i++) {
+            cut.borrow();
+        }
+
+        assertThat(cut.getIdle()).isEqualTo(0);
+        assertThat(cut.getHits()).isEqualTo(2);
+        assertThat(cut.getMisses()).isEqualTo(4);
+    }
+
+    /**
+     * A pool without idle instances should create a new instance for every borrower.
+     */
+    @Test
+    public void shouldNotReuseInstancesWhenMaxIdleIsZero() {
+        final KryoPool withoutIdle = new KryoPool(0);
+
+        final PooledKryo first = withoutIdle.borrow();
+        withoutIdle.release(first);
+
+        assertThat(withoutIdle.getIdle()).isEqualTo(0);
+        assertThat(withoutIdle.borrow()).isNotSameAs(first);
+        assertThat(withoutIdle.getHits()).isEqualTo(0);
+    }
+
+    /**
+     * Instances that where created before a class was registered don't know the class and should therefore not be
+     * reused, regardless if they where idle or in use at the time of the registration.
+     */
+    @Test
+    public void shouldDiscardInstancesCreatedBeforeAClassWasRegistered() {
+        final PooledKryo idle = cut.borrow();
+        final PooledKryo inUse = cut.borrow();
+        cut.release(idle);
+
+        cut.registerSerializableClass(Example.class, null);
+        cut.release(inUse);
+
+        final PooledKryo fresh = cut.borrow();
+        assertThat(fresh).isNotSameAs(idle).isNotSameAs(inUse);
+        assertThat(cut.getIdle()).isEqualTo(0);
+        assertThat(fresh.getKryo().getClassResolver().getRegistration(Example.class)).isNotNull();
+        assertThat(idle.getKryo().getClassResolver().getRegistration(Example.class)).isNull();
+
+        cut.release(fresh);
+        assertThat(cut.borrow()).isSameAs(fresh);
+    }
+
+    /**
+     * The output of a reused instance should not contain data of earlier usages.
+     */
+    @Test
+    public void shouldResetTheOutputOfReusedInstances() {
+        PooledKryo pooled = cut.borrow();
+        pooled.output().writeBytes(new byte[] {1, 2, 3 });
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        final Output streamOutput = pooled.output(target);
+        cut.release(pooled);
+
+        assertThat(streamOutput.getOutputStream()).isNull();
+
+        pooled = cut.borrow();
+        final Output output = pooled.output();
+        assertThat(output.position()).isEqualTo(0);
+        assertThat(output.toBytes()).isEmpty();
+    }
+
+    /**
+     * The inputs of a released instance should not keep references to the data that was read last.
+     */
+    @Test
+    public void shouldDropTheDataOfInputsOnRelease() {
+        final PooledKryo pooled = cut.borrow();
+        final byte[] data = new byte[] {1, 2, 3 };
+        final Input arrayInput = pooled.input(data, 0, data.length);
+        final Input streamInput = pooled.input(new ByteArrayInputStream(data));
+        cut.release(pooled);
+
+        assertThat(arrayInput.getBuffer()).isNotSameAs(data).isEmpty();
+        assertThat(arrayInput.limit()).isEqualTo(0);
+        assertThat(streamInput.getInputStream()).isNull();
+    }
+
+    /**
+     * Output buffers that grew above one MiB should be shrunk on release while smaller buffers should be kept.
+     */
+    @Test
+    public void shouldShrinkOnlyLargeOutputBuffers() {
+        PooledKryo pooled = cut.borrow();
+        pooled.output().writeBytes(new byte[ONE_MEBIBYTE / 2]);
+        final byte[] moderate = pooled.output().getBuffer();
+        cut.release(pooled);
+
+        pooled = cut.borrow();
+        assertThat(pooled.output().getBuffer()).isSameAs(moderate);
+
+        pooled.output().writeBytes(new byte[2 * ONE_MEBIBYTE]);
+        cut.release(pooled);
+
+        pooled = cut.borrow();
+        final Output shrunk = pooled.output();
+        assertThat(shrunk.getBuffer().length).isLessThanOrEqualTo(ONE_MEBIBYTE);
+        shrunk.writeBytes(new byte[2 * ONE_MEBIBYTE]);
+        assertThat(shrunk.position()).isEqualTo(2 * ONE_MEBIBYTE);
+    }
+
+    /**
+     * {@link KryoSerializer} should report the hits and misses of its pool.
+     */
+    @Test
+    public void serializerShouldReportHitsAndMissesOfThePool() {
+        final KryoSerializer serializer = new KryoSerializer(1);
+        final List<Command> commands = new ArrayList<>();
+        commands.add(new SetPropertyValue(UUID.randomUUID(), new Value("value")));
+
+        final byte[] serialized = serializer.serialize(commands);
+        serializer.deserialize(serialized);
+        serializer.serialize(commands);
+
+        assertThat(serializer.getKryoPoolMisses()).isEqualTo(1);
+        assertThat(serializer.getKryoPoolHits()).isEqualTo(2);
+    }
+
+    /**
+     * A class that is registered in tests.
+     */
+    private static final class Example {
+    }
+}
@@ -0,0 +1,270 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.kryo;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static java.util.Arrays.asList;
+
+import javafx.scene.paint.Color;
+
+import de.saxsys.synchronizefx.core.clientserver.Serializer;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddToSet;
+import de.saxsys.synchronizefx.core.metamodel.commands.ClearReferences;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+import de.saxsys.synchronizefx.core.metamodel.commands.CreateObservableObject;
+import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand.ListVersionChange;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
+import de.saxsys.synchronizefx.core.metamodel.commands.PutToMap;
+import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromMap;
+import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromSet;
+import de.saxsys.synchronizefx.core.metamodel.commands.SetPropertyValue;
+import de.saxsys.synchronizefx.core.metamodel.commands.SetRootElement;
+import de.saxsys.synchronizefx.core.metamodel.commands.Value;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Checks that {@link KryoSerializer} transfers all command types without changing them.
+ */
+public class KryoSerializerTest {
+
+    private final KryoSerializer cut = new KryoSerializer();
+
+    /**
+     * All commands should be equal to the original ones after they where serialized and deserialized.
+     */
+    @Test
+    public void shouldRestoreAllCommandTypes() {
+        final List<Command> commands = new ArrayList<>();
+        commands.add(createObservableObject());
+
+        final SetRootElement root = new SetRootElement();
+        root.setRootElementId(UUID.randomUUID());
+        commands.add(root);
+
+        final PutToMap put = new PutToMap();
+        put.setMapId(UUID.randomUUID());
+        put.setKey(new Value("key"));
+        put.setValue(new Value(UUID.randomUUID()));
+        commands.add(put);
+
+        final RemoveFromMap removeFromMap = new RemoveFromMap();
+        removeFromMap.setMapId(UUID.randomUUID());
+        removeFromMap.setKey(new Value(42));
+        commands.add(removeFromMap);
+
+        final AddToSet addToSet = new AddToSet();
+        addToSet.setSetId(UUID.randomUUID());
+        addToSet.setValue(new Value(null));
+        commands.add(addToSet);
+
+        final RemoveFromSet removeFromSet = new RemoveFromSet();
+        removeFromSet.setSetId(UUID.randomUUID());
+        removeFromSet.setValue(new Value(Color.CORAL));
+        commands.add(removeFromSet);
+
+        commands.add(new AddToList(UUID.randomUUID(), new ListVersionChange(UUID.randomUUID(), UUID.randomUUID()),
+                new Value(new BigDecimal("1.5")), 3));
+        commands.add(new AddAllToList(UUID.randomUUID(),
+                new ListVersionChange(UUID.randomUUID(), UUID.randomUUID()), asList(new Value("first"), new Value(
+                        UUID.randomUUID())), 7));
+        // explicit, reversed and rotated permutations are written differently
+        commands.add(new PermuteList(UUID.randomUUID(), new ListVersionChange(UUID.randomUUID(), UUID.randomUUID()),
+                2, new int[] {1, 3, 0, 2 }));
+        commands.add(new PermuteList(UUID.randomUUID(), new ListVersionChange(UUID.randomUUID(), UUID.randomUUID()),
+                0, new int[] {3, 2, 1, 0 }));
+        commands.add(new PermuteList(UUID.randomUUID(), new ListVersionChange(UUID.randomUUID(), UUID.randomUUID()),
+                5, new int[] {2, 3, 0, 1 }));
+        commands.add(new SetPropertyValue(UUID.randomUUID(), new Value(2.5)));
+        commands.add(new ClearReferences());
+
+        final List<Command> restored = cut.deserialize(cut.serialize(commands));
+
+        assertThat(restored.toString()).isEqualTo(commands.toString());
+    }
+
+    /**
+     * The properties of {@link CreateObservableObject} commands should be restored.
+     */
+    @Test
+    public void shouldRestoreAllPropertiesOfCreateObservableObject() {
+        final CreateObservableObject original = createObservableObject();
+        final List<Command> commands = new ArrayList<>();
+        commands.add(original);
+
+        final CreateObservableObject restored = (CreateObservableObject) cut.deserialize(cut.serialize(commands))
+                .get(0);
+
+        assertThat(restored.getObjectId()).isEqualTo(original.getObjectId());
+        assertThat(restored.getClassName()).isEqualTo(original.getClassName());
+        assertThat(restored.getPropertyNameToId()).isEqualTo(original.getPropertyNameToId());
+    }
+
+    /**
+     * Objects whose schema was already transfered in an earlier message over the same connection should be restored
+     * correctly.
+     */
+    @Test
+    public void shouldRestoreSchemasOfEarlierMessagesOfAConnection() {
+        cut.setUUIDInterning(true);
+        final Serializer sender = cut.createConnectionSerializer();
+        final Serializer receiver = cut.createConnectionSerializer();
+
+        for (int i = 0; i < 2; i++) {
+            final CreateObservableObject original = createObservableObject();
+            final List<Command> commands = new ArrayList<>();
+            commands.add(original);
+
+            final CreateObservableObject restored = (CreateObservableObject) receiver.deserialize(
+                    sender.serialize(commands)).get(0);
+
+            assertThat(restored.getObjectId()).isEqualTo(original.getObjectId());
+            assertThat(restored.getClassName()).isEqualTo(original.getClassName());
+            assertThat(restored.getPropertyNameToId()).isEqualTo(original.getPropertyNameToId());
+        }
+    }
+
+    /**
+     * Ids that where interned in an earlier message over the same connection should be restored and should not be
+     * transfered again.
+     * 
+     * <p>
+     * The ids of the commands themselves are never interned, so only the ids of the properties and the values are
+     * expected to be smaller in the second message.
+     * </p>
+     */
+    @Test
+    public void shouldRestoreIdsInternedInEarlierMessagesOfAConnection() {
+        cut.setUUIDInterning(true);
+        final Serializer sender = cut.createConnectionSerializer();
+        final Serializer receiver = cut.createConnectionSerializer();
+        final List<Command> commands = new ArrayList<>();
+        final int count = 10;
+        for (int i = 0; i < count; i++) {
+            commands.add(new SetPropertyValue(UUID.randomUUID(), new Value(UUID.randomUUID())));
+        }
+
+        final byte[] first = sender.serialize(commands);
+        final byte[] second = sender.serialize(commands);
+
+        assertThat(receiver.deserialize(first).toString()).isEqualTo(commands.toString());
+        assertThat(receiver.deserialize(second).toString()).isEqualTo(commands.toString());
+        final int idSize = 16;
+        assertThat(first.length - second.length).isGreaterThanOrEqualTo(2 * count * idSize);
+    }
+
+    /**
+     * Ids that where interned in a message that could not be serialized never reach the receiving side. They must
+     * therefore be announced again in the next message.
+     */
+    @Test
+    public void shouldNotKeepIdsInternedInMessagesThatCouldNotBeSerialized() {
+        cut.setUUIDInterning(true);
+        cut.registerSerializableClass(Unserializable.class, new FailingSerializer());
+        final Serializer sender = cut.createConnectionSerializer();
+        final Serializer receiver = cut.createConnectionSerializer();
+        final UUID property = UUID.randomUUID();
+
+        try {
+            sender.serialize(asList((Command) new SetPropertyValue(property, new Value(UUID.randomUUID())),
+                    new SetPropertyValue(UUID.randomUUID(), new Value(new Unserializable()))));
+            fail("The serialization of the unserializable value should have failed.");
+        } catch (final KryoException expected) {
+            assertThat(expected).hasMessageContaining("Unserializable");
+        }
+        final List<Command> commands = asList((Command) new SetPropertyValue(property, new Value(UUID.randomUUID())));
+
+        assertThat(receiver.deserialize(sender.serialize(commands)).toString()).isEqualTo(commands.toString());
+    }
+
+    /**
+     * Schemas that where assigned while serializing a message that failed never reached the receiver. They should
+     * be transfered again with the next message.
+     */
+    @Test
+    public void shouldNotKeepSchemasAssignedInMessagesThatCouldNotBeSerialized() {
+        cut.setUUIDInterning(true);
+        cut.registerSerializableClass(Unserializable.class, new FailingSerializer());
+        final Serializer sender = cut.createConnectionSerializer();
+        final Serializer receiver = cut.createConnectionSerializer();
+
+        try {
+            sender.serialize(asList((Command) createObservableObject(),
+                    new SetPropertyValue(UUID.randomUUID(), new Value(new Unserializable()))));
+            fail("The serialization of the unserializable value should have failed.");
+        } catch (final KryoException expected) {
+            assertThat(expected).hasMessageContaining("Unserializable");
+        }
+        final CreateObservableObject original = createObservableObject();
+
+        final CreateObservableObject restored = (CreateObservableObject) receiver.deserialize(
+                sender.serialize(asList((Command) original))).get(0);
+
+        assertThat(restored.getClassName()).isEqualTo(original.getClassName());
+        assertThat(restored.getPropertyNameToId()).isEqualTo(original.getPropertyNameToId());
+    }
+
+    private CreateObservableObject createObservableObject() {
+        final CreateObservableObject create = new CreateObservableObject();
+        create.setObjectId(UUID.randomUUID());
+        create.setClassName("de.saxsys.synchronizefx.example.Note");
+        final Map<String, UUID> properties = new HashMap<>();
+        properties.put("text", UUID.randomUUID());
+        properties.put("color", UUID.randomUUID());
+        create.setPropertyNameToId(properties);
+        return create;
+    }
+
+    /**
+     * A value type that can never be serialized.
+     */
+    private static final class Unserializable {
+    }
+
+    /**
+     * Fails for every {@link Unserializable} that should be written.
+     */
+    private static final class FailingSerializer extends com.esotericsoftware.kryo.Serializer<Unserializable> {
+        @Override
+        public void write(final Kryo kryo, final Output output, final Unserializable object) {
+            throw new KryoException("Unserializable values can't be written.");
+        }
+
+        @Override
+        public Unserializable read(final Kryo kryo, final Input input, final Class<Unserializable> type) {
+            throw new KryoException("Unserializable values can't be read.");
+        }
+    }
+}
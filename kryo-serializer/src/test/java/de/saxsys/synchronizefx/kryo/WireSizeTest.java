@@ -0,0 +1,229 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.kryo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import de.saxsys.synchronizefx.core.clientserver.Serializer;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddToSet;
+import de.saxsys.synchronizefx.core.metamodel.commands.ClearReferences;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+import de.saxsys.synchronizefx.core.metamodel.commands.CreateObservableObject;
+import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand.ListVersionChange;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
+import de.saxsys.synchronizefx.core.metamodel.commands.PutToMap;
+import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
+import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
+import de.saxsys.synchronizefx.core.metamodel.commands.SetPropertyValue;
+import de.saxsys.synchronizefx.core.metamodel.commands.SetRootElement;
+import de.saxsys.synchronizefx.core.metamodel.commands.Value;
+import de.saxsys.synchronizefx.kryo.serializer.AddToListSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.RemoveFromListSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.ReplaceInListSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.SetPropertyValueSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.UUIDSerializer;
+import de.saxsys.synchronizefx.kryo.serializer.ValueSerializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the size of serialized commands.
+ * 
+ * <p>
+ * The sizes are compared with a {@link Kryo} instance that only knows serializers for ids, values and list commands.
+ * All other commands are serialized by the reflection based default serializer of Kryo with this instance.
+ * </p>
+ * 
+ * <p>
+ * Without interning, every id takes 16 bytes in both variants. The tests therefore compare the overhead, which is the
+ * size of a message without the bytes of the ids it contains.
+ * </p>
+ */
+public class WireSizeTest {
+
+    private static final int OBJECTS = 100;
+    private static final int ROWS = 50000;
+    private static final int ID_SIZE = 16;
+    private static final String[] PROPERTY_NAMES = {"text", "color", "position", "size" };
+
+    private final KryoSerializer cut = new KryoSerializer();
+
+    /**
+     * A message that only marks the end of a command sequence should consist of little more than the list size and
+     * the class id of the command.
+     */
+    @Test
+    public void clearReferencesShouldOnlyNeedAFewBytes() {
+        final List<Command> commands = new LinkedList<>();
+        commands.add(new ClearReferences());
+
+        assertThat(cut.serialize(commands).length).isLessThanOrEqualTo(4);
+    }
+
+    /**
+     * Creating objects dominates the initial transfer of the domain model and should need much less overhead than the
+     * reflection based serialization.
+     */
+    @Test
+    public void createObservableObjectShouldBeMuchSmallerThanReflectiveSerialization() {
+        final List<Command> commands = new LinkedList<>();
+        for (int i = 0; i < OBJECTS; i++) {
+            commands.add(createObservableObject());
+        }
+        commands.add(new ClearReferences());
+
+        final int ids = OBJECTS * (PROPERTY_NAMES.length + 1) * ID_SIZE;
+        final int overhead = cut.serialize(commands).length - ids;
+        final int reflectiveOverhead = serializeWithReflection(commands) - ids;
+
+        assertThat(overhead).isLessThan(reflectiveOverhead / 2);
+    }
+
+    /**
+     * The class name and the property names of an observable object should only be transfered once per connection.
+     */
+    @Test
+    public void schemaShouldOnlyBeTransferedOncePerConnection() {
+        cut.setUUIDInterning(true);
+        final Serializer connection = cut.createConnectionSerializer();
+        final List<Command> commands = new LinkedList<>();
+        commands.add(createObservableObject());
+
+        final int first = connection.serialize(commands).length;
+        commands.set(0, createObservableObject());
+        final int second = connection.serialize(commands).length;
+
+        final CreateObservableObject create = (CreateObservableObject) commands.get(0);
+        assertThat(second).isLessThanOrEqualTo(first - create.getClassName().length());
+    }
+
+    /**
+     * A typical initial state with a root element and collections should need less overhead than with reflective
+     * serialization. The overhead of the values themselves is the same in both cases.
+     */
+    @Test
+    public void mixedCommandsShouldBeSmallerThanReflectiveSerialization() {
+        final List<Command> commands = new LinkedList<>();
+        for (int i = 0; i < OBJECTS; i++) {
+            final CreateObservableObject create = createObservableObject();
+            commands.add(create);
+
+            final PutToMap put = new PutToMap();
+            put.setMapId(UUID.randomUUID());
+            put.setKey(new Value("key" + i));
+            put.setValue(new Value(create.getObjectId()));
+            commands.add(put);
+
+            final AddToSet add = new AddToSet();
+            add.setSetId(UUID.randomUUID());
+            add.setValue(new Value(i));
+            commands.add(add);
+        }
+        final SetRootElement root = new SetRootElement();
+        root.setRootElementId(UUID.randomUUID());
+        commands.add(root);
+        commands.add(new ClearReferences());
+
+        final int ids = (OBJECTS * (PROPERTY_NAMES.length + 1 + 3) + 1) * ID_SIZE;
+        final int overhead = cut.serialize(commands).length - ids;
+        final int reflectiveOverhead = serializeWithReflection(commands) - ids;
+
+        assertThat(overhead).isLessThan(reflectiveOverhead * 2 / 3);
+    }
+
+    /**
+     * Reversing or rotating a list should not need more bytes for long lists than for short ones.
+     */
+    @Test
+    public void reversedAndRotatedPermutationsShouldNotDependOnTheListSize() {
+        final int[] reversed = new int[ROWS];
+        final int[] rotated = new int[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            reversed[i] = ROWS - 1 - i;
+            rotated[i] = (i + 1) % ROWS;
+        }
+
+        final int overhead = 3 * ID_SIZE + 16;
+        assertThat(cut.serialize(permute(reversed)).length).isLessThanOrEqualTo(overhead);
+        assertThat(cut.serialize(permute(rotated)).length).isLessThanOrEqualTo(overhead);
+    }
+
+    /**
+     * An arbitrary reordering like sorting needs at most 3 bytes per element for lists with 50000 elements.
+     */
+    @Test
+    public void arbitraryPermutationsShouldNeedAtMostThreeBytesPerElement() {
+        final List<Integer> shuffled = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            shuffled.add(i);
+        }
+        Collections.shuffle(shuffled);
+        final int[] permutation = new int[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            permutation[i] = shuffled.get(i);
+        }
+
+        assertThat(cut.serialize(permute(permutation)).length).isLessThanOrEqualTo(3 * ROWS + 3 * ID_SIZE + 16);
+    }
+
+    private List<Command> permute(final int[] permutation) {
+        final List<Command> commands = new LinkedList<>();
+        commands.add(new PermuteList(UUID.randomUUID(), new ListVersionChange(UUID.randomUUID(), UUID.randomUUID()),
+                0, permutation));
+        return commands;
+    }
+
+    private CreateObservableObject createObservableObject() {
+        final CreateObservableObject create = new CreateObservableObject();
+        create.setObjectId(UUID.randomUUID());
+        create.setClassName("de.saxsys.synchronizefx.example.Note");
+        final Map<String, UUID> properties = new HashMap<>();
+        for (final String name : PROPERTY_NAMES) {
+            properties.put(name, UUID.randomUUID());
+        }
+        create.setPropertyNameToId(properties);
+        return create;
+    }
+
+    private int serializeWithReflection(final List<Command> commands) {
+        final Kryo kryo = new Kryo();
+        kryo.register(UUID.class, new UUIDSerializer());
+        kryo.register(Value.class, new ValueSerializer());
+        kryo.register(SetPropertyValue.class, new SetPropertyValueSerializer());
+        kryo.register(AddToList.class, new AddToListSerializer());
+        kryo.register(RemoveFromList.class, new RemoveFromListSerializer());
+        kryo.register(ReplaceInList.class, new ReplaceInListSerializer());
+
+        final Output output = new Output(1024, -1);
+        kryo.writeObject(output, new LinkedList<>(commands));
+        return output.position();
+    }
+}
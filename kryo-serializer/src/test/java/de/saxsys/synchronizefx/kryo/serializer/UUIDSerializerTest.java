@@ -0,0 +1,192 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.kryo.serializer;
+
+import java.util.UUID;
+
+import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@link UUIDSerializer} interns ids correctly when a {@link UUIDDictionary} is used.
+ */
+public class UUIDSerializerTest {
+
+    private static final int ID_SIZE = 16;
+
+    private final Kryo writer = new Kryo();
+    private final Kryo reader = new Kryo();
+
+    private final UUIDSerializer cut = new UUIDSerializer();
+
+    /**
+     * Ids should be written as two longs when no dictionary is used.
+     */
+    @Test
+    public void shouldWriteIdsAsLongsWithoutDictionary() {
+        final UUID id = UUID.randomUUID();
+
+        final byte[] written = write(cut, id);
+
+        assertThat(written).hasSize(ID_SIZE);
+        assertThat(read(written)).isEqualTo(id);
+    }
+
+    /**
+     * Only the first occurrence of an id should contain the id itself. All further occurrences should only reference
+     * the slot of the id.
+     */
+    @Test
+    public void shouldRestoreInternedIds() {
+        useDictionaries(new UUIDDictionary(), new UUIDDictionary());
+        final UUID first = UUID.randomUUID();
+        final UUID second = UUID.randomUUID();
+
+        final byte[] announceFirst = write(cut, first);
+        final byte[] announceSecond = write(cut, second);
+        final byte[] referenceFirst = write(cut, first);
+        final byte[] referenceSecond = write(cut, second);
+
+        assertThat(read(announceFirst)).isEqualTo(first);
+        assertThat(read(announceSecond)).isEqualTo(second);
+        assertThat(read(referenceFirst)).isEqualTo(first);
+        assertThat(read(referenceSecond)).isEqualTo(second);
+        assertThat(referenceFirst).hasSize(1);
+        assertThat(referenceSecond).hasSize(1);
+    }
+
+    /**
+     * Transient ids should neither be interned nor displace interned ids.
+     */
+    @Test
+    public void shouldNotInternTransientIds() {
+        final UUIDDictionary sendingSide = new UUIDDictionary();
+        useDictionaries(sendingSide, new UUIDDictionary());
+        final UUID id = UUID.randomUUID();
+
+        final byte[] first = write(UUIDSerializer.TRANSIENT_IDS, id);
+        final byte[] second = write(UUIDSerializer.TRANSIENT_IDS, id);
+
+        assertThat(read(first)).isEqualTo(id);
+        assertThat(read(second)).isEqualTo(id);
+        assertThat(second).hasSize(ID_SIZE + 1);
+        assertThat(sendingSide.slotOf(id)).isEqualTo(-1);
+    }
+
+    /**
+     * When all slots are in use, the id that was assigned longest ago should be dropped and announced again on its
+     * next occurrence.
+     */
+    @Test
+    public void shouldReuseTheOldestSlotWhenTheDictionaryIsFull() {
+        final UUIDDictionary sendingSide = new UUIDDictionary(2);
+        final UUIDDictionary receivingSide = new UUIDDictionary(2);
+        useDictionaries(sendingSide, receivingSide);
+        final UUID first = UUID.randomUUID();
+        final UUID second = UUID.randomUUID();
+        final UUID third = UUID.randomUUID();
+
+        assertThat(read(write(cut, first))).isEqualTo(first);
+        assertThat(read(write(cut, second))).isEqualTo(second);
+        assertThat(read(write(cut, third))).isEqualTo(third);
+
+        assertThat(sendingSide.slotOf(first)).isEqualTo(-1);
+        assertThat(sendingSide.slotOf(third)).isEqualTo(0);
+        assertThat(receivingSide.get(0)).isEqualTo(third);
+
+        final byte[] evicted = write(cut, first);
+        assertThat(evicted.length).isGreaterThan(ID_SIZE);
+        assertThat(read(evicted)).isEqualTo(first);
+        assertThat(receivingSide.get(1)).isEqualTo(first);
+        assertThat(read(write(cut, third))).isEqualTo(third);
+    }
+
+    /**
+     * A rollback should restore the slots of all ids that where replaced since the last commit, even when an id was
+     * dropped and assigned to another slot in between.
+     */
+    @Test
+    public void shouldRestoreReplacedIdsOnRollback() {
+        final UUIDDictionary sendingSide = new UUIDDictionary(2);
+        useDictionaries(sendingSide, new UUIDDictionary(2));
+        final UUID first = UUID.randomUUID();
+        final UUID second = UUID.randomUUID();
+        final UUID third = UUID.randomUUID();
+        write(cut, first);
+        write(cut, second);
+        sendingSide.commit();
+
+        write(cut, third);
+        write(cut, first);
+        sendingSide.rollback();
+
+        assertThat(sendingSide.slotOf(first)).isEqualTo(0);
+        assertThat(sendingSide.slotOf(second)).isEqualTo(1);
+        assertThat(sendingSide.slotOf(third)).isEqualTo(-1);
+        assertThat(sendingSide.assign(third)).isEqualTo(0);
+    }
+
+    /**
+     * A reference to a slot that was never announced should be reported as error.
+     */
+    @Test(expected = SynchronizeFXException.class)
+    public void shouldFailOnReferencesToUnknownSlots() {
+        useDictionaries(new UUIDDictionary(), new UUIDDictionary());
+        final UUID id = UUID.randomUUID();
+        write(cut, id);
+        final byte[] referenceToAnnouncementNeverReceived = write(cut, id);
+
+        read(referenceToAnnouncementNeverReceived);
+    }
+
+    /**
+     * An announcement for a slot outside of the capacity of the receiving dictionary should be reported as error.
+     */
+    @Test(expected = SynchronizeFXException.class)
+    public void shouldFailOnAnnouncementsOutsideOfTheCapacity() {
+        useDictionaries(new UUIDDictionary(), new UUIDDictionary(1));
+        write(cut, UUID.randomUUID());
+        final byte[] announcesSecondSlot = write(cut, UUID.randomUUID());
+
+        read(announcesSecondSlot);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void useDictionaries(final UUIDDictionary sendingSide, final UUIDDictionary receivingSide) {
+        writer.getGraphContext().put(UUIDDictionary.class, sendingSide);
+        reader.getGraphContext().put(UUIDDictionary.class, receivingSide);
+    }
+
+    private byte[] write(final UUIDSerializer serializer, final UUID id) {
+        final Output output = new Output(ID_SIZE * 2);
+        serializer.write(writer, output, id);
+        return output.toBytes();
+    }
+
+    private UUID read(final byte[] written) {
+        return cut.read(reader, new Input(written), UUID.class);
+    }
+}
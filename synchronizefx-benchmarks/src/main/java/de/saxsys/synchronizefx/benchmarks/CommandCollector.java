@@ -0,0 +1,75 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.benchmarks;
+
+import java.util.List;
+
+import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+import de.saxsys.synchronizefx.core.metamodel.CommandsForDomainModelCallback;
+import de.saxsys.synchronizefx.core.metamodel.TopologyLayerCallback;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+
+/**
+ * Keeps the last commands and the last root object a {@link de.saxsys.synchronizefx.core.metamodel.MetaModel}
+ * produced so that they can be consumed by the benchmarks.
+ * 
+ * <p>
+ * Errors are rethrown as benchmarks that produce errors don't produce meaningful results.
+ * </p>
+ */
+class CommandCollector implements TopologyLayerCallback, CommandsForDomainModelCallback {
+
+    private List<Command> commands;
+    private Object root;
+
+    @Override
+    public void sendCommands(final List<Command> commands) {
+        this.commands = commands;
+    }
+
+    @Override
+    public void commandsReady(final List<Command> commands) {
+        this.commands = commands;
+    }
+
+    @Override
+    public void domainModelChanged(final Object root) {
+        this.root = root;
+    }
+
+    @Override
+    public void onError(final SynchronizeFXException error) {
+        throw error;
+    }
+
+    /**
+     * @return The commands that where produced last or <code>null</code> if no commands where produced yet.
+     */
+    List<Command> getCommands() {
+        return commands;
+    }
+
+    /**
+     * @return The root object of the domain model or <code>null</code> if the domain model was not set yet.
+     */
+    Object getRoot() {
+        return root;
+    }
+}
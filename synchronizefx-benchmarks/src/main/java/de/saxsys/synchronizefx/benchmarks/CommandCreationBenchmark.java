@@ -0,0 +1,88 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how fast commands are created for the domain model.
+ * 
+ * <p>
+ * This covers the reflective walk through the whole domain model done for every connecting client as well as the
+ * creation of commands for local changes done to the domain model.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CommandCreationBenchmark {
+
+    /**
+     * Creates the commands that are necessary to reproduce the whole domain model on a new client.
+     * 
+     * @param state
+     *            The domain model to create the commands for.
+     * @return The created commands.
+     */
+    @Benchmark
+    public List<Command> initialCommands(final DomainModelState state) {
+        state.meta.commandsForDomainModel(state.collector);
+        return state.collector.getCommands();
+    }
+
+    /**
+     * Creates the commands for the change of a single value property.
+     * 
+     * @param state
+     *            The domain model to change.
+     * @return The created commands.
+     */
+    @Benchmark
+    public List<Command> propertyChange(final DomainModelState state) {
+        return state.changeRootValue();
+    }
+
+    /**
+     * Creates the commands for adding a new node to the beginning of a list and removing it again.
+     * 
+     * @param state
+     *            The domain model to change.
+     * @return The commands created for the removal.
+     */
+    @Benchmark
+    public List<Command> listAddAndRemove(final DomainModelState state) {
+        state.root.childrenProperty().add(0, new Node("added", 0));
+        state.root.childrenProperty().remove(0);
+        return state.collector.getCommands();
+    }
+}
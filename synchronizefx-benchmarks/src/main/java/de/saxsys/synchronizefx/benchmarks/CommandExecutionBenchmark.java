@@ -0,0 +1,99 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import de.saxsys.synchronizefx.core.metamodel.MetaModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how fast commands are applied to the domain model of a client by the
+ * {@link de.saxsys.synchronizefx.core.metamodel.CommandListExecutor}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CommandExecutionBenchmark {
+
+    /**
+     * Executes the commands that reproduce the whole domain model on a new client.
+     * 
+     * @param state
+     *            Contains the commands to execute.
+     * @return The root of the reproduced domain model.
+     */
+    @Benchmark
+    public Object initialCommands(final DomainModelState state) {
+        final CommandCollector clientCallback = new CommandCollector();
+        final MetaModel client = new MetaModel(clientCallback);
+        client.execute(state.initialCommands);
+        return clientCallback.getRoot();
+    }
+
+    /**
+     * Executes the commands for the change of a single value property on a client.
+     * 
+     * @param client
+     *            The client that contains a copy of the domain model.
+     * @param state
+     *            Contains the commands to execute.
+     * @return The changed domain model.
+     */
+    @Benchmark
+    public Object propertyChange(final ClientState client, final DomainModelState state) {
+        client.meta.execute(state.propertyChangeCommands);
+        return client.callback.getRoot();
+    }
+
+    /**
+     * A client which already received the whole domain model.
+     */
+    @State(Scope.Benchmark)
+    public static class ClientState {
+        private CommandCollector callback;
+        private MetaModel meta;
+
+        /**
+         * Creates the client and transfers the domain model to it.
+         * 
+         * @param state
+         *            The domain model of the server.
+         */
+        @Setup
+        public void setUp(final DomainModelState state) {
+            callback = new CommandCollector();
+            meta = new MetaModel(callback);
+            meta.execute(state.initialCommands);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.benchmarks;
+
+import java.util.List;
+
+import de.saxsys.synchronizefx.core.metamodel.MetaModel;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+import de.saxsys.synchronizefx.kryo.KryoSerializer;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A served domain model together with the commands and bytes it produces.
+ * 
+ * <p>
+ * The state is shared by all threads of a benchmark. As the benchmarks change the model, they must be run with a
+ * single thread which is the default of JMH.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class DomainModelState {
+
+    /**
+     * The structure of the domain model.
+     */
+    @Param
+    ModelShape shape;
+
+    /**
+     * The number of nodes in the domain model.
+     */
+    @Param({ "100", "10000" })
+    int size;
+
+    /**
+     * How the {@link #meta} generates ids for new objects, commands and list versions.
+     */
+    @Param
+    IdGeneration ids;
+
+    /**
+     * The root of the served domain model.
+     */
+    Node root;
+
+    /**
+     * Receives the commands produced by {@link #meta}.
+     */
+    CommandCollector collector;
+
+    /**
+     * The meta model that serves {@link #root}.
+     */
+    MetaModel meta;
+
+    /**
+     * The serializer used to produce {@link #initialBytes} and {@link #propertyChangeBytes}.
+     */
+    KryoSerializer serializer;
+
+    /**
+     * The commands that reproduce the whole domain model.
+     */
+    List<Command> initialCommands;
+
+    /**
+     * The serialized form of {@link #initialCommands}.
+     */
+    byte[] initialBytes;
+
+    /**
+     * The commands produced by the change of a single value property.
+     */
+    List<Command> propertyChangeCommands;
+
+    /**
+     * The serialized form of {@link #propertyChangeCommands}.
+     */
+    byte[] propertyChangeBytes;
+
+    private int nextValue;
+
+    /**
+     * Creates the domain model and pre-computes the commands and bytes that the benchmarks consume.
+     */
+    @Setup
+    public void setUp() {
+        root = shape.create(size);
+        collector = new CommandCollector();
+        meta = new MetaModel(collector, root, ids.create());
+        serializer = new KryoSerializer();
+
+        meta.commandsForDomainModel(collector);
+        initialCommands = collector.getCommands();
+        initialBytes = serializer.serialize(initialCommands);
+
+        changeRootValue();
+        propertyChangeCommands = collector.getCommands();
+        propertyChangeBytes = serializer.serialize(propertyChangeCommands);
+    }
+
+    /**
+     * Sets the value of the root node to a value it never had before.
+     * 
+     * @return the commands that where produced by the change.
+     */
+    List<Command> changeRootValue() {
+        root.valueProperty().set(++nextValue);
+        return collector.getCommands();
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.benchmarks;
+
+import java.util.UUID;
+
+import de.saxsys.synchronizefx.core.metamodel.RandomIdGenerator;
+import de.saxsys.synchronizefx.core.metamodel.SequentialIdGenerator;
+import de.saxsys.synchronizefx.core.metamodel.Supplier;
+
+/**
+ * The different ways of generating ids the benchmarks are executed with.
+ */
+public enum IdGeneration {
+
+    /**
+     * Uses {@link RandomIdGenerator}, the default of SynchronizeFX.
+     */
+    RANDOM {
+        @Override
+        public Supplier<UUID> create() {
+            return new RandomIdGenerator();
+        }
+    },
+
+    /**
+     * Uses {@link SequentialIdGenerator}.
+     */
+    SEQUENTIAL {
+        @Override
+        public Supplier<UUID> create() {
+            return new SequentialIdGenerator();
+        }
+    };
+
+    /**
+     * Creates a new id generator.
+     * 
+     * @return The generator.
+     */
+    public abstract Supplier<UUID> create();
+}
@@ -0,0 +1,93 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.benchmarks;
+
+/**
+ * The different structures of domain models the benchmarks are executed with.
+ */
+public enum ModelShape {
+
+    /**
+     * Chains of {@link #DEEP_TREE_DEPTH} nested nodes that hang below the root node.
+     * 
+     * <p>
+     * This stresses the recursion of the model walking.
+     * </p>
+     */
+    DEEP_TREE {
+        @Override
+        public Node create(final int size) {
+            final Node root = new Node("root", 0);
+            int created = 0;
+            while (created < size) {
+                Node parent = root;
+                for (int depth = 0; depth < DEEP_TREE_DEPTH && created < size; depth++) {
+                    final Node child = new Node("node " + created, created);
+                    parent.childrenProperty().add(child);
+                    parent = child;
+                    created++;
+                }
+            }
+            return root;
+        }
+    },
+
+    /**
+     * A root node which contains all other nodes in a single list property.
+     */
+    WIDE_LIST {
+        @Override
+        public Node create(final int size) {
+            final Node root = new Node("root", 0);
+            for (int i = 0; i < size; i++) {
+                root.childrenProperty().add(new Node("node " + i, i));
+            }
+            return root;
+        }
+    },
+
+    /**
+     * A root node which contains all other nodes in a single map property.
+     */
+    LARGE_MAP {
+        @Override
+        public Node create(final int size) {
+            final Node root = new Node("root", 0);
+            for (int i = 0; i < size; i++) {
+                root.entriesProperty().put("key " + i, new Node("node " + i, i));
+            }
+            return root;
+        }
+    };
+
+    /**
+     * The length of the node chains in {@link #DEEP_TREE} models.
+     */
+    public static final int DEEP_TREE_DEPTH = 64;
+
+    /**
+     * Creates a new domain model with this shape.
+     * 
+     * @param size
+     *            The number of nodes the model should contain besides the root node.
+     * @return The root node of the created model.
+     */
+    public abstract Node create(int size);
+}
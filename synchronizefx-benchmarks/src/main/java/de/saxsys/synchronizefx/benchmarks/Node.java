@@ -0,0 +1,97 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.benchmarks;
+
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ListProperty;
+import javafx.beans.property.MapProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleListProperty;
+import javafx.beans.property.SimpleMapProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.collections.FXCollections;
+
+/**
+ * The domain object all benchmark models are build of.
+ * 
+ * <p>
+ * It contains every kind of property SynchronizeFX distinguishes so that the different {@link ModelShape}s can
+ * stress single value properties, lists and maps.
+ * </p>
+ */
+public class Node {
+    private final StringProperty name = new SimpleStringProperty();
+    private final IntegerProperty value = new SimpleIntegerProperty();
+    private final ListProperty<Node> children = new SimpleListProperty<>(FXCollections.<Node> observableArrayList());
+    private final MapProperty<String, Node> entries = new SimpleMapProperty<>(
+            FXCollections.<String, Node> observableHashMap());
+
+    /**
+     * Creates a node without any content.
+     * 
+     * <p>
+     * This constructor is needed by SynchronizeFX to create copies of this node on other peers.
+     * </p>
+     */
+    public Node() {
+    }
+
+    /**
+     * Creates a node with a name and a value.
+     * 
+     * @param name
+     *            the name of the node
+     * @param value
+     *            the value of the node
+     */
+    public Node(final String name, final int value) {
+        this.name.set(name);
+        this.value.set(value);
+    }
+
+    /**
+     * @return the name of this node.
+     */
+    public StringProperty nameProperty() {
+        return name;
+    }
+
+    /**
+     * @return a number that is stored in this node.
+     */
+    public IntegerProperty valueProperty() {
+        return value;
+    }
+
+    /**
+     * @return the nodes that are children of this node.
+     */
+    public ListProperty<Node> childrenProperty() {
+        return children;
+    }
+
+    /**
+     * @return nodes that are referenced by this node through a key.
+     */
+    public MapProperty<String, Node> entriesProperty() {
+        return entries;
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+
+import de.saxsys.synchronizefx.core.clientserver.SynchronizeFxClient;
+import de.saxsys.synchronizefx.core.clientserver.SynchronizeFxServer;
+import de.saxsys.synchronizefx.core.inmemorypeers.InMemoryClient;
+import de.saxsys.synchronizefx.core.inmemorypeers.InMemoryServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the time from a change on the server until all clients have applied it.
+ * 
+ * <p>
+ * Server and clients are connected through the in-memory peers that are also used in the tests of the core. Each of
+ * them does its work in its own thread so this covers the whole pipeline besides serialization and networking.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RoundTripBenchmark {
+
+    /**
+     * The maximum time to wait for all clients to receive a change.
+     */
+    private static final long TIMEOUT_SECONDS = 30;
+
+    /**
+     * Changes a single value property on the server and waits until all clients have applied the change.
+     * 
+     * @param state
+     *            The server and the connected clients.
+     * @throws InterruptedException
+     *             When the benchmark thread was interrupted while waiting for the clients.
+     */
+    @Benchmark
+    public void propertyChange(final PeersState state) throws InterruptedException {
+        final CountDownLatch clientsReady = state.expectChangesOnAllClients();
+        final int newValue = ++state.nextValue;
+        state.server.executeInServerThread(new Runnable() {
+            @Override
+            public void run() {
+                state.server.getModel().valueProperty().set(newValue);
+            }
+        });
+        state.await(clientsReady);
+    }
+
+    /**
+     * Adds a new node to the beginning of a list on the server and removes it again. It is waited until all clients
+     * have applied the removal.
+     * 
+     * @param state
+     *            The server and the connected clients.
+     * @throws InterruptedException
+     *             When the benchmark thread was interrupted while waiting for the clients.
+     */
+    @Benchmark
+    public void listAddAndRemove(final PeersState state) throws InterruptedException {
+        final CountDownLatch clientsReady = state.expectChangesOnAllClients();
+        state.server.executeInServerThread(new Runnable() {
+            @Override
+            public void run() {
+                state.server.getModel().childrenProperty().add(0, new Node("added", 0));
+                state.server.getModel().childrenProperty().remove(0);
+            }
+        });
+        state.await(clientsReady);
+    }
+
+    /**
+     * A server with a domain model and a number of clients which are connected to it.
+     */
+    @State(Scope.Benchmark)
+    public static class PeersState {
+
+        /**
+         * The structure of the domain model.
+         */
+        @Param
+        ModelShape shape;
+
+        /**
+         * The number of nodes in the domain model.
+         */
+        @Param({ "100", "10000" })
+        int size;
+
+        /**
+         * The number of clients that are connected to the server.
+         */
+        @Param({ "1", "10", "50" })
+        int clients;
+
+        private InMemoryServer<Node> server;
+        private SynchronizeFxServer synchronizeFxServer;
+        private final List<SynchronizeFxClient> synchronizeFxClients = new ArrayList<>();
+        private volatile CountDownLatch pendingClients;
+        private int nextValue;
+
+        /**
+         * Starts the server and connects all clients.
+         */
+        @Setup
+        public void setUp() {
+            server = new InMemoryServer<>(shape.create(size));
+            synchronizeFxServer = server.startSynchronizeFxServer();
+
+            for (int i = 0; i < clients; i++) {
+                final InMemoryClient<Node> client = new InMemoryClient<>(server);
+                synchronizeFxClients.add(client.startSynchronizeFxClient());
+                final Node model = client.getModel();
+                if (model == null) {
+                    throw new IllegalStateException("A client did not receive the domain model of the server.");
+                }
+                model.valueProperty().addListener(new ChangeListener<Number>() {
+                    @Override
+                    public void changed(final ObservableValue<? extends Number> observable, final Number oldValue,
+                            final Number newValue) {
+                        clientReceivedChange();
+                    }
+                });
+                model.childrenProperty().addListener(new ListChangeListener<Node>() {
+                    @Override
+                    public void onChanged(final Change<? extends Node> change) {
+                        while (change.next()) {
+                            if (change.wasRemoved() && !change.wasAdded()) {
+                                clientReceivedChange();
+                            }
+                        }
+                    }
+                });
+            }
+        }
+
+        /**
+         * Disconnects all clients and shuts the server down.
+         */
+        @TearDown
+        public void tearDown() {
+            for (final SynchronizeFxClient client : synchronizeFxClients) {
+                client.disconnect();
+            }
+            synchronizeFxClients.clear();
+            synchronizeFxServer.shutdown();
+        }
+
+        private CountDownLatch expectChangesOnAllClients() {
+            final CountDownLatch latch = new CountDownLatch(clients);
+            pendingClients = latch;
+            return latch;
+        }
+
+        private void clientReceivedChange() {
+            final CountDownLatch latch = pendingClients;
+            if (latch != null) {
+                latch.countDown();
+            }
+        }
+
+        private void await(final CountDownLatch latch) throws InterruptedException {
+            if (!latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Not all clients received the change within " + TIMEOUT_SECONDS
+                        + " seconds.");
+            }
+        }
+    }
+}
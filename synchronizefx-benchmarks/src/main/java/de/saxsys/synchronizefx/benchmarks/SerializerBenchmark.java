@@ -0,0 +1,93 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how fast commands are turned into bytes and back by the
+ * {@link de.saxsys.synchronizefx.kryo.KryoSerializer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SerializerBenchmark {
+
+    /**
+     * Serializes the commands that reproduce the whole domain model.
+     * 
+     * @param state
+     *            Contains the commands to serialize.
+     * @return The serialized commands.
+     */
+    @Benchmark
+    public byte[] serializeInitialCommands(final DomainModelState state) {
+        return state.serializer.serialize(state.initialCommands);
+    }
+
+    /**
+     * Deserializes the commands that reproduce the whole domain model.
+     * 
+     * @param state
+     *            Contains the bytes to deserialize.
+     * @return The deserialized commands.
+     */
+    @Benchmark
+    public List<Command> deserializeInitialCommands(final DomainModelState state) {
+        return state.serializer.deserialize(state.initialBytes);
+    }
+
+    /**
+     * Serializes the commands for the change of a single value property.
+     * 
+     * @param state
+     *            Contains the commands to serialize.
+     * @return The serialized commands.
+     */
+    @Benchmark
+    public byte[] serializePropertyChange(final DomainModelState state) {
+        return state.serializer.serialize(state.propertyChangeCommands);
+    }
+
+    /**
+     * Deserializes the commands for the change of a single value property.
+     * 
+     * @param state
+     *            Contains the bytes to deserialize.
+     * @return The deserialized commands.
+     */
+    @Benchmark
+    public List<Command> deserializePropertyChange(final DomainModelState state) {
+        return state.serializer.deserialize(state.propertyChangeBytes);
+    }
+}
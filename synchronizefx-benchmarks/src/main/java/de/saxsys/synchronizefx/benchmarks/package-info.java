@@ -0,0 +1,28 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * JMH benchmarks that measure the hot paths of SynchronizeFX from a property change over the commands and their
+ * serialized form up to the application of the commands on other peers.
+ * 
+ * <p>
+ * Build the module with {@code mvn package} and run the benchmarks with {@code java -jar target/benchmarks.jar}.
+ * </p>
+ */
+package de.saxsys.synchronizefx.benchmarks;
@@ -0,0 +1,110 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.clientserver;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Set;
+import java.util.UUID;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.ClearReferences;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+import de.saxsys.synchronizefx.core.metamodel.commands.SetPropertyValue;
+
+/**
+ * Collects multiple lists of commands that should be send to all clients and merges them into a single list.
+ * 
+ * <p>
+ * While merging, commands that are superseded by later commands in the batch are removed.
+ * </p>
+ * <ul>
+ * <li>A {@link SetPropertyValue} is removed when the batch contains a later {@link SetPropertyValue} for the same
+ * property.</li>
+ * <li>Every list of commands ends with a {@link ClearReferences} command. Only the last one is kept. This ensures that
+ * clients keep objects that where created by commands of the batch until all commands of the batch are executed even
+ * if the {@link SetPropertyValue} that referenced them was removed.</li>
+ * </ul>
+ * 
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ */
+class CommandBatch {
+
+    private List<Command> commands = new LinkedList<>();
+    private boolean clearReferences;
+
+    /**
+     * Adds a list of commands to the end of this batch.
+     * 
+     * @param newCommands The commands to add.
+     */
+    void add(final List<Command> newCommands) {
+        for (final Command command : newCommands) {
+            if (command instanceof ClearReferences) {
+                clearReferences = true;
+            } else {
+                commands.add(command);
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code> if no commands where added since the last call to {@link #drain()}.
+     */
+    boolean isEmpty() {
+        return commands.isEmpty() && !clearReferences;
+    }
+
+    /**
+     * @return The count of commands currently held by this batch.
+     */
+    int size() {
+        return commands.size();
+    }
+
+    /**
+     * Returns the merged commands and empties this batch.
+     * 
+     * @return The commands of this batch without superseded commands.
+     */
+    List<Command> drain() {
+        final Set<UUID> propertiesSet = new HashSet<>();
+        final ListIterator<Command> it = commands.listIterator(commands.size());
+        while (it.hasPrevious()) {
+            final Command command = it.previous();
+            if (command instanceof SetPropertyValue
+                    && !propertiesSet.add(((SetPropertyValue) command).getPropertyId())) {
+                it.remove();
+            }
+        }
+        final List<Command> merged = new ArrayList<>(commands.size() + 1);
+        merged.addAll(commands);
+        if (clearReferences) {
+            merged.add(new ClearReferences());
+        }
+        commands = new LinkedList<>();
+        clearReferences = false;
+        return merged;
+    }
+}
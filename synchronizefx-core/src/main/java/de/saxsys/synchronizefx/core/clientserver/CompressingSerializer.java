@@ -0,0 +1,286 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.clientserver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+
+/**
+ * A {@link Serializer} that compresses the data produced by another {@link Serializer} with the Deflate algorithm.
+ * 
+ * <p>
+ * Each message starts with a byte that tells whether it is compressed or not. Messages smaller than a threshold are
+ * not compressed as the compression would cost more time than it saves on the network. Messages that would grow by
+ * the compression are not compressed either. As every message describes itself, peers don't need to agree on the
+ * threshold. They must however all use this serializer and the same dictionary.
+ * </p>
+ * 
+ * <p>
+ * An optional preset dictionary can improve the compression of small messages considerably. It should contain byte
+ * sequences that are typical for the serialized commands of the application like class names, property names and
+ * common values. Both peers must use exactly the same dictionary.
+ * </p>
+ * 
+ * <p>
+ * Every message is compressed independently. The compressed data therefore does not depend on the connection it is
+ * send over and can be reused for all clients a message is broadcasted to.
+ * </p>
+ */
+public class CompressingSerializer implements ConnectionAwareSerializer, StreamingSerializer {
+
+    /**
+     * The size in bytes below which messages are not compressed when no other threshold is specified.
+     */
+    public static final int DEFAULT_THRESHOLD = 512;
+
+    private static final byte UNCOMPRESSED = 0;
+    private static final byte DEFLATED = 1;
+    private static final int HEADER_SIZE = 5;
+    /**
+     * Deflate can't compress data to less than 1/1032 of its size. Messages that claim a larger size for their data
+     * are corrupted or forged.
+     */
+    private static final int MAX_DEFLATE_RATIO = 1032;
+
+    private final Serializer delegate;
+    private final StreamingSerializer streamingDelegate;
+    private final int threshold;
+    private final byte[] dictionary;
+
+    private final Queue<Deflater> deflaters;
+    private final Queue<Inflater> inflaters;
+
+    /**
+     * Initializes a serializer that compresses messages larger than {@link #DEFAULT_THRESHOLD} without a dictionary.
+     * 
+     * @param delegate The serializer that serializes the commands before they are compressed.
+     */
+    public CompressingSerializer(final Serializer delegate) {
+        this(delegate, DEFAULT_THRESHOLD, null);
+    }
+
+    /**
+     * Initializes the serializer.
+     * 
+     * @param delegate The serializer that serializes the commands before they are compressed.
+     * @param threshold The size in bytes of the serialized commands below which they are not compressed.
+     * @param dictionary The preset dictionary for the compression or <code>null</code> if none should be used.
+     */
+    public CompressingSerializer(final Serializer delegate, final int threshold, final byte[] dictionary) {
+        this(delegate, threshold, dictionary == null ? null : Arrays.copyOf(dictionary, dictionary.length),
+                new ConcurrentLinkedQueue<Deflater>(), new ConcurrentLinkedQueue<Inflater>());
+    }
+
+    private CompressingSerializer(final Serializer delegate, final int threshold, final byte[] dictionary,
+            final Queue<Deflater> deflaters, final Queue<Inflater> inflaters) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("The compression threshold must not be negative.");
+        }
+        this.delegate = delegate;
+        this.streamingDelegate = StreamingSerializerAdapter.adapt(delegate);
+        this.threshold = threshold;
+        this.dictionary = dictionary;
+        this.deflaters = deflaters;
+        this.inflaters = inflaters;
+    }
+
+    /**
+     * Creates a compressing serializer for the connection serializer of the delegate.
+     * 
+     * <p>
+     * The compression itself does not keep state for connections. If the delegate doesn't either, this object is
+     * returned.
+     * </p>
+     */
+    @Override
+    public Serializer createConnectionSerializer() {
+        if (!(delegate instanceof ConnectionAwareSerializer)) {
+            return this;
+        }
+        final Serializer connectionDelegate = ((ConnectionAwareSerializer) delegate).createConnectionSerializer();
+        if (connectionDelegate == delegate) {
+            return this;
+        }
+        return new CompressingSerializer(connectionDelegate, threshold, dictionary, deflaters, inflaters);
+    }
+
+    @Override
+    public byte[] serialize(final List<Command> objects) throws SynchronizeFXException {
+        final byte[] data = delegate.serialize(objects);
+        if (data.length >= threshold) {
+            final byte[] compressed = deflate(data);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        final byte[] message = new byte[data.length + 1];
+        message[0] = UNCOMPRESSED;
+        System.arraycopy(data, 0, message, 1, data.length);
+        return message;
+    }
+
+    @Override
+    public void serialize(final List<Command> commands, final OutputStream target) throws SynchronizeFXException {
+        final byte[] data = delegate.serialize(commands);
+        try {
+            if (data.length >= threshold) {
+                final byte[] compressed = deflate(data);
+                if (compressed != null) {
+                    target.write(compressed);
+                    target.flush();
+                    return;
+                }
+            }
+            target.write(UNCOMPRESSED);
+            target.write(data);
+            target.flush();
+        } catch (final IOException e) {
+            throw new SynchronizeFXException("The serialized commands could not be written.", e);
+        }
+    }
+
+    @Override
+    public List<Command> deserialize(final byte[] commands) throws SynchronizeFXException {
+        return deserialize(ByteBuffer.wrap(commands));
+    }
+
+    @Override
+    public List<Command> deserialize(final ByteBuffer commands) throws SynchronizeFXException {
+        final ByteBuffer message = commands.duplicate();
+        if (!message.hasRemaining()) {
+            throw new SynchronizeFXException("Received an empty message.");
+        }
+        final byte type = message.get();
+        if (type == UNCOMPRESSED) {
+            return streamingDelegate.deserialize(message.slice());
+        }
+        if (type != DEFLATED || message.remaining() < HEADER_SIZE - 1) {
+            throw new SynchronizeFXException("Received a message with an unknown compression. "
+                    + "Maybe compression is not enabled for all peers?");
+        }
+        return streamingDelegate.deserialize(inflate(message));
+    }
+
+    /**
+     * Compresses serialized commands.
+     * 
+     * @param data The serialized commands.
+     * @return The compressed message including its header or <code>null</code> if the compressed data would not be
+     *         smaller than the uncompressed one.
+     */
+    private byte[] deflate(final byte[] data) {
+        if (data.length <= HEADER_SIZE) {
+            return null;
+        }
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater();
+        }
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(data);
+            deflater.finish();
+            // The compressed message must be smaller than the uncompressed one which needs one byte for its header.
+            final byte[] message = new byte[data.length];
+            message[0] = DEFLATED;
+            writeInt(message, 1, data.length);
+            int length = HEADER_SIZE;
+            while (!deflater.finished() && length < message.length) {
+                length += deflater.deflate(message, length, message.length - length);
+            }
+            if (!deflater.finished()) {
+                return null;
+            }
+            return Arrays.copyOf(message, length);
+        } finally {
+            deflater.reset();
+            deflaters.offer(deflater);
+        }
+    }
+
+    /**
+     * Decompresses a message.
+     * 
+     * @param message The message after the type byte.
+     * @return The decompressed data.
+     */
+    private ByteBuffer inflate(final ByteBuffer message) {
+        final int length = message.getInt();
+        if (length < 0 || length > (long) message.remaining() * MAX_DEFLATE_RATIO) {
+            throw new SynchronizeFXException("Received a compressed message with an invalid length.");
+        }
+        final byte[] compressed = new byte[message.remaining()];
+        message.get(compressed);
+
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        try {
+            inflater.setInput(compressed);
+            final byte[] data = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                final int inflated = inflater.inflate(data, read, length - read);
+                if (inflated == 0 && inflater.needsDictionary()) {
+                    if (dictionary == null) {
+                        throw new SynchronizeFXException("Received a message that was compressed with a preset "
+                                + "dictionary but no dictionary is configured.");
+                    }
+                    inflater.setDictionary(dictionary);
+                } else if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != length) {
+                throw new SynchronizeFXException("Received a compressed message that is incomplete.");
+            }
+            return ByteBuffer.wrap(data);
+        } catch (final DataFormatException e) {
+            throw new SynchronizeFXException("Received a compressed message that is corrupted.", e);
+        } catch (final IllegalArgumentException e) {
+            throw new SynchronizeFXException("Received a message that was compressed with a different dictionary.", e);
+        } finally {
+            inflater.reset();
+            inflaters.offer(inflater);
+        }
+    }
+
+    private void writeInt(final byte[] target, final int offset, final int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.clientserver;
+
+/**
+ * A {@link Serializer} that is able to produce a more compact wire format when it can keep state for a single
+ * connection.
+ * 
+ * <p>
+ * Transmitters that have a dedicated serialization step for every connection should call
+ * {@link #createConnectionSerializer()} once for every new connection and use the returned serializer for all data
+ * that is send and received over this connection. Transmitters that can't do this can use this object as a normal
+ * {@link Serializer} which then produces the wire format that does not depend on any connection state.
+ * </p>
+ */
+public interface ConnectionAwareSerializer extends Serializer {
+
+    /**
+     * Creates a serializer for exactly one connection.
+     * 
+     * <p>
+     * In contrast to {@link Serializer} the returned serializer is not required to be thread safe. Instead its
+     * {@link Serializer#serialize(java.util.List)} method must be called in the order in which the results are send
+     * over the connection and its {@link Serializer#deserialize(byte[])} method in the order in which the data was
+     * received.
+     * </p>
+     * 
+     * @return The serializer for the new connection. This may be this object when no state is needed for the current
+     *         configuration.
+     */
+    Serializer createConnectionSerializer();
+}
@@ -20,12 +20,13 @@
 package de.saxsys.synchronizefx.core.clientserver;
 
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.Executor;
 
-import javafx.application.Platform;
-
 import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
 import de.saxsys.synchronizefx.core.metamodel.MetaModel;
+import de.saxsys.synchronizefx.core.metamodel.RandomIdGenerator;
+import de.saxsys.synchronizefx.core.metamodel.Supplier;
 import de.saxsys.synchronizefx.core.metamodel.TopologyLayerCallback;
 import de.saxsys.synchronizefx.core.metamodel.commands.Command;
 
@@ -58,7 +59,7 @@ class DomainModelClient implements NetworkToTopologyCallbackClient, TopologyLaye
      */
     // CHECKSTYLE:ON
     DomainModelClient(final CommandTransferClient networkLayer, final ClientCallback clientCallback) {
-        this(networkLayer, clientCallback, new ExecuteInJavaFXThread());
+        this(networkLayer, clientCallback, new FrameCoalescingExecutor());
     }
 
     // CHECKSTYLE:OFF The signature for the other constructor is to long to fit in 120 characters
@@ -74,12 +75,29 @@ class DomainModelClient implements NetworkToTopologyCallbackClient, TopologyLaye
     // CHECKSTYLE:ON
     DomainModelClient(final CommandTransferClient networkLayer, final ClientCallback clientCallback,
             final Executor changeExecutor) {
+        this(networkLayer, clientCallback, changeExecutor, new RandomIdGenerator());
+    }
+
+    // CHECKSTYLE:OFF The signature for the other constructor is to long to fit in 120 characters
+    /**
+     * @param networkLayer see
+     *            {@link SynchronizeFxClient#SynchronizeFxClient(CommandTransferClient, Serializer, ClientCallback)}
+     * @param clientCallback see
+     *            {@link SynchronizeFxClient#SynchronizeFxClient(CommandTransferClient, Serializer, ClientCallback)}
+     * @param changeExecutor see
+     *            {@link SynchronizeFxClient#SynchronizeFxClient(CommandTransferClient, ClientCallback, Executor)}
+     * @param idGenerator see
+     *            {@link SynchronizeFxClient#SynchronizeFxClient(CommandTransferClient, ClientCallback, Executor, Supplier)}
+     */
+    // CHECKSTYLE:ON
+    DomainModelClient(final CommandTransferClient networkLayer, final ClientCallback clientCallback,
+            final Executor changeExecutor, final Supplier<UUID> idGenerator) {
         this.clientCallback = clientCallback;
         this.networkLayer = networkLayer;
         this.changeExecutor = changeExecutor;
         networkLayer.setTopologyCallback(this);
 
-        meta = new MetaModel(this);
+        meta = new MetaModel(this, idGenerator);
     }
 
     @Override
@@ -87,10 +105,12 @@ class DomainModelClient implements NetworkToTopologyCallbackClient, TopologyLaye
         if (LOG.isTraceEnabled()) {
             LOG.trace("Client recived commands " + commands);
         }
+        // The preparation doesn't change the domain model and therefore doesn't need to be done in the JavaFX thread.
+        final List<Object> prepared = meta.prepare(commands);
         changeExecutor.execute(new Runnable() {
             @Override
             public void run() {
-                meta.execute(commands);
+                meta.executePrepared(prepared);
             }
         });
     }
@@ -140,14 +160,4 @@ class DomainModelClient implements NetworkToTopologyCallbackClient, TopologyLaye
     public void disconnect() {
         networkLayer.disconnect();
     }
-
-    /**
-     * Executes changes to the users domain model in the JavaFX Thread.
-     */
-    private static class ExecuteInJavaFXThread implements Executor {
-        @Override
-        public void execute(final Runnable change) {
-            Platform.runLater(change);
-        }
-    }
 }
@@ -19,16 +19,28 @@
 
 package de.saxsys.synchronizefx.core.clientserver;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
-import de.saxsys.synchronizefx.core.metamodel.CommandsForDomainModelCallback;
+import de.saxsys.synchronizefx.core.metamodel.CommandChunksForDomainModelCallback;
+import de.saxsys.synchronizefx.core.metamodel.ConcurrentDomainModelWalk;
 import de.saxsys.synchronizefx.core.metamodel.MetaModel;
+import de.saxsys.synchronizefx.core.metamodel.RandomIdGenerator;
+import de.saxsys.synchronizefx.core.metamodel.Supplier;
 import de.saxsys.synchronizefx.core.metamodel.TopologyLayerCallback;
 import de.saxsys.synchronizefx.core.metamodel.commands.ClearReferences;
 import de.saxsys.synchronizefx.core.metamodel.commands.Command;
@@ -46,6 +58,11 @@ import org.slf4j.LoggerFactory;
  * @author Raik Bieniek
  */
 class DomainModelServer implements NetworkToTopologyCallbackServer, TopologyLayerCallback {
+    /**
+     * The default count of commands per chunk in which the domain model is send to newly connecting clients.
+     */
+    static final int DEFAULT_INITIAL_STATE_CHUNK_SIZE = 10000;
+
     private static final Logger LOG = LoggerFactory.getLogger(DomainModelServer.class);
 
     private final CommandTransferServer networkLayer;
@@ -53,7 +70,75 @@ class DomainModelServer implements NetworkToTopologyCallbackServer, TopologyLaye
     private final ServerCallback serverCallback;
     private final Executor changeExecutor;
 
+    /**
+     * Guards {@link #initialStateCache}, {@link #batch} and the state of the walk for a new client and ensures that no
+     * commands are send to all clients while a new client receives the initial state.
+     * 
+     * <p>
+     * This lock is not held while the domain model is walked through so that changes can still be send to the
+     * connected clients in the mean time.
+     * </p>
+     */
+    private final Object broadcastLock = new Object();
+    /**
+     * Ensures that only one client at a time receives the initial state so that concurrently connecting clients can
+     * share a single walk through the domain model.
+     */
+    private final Object connectLock = new Object();
+    private final InitialStateCache initialStateCache = new InitialStateCache();
+    private final CommandBatch batch = new CommandBatch();
+    private final Runnable flushBatchTask = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (broadcastLock) {
+                batchFlushScheduled = false;
+                flushBatch();
+            }
+        }
+    };
+    private final Runnable expireInitialStateTask = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (broadcastLock) {
+                initialStateExpiryScheduled = false;
+                expireInitialState();
+            }
+        }
+    };
+
+    /**
+     * The client that receives the commands of the walk that is in progress or <code>null</code> if there is no walk
+     * in progress.
+     */
+    private Object walkingClient;
+    private ConcurrentDomainModelWalk walk;
+    /**
+     * The commands of changes that where done while the walk is in progress and are not reflected in the walk.
+     */
+    private final List<Command> changesDuringWalk = new ArrayList<>();
+    /**
+     * Commands received from clients whose execution is postponed until no walk is in progress.
+     */
+    private final Queue<Runnable> receivedCommands = new LinkedList<>();
+
     private boolean executorCreatedLocaly;
+    private int initialStateChunkSize = DEFAULT_INITIAL_STATE_CHUNK_SIZE;
+
+    private long batchWindow;
+    private int maxBatchSize;
+    private boolean batchFlushScheduled;
+
+    private long initialStateCacheIdleTime;
+    /**
+     * The time in nanoseconds the cached initial state was created or send to a new client the last time.
+     */
+    private long initialStateLastUsed;
+    private boolean initialStateExpiryScheduled;
+
+    /**
+     * Executes delayed tasks like sending batched commands. It is created when it is needed the first time.
+     */
+    private ScheduledExecutorService scheduler;
 
     // CHECKSTYLE:OFF The signature for the other constructor is to long to fit in 120 characters
     /**
@@ -94,9 +179,28 @@ class DomainModelServer implements NetworkToTopologyCallbackServer, TopologyLaye
     // CHECKSTYLE:ON
     DomainModelServer(final Object model, final CommandTransferServer networkLayer, final ServerCallback serverCallback,
             final Executor changeExecutor) {
+        this(model, networkLayer, serverCallback, changeExecutor, new RandomIdGenerator());
+    }
+
+    // CHECKSTYLE:OFF The signature for the other constructor is to long to fit in 120 characters
+    /**
+     * @param model see
+     *            {@link SynchronizeFxServer#SynchronizeFxServer(Object, CommandTransferServer, Serializer, ServerCallback)}
+     * @param networkLayer see
+     *            {@link SynchronizeFxServer#SynchronizeFxServer(Object, CommandTransferServer, Serializer, ServerCallback)}
+     * @param serverCallback see
+     *            {@link SynchronizeFxServer#SynchronizeFxServer(Object, CommandTransferServer, Serializer, ServerCallback)}
+     * @param changeExecutor see
+     *            {@link SynchronizeFxServer#SynchronizeFxServer(Object, CommandTransferServer, Serializer, ServerCallback)}
+     * @param idGenerator see
+     *            {@link SynchronizeFxServer#SynchronizeFxServer(Object, CommandTransferServer, Executor, ServerCallback, Supplier)}
+     */
+    // CHECKSTYLE:ON
+    DomainModelServer(final Object model, final CommandTransferServer networkLayer, final ServerCallback serverCallback,
+            final Executor changeExecutor, final Supplier<UUID> idGenerator) {
         this.networkLayer = networkLayer;
         this.serverCallback = serverCallback;
-        this.meta = new MetaModel(this, model);
+        this.meta = new MetaModel(this, model, idGenerator);
         this.changeExecutor = changeExecutor;
         networkLayer.setTopologyLayerCallback(this);
         this.executorCreatedLocaly = false;
@@ -121,16 +225,56 @@ class DomainModelServer implements NetworkToTopologyCallbackServer, TopologyLaye
             }
         }
 
-        changeExecutor.execute(new Runnable() {
+        final Runnable execution = new Runnable() {
             @Override
             public void run() {
                 meta.execute(commands);
-                networkLayer.sendToAllExcept(commands, sender);
+                synchronized (broadcastLock) {
+                    // keep the order of commands that are still batched and the relayed commands
+                    flushBatch();
+                    initialStateCache.commandsSent(commands);
+                    networkLayer.sendToAllExcept(commands, sender);
+                }
                 networkLayer.send(filteredCommands, sender);
             }
+        };
+        changeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (broadcastLock) {
+                    receivedCommands.add(execution);
+                }
+                executeReceivedCommands();
+            }
         });
     }
 
+    /**
+     * Executes the commands received from clients in the order they where received unless a new client receives the
+     * commands of a walk.
+     * 
+     * <p>
+     * Holding the relayed commands back from the new client would require to exclude two clients from a broadcast.
+     * Therefore received commands are postponed until the walk has finished. This method must be called by the
+     * {@link #changeExecutor}.
+     * </p>
+     */
+    private void executeReceivedCommands() {
+        while (true) {
+            final Runnable execution;
+            synchronized (broadcastLock) {
+                if (walkingClient != null) {
+                    return;
+                }
+                execution = receivedCommands.poll();
+            }
+            if (execution == null) {
+                return;
+            }
+            execution.run();
+        }
+    }
+
     private boolean senderReceivingOwnCommandHandable(final Command command) {
         return command instanceof SetPropertyValue || command instanceof ClearReferences
                 || command instanceof ListCommand;
@@ -138,7 +282,22 @@ class DomainModelServer implements NetworkToTopologyCallbackServer, TopologyLaye
 
     @Override
     public void sendCommands(final List<Command> commands) {
-        networkLayer.sendToAll(commands);
+        synchronized (broadcastLock) {
+            if (walk != null) {
+                changesDuringWalk.addAll(walk.commandsForChange(commands));
+            }
+            if (batchWindow <= 0) {
+                broadcast(commands);
+            } else {
+                batch.add(commands);
+                if (batch.size() >= maxBatchSize) {
+                    flushBatch();
+                } else if (!batchFlushScheduled) {
+                    scheduler().schedule(flushBatchTask, batchWindow, TimeUnit.MILLISECONDS);
+                    batchFlushScheduled = true;
+                }
+            }
+        }
         if (LOG.isTraceEnabled()) {
             LOG.trace("Server sent commands " + commands);
         }
@@ -161,21 +320,252 @@ class DomainModelServer implements NetworkToTopologyCallbackServer, TopologyLaye
     /**
      * Sends the current domain model to a newly connecting client.
      * 
+     * <p>
+     * If the domain model was already walked through for a previous client, the cached commands of this walk and the
+     * commands of all changes since then are send. Only if there is no valid cached walk, the domain model is walked
+     * through again.
+     * </p>
+     * 
+     * <p>
+     * Changes to the domain model are not blocked during a new walk. They are send to the connected clients
+     * immediately. The commands of the walk are send to the new client as soon as they are created. The commands of
+     * the changes that are not reflected in the walk are send to the new client after the walk has finished. The
+     * domain model is read in small steps by the executor for model changes, so it is never read while it is changed.
+     * Commands received from clients are executed when the walk has finished.
+     * </p>
+     * 
      * @param newClient An object that represent the new client that connected.
      * @see IncommingEventHandlerServer#onConnect(Object)
      */
     @Override
     public void onConnect(final Object newClient) {
-        meta.commandsForDomainModel(new CommandsForDomainModelCallback() {
-            @Override
-            public void commandsReady(final List<Command> commands) {
-                networkLayer.onConnectFinished(newClient);
-                networkLayer.send(commands, newClient);
+        synchronized (connectLock) {
+            if (sendCachedInitialState(newClient)) {
+                return;
             }
-        });
-        // TODO networkLayer onConnectFinished(); javadoc that networklayer should then enable sendToAll for new
-        // client.
+            final ConcurrentDomainModelWalk newWalk = startWalk(newClient);
+            if (newWalk == null) {
+                return;
+            }
+            try {
+                newWalk.walk(new InitialStateSender(newClient));
+            } finally {
+                synchronized (broadcastLock) {
+                    if (walk == newWalk) {
+                        // The walk has failed.
+                        initialStateCache.invalidate();
+                        finishWalk();
+                    }
+                }
+            }
+        }
+    }
 
+    /**
+     * Prepares a walk through the domain model for a new client.
+     * 
+     * <p>
+     * This is done by the {@link #changeExecutor} so that the walk does not start while commands received from other
+     * clients are executed and relayed.
+     * </p>
+     * 
+     * @return The walk or <code>null</code> if it could not be prepared.
+     */
+    private ConcurrentDomainModelWalk startWalk(final Object newClient) {
+        final FutureTask<ConcurrentDomainModelWalk> start = new FutureTask<>(
+                new Callable<ConcurrentDomainModelWalk>() {
+                    @Override
+                    public ConcurrentDomainModelWalk call() {
+                        synchronized (broadcastLock) {
+                            // The walk already contains the changes of the batched commands.
+                            flushBatch();
+                            networkLayer.onConnectFinished(newClient);
+                            walkingClient = newClient;
+                            walk = meta.prepareConcurrentWalk(initialStateChunkSize <= 0 ? Integer.MAX_VALUE
+                                    : initialStateChunkSize, changeExecutor);
+                            if (initialStateCacheIdleTime > 0) {
+                                initialStateCache.startSnapshot();
+                            }
+                            return walk;
+                        }
+                    }
+                });
+        try {
+            changeExecutor.execute(start);
+            return start.get();
+        } catch (final RejectedExecutionException e) {
+            serverCallback.onError(new SynchronizeFXException("The domain model could not be send to a new client "
+                    + "because the executor for model changes didn't accept the task.", e));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            serverCallback.onError(new SynchronizeFXException(
+                    "Sending the domain model to a new client was interrupted.", e));
+        } catch (final ExecutionException e) {
+            serverCallback.onError(new SynchronizeFXException("The domain model could not be send to a new client.",
+                    e.getCause()));
+        }
+        return null;
+    }
+
+    /**
+     * Resets the state of the walk that is in progress and executes the commands that where received in the mean time.
+     * 
+     * <p>
+     * The caller must hold the {@link #broadcastLock}.
+     * </p>
+     */
+    private void finishWalk() {
+        walkingClient = null;
+        walk = null;
+        changesDuringWalk.clear();
+        try {
+            changeExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    executeReceivedCommands();
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            LOG.debug("Received commands are not executed because the executor for model changes was shut down.", e);
+        }
+    }
+
+    private boolean sendCachedInitialState(final Object newClient) {
+        synchronized (broadcastLock) {
+            if (!initialStateCache.isValid()) {
+                return false;
+            }
+            // batched commands must become part of the delta before it is send.
+            flushBatch();
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("Sending cached domain model of version " + initialStateCache.getSnapshotVersion()
+                        + " to new client. Current version is " + initialStateCache.getVersion() + ".");
+            }
+            networkLayer.onConnectFinished(newClient);
+            for (final List<Command> chunk : initialStateCache.getSnapshot()) {
+                networkLayer.send(chunk, newClient);
+            }
+            for (final List<Command> chunk : split(initialStateCache.getDelta())) {
+                networkLayer.send(chunk, newClient);
+            }
+            initialStateLastUsed = System.nanoTime();
+            return true;
+        }
+    }
+
+    /**
+     * Discards the cached initial state if it wasn't used for the configured idle time or checks again later.
+     * 
+     * <p>
+     * The caller must hold the {@link #broadcastLock}.
+     * </p>
+     */
+    private void expireInitialState() {
+        if (!initialStateCache.isValid()) {
+            return;
+        }
+        final long idle = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - initialStateLastUsed);
+        if (idle >= initialStateCacheIdleTime) {
+            LOG.trace("Discarding the cached domain model as it wasn't used for " + idle + " ms.");
+            initialStateCache.invalidate();
+        } else if (!initialStateExpiryScheduled) {
+            scheduler().schedule(expireInitialStateTask, initialStateCacheIdleTime - idle, TimeUnit.MILLISECONDS);
+            initialStateExpiryScheduled = true;
+        }
+    }
+
+    private List<List<Command>> split(final List<Command> commands) {
+        final List<List<Command>> chunks = new ArrayList<>();
+        final int chunkSize = initialStateChunkSize <= 0 ? commands.size() : initialStateChunkSize;
+        for (int start = 0; start < commands.size(); start += chunkSize) {
+            chunks.add(new ArrayList<>(commands.subList(start, Math.min(start + chunkSize, commands.size()))));
+        }
+        return chunks;
+    }
+
+    /**
+     * Sends all commands that are batched at the moment to all connected clients.
+     * 
+     * <p>
+     * The caller must hold the {@link #broadcastLock}.
+     * </p>
+     */
+    private void flushBatch() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        broadcast(batch.drain());
+    }
+
+    /**
+     * Sends commands to all connected clients except the client that receives the commands of a walk.
+     * 
+     * <p>
+     * The caller must hold the {@link #broadcastLock}.
+     * </p>
+     */
+    private void broadcast(final List<Command> commands) {
+        initialStateCache.commandsSent(commands);
+        if (walkingClient == null) {
+            networkLayer.sendToAll(commands);
+        } else {
+            networkLayer.sendToAllExcept(commands, walkingClient);
+        }
+    }
+
+    /**
+     * @see SynchronizeFxServer#setCommandBatching(long, int)
+     * @param window The time in milliseconds that commands are collected before they are send or 0 to disable
+     *            batching.
+     * @param maxCommands The count of commands after which a batch is send before its time window has passed.
+     */
+    void setCommandBatching(final long window, final int maxCommands) {
+        synchronized (broadcastLock) {
+            flushBatch();
+            this.batchWindow = window;
+            this.maxBatchSize = maxCommands;
+        }
+    }
+
+    /**
+     * @see SynchronizeFxServer#setInitialStateCaching(long)
+     * @param idleTime The time in milliseconds after which an unused cached domain model is discarded or 0 to disable
+     *            caching.
+     */
+    void setInitialStateCaching(final long idleTime) {
+        synchronized (broadcastLock) {
+            this.initialStateCacheIdleTime = idleTime;
+            if (idleTime <= 0) {
+                initialStateCache.invalidate();
+            }
+        }
+    }
+
+    /**
+     * The caller must hold the {@link #broadcastLock}.
+     * 
+     * @return The executor for delayed tasks.
+     */
+    private ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "synchronizefx scheduler thread-" + System.identityHashCode(r));
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return scheduler;
+    }
+
+    /**
+     * @see SynchronizeFxServer#setInitialStateChunkSize(int)
+     * @param chunkSize The maximal count of commands per chunk or 0 to send the domain model in a single chunk.
+     */
+    void setInitialStateChunkSize(final int chunkSize) {
+        this.initialStateChunkSize = chunkSize;
     }
 
     /**
@@ -225,6 +615,55 @@ class DomainModelServer implements NetworkToTopologyCallbackServer, TopologyLaye
             // If the model change executor was created by this class, this class also has to shut it down.
             ((ExecutorService) changeExecutor).shutdown();
         }
+        synchronized (broadcastLock) {
+            flushBatch();
+            if (scheduler != null) {
+                scheduler.shutdown();
+            }
+        }
         networkLayer.shutdown();
     }
+
+    /**
+     * Sends the commands of a new walk to a new client as soon as they are created and caches them if caching is
+     * enabled.
+     */
+    private final class InitialStateSender implements CommandChunksForDomainModelCallback {
+        private final Object newClient;
+
+        InitialStateSender(final Object newClient) {
+            this.newClient = newClient;
+        }
+
+        @Override
+        public void commandChunkReady(final List<Command> commands) {
+            synchronized (broadcastLock) {
+                initialStateCache.addToSnapshot(commands);
+            }
+            networkLayer.send(commands, newClient);
+        }
+
+        @Override
+        public void commandsReady(final List<Command> commands) {
+            synchronized (broadcastLock) {
+                // Batched commands are already part of the changes during the walk.
+                flushBatch();
+                // The new client keeps references to the objects created by the walk until the last command of the
+                // walk clears them. Objects that are only referenced by the changes must not be garbage collected
+                // before the changes are executed.
+                final List<Command> rest = new ArrayList<>(commands);
+                final Command clearReferences = rest.remove(rest.size() - 1);
+                rest.addAll(changesDuringWalk);
+                rest.add(clearReferences);
+                for (final List<Command> chunk : split(rest)) {
+                    initialStateCache.addToSnapshot(chunk);
+                    networkLayer.send(chunk, newClient);
+                }
+                initialStateCache.finishSnapshot();
+                initialStateLastUsed = System.nanoTime();
+                expireInitialState();
+                finishWalk();
+            }
+        }
+    }
 }
@@ -0,0 +1,202 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.saxsys.synchronizefx.core.clientserver;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes changes to the users domain model in the JavaFX thread once per frame.
+ * 
+ * <p>
+ * Passing every single change to {@link Platform#runLater(Runnable)} floods the JavaFX event queue when changes arrive
+ * at a high rate. This executor collects the changes instead and executes all of them in a single batch on every pulse
+ * of the JavaFX thread. To keep the user interface responsive, a batch is interrupted when it exceeds a time budget.
+ * The remaining changes are executed in the next frames.
+ * </p>
+ * 
+ * <p>
+ * The order in which changes where passed to this executor is always preserved.
+ * </p>
+ */
+public class FrameCoalescingExecutor implements Executor {
+
+    /**
+     * The default time in milliseconds that is spend per frame for executing changes.
+     */
+    public static final long DEFAULT_FRAME_BUDGET = 8;
+
+    private static final Logger LOG = LoggerFactory.getLogger(FrameCoalescingExecutor.class);
+
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final long frameBudget;
+    private final BacklogListener backlogListener;
+    private final Runnable startTimer = new Runnable() {
+        @Override
+        public void run() {
+            if (timer == null) {
+                timer = new AnimationTimer() {
+                    @Override
+                    public void handle(final long now) {
+                        if (!executeFrame()) {
+                            stop();
+                        }
+                    }
+                };
+            }
+            timer.start();
+        }
+    };
+
+    // Only accessed in the JavaFX thread.
+    private AnimationTimer timer;
+    private boolean fallingBehind;
+
+    /**
+     * Creates an executor that spends {@link #DEFAULT_FRAME_BUDGET} milliseconds per frame for executing changes.
+     */
+    public FrameCoalescingExecutor() {
+        this(DEFAULT_FRAME_BUDGET, TimeUnit.MILLISECONDS, null);
+    }
+
+    /**
+     * Creates an executor with a custom time budget per frame.
+     * 
+     * @param frameBudget The time that is spend per frame for executing changes. At least one change is executed per
+     *            frame even if it exceeds this budget.
+     * @param unit The unit of {@code frameBudget}.
+     * @param backlogListener A listener that is informed when changes arrive faster than they can be executed or
+     *            <code>null</code> if no one should be informed.
+     */
+    public FrameCoalescingExecutor(final long frameBudget, final TimeUnit unit,
+            final BacklogListener backlogListener) {
+        this.frameBudget = unit.toNanos(frameBudget);
+        this.backlogListener = backlogListener;
+    }
+
+    @Override
+    public void execute(final Runnable change) {
+        if (enqueue(change)) {
+            Platform.runLater(startTimer);
+        }
+    }
+
+    /**
+     * The count of changes that where passed to this executor but are not executed yet.
+     * 
+     * @return The count.
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Adds a change to the changes that should be executed in the next frame.
+     * 
+     * @param change The change.
+     * @return <code>true</code> if the execution of frames needs to be started and <code>false</code> if it is already
+     *         running.
+     */
+    boolean enqueue(final Runnable change) {
+        pending.add(change);
+        pendingCount.incrementAndGet();
+        return scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Executes the pending changes until all of them are executed or the time budget for the frame is exceeded.
+     * 
+     * @return <code>true</code> if this method needs to be called in the next frame again and <code>false</code> if
+     *         there is nothing more to do until a new change is passed to this executor.
+     */
+    boolean executeFrame() {
+        final long deadline = System.nanoTime() + frameBudget;
+        Runnable next = pending.poll();
+        while (next != null) {
+            pendingCount.decrementAndGet();
+            try {
+                next.run();
+            } catch (final RuntimeException e) {
+                LOG.error("A change to the domain model failed.", e);
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            next = pending.poll();
+        }
+
+        final int left = pendingCount.get();
+        if (left > 0) {
+            if (!fallingBehind) {
+                fallingBehind = true;
+                LOG.debug("Changes could not be executed in a single frame. " + left + " changes are left.");
+                if (backlogListener != null) {
+                    backlogListener.fallingBehind(left);
+                }
+            }
+            return true;
+        }
+        if (fallingBehind) {
+            fallingBehind = false;
+            if (backlogListener != null) {
+                backlogListener.caughtUp();
+            }
+        }
+        scheduled.set(false);
+        // A change may have been added after the queue was drained but before scheduled was reset.
+        return !pending.isEmpty() && scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Informs about changes that arrive faster than they can be executed in the JavaFX thread.
+     */
+    public interface BacklogListener {
+        /**
+         * Called when not all pending changes could be executed in the time budget of a frame.
+         * 
+         * <p>
+         * This method is called in the JavaFX thread. It isn't called again before {@link #caughtUp()} was called.
+         * </p>
+         * 
+         * @param pendingChanges The count of changes that are left for the following frames.
+         */
+        void fallingBehind(int pendingChanges);
+
+        /**
+         * Called when all pending changes where executed after {@link #fallingBehind(int)} was called.
+         * 
+         * <p>
+         * This method is called in the JavaFX thread.
+         * </p>
+         */
+        void caughtUp();
+    }
+}
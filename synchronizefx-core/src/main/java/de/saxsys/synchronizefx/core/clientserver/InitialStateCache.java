@@ -0,0 +1,174 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.clientserver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+
+/**
+ * Caches the commands that reproduce the domain model so that they can be reused for multiple connecting clients.
+ * 
+ * <p>
+ * Creating the commands for the domain model requires to walk through the whole domain model. This cache holds the
+ * commands created by the last walk (the snapshot) and all commands that where send to the connected clients since this
+ * walk has finished (the delta). A client that receives both ends up with the same domain model as a client that
+ * receives the commands of a new walk.
+ * </p>
+ * 
+ * <p>
+ * The domain model may be changed while it is walked through. The commands of these changes that are not reflected in
+ * the walk must be added to the snapshot by the caller. Commands that are send while the snapshot is created are
+ * therefore not part of the delta.
+ * </p>
+ * 
+ * <p>
+ * Every list of commands that is send to the connected clients increases the version of the domain model by one. The
+ * snapshot is tagged with the version the walk has finished at so that the size of the delta can be traced.
+ * </p>
+ * 
+ * <p>
+ * The delta grows with every change to the domain model. When it contains more commands than the snapshot, a new walk
+ * is cheaper than replaying the delta and the cache is invalidated.
+ * </p>
+ * 
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ */
+class InitialStateCache {
+
+    private List<List<Command>> snapshot;
+    private List<List<Command>> snapshotInCreation;
+    private int snapshotSize;
+    private final List<Command> delta = new ArrayList<>();
+
+    private long version;
+    private long snapshotVersion;
+
+    /**
+     * Informs the cache that a new walk through the domain model has started.
+     * 
+     * <p>
+     * The current snapshot is discarded. The chunks of the new walk need to be passed to
+     * {@link #addToSnapshot(List)}.
+     * </p>
+     */
+    void startSnapshot() {
+        snapshot = null;
+        snapshotInCreation = new ArrayList<>();
+        delta.clear();
+    }
+
+    /**
+     * Adds the next chunk of commands created by the current walk through the domain model.
+     * 
+     * @param commands The chunk.
+     */
+    void addToSnapshot(final List<Command> commands) {
+        if (snapshotInCreation != null) {
+            snapshotInCreation.add(commands);
+        }
+    }
+
+    /**
+     * Informs the cache that the current walk through the domain model has finished and all chunks where passed to
+     * {@link #addToSnapshot(List)}.
+     */
+    void finishSnapshot() {
+        if (snapshotInCreation == null) {
+            return;
+        }
+        snapshot = snapshotInCreation;
+        snapshotInCreation = null;
+        snapshotVersion = version;
+        snapshotSize = 0;
+        for (final List<Command> chunk : snapshot) {
+            snapshotSize += chunk.size();
+        }
+    }
+
+    /**
+     * Discards the current snapshot and the snapshot that is created at the moment if any.
+     */
+    void invalidate() {
+        snapshot = null;
+        snapshotInCreation = null;
+        delta.clear();
+    }
+
+    /**
+     * Informs the cache that commands have been send to all connected clients.
+     * 
+     * @param commands The commands that where send.
+     */
+    void commandsSent(final List<Command> commands) {
+        version++;
+        if (snapshot == null) {
+            return;
+        }
+        delta.addAll(commands);
+        if (delta.size() > snapshotSize) {
+            snapshot = null;
+            delta.clear();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if a snapshot is cached that can be send to new clients, <code>false</code> if a new
+     *         walk through the domain model is necessary.
+     */
+    boolean isValid() {
+        return snapshot != null;
+    }
+
+    /**
+     * The chunks of commands that where created by the last walk through the domain model.
+     * 
+     * @return The chunks or <code>null</code> if the cache is not valid.
+     */
+    List<List<Command>> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * The commands that where send to all connected clients since the walk for the snapshot has finished.
+     * 
+     * @return A copy of the commands.
+     */
+    List<Command> getDelta() {
+        return new ArrayList<>(delta);
+    }
+
+    /**
+     * @return The version of the domain model the walk for the snapshot has finished at.
+     */
+    long getSnapshotVersion() {
+        return snapshotVersion;
+    }
+
+    /**
+     * @return The current version of the domain model.
+     */
+    long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.clientserver;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+
+/**
+ * A {@link Serializer} that can write to and read from buffers supplied by the caller.
+ * 
+ * <p>
+ * This allows transmitters to serialize commands directly into their network buffers and to deserialize them from
+ * the buffers they have received without copying the data into intermediate <code>byte[]</code>s first.
+ * Transmitters that want to use this interface with any {@link Serializer} can use
+ * {@link StreamingSerializerAdapter#adapt(Serializer)}.
+ * </p>
+ */
+public interface StreamingSerializer extends Serializer {
+
+    /**
+     * Serializes a list with commands and writes the result to a stream.
+     * 
+     * <p>
+     * This method must be implemented thread safe. The stream is flushed but not closed.
+     * </p>
+     * 
+     * @param commands The commands that should be serialized.
+     * @param target The stream to write the serialized form of the commands to.
+     * @throws SynchronizeFXException When the serialization failed or the data could not be written to the stream.
+     *             When this exception is thrown, the serializer must still be able to serialize valid objects.
+     */
+    void serialize(List<Command> commands, OutputStream target) throws SynchronizeFXException;
+
+    /**
+     * Deserializes commands that where created with {@link Serializer#serialize(List)} or
+     * {@link #serialize(List, OutputStream)}.
+     * 
+     * <p>
+     * This method must be implemented thread safe. The remaining bytes of the buffer must contain exactly the
+     * serialized commands. The position of the buffer is not changed.
+     * </p>
+     * 
+     * @param commands The buffer that contains the serialized commands.
+     * @return The objects that where encoded in the buffer.
+     * @throws SynchronizeFXException When the deserialisation failed. When this exception is thrown, the serializer
+     *             must still be able to deserialize valid objects.
+     */
+    List<Command> deserialize(ByteBuffer commands) throws SynchronizeFXException;
+}
@@ -0,0 +1,97 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.clientserver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+
+/**
+ * Provides the {@link StreamingSerializer} interface for {@link Serializer}s that only support <code>byte[]</code>.
+ * 
+ * <p>
+ * The data is still converted to and from <code>byte[]</code> internally. For a buffer that is backed by an array
+ * that contains exactly the remaining bytes, the array is passed on without copying it.
+ * </p>
+ */
+public final class StreamingSerializerAdapter implements StreamingSerializer {
+
+    private final Serializer serializer;
+
+    /**
+     * Initializes the adapter.
+     * 
+     * @param serializer The serializer to adapt.
+     */
+    public StreamingSerializerAdapter(final Serializer serializer) {
+        this.serializer = serializer;
+    }
+
+    /**
+     * Returns a {@link StreamingSerializer} for any {@link Serializer}.
+     * 
+     * @param serializer The serializer that should be used.
+     * @return The serializer itself if it already implements {@link StreamingSerializer} and an adapter for it
+     *         otherwise.
+     */
+    public static StreamingSerializer adapt(final Serializer serializer) {
+        if (serializer instanceof StreamingSerializer) {
+            return (StreamingSerializer) serializer;
+        }
+        return new StreamingSerializerAdapter(serializer);
+    }
+
+    @Override
+    public byte[] serialize(final List<Command> objects) throws SynchronizeFXException {
+        return serializer.serialize(objects);
+    }
+
+    @Override
+    public List<Command> deserialize(final byte[] commands) throws SynchronizeFXException {
+        return serializer.deserialize(commands);
+    }
+
+    @Override
+    public void serialize(final List<Command> commands, final OutputStream target) throws SynchronizeFXException {
+        final byte[] data = serializer.serialize(commands);
+        try {
+            target.write(data);
+            target.flush();
+        } catch (final IOException e) {
+            throw new SynchronizeFXException("The serialized commands could not be written.", e);
+        }
+    }
+
+    @Override
+    public List<Command> deserialize(final ByteBuffer commands) throws SynchronizeFXException {
+        final int length = commands.remaining();
+        if (commands.hasArray() && commands.arrayOffset() + commands.position() == 0
+                && commands.array().length == length) {
+            return serializer.deserialize(commands.array());
+        }
+        final byte[] data = new byte[length];
+        commands.duplicate().get(data);
+        return serializer.deserialize(data);
+    }
+}
@@ -19,10 +19,14 @@
 
 package de.saxsys.synchronizefx.core.clientserver;
 
+import java.util.UUID;
 import java.util.concurrent.Executor;
 
 import javafx.beans.property.Property;
 
+import de.saxsys.synchronizefx.core.metamodel.SequentialIdGenerator;
+import de.saxsys.synchronizefx.core.metamodel.Supplier;
+
 /**
  * This class implements a client that accesses a JavaFX model made available over the network by a
  * {@link SynchronizeFxServer}. All fields of the model that implement the {@link Property} interface will be
@@ -40,7 +44,10 @@ public class SynchronizeFxClient {
      * 
      * <p>
      * This method doesn't connect to the server. Use {@link SynchronizeFxClient#connect()} for that. Using this
-     * constructor all changes done to JavaFX properties will be executed in the JavaFX GUI Thread.
+     * constructor all changes done to JavaFX properties will be executed in the JavaFX GUI Thread. The changes are
+     * executed in batches once per frame by a {@link FrameCoalescingExecutor}. Use
+     * {@link #SynchronizeFxClient(CommandTransferClient, ClientCallback, Executor)} with an own instance of it to
+     * customize the time budget per frame.
      * </p>
      * 
      * @param networkLayer An object that does the serialization and the network transfer of the data generated to
@@ -74,6 +81,26 @@ public class SynchronizeFxClient {
         impl = new DomainModelClient(networkLayer, listener, changeExecutor);
     }
 
+    /**
+     * Sets up everything that is needed to to get the domain model instance from the server with a custom generator
+     * for ids.
+     * 
+     * <p>
+     * The ids identify objects, commands and versions of lists in the domain model. By default they are generated with
+     * {@link java.util.UUID#randomUUID()} which can become a bottleneck for domain models that change very often.
+     * {@link SequentialIdGenerator} is a faster alternative.
+     * </p>
+     * 
+     * @param networkLayer see {@link #SynchronizeFxClient(CommandTransferClient, ClientCallback, Executor)}
+     * @param listener see {@link #SynchronizeFxClient(CommandTransferClient, ClientCallback, Executor)}
+     * @param changeExecutor see {@link #SynchronizeFxClient(CommandTransferClient, ClientCallback, Executor)}
+     * @param idGenerator Generates new ids. The ids must be unique across the server and all clients.
+     */
+    public SynchronizeFxClient(final CommandTransferClient networkLayer, final ClientCallback listener,
+            final Executor changeExecutor, final Supplier<UUID> idGenerator) {
+        impl = new DomainModelClient(networkLayer, listener, changeExecutor, idGenerator);
+    }
+
     /**
      * Connects to the server and requests the domain model from it.
      * 
@@ -19,10 +19,14 @@
 
 package de.saxsys.synchronizefx.core.clientserver;
 
+import java.util.UUID;
 import java.util.concurrent.Executor;
 
 import javafx.beans.property.Property;
 
+import de.saxsys.synchronizefx.core.metamodel.SequentialIdGenerator;
+import de.saxsys.synchronizefx.core.metamodel.Supplier;
+
 /**
  * This class implements a server that makes a JavaFX model available over the network. All fields of the model that
  * implement the {@link Property} interface will be synchronized between all clients.
@@ -77,6 +81,88 @@ public class SynchronizeFxServer {
         impl = new DomainModelServer(model, networkLayer, callback, changeExecutor);
     }
 
+    /**
+     * Sets up everything that is needed to serve a domain model with a custom generator for ids.
+     * 
+     * <p>
+     * The ids identify objects, commands and versions of lists in the domain model. By default they are generated with
+     * {@link java.util.UUID#randomUUID()} which can become a bottleneck for domain models that change very often.
+     * {@link SequentialIdGenerator} is a faster alternative.
+     * </p>
+     * 
+     * @param model see {@link #SynchronizeFxServer(Object, CommandTransferServer, Executor, ServerCallback)}
+     * @param networkLayer see {@link #SynchronizeFxServer(Object, CommandTransferServer, Executor, ServerCallback)}
+     * @param changeExecutor see {@link #SynchronizeFxServer(Object, CommandTransferServer, Executor, ServerCallback)}
+     * @param callback see {@link #SynchronizeFxServer(Object, CommandTransferServer, Executor, ServerCallback)}
+     * @param idGenerator Generates new ids. The ids must be unique across the server and all clients.
+     */
+    public SynchronizeFxServer(final Object model, final CommandTransferServer networkLayer,
+            final Executor changeExecutor, final ServerCallback callback, final Supplier<UUID> idGenerator) {
+        impl = new DomainModelServer(model, networkLayer, callback, changeExecutor, idGenerator);
+    }
+
+    /**
+     * Sets the maximal count of commands per chunk when sending the domain model to newly connecting clients.
+     * 
+     * <p>
+     * The domain model is send to a new client in multiple chunks while it is walked through. This way the server
+     * doesn't need to keep the commands for the whole domain model in memory and the new client can start to apply
+     * the first chunks while the server is still walking through the domain model. The default chunk size is
+     * {@value DomainModelServer#DEFAULT_INITIAL_STATE_CHUNK_SIZE} commands.
+     * </p>
+     * 
+     * <p>
+     * This method must be called before {@link SynchronizeFxServer#start()}.
+     * </p>
+     * 
+     * @param chunkSize The maximal count of commands per chunk. Pass 0 to send the whole domain model in a single
+     *            chunk.
+     */
+    public void setInitialStateChunkSize(final int chunkSize) {
+        impl.setInitialStateChunkSize(chunkSize);
+    }
+
+    /**
+     * Keeps the commands that reproduce the domain model for new clients after they where created for a client.
+     * 
+     * <p>
+     * Creating these commands requires to walk through the whole domain model. With caching enabled, the commands of
+     * the last walk are kept together with all changes since then and are send to clients that connect later on. The
+     * cache is discarded when the changes outgrow the cached commands or when no client has connected for
+     * <code>idleTime</code> milliseconds. As the cached commands need about as much memory as the domain model itself,
+     * caching is disabled by default.
+     * </p>
+     * 
+     * @param idleTime The time in milliseconds after which the cached commands are discarded when no new client has
+     *            connected. Pass 0 to disable caching.
+     */
+    public void setInitialStateCaching(final long idleTime) {
+        impl.setInitialStateCaching(idleTime);
+    }
+
+    /**
+     * Collects changes done on the server side for a short time and sends them to the clients in a single message.
+     * 
+     * <p>
+     * By default every change to the domain model is send to the clients in a separate message. When the domain model
+     * is changed frequently (e.g. by an animation or a slider that is dragged) this results in a lot of small messages.
+     * With batching enabled, all changes within the time window are merged into a single message. A change of a
+     * property that is superseded by a later change of the same property in the same window is not send at all.
+     * </p>
+     * 
+     * <p>
+     * Changes done by clients are not batched. They are send to the other clients immediately.
+     * </p>
+     * 
+     * @param window The time in milliseconds that changes are collected before they are send. Pass 0 to disable
+     *            batching.
+     * @param maxCommands The count of commands after which the collected changes are send before the time window has
+     *            passed. This must be greater than 0.
+     */
+    public void setCommandBatching(final long window, final int maxCommands) {
+        impl.setCommandBatching(window, maxCommands);
+    }
+
     /**
      * Starts the server and accepts incoming client connections.
      */
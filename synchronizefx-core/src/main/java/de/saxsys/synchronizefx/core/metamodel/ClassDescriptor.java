@@ -0,0 +1,230 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.metamodel;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.beans.property.ListProperty;
+import javafx.beans.property.MapProperty;
+import javafx.beans.property.Property;
+import javafx.beans.property.SetProperty;
+
+/**
+ * Describes the {@link Property} fields of a class.
+ * 
+ * <p>
+ * Looking up the fields of a class via reflection is expensive. As the structure of a class doesn't change at
+ * runtime, the description for each class is created only once and then reused for all instances of that class. The
+ * descriptions are immutable and can therefore be shared between all threads.
+ * </p>
+ * 
+ * <p>
+ * The descriptions are attached to the classes they describe. They don't keep these classes reachable, so the class
+ * loaders of redeployed applications can still be garbage collected.
+ * </p>
+ */
+final class ClassDescriptor {
+
+    /**
+     * The kind of a {@link Property} field which determines how the field is synchronized.
+     */
+    enum PropertyKind {
+        /**
+         * A field of type {@link ListProperty}.
+         */
+        LIST,
+        /**
+         * A field of type {@link SetProperty}.
+         */
+        SET,
+        /**
+         * A field of type {@link MapProperty}.
+         */
+        MAP,
+        /**
+         * A field of type {@link Property} which doesn't hold a collection.
+         */
+        SINGLE_VALUE
+    }
+
+    private static final ClassValue<ClassDescriptor> DESCRIPTORS = new ClassValue<ClassDescriptor>() {
+        @Override
+        protected ClassDescriptor computeValue(final Class<?> type) {
+            return new ClassDescriptor(collectPropertyFields(type));
+        }
+    };
+
+    private final List<PropertyField> propertyFields;
+    private final Map<String, PropertyField> propertyFieldsByName;
+
+    private ClassDescriptor(final List<PropertyField> propertyFields) {
+        this.propertyFields = Collections.unmodifiableList(propertyFields);
+        final Map<String, PropertyField> byName = new HashMap<>();
+        for (final PropertyField field : propertyFields) {
+            // Fields of sub classes come first and hide fields of super classes with the same name.
+            if (!byName.containsKey(field.getName())) {
+                byName.put(field.getName(), field);
+            }
+        }
+        this.propertyFieldsByName = byName;
+    }
+
+    /**
+     * Returns the description for a class.
+     * 
+     * <p>
+     * The description is only created on the first request for a class. Subsequent requests return the cached
+     * description.
+     * </p>
+     * 
+     * @param clazz
+     *            The class to describe.
+     * @return The description of the class.
+     * @throws SecurityException
+     *             If a {@link SecurityManager} is active and denies access to fields via reflection.
+     */
+    static ClassDescriptor forClass(final Class<?> clazz) throws SecurityException {
+        return DESCRIPTORS.get(clazz);
+    }
+
+    /**
+     * All {@link Property} fields of the class including the inherited ones.
+     * 
+     * <p>
+     * The fields declared in the class itself come first followed by the fields of its super class and so on. The
+     * fields are already made accessible.
+     * </p>
+     * 
+     * @return The fields in an unmodifiable list.
+     */
+    List<PropertyField> getPropertyFields() {
+        return propertyFields;
+    }
+
+    /**
+     * Looks up a {@link Property} field by its name.
+     * 
+     * <p>
+     * If sub and super classes declare fields with the same name, the field of the most specific class is returned.
+     * </p>
+     * 
+     * @param name
+     *            The name of the field.
+     * @return The field if the class has a {@link Property} field with this name or an empty {@link Optional} if not.
+     */
+    Optional<PropertyField> getPropertyField(final String name) {
+        return Optional.ofNullable(propertyFieldsByName.get(name));
+    }
+
+    /**
+     * Checks if instances of the described class are observable objects.
+     * 
+     * @return <code>true</code> if the class has at least one {@link Property} field, <code>false</code> if not.
+     */
+    boolean isObservableObject() {
+        return !propertyFields.isEmpty();
+    }
+
+    private static List<PropertyField> collectPropertyFields(final Class<?> clazz) {
+        final List<PropertyField> fields = new ArrayList<>();
+        for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+            for (final Field field : current.getDeclaredFields()) {
+                final PropertyKind kind = kindOf(field.getType());
+                if (kind != null) {
+                    field.setAccessible(true);
+                    fields.add(new PropertyField(field, kind));
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static PropertyKind kindOf(final Class<?> fieldType) {
+        if (ListProperty.class.isAssignableFrom(fieldType)) {
+            return PropertyKind.LIST;
+        } else if (SetProperty.class.isAssignableFrom(fieldType)) {
+            return PropertyKind.SET;
+        } else if (MapProperty.class.isAssignableFrom(fieldType)) {
+            return PropertyKind.MAP;
+        } else if (Property.class.isAssignableFrom(fieldType)) {
+            return PropertyKind.SINGLE_VALUE;
+        }
+        return null;
+    }
+
+    /**
+     * A {@link Property} field of a class that is already accessible via reflection.
+     */
+    static final class PropertyField {
+        private final Field field;
+        private final PropertyKind kind;
+
+        /**
+         * @param field
+         *            The field which must be already accessible.
+         * @param kind
+         *            The kind of {@link Property} the field holds.
+         */
+        PropertyField(final Field field, final PropertyKind kind) {
+            this.field = field;
+            this.kind = kind;
+        }
+
+        /**
+         * @return The reflective representation of this field.
+         */
+        Field getField() {
+            return field;
+        }
+
+        /**
+         * @return The name of this field.
+         */
+        String getName() {
+            return field.getName();
+        }
+
+        /**
+         * @return The kind of {@link Property} this field holds.
+         */
+        PropertyKind getKind() {
+            return kind;
+        }
+
+        /**
+         * Reads the value of this field.
+         * 
+         * @param object
+         *            The object that's field value should be read.
+         * @return The {@link Property} the field holds. This can be <code>null</code>.
+         * @throws IllegalAccessException
+         *             If access modifiers like {@code private} are enforced even when the model is accessed via
+         *             reflection.
+         */
+        Property<?> get(final Object object) throws IllegalAccessException {
+            return (Property<?>) field.get(object);
+        }
+    }
+}
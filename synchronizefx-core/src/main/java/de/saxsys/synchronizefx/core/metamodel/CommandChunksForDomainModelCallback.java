@@ -0,0 +1,55 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.metamodel;
+
+import java.util.List;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+
+/**
+ * A callback that receives the commands necessary to reproduce the domain model in multiple chunks.
+ * 
+ * <p>
+ * Instead of collecting all commands for the whole domain model in a single list, chunks are passed to
+ * {@link #commandChunkReady(List)} as soon as they reach the requested size. The last chunk is passed to
+ * {@link #commandsReady(List)}. It contains the commands that set the root element and clear the temporary references
+ * the receiver keeps to newly created objects. Therefore the receiver must execute all chunks in the order they where
+ * passed to this callback.
+ * </p>
+ * 
+ * @see MetaModel#commandsForDomainModel(int, CommandChunksForDomainModelCallback)
+ */
+public interface CommandChunksForDomainModelCallback extends CommandsForDomainModelCallback {
+
+    /**
+     * Used to inform that a chunk of commands is ready.
+     * 
+     * <p>
+     * This method is called while the domain model is still walked through. Unless the walk was prepared with
+     * {@link MetaModel#prepareConcurrentWalk(int, java.util.concurrent.Executor)}, no changes to the domain model are
+     * passed to {@link TopologyLayerCallback#sendCommands(List)} until the last chunk was passed to
+     * {@link #commandsReady(List)} and this method returned.
+     * </p>
+     * 
+     * @param commands
+     *            A chunk of the commands. The list is not modified after this method was called.
+     */
+    void commandChunkReady(List<Command> commands);
+}
@@ -19,16 +19,25 @@
 
 package de.saxsys.synchronizefx.core.metamodel;
 
-import java.lang.reflect.Field;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.ConcurrentModificationException;
+import java.util.Deque;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 import javafx.beans.property.ListProperty;
 import javafx.beans.property.MapProperty;
@@ -36,13 +45,18 @@ import javafx.beans.property.Property;
 import javafx.beans.property.SetProperty;
 
 import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+import de.saxsys.synchronizefx.core.metamodel.ClassDescriptor.PropertyField;
+import de.saxsys.synchronizefx.core.metamodel.ClassDescriptor.PropertyKind;
 import de.saxsys.synchronizefx.core.metamodel.ListPropertyMetaDataStore.ListPropertyMetaData;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToSet;
 import de.saxsys.synchronizefx.core.metamodel.commands.ClearReferences;
 import de.saxsys.synchronizefx.core.metamodel.commands.Command;
 import de.saxsys.synchronizefx.core.metamodel.commands.CreateObservableObject;
+import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand.ListVersionChange;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.PutToMap;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromMap;
@@ -62,10 +76,25 @@ class CommandListCreator {
      */
     public static final UUID INITIAL_LIST_VERSION = UUID.fromString("8f9e03fe-62bb-4e6e-bfa9-6247ddc5418a");
 
+    /**
+     * The maximum number of tasks of a chunked walk that are executed at once on the thread that changes the domain
+     * model. Changes that are done on this thread only need to wait for this many tasks.
+     */
+    private static final int MAX_TASKS_PER_STEP = 1000;
+
+    private static final Executor CALLING_THREAD = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+    };
+
     private final WeakObjectRegistry objectRegistry;
     private final ValueMapper valueMapper;
     private final TopologyLayerCallback topology;
     private final ListPropertyMetaDataStore listMetaDataStore;
+    private final Supplier<UUID> idGenerator;
+    private final List<NewObjectVisitor> newObjectVisitors = new ArrayList<>();
 
     /**
      * Initializes the creator.
@@ -78,13 +107,31 @@ class CommandListCreator {
      *            The user callback used to report errors.
      * @param listMetaDataStore
      *            Used to store and retrieve list version information.
+     * @param idGenerator
+     *            Generates the ids for new list versions and commands.
      */
     CommandListCreator(final WeakObjectRegistry objectRegistry, final ValueMapper valueMapper,
-            final TopologyLayerCallback topology, final ListPropertyMetaDataStore listMetaDataStore) {
+            final TopologyLayerCallback topology, final ListPropertyMetaDataStore listMetaDataStore,
+            final Supplier<UUID> idGenerator) {
         this.objectRegistry = objectRegistry;
         this.valueMapper = valueMapper;
         this.topology = topology;
         this.listMetaDataStore = listMetaDataStore;
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Adds a visitor that is informed about all observable objects that get their id in the walks done by this class.
+     * 
+     * <p>
+     * This method must be called before the first commands are created.
+     * </p>
+     * 
+     * @param visitor
+     *            The visitor to add.
+     */
+    void addNewObjectVisitor(final NewObjectVisitor visitor) {
+        newObjectVisitors.add(visitor);
     }
 
     /**
@@ -111,6 +158,47 @@ class CommandListCreator {
         callback.commandsReady(state.commands);
     }
 
+    /**
+     * @see MetaModel#commandsForDomainModel(int, CommandChunksForDomainModelCallback)
+     * 
+     * @param root
+     *            The root object of the domain model.
+     * @param maxChunkSize
+     *            The count of commands after which a chunk is passed to the callback.
+     * @param callback
+     *            The callback that takes the chunks of commands necessary to rebuild the domain model at it's current
+     *            state.
+     */
+    public void commandsForDomainModel(final Object root, final int maxChunkSize,
+            final CommandChunksForDomainModelCallback callback) {
+        prepareConcurrentWalk(root, maxChunkSize, CALLING_THREAD).walk(callback);
+    }
+
+    /**
+     * Prepares a walk that creates the commands for the domain model in chunks while it is read in steps on the thread
+     * that changes it.
+     * 
+     * <p>
+     * The domain model is read in steps of at most {@link #MAX_TASKS_PER_STEP} tasks on the
+     * <code>modelThread</code>. This way the content of each collection is read at the same time as its version and
+     * the model is never accessed by two threads at once. The chunks are passed to the callback in the calling thread
+     * between the steps.
+     * </p>
+     * 
+     * @see MetaModel#prepareConcurrentWalk(int, Executor)
+     * @param root
+     *            The root object of the domain model.
+     * @param maxChunkSize
+     *            The count of commands after which a chunk is passed to the callback.
+     * @param modelThread
+     *            The executor that does all changes to the domain model.
+     * @return The walk that was prepared.
+     */
+    public ConcurrentDomainModelWalk prepareConcurrentWalk(final Object root, final int maxChunkSize,
+            final Executor modelThread) {
+        return new ConcurrentWalk(root, new State(false, maxChunkSize), modelThread);
+    }
+
     /**
      * Creates the commands necessary to set a new value for a property.
      * 
@@ -155,6 +243,27 @@ class CommandListCreator {
         return state.commands;
     }
 
+    /**
+     * Creates the list with commands necessary to add a range of elements to a list at once.
+     * 
+     * @param listId
+     *            The ID of the list where the elements should be added.
+     * @param position
+     *            The position in the list at which the first element should be added.
+     * @param values
+     *            The elements that should be added in the order they should have in the list.
+     * @return a list with commands necessary to recreate this add all to list action.
+     */
+    public List<Command> addAllToList(final UUID listId, final int position, final List<?> values) {
+        final State state = createCommandList(new WithCommandType() {
+            @Override
+            public void invoke(final State state) {
+                addAllToList(listId, position, values, state);
+            }
+        }, true);
+        return state.commands;
+    }
+
     /**
      * Creates the list with commands necessary for an add to set action.
      * 
@@ -214,6 +323,26 @@ class CommandListCreator {
         return commands;
     }
 
+    /**
+     * Creates the list with commands necessary to reorder the elements in a range of a list.
+     * 
+     * @param listId
+     *            The ID of the list where elements where reordered.
+     * @param startPosition
+     *            The index of the first element in the reordered range.
+     * @param permutation
+     *            The new positions of the elements in the range relative to <code>startPosition</code>. See
+     *            {@link PermuteList#getPermutation()}.
+     * @return The command list.
+     */
+    public List<Command> permuteList(final UUID listId, final int startPosition, final int[] permutation) {
+        final ListVersionChange change = increaseListVersion(listId);
+        final PermuteList msg = new PermuteList(listId, change, startPosition, permutation);
+        final List<Command> commands = new ArrayList<>(1);
+        commands.add(msg);
+        return commands;
+    }
+
     /**
      * Creates the list with command necessary to remove a mapping from a map.
      * 
@@ -288,7 +417,7 @@ class CommandListCreator {
                 final ReplaceInList replaceInList = new ReplaceInList(listId, versionChange, valueMapper.map(value,
                         isObservableObject), position);
 
-                state.commands.add(replaceInList);
+                state.add(replaceInList);
             }
         }, true);
 
@@ -296,29 +425,69 @@ class CommandListCreator {
     }
 
     private void setPropertyValue(final UUID propertyId, final Object value, final State state) {
-
-        final boolean isObservableObject = createObservableObject(value, state);
-        final Value valueMsg = valueMapper.map(value, isObservableObject);
-        final SetPropertyValue msg = new SetPropertyValue(propertyId, valueMsg);
-
-        state.commands.add(msg);
+        final boolean isObservableObject = isObservableObject(value);
+        state.schedule(new Task() {
+            @Override
+            public void run() {
+                final Value valueMsg = valueMapper.map(value, isObservableObject);
+                state.add(new SetPropertyValue(idGenerator.get(), propertyId, valueMsg));
+            }
+        });
+        scheduleObservableObject(value, state);
     }
 
     private void addToList(final UUID listId, final int position, final Object value, final int newSize,
             final State state) {
-        final boolean isObservableObject = createObservableObject(value, state);
-
-        final ListPropertyMetaData metaData = listMetaDataStore.getMetaDataOrFail(listId);
-        ListVersionChange change;
-        if (state.skipKnown) {
-            // List is already known on other peers, update the version.
-            change = increaseListVersion(metaData);
-        } else {
-            // Initial walk through the whole list, do not update the version.
-            change = new ListVersionChange(metaData.getLocalVersion(), metaData.getLocalVersion());
+        final boolean isObservableObject = isObservableObject(value);
+        state.schedule(new Task() {
+            @Override
+            public void run() {
+                // List is already known on other peers, update the version.
+                final ListVersionChange change = increaseListVersion(listId);
+                state.add(new AddToList(listId, change, valueMapper.map(value, isObservableObject), position));
+            }
+        });
+        scheduleObservableObject(value, state);
+    }
+
+    /**
+     * Schedules the creation of the command that adds an element to a list in a walk through the whole domain model.
+     * 
+     * @param version
+     *            The version the list had when its elements where read. The version is not updated.
+     */
+    private void addInitialElementToList(final UUID listId, final int position, final Object value,
+            final UUID version, final State state) {
+        final boolean isObservableObject = isObservableObject(value);
+        state.schedule(new Task() {
+            @Override
+            public void run() {
+                final ListVersionChange change = new ListVersionChange(version, version);
+                state.add(new AddToList(listId, change, valueMapper.map(value, isObservableObject), position));
+            }
+        });
+        scheduleObservableObject(value, state);
+    }
+
+    private void addAllToList(final UUID listId, final int position, final List<?> values, final State state) {
+        final boolean[] isObservableObject = new boolean[values.size()];
+        for (int i = 0; i < isObservableObject.length; i++) {
+            isObservableObject[i] = isObservableObject(values.get(i));
+        }
+        state.schedule(new Task() {
+            @Override
+            public void run() {
+                final List<Value> mapped = new ArrayList<>(isObservableObject.length);
+                for (int i = 0; i < isObservableObject.length; i++) {
+                    mapped.add(valueMapper.map(values.get(i), isObservableObject[i]));
+                }
+                state.add(new AddAllToList(listId, increaseListVersion(listId), mapped, position));
+            }
+        });
+        // scheduled backwards so that the elements are created in the order they have in the list.
+        for (int i = values.size() - 1; i >= 0; i--) {
+            scheduleObservableObject(values.get(i), state);
         }
-        final AddToList msg = new AddToList(listId, change, valueMapper.map(value, isObservableObject), position);
-        state.commands.add(msg);
     }
 
     private ListVersionChange increaseListVersion(final UUID listId) {
@@ -326,32 +495,41 @@ class CommandListCreator {
     }
 
     private ListVersionChange increaseListVersion(final ListPropertyMetaData metaData) {
-        final ListVersionChange change = new ListVersionChange(metaData.getLocalVersion(), UUID.randomUUID());
+        final ListVersionChange change = new ListVersionChange(metaData.getLocalVersion(), idGenerator.get());
         metaData.setLocalVersion(change.getToVersion());
         return change;
     }
 
     private void addToSet(final UUID setId, final Object value, final State state) {
-        final AddToSet msg = new AddToSet();
-        msg.setSetId(setId);
-
-        final boolean isObservableObject = createObservableObject(value, state);
-        msg.setValue(valueMapper.map(value, isObservableObject));
-
-        state.commands.add(msg);
+        final boolean isObservableObject = isObservableObject(value);
+        state.schedule(new Task() {
+            @Override
+            public void run() {
+                final AddToSet msg = new AddToSet();
+                msg.setSetId(setId);
+                msg.setValue(valueMapper.map(value, isObservableObject));
+                state.add(msg);
+            }
+        });
+        scheduleObservableObject(value, state);
     }
 
     private void putToMap(final UUID mapId, final Object key, final Object value, final State state) {
-        final PutToMap msg = new PutToMap();
-        msg.setMapId(mapId);
-
-        final boolean keyIsObservableObject = createObservableObject(key, state);
-        final boolean valueIsObservableObject = createObservableObject(value, state);
-
-        msg.setKey(valueMapper.map(key, keyIsObservableObject));
-        msg.setValue(valueMapper.map(value, valueIsObservableObject));
-
-        state.commands.add(msg);
+        final boolean keyIsObservableObject = isObservableObject(key);
+        final boolean valueIsObservableObject = isObservableObject(value);
+        state.schedule(new Task() {
+            @Override
+            public void run() {
+                final PutToMap msg = new PutToMap();
+                msg.setMapId(mapId);
+                msg.setKey(valueMapper.map(key, keyIsObservableObject));
+                msg.setValue(valueMapper.map(value, valueIsObservableObject));
+                state.add(msg);
+            }
+        });
+        // Tasks are executed in the reverse order they where scheduled in.
+        scheduleObservableObject(value, state);
+        scheduleObservableObject(key, state);
     }
 
     /**
@@ -361,105 +539,213 @@ class CommandListCreator {
      * 
      * @param value
      *            The object for which the commands should be created.
-     * @param commandList
-     *            The list where the commands should be added to.
      * @param state
      *            The state of this domain model parsing.
      * @return true if value is an observable object and false otherwise.
      */
     private boolean createObservableObject(final Object value, final State state) {
-        if (value == null || !PropertyVisitor.isObservableObject(value.getClass())) {
-            return state.lastObjectWasObservable = false;
-        }
+        final boolean isObservableObject = scheduleObservableObject(value, state);
+        runTasks(state);
+        return state.lastObjectWasObservable = isObservableObject;
+    }
 
-        synchronized (state.alreadyVisited) {
-            if (state.alreadyVisited.containsKey(value)) {
-                return state.lastObjectWasObservable = true;
-            }
-            state.alreadyVisited.put(value, null);
+    /**
+     * Schedules the creation of the commands that are necessary to create an observable object.
+     * 
+     * <p>
+     * Whether the object is already known is only checked when the scheduled task is executed. This way the commands
+     * for an object are always created at the first place where it is encountered in the walk.
+     * </p>
+     * 
+     * @param value
+     *            The object for which the commands should be created.
+     * @param state
+     *            The state of this domain model parsing.
+     * @return true if value is an observable object and false otherwise.
+     */
+    private boolean scheduleObservableObject(final Object value, final State state) {
+        if (!isObservableObject(value)) {
+            return false;
         }
+        state.schedule(new Task() {
+            @Override
+            public void run() throws IllegalAccessException {
+                synchronized (state.alreadyVisited) {
+                    if (state.alreadyVisited.containsKey(value)) {
+                        return;
+                    }
+                    state.alreadyVisited.put(value, null);
+                }
+                if (state.skipKnown && objectRegistry.getId(value).isPresent()) {
+                    return;
+                }
+                // create the object before it's field values are set
+                state.add(createObservableObjectMessage(value));
+                state.schedule(new FieldsTask(value, state));
+            }
+        });
+        return true;
+    }
 
-        if (state.skipKnown && objectRegistry.getId(value).isPresent()) {
-            return state.lastObjectWasObservable = true;
-        }
+    private boolean isObservableObject(final Object value) {
+        return value != null && PropertyVisitor.isObservableObject(value.getClass());
+    }
 
-        final CreateObservableObject msg = new CreateObservableObject();
-        final int currentSize = state.commands.size();
+    /**
+     * Executes scheduled tasks until there are no more left.
+     * 
+     * <p>
+     * The domain model is not walked through recursively. Instead everything that is left to do is scheduled as
+     * {@link Task} so that arbitrary deep domain models can be walked through without overflowing the stack.
+     * </p>
+     */
+    private void runTasks(final State state) {
+        runTasks(state, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Executes scheduled tasks until there are no more left, <code>maxTasks</code> tasks where executed or a chunk of
+     * commands is ready to be passed on.
+     */
+    private void runTasks(final State state, final int maxTasks) {
+        int executed = 0;
+        Task task = executed < maxTasks && state.readyChunks.isEmpty() ? state.tasks.poll() : null;
+        while (task != null) {
+            try {
+                task.run();
+            } catch (final IllegalAccessException e) {
+                topology.onError(new SynchronizeFXException(e));
+            } catch (final SecurityException e) {
+                topology.onError(new SynchronizeFXException(
+                        "Maybe you're JVM doesn't allow reflection for this application?", e));
+            }
+            executed++;
+            task = executed < maxTasks && state.readyChunks.isEmpty() ? state.tasks.poll() : null;
+        }
+    }
 
+    /**
+     * Executes the next tasks of a chunked walk on the thread that changes the domain model and waits for them to
+     * finish.
+     * 
+     * @return <code>true</code> if there are no tasks left after this step and <code>false</code> otherwise.
+     */
+    private boolean runStep(final State state, final Executor modelThread) {
+        final FutureTask<Boolean> step = new FutureTask<>(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                runTasks(state, MAX_TASKS_PER_STEP);
+                state.finished = state.tasks.isEmpty();
+                return state.finished;
+            }
+        });
         try {
-            new PropertyVisitor(value) {
+            modelThread.execute(step);
+            return step.get();
+        } catch (final RejectedExecutionException e) {
+            throw new SynchronizeFXException("The domain model could not be walked through because the executor for "
+                    + "model changes didn't accept the task.", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SynchronizeFXException("The walk through the domain model was interrupted.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof SynchronizeFXException) {
+                throw (SynchronizeFXException) e.getCause();
+            }
+            throw new SynchronizeFXException("The walk through the domain model failed.", e.getCause());
+        }
+    }
 
-                @Override
-                protected boolean visitSingleValueProperty(final Property<?> fieldValue) {
-                    final UUID fieldId = registerPropertyAndParent(getCurrentField(), fieldValue);
-                    setPropertyValue(fieldId, fieldValue.getValue(), state);
-                    return false;
+    private void createFieldCommands(final Object value, final PropertyField field, final State state)
+        throws IllegalAccessException {
+        final Property<?> fieldValue = field.get(value);
+        final UUID fieldId = objectRegistry.getIdOrFail(fieldValue);
+        state.read(fieldValue);
+        switch (field.getKind()) {
+            case LIST:
+                final ListPropertyMetaData metaData = listMetaDataStore.getMetaDataOrFail((List<?>) fieldValue);
+                // The elements are added later on. They must carry the version the list had when they where read.
+                final Iterable<?> elements = state.elementsOf((ListProperty<?>) fieldValue);
+                final UUID version = metaData.getLocalVersion();
+                if (version != INITIAL_LIST_VERSION) {
+                    state.add(new RemoveFromList(fieldId, new ListVersionChange(INITIAL_LIST_VERSION, version), 0, 0));
                 }
+                state.schedule(new ElementsTask(elements.iterator(), state) {
+                    private int index;
 
-                @Override
-                protected boolean visitCollectionProperty(final ListProperty<?> fieldValue) {
-                    final boolean listWasKnown = objectRegistry.getId(fieldValue).isPresent();
-                    final UUID fieldId = registerPropertyAndParent(getCurrentField(), fieldValue);
-                    if (!listWasKnown) {
-                        // initial walk through the meta model
-                        listMetaDataStore.storeMetaDataOrFail(fieldValue, new ListPropertyMetaData(
-                                INITIAL_LIST_VERSION, INITIAL_LIST_VERSION));
-                    }
-                    final ListIterator<?> it = fieldValue.listIterator();
-
-                    final ListPropertyMetaData metaData = listMetaDataStore.getMetaDataOrFail(fieldValue);
-                    if (metaData.getLocalVersion() != INITIAL_LIST_VERSION) {
-                        state.commands.add(new RemoveFromList(fieldId, new ListVersionChange(INITIAL_LIST_VERSION,
-                                metaData.getLocalVersion()), 0, 0));
-                    }
-                    int index = 0;
-                    while (it.hasNext()) {
-                        final Object o = it.next();
-                        addToList(fieldId, index, o, index + 1, state);
+                    @Override
+                    void schedule(final Object element) {
+                        addInitialElementToList(fieldId, index, element, version, state);
                         index++;
                     }
-                    return false;
-                }
-
-                @Override
-                protected boolean visitCollectionProperty(final MapProperty<?, ?> fieldValue) {
-                    final UUID fieldId = registerPropertyAndParent(getCurrentField(), fieldValue);
-                    for (final Entry<?, ?> entry : fieldValue.entrySet()) {
+                });
+                break;
+            case MAP:
+                final MapProperty<?, ?> map = (MapProperty<?, ?>) fieldValue;
+                state.schedule(new ElementsTask(state.elementsOf(map.entrySet()).iterator(), state) {
+                    @Override
+                    void schedule(final Object element) {
+                        final Entry<?, ?> entry = (Entry<?, ?>) element;
                         putToMap(fieldId, entry.getKey(), entry.getValue(), state);
                     }
-                    return false;
-                }
-
-                @Override
-                protected boolean visitCollectionProperty(final SetProperty<?> fieldValue) {
-                    final UUID fieldId = registerPropertyAndParent(getCurrentField(), fieldValue);
-                    for (final Object entry : fieldValue) {
-                        addToSet(fieldId, entry, state);
+                });
+                break;
+            case SET:
+                state.schedule(new ElementsTask(state.elementsOf((SetProperty<?>) fieldValue).iterator(), state) {
+                    @Override
+                    void schedule(final Object element) {
+                        addToSet(fieldId, element, state);
                     }
-                    return false;
-                }
-
-                private UUID registerPropertyAndParent(final Field field, final Property<?> fieldValue) {
-                    msg.setObjectId(objectRegistry.registerIfUnknown(value));
-                    final UUID fieldId = objectRegistry.registerIfUnknown(fieldValue);
-                    msg.getPropertyNameToId().put(field.getName(), fieldId);
-                    return fieldId;
-                }
-            };
-        } catch (final IllegalAccessException e) {
-            topology.onError(new SynchronizeFXException(e));
-        } catch (final SecurityException e) {
-            topology.onError(new SynchronizeFXException(
-                    "Maybe you're JVM doesn't allow reflection for this application?", e));
+                });
+                break;
+            default:
+                setPropertyValue(fieldId, fieldValue.getValue(), state);
+                break;
         }
+    }
 
-        if (msg.getObjectId() == null) {
-            return state.lastObjectWasObservable = false;
-        }
+    /**
+     * Creates the command that creates an observable object and assigns ids to the object and all its {@link Property}
+     * fields.
+     * 
+     * <p>
+     * As all ids are known before the fields are visited, the command can be added to the command list before the
+     * commands that set the field values. This way chunks of the command list can be passed on at any time.
+     * </p>
+     * 
+     * @param value
+     *            The observable object.
+     * @return The command.
+     * @throws IllegalAccessException
+     *             If access modifiers like {@code private} are enforced even when the model is accessed via reflection.
+     */
+    private CreateObservableObject createObservableObjectMessage(final Object value) throws IllegalAccessException {
+        final CreateObservableObject msg = new CreateObservableObject();
+        final boolean objectWasKnown = objectRegistry.getId(value).isPresent();
+        msg.setObjectId(objectRegistry.registerIfUnknown(value));
         msg.setClassName(value.getClass().getName());
-        // create the object before it's field values are set
-        state.commands.add(currentSize, msg);
-        return state.lastObjectWasObservable = true;
+        if (!objectWasKnown) {
+            for (final NewObjectVisitor visitor : newObjectVisitors) {
+                visitor.visitNewObservableObject(value);
+            }
+        }
+        for (final PropertyField field : ClassDescriptor.forClass(value.getClass()).getPropertyFields()) {
+            final Property<?> fieldValue = field.get(value);
+            final boolean fieldWasKnown = objectRegistry.getId(fieldValue).isPresent();
+            final UUID fieldId = objectRegistry.registerIfUnknown(fieldValue);
+            if (!fieldWasKnown && field.getKind() == PropertyKind.LIST) {
+                // initial walk through the meta model
+                listMetaDataStore.storeMetaDataOrFail((ListProperty<?>) fieldValue, new ListPropertyMetaData(
+                        INITIAL_LIST_VERSION, INITIAL_LIST_VERSION));
+            }
+            if (!objectWasKnown) {
+                for (final NewObjectVisitor visitor : newObjectVisitors) {
+                    visitor.visitNewProperty(fieldValue, field.getKind());
+                }
+            }
+            msg.getPropertyNameToId().put(field.getName(), fieldId);
+        }
+        return msg;
     }
 
     private State createCommandList(final WithCommandType type, final boolean skipKnown) {
@@ -470,6 +756,7 @@ class CommandListCreator {
             state.reset();
             try {
                 type.invoke(state);
+                runTasks(state);
             } catch (final ConcurrentModificationException e) {
                 restart = true;
             }
@@ -486,16 +773,42 @@ class CommandListCreator {
          * only {@code synchronized} access allowed.
          */
         private final Map<Object, Object> alreadyVisited = new IdentityHashMap<>();
-        private final List<Command> commands = new LinkedList<>();
+        /**
+         * The properties whose value or content was already read. Only the keys are used.
+         */
+        private final Map<Object, Object> readProperties = new IdentityHashMap<>();
+        /**
+         * The tasks that are left to do in the walk. The last scheduled task is executed first.
+         */
+        private final Deque<Task> tasks = new ArrayDeque<>();
+        private List<Command> commands = new LinkedList<>();
         private final boolean skipKnown;
         /**
          * Holds the return value of the last invocation of
          * {@link CommandListCreator#createObservableObject(Object, State)}.
          */
         private boolean lastObjectWasObservable;
+        /**
+         * Full chunks of commands that are ready to be passed on.
+         */
+        private final Queue<List<Command>> readyChunks = new ArrayDeque<>();
+        /**
+         * The count of commands after which a chunk is ready or <code>0</code> if all commands should be collected in
+         * a single list.
+         */
+        private final int maxChunkSize;
+        /**
+         * Whether a chunked walk has no tasks left. This is only accessed by the thread that changes the domain model.
+         */
+        private boolean finished;
 
         State(final boolean skipKnown) {
+            this(skipKnown, 0);
+        }
+
+        State(final boolean skipKnown, final int maxChunkSize) {
             this.skipKnown = skipKnown;
+            this.maxChunkSize = maxChunkSize;
         }
 
         /**
@@ -503,9 +816,273 @@ class CommandListCreator {
          */
         public void reset() {
             alreadyVisited.clear();
+            readProperties.clear();
+            tasks.clear();
             commands.clear();
             lastObjectWasObservable = false;
         }
+
+        /**
+         * Schedules a task so that it is executed before all tasks that where scheduled before.
+         * 
+         * @param task
+         *            The task to schedule.
+         */
+        public void schedule(final Task task) {
+            tasks.push(task);
+        }
+
+        /**
+         * Marks a property as read so that changes to it are no longer reflected in the walk.
+         * 
+         * @param property
+         *            The property whose value or content is read.
+         */
+        public void read(final Property<?> property) {
+            readProperties.put(property, null);
+        }
+
+        /**
+         * @param property
+         *            The property to check.
+         * @return <code>true</code> if the value or the content of the property was already read and
+         *         <code>false</code> otherwise.
+         */
+        public boolean wasRead(final Object property) {
+            return readProperties.containsKey(property);
+        }
+
+        /**
+         * Adds a command to the end of the command list.
+         * 
+         * <p>
+         * If commands are created in chunks and the command list has reached the maximum chunk size, it is added to
+         * the ready chunks and a new command list is started. Commands must therefore only be added when they are
+         * complete.
+         * </p>
+         * 
+         * @param command
+         *            The command to add.
+         */
+        public void add(final Command command) {
+            commands.add(command);
+            if (maxChunkSize > 0 && commands.size() >= maxChunkSize) {
+                readyChunks.add(commands);
+                commands = new LinkedList<>();
+            }
+        }
+
+        /**
+         * The elements of a collection that should be walked through.
+         * 
+         * <p>
+         * If commands are created in chunks, a copy of the collection is returned so that concurrent modifications
+         * can't interrupt the walk. Otherwise the collection itself is returned and a
+         * {@link ConcurrentModificationException} restarts the walk.
+         * </p>
+         * 
+         * @param collection
+         *            The collection to walk through.
+         * @param <T>
+         *            The type of the elements in the collection.
+         * @return The elements to walk through.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> Iterable<T> elementsOf(final Collection<T> collection) {
+            if (maxChunkSize == 0) {
+                return collection;
+            }
+            while (true) {
+                try {
+                    return (List<T>) Arrays.asList(collection.toArray());
+                } catch (final ConcurrentModificationException e) {
+                    // the collection was modified while it was copied, try again.
+                    continue;
+                }
+            }
+        }
+    }
+
+    /**
+     * A walk through the domain model that is done in steps on the thread that changes the domain model.
+     */
+    private final class ConcurrentWalk implements ConcurrentDomainModelWalk {
+        private final Object root;
+        private final State state;
+        private final Executor modelThread;
+
+        ConcurrentWalk(final Object root, final State state, final Executor modelThread) {
+            this.root = root;
+            this.state = state;
+            this.modelThread = modelThread;
+            scheduleObservableObject(root, state);
+        }
+
+        /**
+         * @throws SynchronizeFXException
+         *             When a step could not be executed on the <code>modelThread</code>.
+         */
+        @Override
+        public void walk(final CommandChunksForDomainModelCallback callback) throws SynchronizeFXException {
+            // Chunks that where already passed to the callback can't be taken back. Therefore the walk can't be
+            // restarted on concurrent modifications like in createCommandList(). Instead copies of the collections are
+            // walked through.
+            boolean finished = false;
+            while (!finished) {
+                finished = runStep(state, modelThread);
+                List<Command> chunk = state.readyChunks.poll();
+                while (chunk != null) {
+                    callback.commandChunkReady(chunk);
+                    chunk = state.readyChunks.poll();
+                }
+            }
+
+            final SetRootElement msg = new SetRootElement();
+            msg.setRootElementId(objectRegistry.getIdOrFail(root));
+            state.commands.add(msg);
+            state.commands.add(new ClearReferences());
+
+            callback.commandsReady(state.commands);
+        }
+
+        /**
+         * Keeps the commands that change properties which where already read.
+         * 
+         * <p>
+         * Objects are always created by the walk. Their creation commands are therefore dropped. An object that is
+         * referenced by a kept command may not be reachable through the properties the walk has not read yet. It is
+         * therefore added to the walk.
+         * </p>
+         */
+        @Override
+        public List<Command> commandsForChange(final List<Command> commands) {
+            if (state.finished) {
+                return commands;
+            }
+            final List<Command> kept = new ArrayList<>(commands.size());
+            boolean changeKept = false;
+            for (final Command command : commands) {
+                if (command instanceof CreateObservableObject) {
+                    continue;
+                }
+                final UUID propertyId = changedProperty(command);
+                if (propertyId != null) {
+                    final Optional<Object> property = objectRegistry.getById(propertyId);
+                    if (!property.isPresent() || !state.wasRead(property.get())) {
+                        // The walk will read the result of this change.
+                        continue;
+                    }
+                    for (final Value value : referencedValues(command)) {
+                        if (!value.isSimpleObject()) {
+                            final Optional<Object> object = objectRegistry.getById(value.getObservableObjectId());
+                            if (object.isPresent()) {
+                                scheduleObservableObject(object.get(), state);
+                            }
+                        }
+                    }
+                    changeKept = true;
+                }
+                kept.add(command);
+            }
+            return changeKept ? kept : new ArrayList<Command>();
+        }
+
+        /**
+         * @return The id of the property that is changed by a command or <code>null</code> if the command doesn't
+         *         change a property.
+         */
+        private UUID changedProperty(final Command command) {
+            if (command instanceof SetPropertyValue) {
+                return ((SetPropertyValue) command).getPropertyId();
+            } else if (command instanceof ListCommand) {
+                return ((ListCommand) command).getListId();
+            } else if (command instanceof PutToMap) {
+                return ((PutToMap) command).getMapId();
+            } else if (command instanceof RemoveFromMap) {
+                return ((RemoveFromMap) command).getMapId();
+            } else if (command instanceof AddToSet) {
+                return ((AddToSet) command).getSetId();
+            } else if (command instanceof RemoveFromSet) {
+                return ((RemoveFromSet) command).getSetId();
+            }
+            return null;
+        }
+
+        private List<Value> referencedValues(final Command command) {
+            if (command instanceof SetPropertyValue) {
+                return Arrays.asList(((SetPropertyValue) command).getValue());
+            } else if (command instanceof AddToList) {
+                return Arrays.asList(((AddToList) command).getValue());
+            } else if (command instanceof AddAllToList) {
+                return ((AddAllToList) command).getValues();
+            } else if (command instanceof ReplaceInList) {
+                return Arrays.asList(((ReplaceInList) command).getValue());
+            } else if (command instanceof PutToMap) {
+                return Arrays.asList(((PutToMap) command).getKey(), ((PutToMap) command).getValue());
+            } else if (command instanceof RemoveFromMap) {
+                return Arrays.asList(((RemoveFromMap) command).getKey());
+            } else if (command instanceof AddToSet) {
+                return Arrays.asList(((AddToSet) command).getValue());
+            } else if (command instanceof RemoveFromSet) {
+                return Arrays.asList(((RemoveFromSet) command).getValue());
+            }
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Something that is left to do in a walk through the domain model.
+     */
+    private interface Task {
+        void run() throws IllegalAccessException;
+    }
+
+    /**
+     * Creates the commands for the {@link Property} fields of an observable object one after another.
+     */
+    private final class FieldsTask implements Task {
+        private final Object value;
+        private final List<PropertyField> fields;
+        private final State state;
+        private int next;
+
+        FieldsTask(final Object value, final State state) {
+            this.value = value;
+            this.fields = ClassDescriptor.forClass(value.getClass()).getPropertyFields();
+            this.state = state;
+        }
+
+        @Override
+        public void run() throws IllegalAccessException {
+            if (next < fields.size()) {
+                // continue with the next field when everything below this field is done.
+                state.schedule(this);
+                createFieldCommands(value, fields.get(next++), state);
+            }
+        }
+    }
+
+    /**
+     * Schedules the creation of the commands for the elements of a collection one after another.
+     */
+    private abstract static class ElementsTask implements Task {
+        private final Iterator<?> elements;
+        private final State state;
+
+        ElementsTask(final Iterator<?> elements, final State state) {
+            this.elements = elements;
+            this.state = state;
+        }
+
+        abstract void schedule(Object element);
+
+        @Override
+        public void run() {
+            if (elements.hasNext()) {
+                state.schedule(this);
+                schedule(elements.next());
+            }
+        }
     }
 
     /**
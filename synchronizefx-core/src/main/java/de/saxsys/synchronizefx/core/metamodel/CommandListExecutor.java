@@ -19,22 +19,25 @@
 
 package de.saxsys.synchronizefx.core.metamodel;
 
-import java.lang.reflect.Field;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javafx.beans.property.ListProperty;
 
 import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+import de.saxsys.synchronizefx.core.metamodel.ClassDescriptor.PropertyField;
 import de.saxsys.synchronizefx.core.metamodel.ListPropertyMetaDataStore.ListPropertyMetaData;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToSet;
 import de.saxsys.synchronizefx.core.metamodel.commands.ClearReferences;
 import de.saxsys.synchronizefx.core.metamodel.commands.CreateObservableObject;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.PutToMap;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromMap;
@@ -71,6 +74,17 @@ public class CommandListExecutor {
      */
     private final Map<Object, Object> hardReferences = new IdentityHashMap<>();
 
+    /**
+     * The last prepared but not yet executed {@link SetPropertyValue} command for simple values by the id of the
+     * property they change.
+     */
+    private final Map<UUID, SetPropertyValue> pendingPropertyValues = new ConcurrentHashMap<>();
+
+    /**
+     * The classes of observable objects that where already created by their name.
+     */
+    private final Map<String, Class<?>> classesByName = new ConcurrentHashMap<>();
+
     /**
      * Initializes the executor.
      * 
@@ -107,32 +121,78 @@ public class CommandListExecutor {
         this.listPropertyExecutor = listPropertyExecutor;
     }
 
+    /**
+     * Does all the work necessary to execute a command that doesn't change the domain model of the user.
+     * 
+     * <p>
+     * This includes instantiating new observable objects and registering them and resolving the values of
+     * collection changes. This method may be called in an other thread than {@link #execute(Object)}. All commands
+     * must be prepared in the same order they are executed.
+     * </p>
+     * 
+     * <p>
+     * Changes to lists and single-value properties are not prepared as they may need to be repaired against the local
+     * changes that are done in the thread that changes the domain model.
+     * </p>
+     * 
+     * <p>
+     * If a {@link SetPropertyValue} command for a simple value is prepared while an earlier prepared command for the
+     * same property is not executed yet, the earlier command is superseded. Executing it won't change the property
+     * anymore. This way peers that can't keep up with the incoming commands only need to do the latest change of
+     * every property.
+     * </p>
+     * 
+     * @see MetaModel#prepare(List)
+     * @param command
+     *            The command to prepare.
+     * @return The prepared command that must be passed to {@link #execute(Object)} instead of {@code command}.
+     * @throws SynchronizeFXException
+     *             when the preparation of an command failed.
+     */
+    public Object prepare(final Object command) throws SynchronizeFXException {
+        if (command instanceof CreateObservableObject) {
+            return prepare((CreateObservableObject) command);
+        } else if (command instanceof PutToMap) {
+            return prepare((PutToMap) command);
+        } else if (command instanceof RemoveFromMap) {
+            return prepare((RemoveFromMap) command);
+        } else if (command instanceof AddToSet) {
+            return prepare((AddToSet) command);
+        } else if (command instanceof RemoveFromSet) {
+            return prepare((RemoveFromSet) command);
+        } else if (command instanceof SetPropertyValue) {
+            return prepare((SetPropertyValue) command);
+        }
+        return command;
+    }
+
     /**
      * @see MetaModel#execute(Object)
      * @param command
-     *            The command to execute.
+     *            The command to execute. This can be a command that was returned by {@link #prepare(Object)} or a
+     *            command that wasn't prepared.
      * @throws SynchronizeFXException
      *             when the execution of an command failed.
      */
     public void execute(final Object command) throws SynchronizeFXException {
-        if (command instanceof CreateObservableObject) {
-            execute((CreateObservableObject) command);
+        if (command instanceof PreparedCommand) {
+            ((PreparedCommand) command).commit();
+        } else if (command instanceof CreateObservableObject || command instanceof PutToMap
+                || command instanceof RemoveFromMap || command instanceof AddToSet
+                || command instanceof RemoveFromSet) {
+            execute(prepare(command));
         } else if (command instanceof SetPropertyValue) {
             singleValuePropertyExecutor.execute((SetPropertyValue) command);
         } else if (command instanceof AddToList) {
             listPropertyExecutor.execute((AddToList) command);
+        } else if (command instanceof AddAllToList) {
+            listPropertyExecutor.execute((AddAllToList) command);
         } else if (command instanceof RemoveFromList) {
             listPropertyExecutor.execute((RemoveFromList) command);
         } else if (command instanceof ReplaceInList) {
             listPropertyExecutor.execute((ReplaceInList) command);
-        } else if (command instanceof PutToMap) {
-            execute((PutToMap) command);
-        } else if (command instanceof RemoveFromMap) {
-            execute((RemoveFromMap) command);
-        } else if (command instanceof AddToSet) {
-            execute((AddToSet) command);
-        } else if (command instanceof RemoveFromSet) {
-            execute((RemoveFromSet) command);
+        } else if (command instanceof PermuteList) {
+            listPropertyExecutor.execute((PermuteList) command);
         } else if (command instanceof ClearReferences) {
             hardReferences.clear();
         } else if (command instanceof SetRootElement) {
@@ -142,34 +202,19 @@ public class CommandListExecutor {
         }
     }
 
-    private void execute(final CreateObservableObject command) {
+    private PreparedCommand prepare(final CreateObservableObject command) {
         final Object obj;
         final Class<?> objClass;
         try {
-            objClass = Class.forName(command.getClassName());
+            objClass = classForName(command.getClassName());
             obj = objClass.newInstance();
             listeners.registerListenersOnEverything(obj);
+            final ClassDescriptor descriptor = ClassDescriptor.forClass(objClass);
+            final List<PropertyField> fields = descriptor.getPropertyFields();
+            int position = 0;
             for (final Entry<String, UUID> entry : command.getPropertyNameToId().entrySet()) {
-                Class<?> current = objClass;
-                boolean fieldFound = false;
-                while (current != Object.class) {
-                    try {
-                        final Field field = current.getDeclaredField(entry.getKey());
-                        field.setAccessible(true);
-                        registerInMetaModel(field.get(obj), entry.getValue());
-                        fieldFound = true;
-                        break;
-                    } catch (final NoSuchFieldException e) {
-                        // If it's not in this class, it's maybe in the super class. So this is no exceptional state.
-                    }
-                    current = current.getSuperclass();
-                }
-                if (!fieldFound) {
-                    throw new SynchronizeFXException(
-                            "A command with a field name was recived which doesn't exist in the related class."
-                                    + " Maybe you have different versions of the domain objects"
-                                    + " in your clients and the server?");
-                }
+                final PropertyField field = propertyField(descriptor, fields, position++, entry.getKey());
+                registerInMetaModel(field.get(obj), entry.getValue());
             }
         } catch (final InstantiationException e) {
             throw new SynchronizeFXException(
@@ -184,8 +229,49 @@ public class CommandListExecutor {
             throw new SynchronizeFXException("Maybe you're JVM doesn't allow reflection for this application?", e);
         }
 
-        hardReferences.put(obj, null);
         objectRegistry.registerObject(obj, command.getObjectId());
+        // The prepared command keeps the object alive until it is committed.
+        return new PreparedCommand() {
+            @Override
+            public void commit() {
+                hardReferences.put(obj, null);
+            }
+        };
+    }
+
+    private Class<?> classForName(final String className) throws ClassNotFoundException {
+        Class<?> clazz = classesByName.get(className);
+        if (clazz == null) {
+            clazz = Class.forName(className);
+            classesByName.put(className, clazz);
+        }
+        return clazz;
+    }
+
+    /**
+     * Finds the field for a property of a {@link CreateObservableObject} command.
+     * 
+     * <p>
+     * The properties are usually transfered in the order of {@link ClassDescriptor#getPropertyFields()}. Therefore the
+     * field at the same position is checked first and the field is only looked up by its name if it doesn't match.
+     * </p>
+     */
+    private PropertyField propertyField(final ClassDescriptor descriptor, final List<PropertyField> fields,
+            final int position, final String name) {
+        if (position < fields.size()) {
+            final PropertyField candidate = fields.get(position);
+            if (candidate.getName().equals(name)) {
+                return candidate;
+            }
+        }
+        final Optional<PropertyField> field = descriptor.getPropertyField(name);
+        if (!field.isPresent()) {
+            throw new SynchronizeFXException(
+                    "A command with a field name was recived which doesn't exist in the related class."
+                            + " Maybe you have different versions of the domain objects"
+                            + " in your clients and the server?");
+        }
+        return field.get();
     }
 
     private void registerInMetaModel(final Object object, final UUID id) {
@@ -199,65 +285,107 @@ public class CommandListExecutor {
         }
     }
 
-    private void execute(final PutToMap command) {
+    private Object prepare(final SetPropertyValue command) {
+        if (command.getValue().getObservableObjectId() != null) {
+            // Observable objects may only be kept alive by being the value of this property until a later command is
+            // executed.
+            return command;
+        }
+        pendingPropertyValues.put(command.getPropertyId(), command);
+        return new PreparedCommand() {
+            @Override
+            public void commit() {
+                if (pendingPropertyValues.remove(command.getPropertyId(), command)) {
+                    singleValuePropertyExecutor.execute(command);
+                } else {
+                    singleValuePropertyExecutor.skip(command);
+                }
+            }
+        };
+    }
+
+    private PreparedCommand prepare(final PutToMap command) {
         @SuppressWarnings("unchecked")
         final Map<Object, Object> map = (Map<Object, Object>) objectRegistry.getByIdOrFail(command.getMapId());
 
         final Object key = valueMapper.map(command.getKey());
         final Object value = valueMapper.map(command.getValue());
 
-        changeExecutor.execute(map, new Runnable() {
+        return new SilentChange(map) {
             @Override
             public void run() {
                 map.put(key, value);
             }
-        });
+        };
     }
 
-    private void execute(final RemoveFromMap command) {
+    private PreparedCommand prepare(final RemoveFromMap command) {
         @SuppressWarnings("unchecked")
         final Map<Object, Object> map = (Map<Object, Object>) objectRegistry.getByIdOrFail(command.getMapId());
 
         final Object key = valueMapper.map(command.getKey());
 
-        changeExecutor.execute(map, new Runnable() {
+        return new SilentChange(map) {
             @Override
             public void run() {
                 map.remove(key);
             }
-        });
+        };
     }
 
-    private void execute(final AddToSet command) {
+    private PreparedCommand prepare(final AddToSet command) {
         @SuppressWarnings("unchecked")
         final Set<Object> set = (Set<Object>) objectRegistry.getByIdOrFail(command.getSetId());
 
         final Object value = valueMapper.map(command.getValue());
 
-        changeExecutor.execute(set, new Runnable() {
+        return new SilentChange(set) {
             @Override
             public void run() {
                 set.add(value);
             }
-        });
+        };
     }
 
-    private void execute(final RemoveFromSet command) {
+    private PreparedCommand prepare(final RemoveFromSet command) {
         @SuppressWarnings("unchecked")
         final Set<Object> set = (Set<Object>) objectRegistry.getByIdOrFail(command.getSetId());
 
         final Object value = valueMapper.map(command.getValue());
 
-        changeExecutor.execute(set, new Runnable() {
+        return new SilentChange(set) {
             @Override
             public void run() {
                 set.remove(value);
             }
-        });
+        };
     }
 
     private void execute(final SetRootElement command) {
         final Object root = objectRegistry.getByIdOrFail(command.getRootElementId());
         this.parent.setRoot(root);
     }
+
+    /**
+     * A command that was prepared in advance and only needs to do the changes to the domain model.
+     */
+    private interface PreparedCommand {
+        void commit();
+    }
+
+    /**
+     * A prepared change on an object of the domain model that doesn't generate change commands.
+     */
+    private abstract class SilentChange implements PreparedCommand, Runnable {
+        private final Object changed;
+
+        SilentChange(final Object changed) {
+            this.changed = changed;
+        }
+
+        @Override
+        public void commit() {
+            changeExecutor.execute(changed, this);
+        }
+    }
 }
@@ -0,0 +1,71 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.metamodel;
+
+import java.util.List;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+
+/**
+ * A walk through the domain model that creates the commands to reproduce it while the domain model is still changed.
+ * 
+ * <p>
+ * The content of a collection or a property is read at some point during the walk. The commands of a change that was
+ * done before this point are already reflected in the commands of the walk and must not be send to the new peer again.
+ * The commands of a change that was done after this point must be send to the new peer after the commands of the walk.
+ * {@link #commandsForChange(List)} separates these commands. Objects that are referenced by the commands it keeps are
+ * added to the walk if they where not walked through yet.
+ * </p>
+ * 
+ * @see MetaModel#prepareConcurrentWalk(int, java.util.concurrent.Executor)
+ */
+public interface ConcurrentDomainModelWalk {
+
+    /**
+     * Walks through the domain model and passes the created commands to a callback.
+     * 
+     * <p>
+     * The domain model is read in small steps which are executed by the executor for model changes. The chunks are
+     * passed to the callback in the calling thread. This method blocks until the walk has finished and must therefore
+     * not be called by the executor for model changes itself.
+     * </p>
+     * 
+     * @param callback
+     *            The callback that takes the chunks of commands.
+     */
+    void walk(CommandChunksForDomainModelCallback callback);
+
+    /**
+     * Selects the commands of a change to the domain model that need to be send to the new peer after the commands of
+     * the walk.
+     * 
+     * <p>
+     * This method must be called by the executor for model changes for every change that is done after the walk was
+     * prepared, regardless whether the change was done by the user or by commands of an other peer. When the walk has
+     * finished, all commands are returned.
+     * </p>
+     * 
+     * @param commands
+     *            The commands of the change.
+     * @return The commands that need to be send to the new peer after the commands of the walk in the order they must
+     *         be executed.
+     */
+    List<Command> commandsForChange(List<Command> commands);
+}
@@ -19,6 +19,7 @@
 
 package de.saxsys.synchronizefx.core.metamodel;
 
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -43,10 +44,11 @@ import org.apache.commons.collections.map.ReferenceIdentityMap;
  */
 public class ListPropertyMetaDataStore {
 
-    // Apache commons collections are not generic
+    // Apache commons collections are not generic. Meta data for new lists may be stored while commands are prepared
+    // in an other thread than the one that changes the domain model.
     @SuppressWarnings("unchecked")
-    private final Map<List<?>, ListPropertyMetaData> listToData = new ReferenceIdentityMap(AbstractReferenceMap.WEAK,
-            AbstractReferenceMap.HARD);
+    private final Map<List<?>, ListPropertyMetaData> listToData = Collections.synchronizedMap(new ReferenceIdentityMap(
+            AbstractReferenceMap.WEAK, AbstractReferenceMap.HARD));
     private final WeakObjectRegistry objectRegistry;
 
     /**
@@ -19,6 +19,9 @@
 
 package de.saxsys.synchronizefx.core.metamodel;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -43,10 +46,14 @@ import javafx.collections.WeakMapChangeListener;
 import javafx.collections.WeakSetChangeListener;
 
 import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+import de.saxsys.synchronizefx.core.metamodel.ClassDescriptor.PropertyKind;
 import de.saxsys.synchronizefx.core.metamodel.ModelWalkingSynchronizer.ActionType;
 import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.executors.CommandLogDispatcher;
 
+import org.apache.commons.collections.map.AbstractReferenceMap;
+import org.apache.commons.collections.map.ReferenceIdentityMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,7 +63,7 @@ import org.slf4j.LoggerFactory;
  * 
  */
 class Listeners implements ChangeListener<Object>, ListChangeListener<Object>, SetChangeListener<Object>,
-        MapChangeListener<Object, Object> {
+        MapChangeListener<Object, Object>, NewObjectVisitor {
 
     private static final Logger LOG = LoggerFactory.getLogger(Listeners.class);
 
@@ -72,6 +79,18 @@ class Listeners implements ChangeListener<Object>, ListChangeListener<Object>, S
     private final WeakMapChangeListener<Object, Object> mapListener = new WeakMapChangeListener<>(this);
 
     private final Map<Object, Object> disabledFor = new IdentityHashMap<>();
+    /**
+     * The observable objects that's {@link Property} fields already carry the listeners.
+     * 
+     * <p>
+     * Values that are assigned to properties are only walked through until objects are reached which are already
+     * observed. Everything below such objects is observed too as new values below them are passed to the listeners.
+     * </p>
+     */
+    // Apache commons collections are not generic
+    @SuppressWarnings("unchecked")
+    private final Map<Object, Boolean> observed = new ReferenceIdentityMap(AbstractReferenceMap.WEAK,
+            AbstractReferenceMap.HARD);
 
     /**
      * Initializes the Listeners.
@@ -100,6 +119,10 @@ class Listeners implements ChangeListener<Object>, ListChangeListener<Object>, S
     /**
      * Registers listeners on all {@link Property} fields of all Objects contained in {@code model}.
      * 
+     * <p>
+     * Objects that are already observed and everything below them are skipped.
+     * </p>
+     * 
      * @param object
      *            The root of the object graph where to start registering listeners.
      */
@@ -107,6 +130,13 @@ class Listeners implements ChangeListener<Object>, ListChangeListener<Object>, S
         try {
             // the removeListener() call ensures that the listener is not added more than once
             new PropertyVisitor(object) {
+                @Override
+                protected boolean shouldVisitFields(final Object observableObject) {
+                    synchronized (observed) {
+                        return observed.put(observableObject, Boolean.TRUE) == null;
+                    }
+                }
+
                 @Override
                 protected boolean visitSingleValueProperty(final Property<?> fieldValue) {
                     fieldValue.removeListener(propertyListener);
@@ -143,6 +173,48 @@ class Listeners implements ChangeListener<Object>, ListChangeListener<Object>, S
         }
     }
 
+    /**
+     * Marks new objects as observed.
+     * 
+     * <p>
+     * The listeners are registered on the properties of the object in
+     * {@link #visitNewProperty(Property, PropertyKind)}. New objects are found while the commands for a change are
+     * created so that the changed value doesn't need to be walked through a second time.
+     * </p>
+     * 
+     * @param object
+     *            The new object.
+     */
+    @Override
+    public void visitNewObservableObject(final Object object) {
+        synchronized (observed) {
+            observed.put(object, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public void visitNewProperty(final Property<?> property, final PropertyKind kind) {
+        // the removeListener() calls ensure that the listener is not added more than once
+        switch (kind) {
+            case LIST:
+                ((ListProperty<?>) property).removeListener(listListener);
+                registerOn((ListProperty<?>) property);
+                break;
+            case SET:
+                ((SetProperty<?>) property).removeListener(setListener);
+                ((SetProperty<?>) property).addListener(setListener);
+                break;
+            case MAP:
+                ((MapProperty<?, ?>) property).removeListener(mapListener);
+                registerOn((MapProperty<?, ?>) property);
+                break;
+            default:
+                property.removeListener(propertyListener);
+                registerOn(property);
+                break;
+        }
+    }
+
     /**
      * Registers listeners on a property so that commands are created when changes in the property occur.
      * 
@@ -179,10 +251,8 @@ class Listeners implements ChangeListener<Object>, ListChangeListener<Object>, S
             return;
         }
         try {
+            // Listeners for new objects are registered while the commands are created.
             final List<Command> commands = creator.setPropertyValue(objectRegistry.getIdOrFail(property), newValue);
-            if (newValue != null) {
-                registerListenersOnEverything(newValue);
-            }
             distributeCommands(commands);
         } catch (final SynchronizeFXException e) {
             topology.onError(e);
@@ -201,30 +271,37 @@ class Listeners implements ChangeListener<Object>, ListChangeListener<Object>, S
             while (event.next()) {
                 List<Command> commands = null;
                 if (event.wasPermutated()) {
-                    LOG.warn("Got an ListChangeListener.Change event that permutates the list."
-                            + " This case is not implemented and is not synchronized.");
-                    // for (int i = event.getFrom(); i < event.getTo(); ++i) {
-                    // //TODO
-                    // }
+                    final int[] permutation = new int[event.getTo() - event.getFrom()];
+                    for (int i = 0; i < permutation.length; i++) {
+                        permutation[i] = event.getPermutation(event.getFrom() + i) - event.getFrom();
+                    }
+                    commands = creator.permuteList(listId, event.getFrom(), permutation);
                 } else if (event.wasUpdated()) {
                     LOG.warn("Got an ListChangeListener.Change event that indicates that some elements in a list"
                             + " have been updated. This case is not implemented and is not synchronized.");
                     // TODO
                 } else if (event.wasAdded()) {
-                    commands = new LinkedList<>();
-                    for (int i = event.getFrom(); i < event.getTo(); i++) {
-                        final Object elem = list.get(i);
-                        final Optional<UUID> id = objectRegistry.getId(elem);
+                    final int from = event.getFrom();
+                    final int[] reordering = event.wasRemoved() && event.getAddedSize() > 1
+                            && event.getRemovedSize() == event.getAddedSize() ? reordering(event.getRemoved(),
+                            list.subList(from, event.getTo())) : null;
+                    if (reordering != null) {
+                        // the same elements where set in an other order, e.g. by sorting a copy and calling setAll().
+                        commands = creator.permuteList(listId, from, reordering);
+                    } else if (event.wasRemoved() && event.getRemovedSize() == 1 && event.getAddedSize() == 1) {
+                        // this is a replaced event (see ListChangeListener.Change documentation)
+                        commands = creator.replaceInList(listId, from, list.get(from));
+                    } else {
+                        commands = new LinkedList<>();
                         if (event.wasRemoved()) {
-                            // this is a replaced event (see ListChangeListener.Change documentation)
-                            commands.addAll(creator.replaceInList(listId, i, elem));
-                        } else {
-                            commands.addAll(creator.addToList(listId, i, elem, list.size()));
+                            // a range of elements was replaced by an other range, e.g. through setAll().
+                            commands.addAll(creator.removeFromList(listId, from, event.getRemovedSize()));
                         }
-                        // if getId() was null, then newValue is unknown to the meta model and therefore
-                        // listeners need to be registered on it.
-                        if (elem != null && !id.isPresent()) {
-                            registerListenersOnEverything(elem);
+                        if (event.getAddedSize() == 1) {
+                            commands.addAll(creator.addToList(listId, from, list.get(from), list.size()));
+                        } else {
+                            commands.addAll(creator.addAllToList(listId, from,
+                                    new ArrayList<>(list.subList(from, event.getTo()))));
                         }
                     }
                 } else if (event.wasRemoved()) {
@@ -242,6 +319,34 @@ class Listeners implements ChangeListener<Object>, ListChangeListener<Object>, S
         }
     }
 
+    /**
+     * Checks if a range of elements was replaced by the same elements in an other order.
+     * 
+     * @return The new positions of the old elements as described in {@link PermuteList#getPermutation()} or
+     *         <code>null</code> if the new elements are not just a reordering of the old ones.
+     */
+    private int[] reordering(final List<?> oldElements, final List<?> newElements) {
+        final Map<Object, Deque<Integer>> newPositions = new IdentityHashMap<>();
+        for (int i = 0; i < newElements.size(); i++) {
+            Deque<Integer> positions = newPositions.get(newElements.get(i));
+            if (positions == null) {
+                positions = new ArrayDeque<>();
+                newPositions.put(newElements.get(i), positions);
+            }
+            positions.add(i);
+        }
+
+        final int[] permutation = new int[oldElements.size()];
+        for (int i = 0; i < permutation.length; i++) {
+            final Deque<Integer> positions = newPositions.get(oldElements.get(i));
+            if (positions == null || positions.isEmpty()) {
+                return null;
+            }
+            permutation[i] = positions.poll();
+        }
+        return permutation;
+    }
+
     @Override
     public void onChanged(final javafx.collections.SetChangeListener.Change<? extends Object> change) {
         final ObservableSet<?> set = change.getSet();
@@ -255,7 +360,6 @@ class Listeners implements ChangeListener<Object>, ListChangeListener<Object>, S
             if (change.wasAdded()) {
                 final Object value = change.getElementAdded();
                 commands = creator.addToSet(setId, value);
-                registerListenersOnEverything(value);
             } else {
                 final Object value = change.getElementRemoved();
                 commands = creator.removeFromSet(setId, value);
@@ -277,12 +381,7 @@ class Listeners implements ChangeListener<Object>, ListChangeListener<Object>, S
             final Object key = change.getKey();
             if (change.wasAdded()) {
                 final Object value = change.getValueAdded();
-                final List<Command> commands = creator.putToMap(mapId, key, value);
-                registerListenersOnEverything(key);
-                if (value != null) {
-                    registerListenersOnEverything(value);
-                }
-                distributeCommands(commands);
+                distributeCommands(creator.putToMap(mapId, key, value));
             } else {
                 distributeCommands(creator.removeFromMap(mapId, key));
             }
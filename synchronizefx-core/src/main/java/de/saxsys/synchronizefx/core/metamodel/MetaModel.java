@@ -19,8 +19,11 @@
 
 package de.saxsys.synchronizefx.core.metamodel;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
 
 import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
 import de.saxsys.synchronizefx.core.metamodel.ModelWalkingSynchronizer.ActionType;
@@ -35,6 +38,7 @@ import de.saxsys.synchronizefx.core.metamodel.executors.lists.ListCommandIndexRe
 import de.saxsys.synchronizefx.core.metamodel.executors.lists.ListCommandVersionRepairer;
 import de.saxsys.synchronizefx.core.metamodel.executors.lists.ListPropertyCommandExecutor;
 import de.saxsys.synchronizefx.core.metamodel.executors.lists.ListPropertyCommandFilter;
+import de.saxsys.synchronizefx.core.metamodel.executors.lists.PermuteListRepairer;
 import de.saxsys.synchronizefx.core.metamodel.executors.lists.RemoveFromListRepairer;
 import de.saxsys.synchronizefx.core.metamodel.executors.lists.ReparingListPropertyCommandExecutor;
 import de.saxsys.synchronizefx.core.metamodel.executors.lists.ReplaceInListRepairer;
@@ -68,7 +72,20 @@ public class MetaModel {
      *            this constructor.
      */
     public MetaModel(final TopologyLayerCallback topology) {
-        initCommonObjects(topology);
+        this(topology, new RandomIdGenerator());
+    }
+
+    /**
+     * Creates a {@link MetaModel} where the root object of the domain model is received from another node and new ids
+     * are created by a custom generator.
+     * 
+     * @see MetaModel#MetaModel(TopologyLayerCallback)
+     * @param topology see {@link MetaModel#MetaModel(TopologyLayerCallback)}
+     * @param idGenerator Generates the ids for new objects, commands and list versions. It must produce ids that
+     *            are unique across all peers, e.g. {@link RandomIdGenerator} or {@link SequentialIdGenerator}.
+     */
+    public MetaModel(final TopologyLayerCallback topology, final Supplier<UUID> idGenerator) {
+        initCommonObjects(topology, idGenerator);
 
         // CHECKSTYLE:OFF Because of line length limit. TODO find shorter class names.
         final RepairingSingleValuePropertyCommandExecutor singleValuePropertyExecutor =
@@ -79,12 +96,13 @@ public class MetaModel {
         final ReparingListPropertyCommandExecutor repairingListExecutor =
                 new ReparingListPropertyCommandExecutor(listMetaData,
                         new ListCommandIndexRepairer(new AddToListRepairer(), new RemoveFromListRepairer(),
-                                new ReplaceInListRepairer()),
-                        new ListCommandVersionRepairer(), simpleListCommandExecutor, topology);
+                                new ReplaceInListRepairer(), new PermuteListRepairer()),
+                        new ListCommandVersionRepairer(idGenerator), simpleListCommandExecutor, topology);
         final CommandLogDispatcher commandLog =
                 new CommandLogDispatcher(singleValuePropertyExecutor, repairingListExecutor);
 
         this.listeners = new Listeners(objectRegistry, creator, topology, modelWalkingSynchronizer, commandLog);
+        creator.addNewObjectVisitor(listeners);
         silentChangeExecutor.registerListenersToSilence(listeners);
         final TemporaryReferenceKeeper referenceKeeper = new TemporaryReferenceKeeper(new Supplier<Date>() {
             @Override
@@ -106,7 +124,19 @@ public class MetaModel {
      * @param root The root object of the domain model that should be served.
      */
     public MetaModel(final TopologyLayerCallback topology, final Object root) {
-        initCommonObjects(topology);
+        this(topology, root, new RandomIdGenerator());
+    }
+
+    /**
+     * Creates a {@link MetaModel} which serves a new domain model and creates new ids with a custom generator.
+     * 
+     * @see MetaModel#MetaModel(TopologyLayerCallback, Object)
+     * @param topology see {@link MetaModel#MetaModel(TopologyLayerCallback)}
+     * @param root see {@link MetaModel#MetaModel(TopologyLayerCallback, Object)}
+     * @param idGenerator see {@link MetaModel#MetaModel(TopologyLayerCallback, Supplier)}
+     */
+    public MetaModel(final TopologyLayerCallback topology, final Object root, final Supplier<UUID> idGenerator) {
+        initCommonObjects(topology, idGenerator);
         this.root = root;
 
         // CHECKSTYLE:OFF Because of line length limit. TODO find shorter class names.
@@ -116,6 +146,7 @@ public class MetaModel {
         final CommandLogDispatcher commandLog = new CommandLogDispatcher();
 
         this.listeners = new Listeners(objectRegistry, creator, topology, modelWalkingSynchronizer, commandLog);
+        creator.addNewObjectVisitor(listeners);
         silentChangeExecutor.registerListenersToSilence(listeners);
         final TemporaryReferenceKeeper referenceKeeper = new TemporaryReferenceKeeper(new Supplier<Date>() {
             @Override
@@ -131,17 +162,17 @@ public class MetaModel {
         registerListenersOnModel();
     }
 
-    private void initCommonObjects(final TopologyLayerCallback topology) {
+    private void initCommonObjects(final TopologyLayerCallback topology, final Supplier<UUID> idGenerator) {
         this.topology = topology;
 
-        this.objectRegistry = new WeakObjectRegistry();
+        this.objectRegistry = new WeakObjectRegistry(idGenerator);
         this.valueMapper = new ValueMapper(objectRegistry);
 
         this.modelWalkingSynchronizer = new ModelWalkingSynchronizer();
 
         this.listMetaData = new ListPropertyMetaDataStore(objectRegistry);
 
-        this.creator = new CommandListCreator(objectRegistry, valueMapper, topology, listMetaData);
+        this.creator = new CommandListCreator(objectRegistry, valueMapper, topology, listMetaData, idGenerator);
         this.silentChangeExecutor = new SilentChangeExecutor();
         this.simpleListCommandExecutor =
                 new SimpleListPropertyCommandExecutor(objectRegistry, silentChangeExecutor, valueMapper, listMetaData);
@@ -163,21 +194,78 @@ public class MetaModel {
      * {@link MetaModel#commandsForDomainModel(CommandsForDomainModelCallback)}.
      * </p>
      * 
+     * <p>
+     * If the domain model is walked through by {@link #commandsForDomainModel(CommandsForDomainModelCallback)} at the
+     * moment, this method doesn't wait for the walk to finish. Instead the commands are executed by the thread that
+     * does the walk after it has finished.
+     * </p>
+     * 
      * @param commands The commands that should be executed.
      */
     public void execute(final List<Command> commands) {
+        executeCommands(commands);
+    }
+
+    /**
+     * Does all the work to execute commands that doesn't change the domain model of the user.
+     * 
+     * <p>
+     * This includes the instantiation and registration of new domain objects and looking up objects by their ids. This
+     * method can be called in an other thread than {@link #executePrepared(List)} like the thread that received the
+     * commands from the network. This way these steps don't block the JavaFX thread.
+     * </p>
+     * 
+     * <p>
+     * This method is <em>not</em> Thread-safe. All commands must be prepared in the order they should be executed.
+     * </p>
+     * 
+     * <p>
+     * A prepared change of the value of a property is not done when an other change for the same property was
+     * prepared before it is executed. Only the last change is done in this case.
+     * </p>
+     * 
+     * @param commands The commands that should be prepared.
+     * @return The prepared commands that need to be passed to {@link #executePrepared(List)}. If preparing a command
+     *         failed, the list only contains the commands before it.
+     */
+    public List<Object> prepare(final List<Command> commands) {
+        final List<Object> prepared = new ArrayList<>(commands.size());
         try {
-            modelWalkingSynchronizer.doWhenModelWalkerFinished(ActionType.INCOMMING_COMMANDS, new Runnable() {
-                @Override
-                public void run() {
+            for (final Command command : commands) {
+                prepared.add(executor.prepare(command));
+            }
+        } catch (final SynchronizeFXException e) {
+            topology.onError(e);
+        }
+        return prepared;
+    }
+
+    /**
+     * Executes commands that where prepared with {@link #prepare(List)} to change the domain model of the user.
+     * 
+     * <p>
+     * This works like {@link #execute(List)}. Prepared commands must be executed in the order they where prepared.
+     * </p>
+     * 
+     * @param prepared The commands returned by {@link #prepare(List)}.
+     */
+    public void executePrepared(final List<Object> prepared) {
+        executeCommands(prepared);
+    }
+
+    private void executeCommands(final List<?> commands) {
+        modelWalkingSynchronizer.doWhenModelWalkerFinished(ActionType.INCOMMING_COMMANDS, new Runnable() {
+            @Override
+            public void run() {
+                try {
                     for (Object command : commands) {
                         execute(command);
                     }
+                } catch (final SynchronizeFXException e) {
+                    topology.onError(e);
                 }
-            });
-        } catch (final SynchronizeFXException e) {
-            topology.onError(e);
-        }
+            }
+        });
     }
 
     /**
@@ -211,13 +299,128 @@ public class MetaModel {
         }
         try {
             modelWalkingSynchronizer.startModelWalking();
-            creator.commandsForDomainModel(this.root, callback);
-            modelWalkingSynchronizer.finishedModelWalking();
+            try {
+                creator.commandsForDomainModel(this.root, callback);
+            } finally {
+                modelWalkingSynchronizer.finishedModelWalking();
+            }
+        } catch (final SynchronizeFXException e) {
+            topology.onError(e);
+        }
+    }
+
+    /**
+     * Creates the commands necessary to reproduce the entire domain model in chunks of a bounded size.
+     *
+     * <p>
+     * This works like {@link #commandsForDomainModel(CommandsForDomainModelCallback)} but doesn't keep all commands
+     * for the domain model in memory at once. Whenever {@code maxChunkSize} commands have been created, they are
+     * passed to {@link CommandChunksForDomainModelCallback#commandChunkReady(List)} while the domain model is still
+     * walked through. The remaining commands are passed to
+     * {@link CommandChunksForDomainModelCallback#commandsReady(List)} at the end. Changes to the domain model are not
+     * passed to {@link TopologyLayerCallback#sendCommands(List)} before this last call has returned.
+     * </p>
+     *
+     * <p>
+     * A chunk can exceed {@code maxChunkSize} slightly as the commands that finish the domain model are always part of
+     * the last chunk.
+     * </p>
+     *
+     * @param maxChunkSize The count of commands after which a chunk is passed to the callback. This must be greater
+     *            than 0.
+     * @param callback The callback that takes the chunks of commands.
+     */
+    public void commandsForDomainModel(final int maxChunkSize, final CommandChunksForDomainModelCallback callback) {
+        final SynchronizeFXException invalid = checkWalkPreconditions(maxChunkSize);
+        if (invalid != null) {
+            topology.onError(invalid);
+            return;
+        }
+        try {
+            modelWalkingSynchronizer.startModelWalking();
+            try {
+                creator.commandsForDomainModel(this.root, maxChunkSize, callback);
+            } finally {
+                modelWalkingSynchronizer.finishedModelWalking();
+            }
         } catch (final SynchronizeFXException e) {
             topology.onError(e);
         }
     }
 
+    /**
+     * Prepares a walk that creates the commands necessary to reproduce the entire domain model in chunks without
+     * blocking changes to it.
+     * 
+     * <p>
+     * The walk works like {@link #commandsForDomainModel(int, CommandChunksForDomainModelCallback)} but changes to the
+     * domain model are passed to {@link TopologyLayerCallback#sendCommands(List)} and incoming commands are executed
+     * while the domain model is walked through. This way peers that are already connected don't need to wait for the
+     * walk to finish.
+     * </p>
+     * 
+     * <p>
+     * The domain model is read in small steps which are executed by <code>modelChangeExecutor</code>. This must be the
+     * executor that does all changes to the domain model, so that the content and the version of each list are always
+     * read in a consistent state. Listeners for new objects are registered by this executor too.
+     * </p>
+     * 
+     * <p>
+     * The commands of a change that is done while the walk is in progress may or may not be reflected in the created
+     * commands. The caller must therefore pass all commands that are passed to
+     * {@link TopologyLayerCallback#sendCommands(List)} or that are executed via {@link #execute(List)} after this
+     * method has returned to {@link ConcurrentDomainModelWalk#commandsForChange(List)} and send the commands returned
+     * by it to the new peer after the created commands. Commands of changes that where send before this method was
+     * called must not be send to the new peer.
+     * </p>
+     * 
+     * @param maxChunkSize see {@link #commandsForDomainModel(int, CommandChunksForDomainModelCallback)}
+     * @param modelChangeExecutor The executor that does all changes to the domain model.
+     * @return The prepared walk. Errors that occur in the walk are reported to
+     *         {@link TopologyLayerCallback#onError(SynchronizeFXException)}.
+     */
+    public ConcurrentDomainModelWalk prepareConcurrentWalk(final int maxChunkSize,
+            final Executor modelChangeExecutor) {
+        final SynchronizeFXException invalid = checkWalkPreconditions(maxChunkSize);
+        final ConcurrentDomainModelWalk walk = invalid != null ? null : creator.prepareConcurrentWalk(this.root,
+                maxChunkSize, modelChangeExecutor);
+        return new ConcurrentDomainModelWalk() {
+            @Override
+            public void walk(final CommandChunksForDomainModelCallback callback) {
+                if (invalid != null) {
+                    topology.onError(invalid);
+                    return;
+                }
+                try {
+                    walk.walk(callback);
+                } catch (final SynchronizeFXException e) {
+                    topology.onError(e);
+                }
+            }
+
+            @Override
+            public List<Command> commandsForChange(final List<Command> commands) {
+                return invalid != null ? commands : walk.commandsForChange(commands);
+            }
+        };
+    }
+
+    /**
+     * @return An exception describing why the domain model can't be walked through in chunks or <code>null</code> if
+     *         it can.
+     */
+    private SynchronizeFXException checkWalkPreconditions(final int maxChunkSize) {
+        if (this.root == null) {
+            return new SynchronizeFXException("Request to create necessary commands to reproduce the domain model "
+                    + " but the root object of the domain model is not set.");
+        }
+        if (maxChunkSize <= 0) {
+            return new SynchronizeFXException("The maximum chunk size must be greater than 0 but was " + maxChunkSize
+                    + ".");
+        }
+        return null;
+    }
+
     /**
      * Set's a new object as the root object for the domain model.
      * 
@@ -255,15 +458,13 @@ public class MetaModel {
 
     private void registerListenersOnModel() {
         try {
-            // to register all objects in the id map
+            // registers all objects in the id map and the listeners on all of their properties in a single walk.
             commandsForDomainModel(new CommandsForDomainModelCallback() {
                 @Override
                 public void commandsReady(final List<Command> commands) {
                     // the commands are not needed.
                 }
             });
-            // assign UUIDs for all observable objects that don't have them until now.
-            listeners.registerListenersOnEverything(root);
         } catch (final SynchronizeFXException e) {
             topology.onError(e);
         }
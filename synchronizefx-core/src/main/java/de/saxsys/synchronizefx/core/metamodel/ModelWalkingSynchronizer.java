@@ -19,11 +19,11 @@
 
 package de.saxsys.synchronizefx.core.metamodel;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.CountDownLatch;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -31,14 +31,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This class can be used to synchronize {@link Thread}s that are waiting for an active {@link PropertyVisitor} to
- * finish.
+ * This class can be used to synchronize actions that need to wait for an active {@link PropertyVisitor} to finish.
  * 
  * <p>
  * An active {@link PropertyVisitor} is called "model walker", as it walkes through the whole domain model of the user
  * via reflection.
  * </p>
  * 
+ * <p>
+ * Actions that are passed while a model walker is active don't block the calling {@link Thread}. They are queued
+ * instead and executed by the {@link Thread} that finishes the model walking. This way the JavaFX thread is never
+ * blocked by a model walker.
+ * </p>
+ * 
  * @author Raik Bieniek
  */
 class ModelWalkingSynchronizer {
@@ -47,14 +52,13 @@ class ModelWalkingSynchronizer {
      * The type of an action that should be executed when the model walking has finished.
      * 
      * <p>
-     * {@link Thread}s that need to wait for the model walking process to finish need to call
-     * {@link ModelWalkingSynchronizer#waitUntilModelWalkerFinishes(ActionType)}. When the model walker finishes these
-     * threads are executed in the order of this {@link Enum}.
+     * Actions that are queued while the model walker is active are executed in the order of this {@link Enum} when
+     * the model walker finishes.
      * </p>
      * 
      * <p>
-     * Multiple {@link Thread}s with that registered with the same {@link ActionType} are woken up in no particular
-     * order.
+     * Multiple actions with the same {@link ActionType} are executed in the order they where passed to
+     * {@link ModelWalkingSynchronizer#doWhenModelWalkerFinished(ActionType, Runnable)}.
      * </p>
      */
     public enum ActionType {
@@ -79,17 +83,20 @@ class ModelWalkingSynchronizer {
     private static final Logger LOG = LoggerFactory.getLogger(ModelWalkingSynchronizer.class);
 
     private final Lock memberLock = new ReentrantLock();
-    private final List<Set<CountDownLatch>> actionLocks
-        = new ArrayList<Set<CountDownLatch>>(ActionType.values().length);
+    private final Condition walkerFinished = memberLock.newCondition();
+    private final List<Queue<Runnable>> actions = new ArrayList<>(ActionType.values().length);
 
-    private boolean modelWalkingInProgess;
+    /**
+     * <code>true</code> while a model walker is active or the actions queued in the mean time are executed.
+     */
+    private boolean busy;
 
     /**
      * Initializes this synchronizer.
      */
     ModelWalkingSynchronizer() {
         for (int i = 0; i < ActionType.values().length; i++) {
-            actionLocks.add(new HashSet<CountDownLatch>());
+            actions.add(new ArrayDeque<Runnable>());
         }
     }
 
@@ -97,32 +104,48 @@ class ModelWalkingSynchronizer {
      * Informs this synchronizer, that a new model walking process has started.
      * 
      * <p>
-     * If an other model walking process is currently in progress, this blocks until it has finished.
+     * If an other model walking process is currently in progress, this blocks until it has finished and all actions
+     * that where queued in the mean time where executed.
      * </p>
      */
     public void startModelWalking() {
-        doWhenModelWalkerFinished(ActionType.MODEL_WALKNG, new Runnable() {
-            @Override
-            public void run() {
-                memberLock.lock();
-                modelWalkingInProgess = true;
-                memberLock.unlock();
+        memberLock.lock();
+        try {
+            while (busy) {
+                walkerFinished.awaitUninterruptibly();
             }
-        });
+            busy = true;
+        } finally {
+            memberLock.unlock();
+        }
     }
 
     /**
      * Finishes a previously started model walking process.
+     * 
+     * <p>
+     * All actions that where queued while the model walker was active are executed in the calling {@link Thread}
+     * before this method returns.
+     * </p>
      */
     public void finishedModelWalking() {
-        runNext();
+        Runnable next = pollNext();
+        while (next != null) {
+            try {
+                next.run();
+            } catch (final RuntimeException e) {
+                LOG.error("An action that was queued while the domain model was walked through failed.", e);
+            }
+            next = pollNext();
+        }
     }
 
     /**
-     * Lets the current thread sleep until a currently running model walking thread has finished.
+     * Executes an action when no model walking process is active.
      * 
      * <p>
-     * If no model walking is currently in progress, nothing happens.
+     * If no model walking is currently in progress, the action is executed immediately in the calling {@link Thread}.
+     * Else it is queued and executed by the {@link Thread} that finishes the model walking. This method never blocks.
      * </p>
      * 
      * @param type
@@ -132,55 +155,37 @@ class ModelWalkingSynchronizer {
      */
     public void doWhenModelWalkerFinished(final ActionType type, final Runnable action) {
         memberLock.lock();
-        if (!modelWalkingInProgess) {
+        try {
+            if (busy) {
+                actions.get(type.ordinal()).add(action);
+                return;
+            }
+        } finally {
             memberLock.unlock();
-            action.run();
-            return;
         }
-        CountDownLatch latch = new CountDownLatch(1);
-        Set<CountDownLatch> latches = getLocksForAction(type);
-        latches.add(latch);
-        // FIXME There may be a race condition between the following unlock and lock.
-        memberLock.unlock();
-        awaitUninterupptetly(latch);
-
         action.run();
-
-        memberLock.lock();
-        latches.remove(latch);
-        runNext();
-        memberLock.unlock();
     }
 
-    private void awaitUninterupptetly(final CountDownLatch latch) {
-        while (latch.getCount() > 0) {
-            try {
-                latch.await();
-            } catch (InterruptedException e) {
-                LOG.warn("Waiting for model walking to finish was interuppted.");
-            }
-        }
-    }
-
-    private void runNext() {
-        int actionTypeCount = ActionType.values().length;
-        for (int nextType = 0; nextType < actionTypeCount; nextType++) {
-            Set<CountDownLatch> nextLocks = actionLocks.get(nextType);
-            if (!nextLocks.isEmpty()) {
-                CountDownLatch next = nextLocks.iterator().next();
-                // FIXME If there is a race condition in the FIX_ME above, check if next.getCount > 0 here and sleep.
-                next.countDown();
-                return;
-            }
-        }
+    /**
+     * Retrieves the queued action that should be executed next.
+     * 
+     * @return The action or <code>null</code> if there are no more queued actions. In this case the model walking
+     *         process is finished.
+     */
+    private Runnable pollNext() {
         memberLock.lock();
-        if (modelWalkingInProgess) {
-            modelWalkingInProgess = false;
+        try {
+            for (final Queue<Runnable> queue : actions) {
+                final Runnable next = queue.poll();
+                if (next != null) {
+                    return next;
+                }
+            }
+            busy = false;
+            walkerFinished.signalAll();
+            return null;
+        } finally {
+            memberLock.unlock();
         }
-        memberLock.unlock();
-    }
-
-    private Set<CountDownLatch> getLocksForAction(final ActionType action) {
-        return actionLocks.get(action.ordinal());
     }
 }
@@ -0,0 +1,59 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.metamodel;
+
+import javafx.beans.property.Property;
+
+import de.saxsys.synchronizefx.core.metamodel.ClassDescriptor.PropertyKind;
+
+/**
+ * Visits observable objects that are encountered for the first time while the {@link CommandListCreator} walks
+ * through the domain model.
+ * 
+ * <p>
+ * The {@link CommandListCreator} assigns ids to new objects, sets up the meta data of their lists and creates the
+ * commands for them. Other tasks that have to be done for every new object can be plugged into the same walk with
+ * this interface so that the domain model doesn't need to be walked through again.
+ * </p>
+ */
+interface NewObjectVisitor {
+
+    /**
+     * Called when an observable object got its id.
+     * 
+     * <p>
+     * This is called before the {@link Property} fields of the object are visited.
+     * </p>
+     * 
+     * @param object
+     *            The new observable object.
+     */
+    void visitNewObservableObject(Object object);
+
+    /**
+     * Called for every {@link Property} field of a new observable object.
+     * 
+     * @param property
+     *            The value of the field.
+     * @param kind
+     *            The kind of the field.
+     */
+    void visitNewProperty(Property<?> property, PropertyKind kind);
+}
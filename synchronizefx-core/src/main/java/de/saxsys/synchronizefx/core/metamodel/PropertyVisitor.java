@@ -20,24 +20,22 @@
 package de.saxsys.synchronizefx.core.metamodel;
 
 import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
+import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 
 import javafx.beans.property.ListProperty;
 import javafx.beans.property.MapProperty;
 import javafx.beans.property.Property;
 import javafx.beans.property.SetProperty;
 
+import de.saxsys.synchronizefx.core.metamodel.ClassDescriptor.PropertyField;
+
 /**
  * Visits all observable objects and their fields that extend {@link Property} in a domain model.
  * 
@@ -45,18 +43,19 @@ import javafx.beans.property.SetProperty;
  * model. This prevents endless loops.
  * 
  * Parents are visited before their childs.
+ * 
+ * <p>
+ * The walk doesn't use recursion. Objects that are not completely visited yet are kept on an explicit stack. Deeply
+ * nested domain models therefore don't overflow the call stack of the thread and walks can be done in slices.
+ * </p>
  */
 abstract class PropertyVisitor {
-    /**
-     * All class names of classes that are known to have no property fields and hence are treated as simple objects.
-     */
-    private static Set<Class<?>> simpleObjects = Collections.synchronizedSet(new HashSet<Class<?>>());
-
     private final Map<Object, Object> alreadyVisited = new IdentityHashMap<>();
     private Field currentField;
 
     private Deque<Object> currentObservableObject = new LinkedList<>();
     private Deque<Parent> parent = new LinkedList<>();
+    private final Deque<Frame> stack = new ArrayDeque<>();
 
     /**
      * Starts the visiting of an object.
@@ -69,7 +68,37 @@ abstract class PropertyVisitor {
      *             If access modifiers like {@code private} are enforced even when the model is accessed via reflection.
      */
     PropertyVisitor(final Object object) throws IllegalAccessException, SecurityException {
+        this();
+        startVisiting(object);
+        continueVisiting(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Prepares a walk through the domain model that is done in slices.
+     * 
+     * @see #startVisiting(Object)
+     * @see #continueVisiting(int)
+     */
+    PropertyVisitor() {
         parent.push(new Parent(null, null, null, null));
+    }
+
+    /**
+     * Starts the visiting of an object.
+     * 
+     * <p>
+     * Only the object itself is visited. Its {@link Property} fields are visited by
+     * {@link #continueVisiting(int)}.
+     * </p>
+     * 
+     * @param object
+     *            The object that's {@link Property} fields should be visited.
+     * @throws SecurityException
+     *             If a {@link SecurityManager} is active and denies access to fields via reflection.
+     * @throws IllegalAccessException
+     *             If access modifiers like {@code private} are enforced even when the model is accessed via reflection.
+     */
+    void startVisiting(final Object object) throws IllegalAccessException, SecurityException {
         visit(object);
     }
 
@@ -86,6 +115,21 @@ abstract class PropertyVisitor {
         // interested in this kind of events.
     }
 
+    /**
+     * Decides whether the {@link Property} fields of an observable object and therefore all objects below it should be
+     * visited.
+     * 
+     * This is called at most once per observable object. Overwrite this method to skip parts of the domain model that
+     * don't need to be visited again. The default implementation visits everything.
+     * 
+     * @param object
+     *            The observable object that is visited.
+     * @return {@code true} if the fields should be visited, {@code false} if not.
+     */
+    protected boolean shouldVisitFields(final Object object) {
+        return true;
+    }
+
     /**
      * Called when visiting of an observable object has finished.
      */
@@ -188,139 +232,195 @@ abstract class PropertyVisitor {
         return parent.peek().parentProperty;
     }
 
+    /**
+     * Continues the walk through the domain model.
+     * 
+     * <p>
+     * This allows to walk through the domain model in slices. A visitor created with {@link #PropertyVisitor()} must
+     * be started with {@link #startVisiting(Object)} first.
+     * </p>
+     * 
+     * @param maxSteps
+     *            The maximal count of {@link Property} fields and collection elements to visit before this method
+     *            returns.
+     * @return {@code true} if the walk is finished, {@code false} if there is more to visit.
+     * @throws IllegalAccessException
+     *             If access modifiers like {@code private} are enforced even when the model is accessed via reflection.
+     */
+    boolean continueVisiting(final int maxSteps) throws IllegalAccessException {
+        for (int step = 0; step < maxSteps; step++) {
+            final Frame frame = stack.peek();
+            if (frame == null) {
+                return true;
+            }
+            if (frame.hasNext()) {
+                frame.visitNext();
+            } else {
+                stack.pop();
+                frame.finish();
+            }
+        }
+        return stack.isEmpty();
+    }
+
     private void visit(final Object object) throws IllegalAccessException {
         if (object == null) {
             return;
         }
-        if (simpleObjects.contains(object.getClass())) {
+        final ClassDescriptor descriptor = ClassDescriptor.forClass(object.getClass());
+        if (!descriptor.isObservableObject()) {
             visitSimpleObject(object);
             return;
         }
-        if (alreadyVisited.containsKey(object)) {
-            startVisiting(object);
-            stopVisiting();
-            return;
-        }
-
-        boolean isObservableObject = visitFields(object);
-        if (isObservableObject) {
-            stopVisiting();
-        } else {
-            visitSimpleObject(object);
-            simpleObjects.add(object.getClass());
+        startVisitingObject(object);
+        if (!alreadyVisited.containsKey(object)) {
+            alreadyVisited.put(object, null);
+            if (shouldVisitFields(object)) {
+                // stopVisitingObject() is called when the fields are visited.
+                stack.push(new FieldsFrame(object, descriptor));
+                return;
+            }
         }
+        stopVisitingObject();
     }
 
-    /**
-     * 
-     * @param object
-     *            The object which fields should be visited.
-     * @return {@code true} when the object was a observable object, {@code false} when it was a simple object.
-     * @throws SecurityException
-     *             If a {@link SecurityManager} is active and denies access to fields via reflection.
-     * @throws IllegalAccessException
-     *             If access modifiers like {@code private} are enforced even when the model is accessed via reflection.
-     */
-    private boolean visitFields(final Object object) throws IllegalAccessException {
-        boolean isObservableObject = false;
-        for (final Field field : getInheritedFields(object.getClass())) {
-            field.setAccessible(true);
-            currentField = field;
-            final Class<?> fieldClass = field.getType();
-
-            if (!isObservableObject && classImplementsOrExtends(fieldClass, Property.class)) {
-                startVisiting(object);
-                isObservableObject = true;
-            }
-
-            if (classImplementsOrExtends(fieldClass, ListProperty.class)) {
-                handle((ListProperty<?>) field.get(object));
-            } else if (classImplementsOrExtends(fieldClass, SetProperty.class)) {
-                handle((SetProperty<?>) field.get(object));
-            } else if (classImplementsOrExtends(fieldClass, MapProperty.class)) {
-                handle((MapProperty<?, ?>) field.get(object));
-            } else if (classImplementsOrExtends(fieldClass, Property.class)) {
-                handle((Property<?>) field.get(object));
-            }
+    private void visitField(final Object object, final PropertyField field) throws IllegalAccessException {
+        currentField = field.getField();
+        final Property<?> fieldValue = field.get(object);
+        switch (field.getKind()) {
+            case LIST:
+                final ListProperty<?> list = (ListProperty<?>) fieldValue;
+                if (visitCollectionProperty(list)) {
+                    stack.push(new ChildrenFrame(list.listIterator()));
+                }
+                break;
+            case SET:
+                final SetProperty<?> set = (SetProperty<?>) fieldValue;
+                if (visitCollectionProperty(set)) {
+                    stack.push(new ChildrenFrame(set.iterator()));
+                }
+                break;
+            case MAP:
+                final MapProperty<?, ?> map = (MapProperty<?, ?>) fieldValue;
+                if (visitCollectionProperty(map)) {
+                    stack.push(new ChildrenFrame(new KeysAndValues(map.entrySet().iterator())));
+                }
+                break;
+            default:
+                if (visitSingleValueProperty(fieldValue)) {
+                    visit(fieldValue.getValue());
+                }
+                break;
         }
-        return isObservableObject;
     }
 
-    private void startVisiting(final Object object) {
-        alreadyVisited.put(object, null);
+    private void startVisitingObject(final Object object) {
         currentObservableObject.push(object);
         visitObservableObjectStart();
     }
 
-    private void stopVisiting() {
+    private void stopVisitingObject() {
         visitObservableObjectEnd();
         currentObservableObject.pop();
     }
 
-    private void handle(final ListProperty<?> property) throws IllegalAccessException {
-        if (visitCollectionProperty(property)) {
-            Iterator<?> it = property.listIterator();
-            while (it.hasNext()) {
-                visit(it.next());
-            }
-        }
+    /**
+     * A part of the walk that is not finished yet.
+     */
+    private interface Frame {
+        boolean hasNext();
+
+        void visitNext() throws IllegalAccessException;
+
+        void finish();
     }
 
-    private void handle(final SetProperty<?> property) throws IllegalAccessException {
-        if (visitCollectionProperty(property)) {
-            for (Object child : property) {
-                visit(child);
-            }
+    /**
+     * Visits the {@link Property} fields of an observable object.
+     */
+    private final class FieldsFrame implements Frame {
+        private final Object object;
+        private final List<PropertyField> fields;
+        private int next;
+
+        FieldsFrame(final Object object, final ClassDescriptor descriptor) {
+            this.object = object;
+            this.fields = descriptor.getPropertyFields();
         }
-    }
 
-    private void handle(final MapProperty<?, ?> property) throws IllegalAccessException {
-        if (visitCollectionProperty(property)) {
-            for (Entry<?, ?> entry : property.entrySet()) {
-                visit(entry.getKey());
-                visit(entry.getValue());
-            }
+        @Override
+        public boolean hasNext() {
+            return next < fields.size();
+        }
+
+        @Override
+        public void visitNext() throws IllegalAccessException {
+            visitField(object, fields.get(next++));
         }
-    }
 
-    private void handle(final Property<?> property) throws IllegalAccessException {
-        if (visitSingleValueProperty(property)) {
-            Object value = property.getValue();
-            visit(value);
+        @Override
+        public void finish() {
+            stopVisitingObject();
         }
     }
 
-    private List<Field> getInheritedFields(final Class<?> type) {
-        final List<Field> fields = new ArrayList<Field>();
-        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
-            fields.addAll(Arrays.asList(c.getDeclaredFields()));
+    /**
+     * Visits the elements of a collection.
+     */
+    private final class ChildrenFrame implements Frame {
+        private final Iterator<?> children;
+
+        ChildrenFrame(final Iterator<?> children) {
+            this.children = children;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return children.hasNext();
+        }
+
+        @Override
+        public void visitNext() throws IllegalAccessException {
+            visit(children.next());
+        }
+
+        @Override
+        public void finish() {
+            // Nothing to clean up.
         }
-        return fields;
     }
 
     /**
-     * Checks if a {@link Class} implements a specified interface.
-     * 
-     * @param is
-     *            The class that should be checked if it implements an interface.
-     * @param should
-     *            The interface that should be checked for.
-     * @return {@code true} if the class implements the interface {@code false} otherwise.
+     * Returns the key and then the value of each entry of a map.
      */
-    private boolean classImplementsOrExtends(final Class<?> is, final Class<?> should) {
-        if (is.equals(should)) {
-            return true;
+    private static final class KeysAndValues implements Iterator<Object> {
+        private final Iterator<? extends Entry<?, ?>> entries;
+        private Entry<?, ?> current;
+
+        KeysAndValues(final Iterator<? extends Entry<?, ?>> entries) {
+            this.entries = entries;
         }
-        for (final Class<?> clazz : is.getInterfaces()) {
-            if (classImplementsOrExtends(clazz, should)) {
-                return true;
+
+        @Override
+        public boolean hasNext() {
+            return current != null || entries.hasNext();
+        }
+
+        @Override
+        public Object next() {
+            if (current != null) {
+                final Object value = current.getValue();
+                current = null;
+                return value;
             }
+            current = entries.next();
+            return current.getKey();
         }
-        final Class<?> superClass = is.getSuperclass();
-        if (superClass != null && !superClass.equals(Object.class)) {
-            return classImplementsOrExtends(superClass, should);
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
         }
-        return false;
     }
 
     /**
@@ -349,6 +449,6 @@ abstract class PropertyVisitor {
      * @return {@code true} if they are observable objects, {@code false} if not.
      */
     public static boolean isObservableObject(final Class<?> clazz) {
-        return !simpleObjects.contains(clazz);
+        return ClassDescriptor.forClass(clazz).isObservableObject();
     }
 }
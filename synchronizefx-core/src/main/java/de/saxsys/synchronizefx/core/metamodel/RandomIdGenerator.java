@@ -0,0 +1,39 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.metamodel;
+
+import java.util.UUID;
+
+/**
+ * Generates ids with {@link UUID#randomUUID()}.
+ * 
+ * <p>
+ * This is the default id generator. The ids are produced by a cryptographically strong random number generator which
+ * is comparatively slow and contended when many threads use it. {@link SequentialIdGenerator} is a faster
+ * alternative.
+ * </p>
+ */
+public class RandomIdGenerator implements Supplier<UUID> {
+
+    @Override
+    public UUID get() {
+        return UUID.randomUUID();
+    }
+}
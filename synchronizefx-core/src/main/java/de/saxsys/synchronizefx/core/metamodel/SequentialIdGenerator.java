@@ -0,0 +1,74 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.metamodel;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates ids that consist of a prefix identifying the peer and a counter.
+ * 
+ * <p>
+ * Generating an id only requires incrementing an atomic counter which is much faster than {@link UUID#randomUUID()}.
+ * The prefix forms the {@link UUID#getMostSignificantBits()} and the counter the
+ * {@link UUID#getLeastSignificantBits()} of the ids. By default the prefix is chosen randomly once for every instance
+ * so that the ids of different peers don't collide. The version bits of the prefix are cleared. The generated ids
+ * therefore never collide with ids of peers that use {@link RandomIdGenerator} which produces version 4
+ * {@link UUID}s.
+ * </p>
+ * 
+ * <p>
+ * Every {@link MetaModel} should use its own instance so that all peers use different prefixes.
+ * </p>
+ */
+public class SequentialIdGenerator implements Supplier<UUID> {
+
+    private static final long VERSION_BITS = 0xF000L;
+
+    private final long prefix;
+    private final AtomicLong counter = new AtomicLong();
+
+    /**
+     * Initializes the generator with a random prefix.
+     */
+    public SequentialIdGenerator() {
+        this(new SecureRandom().nextLong());
+    }
+
+    /**
+     * Initializes the generator with a fixed prefix.
+     * 
+     * <p>
+     * The prefix must be unique for all peers that synchronize the same domain model. The bits that represent the
+     * version of a {@link UUID} are ignored.
+     * </p>
+     * 
+     * @param prefix The most significant bits of all ids that are generated.
+     */
+    public SequentialIdGenerator(final long prefix) {
+        this.prefix = prefix & ~VERSION_BITS;
+    }
+
+    @Override
+    public UUID get() {
+        return new UUID(prefix, counter.incrementAndGet());
+    }
+}
@@ -19,17 +19,16 @@
 
 package de.saxsys.synchronizefx.core.metamodel;
 
-import java.util.Map;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static java.lang.String.format;
 
 import de.saxsys.synchronizefx.core.exceptions.ObjectToIdMappingException;
 
-import org.apache.commons.collections.map.AbstractReferenceMap;
-import org.apache.commons.collections.map.ReferenceIdentityMap;
-import org.apache.commons.collections.map.ReferenceMap;
-
 /**
  * Maps arbitrary objects to {@link UUID} without storing hard references to them.
  * 
@@ -37,17 +36,44 @@ import org.apache.commons.collections.map.ReferenceMap;
  * Objects in this registry that have no hard references to them in some other place may be removed from this registry
  * at any time.
  * </p>
+ * 
+ * <p>
+ * The registry is looked up for nearly every command that is executed and for every change on the domain model. The
+ * lookups therefore don't lock and don't allocate objects. Both directions are stored in open addressing hash tables
+ * that share one weak entry per registered object. Ids are compared by their two <code>long</code> values and objects
+ * by their identity. Modifications are synchronized. Entries of objects that have been garbage collected are removed
+ * on the next modification.
+ * </p>
  */
 public class WeakObjectRegistry {
 
     private static final String SYNCRONISM_LOST = "In most cases this means that synchronism with other peers "
             + "has been lost.";
-    // Apache commons collections are not generic
-    @SuppressWarnings("unchecked")
-    private Map<Object, UUID> objectToId = new ReferenceIdentityMap(AbstractReferenceMap.WEAK,
-            AbstractReferenceMap.HARD);
-    @SuppressWarnings("unchecked")
-    private Map<UUID, Object> idToObject = new ReferenceMap(AbstractReferenceMap.HARD, AbstractReferenceMap.WEAK);
+
+    private static final Entry TOMBSTONE = new Entry();
+    private static final int MIN_CAPACITY = 64;
+
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private final Index idToObject = new IdIndex();
+    private final Index objectToId = new ObjectIndex();
+    private final Supplier<UUID> idGenerator;
+
+    /**
+     * Initializes a registry that uses {@link RandomIdGenerator} for new ids.
+     */
+    public WeakObjectRegistry() {
+        this(new RandomIdGenerator());
+    }
+
+    /**
+     * Initializes the registry.
+     * 
+     * @param idGenerator
+     *            Generates the ids for objects registered with {@link #registerIfUnknown(Object)}.
+     */
+    public WeakObjectRegistry(final Supplier<UUID> idGenerator) {
+        this.idGenerator = idGenerator;
+    }
 
     /**
      * Returns the object that is identified by an id.
@@ -57,7 +83,33 @@ public class WeakObjectRegistry {
      * @return The object if one is registered by this id or an empty {@link Optional} if not.
      */
     public Optional<Object> getById(final UUID id) {
-        return Optional.ofNullable(idToObject.get(id));
+        return getById(id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    /**
+     * Returns the object that is identified by an id given as its two <code>long</code> values.
+     * 
+     * @param mostSignificantBits
+     *            The most significant bits of the id as returned by {@link UUID#getMostSignificantBits()}.
+     * @param leastSignificantBits
+     *            The least significant bits of the id as returned by {@link UUID#getLeastSignificantBits()}.
+     * @return The object if one is registered by this id or an empty {@link Optional} if not.
+     */
+    public Optional<Object> getById(final long mostSignificantBits, final long leastSignificantBits) {
+        final AtomicReferenceArray<Entry> slots = idToObject.slots;
+        final int mask = slots.length() - 1;
+        int index = hash(mostSignificantBits ^ leastSignificantBits) & mask;
+        while (true) {
+            final Entry entry = slots.get(index);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (entry != TOMBSTONE && entry.mostSignificantBits == mostSignificantBits
+                    && entry.leastSignificantBits == leastSignificantBits) {
+                return Optional.ofNullable(entry.get());
+            }
+            index = (index + 1) & mask;
+        }
     }
 
     /**
@@ -87,7 +139,22 @@ public class WeakObjectRegistry {
      * @return The id of this object if it has an id assigned and an empty {@link Optional} if not.
      */
     public Optional<UUID> getId(final Object object) {
-        return Optional.ofNullable(objectToId.get(object));
+        if (object == null) {
+            return Optional.empty();
+        }
+        final AtomicReferenceArray<Entry> slots = objectToId.slots;
+        final int mask = slots.length() - 1;
+        int index = hash(System.identityHashCode(object)) & mask;
+        while (true) {
+            final Entry entry = slots.get(index);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (entry.get() == object) {
+                return Optional.of(entry.id);
+            }
+            index = (index + 1) & mask;
+        }
     }
 
     /**
@@ -118,10 +185,16 @@ public class WeakObjectRegistry {
      */
     public UUID registerIfUnknown(final Object object) {
         final Optional<UUID> id = getId(object);
-        if (!id.isPresent()) {
+        if (id.isPresent()) {
+            return id.get();
+        }
+        synchronized (this) {
+            final Optional<UUID> concurrentlyRegistered = getId(object);
+            if (concurrentlyRegistered.isPresent()) {
+                return concurrentlyRegistered.get();
+            }
             return registerObject(object);
         }
-        return id.get();
     }
 
     /**
@@ -132,9 +205,14 @@ public class WeakObjectRegistry {
      * @param id
      *            The id by which this object is identified.
      */
-    public void registerObject(final Object object, final UUID id) {
-        objectToId.put(object, id);
-        idToObject.put(id, object);
+    public synchronized void registerObject(final Object object, final UUID id) {
+        if (object == null) {
+            throw new NullPointerException("Only non-null objects can be registered.");
+        }
+        removeCollectedEntries();
+        final Entry entry = new Entry(object, id, collected);
+        idToObject.put(entry);
+        objectToId.put(entry);
     }
 
     /**
@@ -145,8 +223,206 @@ public class WeakObjectRegistry {
      * @return The generated id.
      */
     private UUID registerObject(final Object object) {
-        UUID id = UUID.randomUUID();
+        UUID id = idGenerator.get();
         registerObject(object, id);
         return id;
     }
+
+    private void removeCollectedEntries() {
+        Reference<?> reference = collected.poll();
+        while (reference != null) {
+            final Entry entry = (Entry) reference;
+            idToObject.remove(entry);
+            objectToId.remove(entry);
+            reference = collected.poll();
+        }
+    }
+
+    private static int hash(final long value) {
+        return hash((int) (value ^ (value >>> 32)));
+    }
+
+    /**
+     * Spreads the bits of a hash code so that sequential values don't end up in neighboring slots.
+     */
+    private static int hash(final int value) {
+        int hash = value;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * The mapping between a registered object and its id.
+     * 
+     * <p>
+     * The same instance is stored in both tables. It is enqueued when the object is garbage collected.
+     * </p>
+     */
+    private static final class Entry extends WeakReference<Object> {
+        private final UUID id;
+        private final long mostSignificantBits;
+        private final long leastSignificantBits;
+        private final int idHash;
+        private final int objectHash;
+
+        Entry(final Object object, final UUID id, final ReferenceQueue<Object> queue) {
+            super(object, queue);
+            this.id = id;
+            this.mostSignificantBits = id.getMostSignificantBits();
+            this.leastSignificantBits = id.getLeastSignificantBits();
+            this.idHash = hash(mostSignificantBits ^ leastSignificantBits);
+            this.objectHash = hash(System.identityHashCode(object));
+        }
+
+        /**
+         * Creates the marker for slots whose entry was removed.
+         */
+        Entry() {
+            super(null);
+            this.id = null;
+            this.mostSignificantBits = 0;
+            this.leastSignificantBits = 0;
+            this.idHash = 0;
+            this.objectHash = 0;
+        }
+    }
+
+    /**
+     * A hash table of {@link Entry}s using linear probing.
+     * 
+     * <p>
+     * Readers access {@link #slots} without locking. Writers must hold the lock of the registry. Removed entries are
+     * replaced by {@link WeakObjectRegistry#TOMBSTONE} so that readers don't stop probing early. When the table gets
+     * too full, a new one is created and published at once so that readers always see a consistent table.
+     * </p>
+     */
+    private abstract static class Index {
+        private volatile AtomicReferenceArray<Entry> slots = new AtomicReferenceArray<>(MIN_CAPACITY);
+        private int used;
+        private int live;
+
+        /**
+         * @param entry The entry to find the first slot to probe for.
+         * @return The hash of the key by which this table looks up entries.
+         */
+        abstract int hash(Entry entry);
+
+        /**
+         * @param existing An entry that is stored in this table.
+         * @param added An entry that should be stored in this table.
+         * @return <code>true</code> if <code>added</code> should replace <code>existing</code>.
+         */
+        abstract boolean isSameKey(Entry existing, Entry added);
+
+        void put(final Entry added) {
+            final AtomicReferenceArray<Entry> table = slots;
+            final int mask = table.length() - 1;
+            int index = hash(added) & mask;
+            int free = -1;
+            while (true) {
+                final Entry entry = table.get(index);
+                if (entry == null) {
+                    if (free < 0) {
+                        free = index;
+                        used++;
+                    }
+                    table.set(free, added);
+                    live++;
+                    break;
+                }
+                if (entry == TOMBSTONE) {
+                    if (free < 0) {
+                        free = index;
+                    }
+                } else if (isSameKey(entry, added)) {
+                    table.set(index, added);
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+            if (used > table.length() / 4 * 3) {
+                resize();
+            }
+        }
+
+        void remove(final Entry removed) {
+            final AtomicReferenceArray<Entry> table = slots;
+            final int mask = table.length() - 1;
+            int index = hash(removed) & mask;
+            while (true) {
+                final Entry entry = table.get(index);
+                if (entry == null) {
+                    return;
+                }
+                if (entry == removed) {
+                    table.set(index, TOMBSTONE);
+                    live--;
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        private void resize() {
+            final AtomicReferenceArray<Entry> old = slots;
+            int capacity = MIN_CAPACITY;
+            while (capacity / 2 <= live) {
+                capacity <<= 1;
+            }
+            final AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(capacity);
+            final int mask = capacity - 1;
+            int copied = 0;
+            for (int i = 0; i < old.length(); i++) {
+                final Entry entry = old.get(i);
+                if (entry == null || entry == TOMBSTONE) {
+                    continue;
+                }
+                int index = hash(entry) & mask;
+                while (table.get(index) != null) {
+                    index = (index + 1) & mask;
+                }
+                table.set(index, entry);
+                copied++;
+            }
+            used = copied;
+            live = copied;
+            slots = table;
+        }
+    }
+
+    /**
+     * Finds objects by their id.
+     */
+    private static final class IdIndex extends Index {
+        @Override
+        int hash(final Entry entry) {
+            return entry.idHash;
+        }
+
+        @Override
+        boolean isSameKey(final Entry existing, final Entry added) {
+            return existing.mostSignificantBits == added.mostSignificantBits
+                    && existing.leastSignificantBits == added.leastSignificantBits;
+        }
+    }
+
+    /**
+     * Finds ids by the identity of their object.
+     */
+    private static final class ObjectIndex extends Index {
+        @Override
+        int hash(final Entry entry) {
+            return entry.objectHash;
+        }
+
+        @Override
+        boolean isSameKey(final Entry existing, final Entry added) {
+            final Object object = existing.get();
+            return object != null && object == added.get();
+        }
+    }
 }
@@ -0,0 +1,82 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.saxsys.synchronizefx.core.metamodel.commands;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A command that states that a range of elements should be added to a list at once.
+ * 
+ * <p>
+ * The list changes only one time for all elements. Therefore this command carries only one
+ * {@link ListVersionChange}.
+ * </p>
+ */
+public class AddAllToList extends ListCommand {
+
+    private final List<Value> values;
+    private final int position;
+
+    /**
+     * Initializes an instance.
+     * 
+     * @param listId
+     *            see {@link #getListId()}
+     * @param listVersionChange
+     *            see {@link #getListVersionChange()}
+     * @param values
+     *            see {@link #getValues()}
+     * @param position
+     *            see {@link #getPosition()}
+     */
+    public AddAllToList(final UUID listId, final ListVersionChange listVersionChange, final List<Value> values, //
+            final int position) {
+        super(listId, listVersionChange);
+        this.values = values;
+        this.position = position;
+    }
+
+    /**
+     * The index the first new element will have in the list when the elements are added.
+     * 
+     * <p>
+     * The index of all items in the list thats index is greater or equal to the value returned here has to be
+     * incremented by the size of {@link #getValues()} to make these indices available.
+     * </p>
+     * 
+     * @return The index
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return The values to add to the list in the order they should have in the list.
+     */
+    public List<Value> getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "AddAllToList [listId=" + getListId() + ", versionChange=" + getListVersionChange() + ", values="
+                + values + ", position=" + position + "]";
+    }
+}
@@ -19,7 +19,7 @@
 
 package de.saxsys.synchronizefx.core.metamodel.commands;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -31,7 +31,7 @@ import java.util.UUID;
 public class CreateObservableObject implements Command {
     private UUID objectId;
     private String className;
-    private Map<String, UUID> propertyNameToId = new HashMap<>();
+    private Map<String, UUID> propertyNameToId = new LinkedHashMap<>();
 
     /**
      * @return The id this observable object gets.
@@ -64,7 +64,8 @@ public class CreateObservableObject implements Command {
     }
 
     /**
-     * @return A mapping of the names of property fields to the id of the property object.
+     * @return A mapping of the names of property fields to the id of the property object. The mapping keeps the order
+     *         in which the properties where added.
      */
     public Map<String, UUID> getPropertyNameToId() {
         return propertyNameToId;
@@ -0,0 +1,85 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.saxsys.synchronizefx.core.metamodel.commands;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * A command that states that the elements in a range of a list should be reordered.
+ * 
+ * <p>
+ * This is the case when a list is sorted. Only the new order of the elements is transfered, not the elements
+ * themselves.
+ * </p>
+ */
+public class PermuteList extends ListCommand {
+
+    private final int startPosition;
+    private final int[] permutation;
+
+    /**
+     * Initializes an instance.
+     * 
+     * @param listId
+     *            see {@link #getListId()}
+     * @param listVersionChange
+     *            see {@link #getListVersionChange()}
+     * @param startPosition
+     *            see {@link #getStartPosition()}
+     * @param permutation
+     *            see {@link #getPermutation()}
+     */
+    public PermuteList(final UUID listId, final ListVersionChange listVersionChange, final int startPosition,
+            final int[] permutation) {
+        super(listId, listVersionChange);
+        this.startPosition = startPosition;
+        this.permutation = permutation;
+    }
+
+    /**
+     * The index of the first element in the list that is reordered.
+     * 
+     * @return The index
+     */
+    public int getStartPosition() {
+        return startPosition;
+    }
+
+    /**
+     * The new positions of the elements in the reordered range.
+     * 
+     * <p>
+     * The element at the index <code>{@link #getStartPosition()} + i</code> has to be moved to the index
+     * <code>{@link #getStartPosition()} + getPermutation()[i]</code>. The length of the array is the amount of
+     * elements in the reordered range.
+     * </p>
+     * 
+     * @return The new positions relative to {@link #getStartPosition()}.
+     */
+    public int[] getPermutation() {
+        return permutation;
+    }
+
+    @Override
+    public String toString() {
+        return "PermuteList [listId=" + getListId() + ", versionChange=" + getListVersionChange()
+                + ", startPosition=" + startPosition + ", permutation=" + Arrays.toString(permutation) + "]";
+    }
+}
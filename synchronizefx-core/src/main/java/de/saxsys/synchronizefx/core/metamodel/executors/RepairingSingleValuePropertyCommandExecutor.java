@@ -87,6 +87,19 @@ public class RepairingSingleValuePropertyCommandExecutor implements SingleValueP
         executor.execute(command);
     }
 
+    @Override
+    public void skip(final SetPropertyValue command) {
+        @SuppressWarnings("unchecked")
+        final Property<Object> property = (Property<Object>) objectRegistry.getByIdOrFail(command.getPropertyId());
+        final Queue<UUID> localCommands = propertyToChangeLog.get(property);
+
+        // the server has acknowledged a local command even if it's value is overwritten by a later command.
+        if (!(localCommands == null || localCommands.isEmpty())
+                && localCommands.peek().equals(command.getCommandId())) {
+            localCommands.poll();
+        }
+    }
+
     private Queue<UUID> getLog(final SetPropertyValue command) {
         @SuppressWarnings("unchecked")
         final Property<Object> prop = (Property<Object>) objectRegistry.getByIdOrFail(command.getPropertyId());
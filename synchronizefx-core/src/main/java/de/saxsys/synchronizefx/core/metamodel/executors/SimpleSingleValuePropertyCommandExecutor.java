@@ -68,4 +68,9 @@ public class SimpleSingleValuePropertyCommandExecutor implements SingleValueProp
             }
         });
     }
+
+    @Override
+    public void skip(final SetPropertyValue command) {
+        // There is nothing to keep track of.
+    }
 }
@@ -36,4 +36,17 @@ public interface SingleValuePropertyCommandExecutor {
      */
     void execute(SetPropertyValue command);
 
+    /**
+     * Processes a command that was received from an other peer but is superseded by a later command for the same
+     * property.
+     * 
+     * <p>
+     * The value of the property is not changed but book keeping about the command is done as if it was executed.
+     * </p>
+     * 
+     * @param command
+     *            The received event.
+     */
+    void skip(SetPropertyValue command);
+
 }
@@ -21,6 +21,7 @@ package de.saxsys.synchronizefx.core.metamodel.executors.lists;
 
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
 
@@ -96,6 +97,23 @@ public class AddToListRepairer {
         return toRepair;
     }
 
+    /**
+     * Repairs a {@link AddToList} in relation to a {@link PermuteList} command.
+     * 
+     * <p>
+     * The new element is added at the same index regardless of how the elements around it where reordered.
+     * </p>
+     * 
+     * @param toRepair
+     *            The command to repair.
+     * @param repairAgainst
+     *            The command to repair against.
+     * @return The repaired command.
+     */
+    public AddToList repairCommand(final AddToList toRepair, final PermuteList repairAgainst) {
+        return toRepair;
+    }
+
     private AddToList createCommand(final AddToList toRepair, final int position) {
         return new AddToList(toRepair.getListId(), toRepair.getListVersionChange(), toRepair.getValue(), position);
     }
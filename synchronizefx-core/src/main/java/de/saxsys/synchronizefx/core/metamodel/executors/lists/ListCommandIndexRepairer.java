@@ -28,14 +28,23 @@ import static java.util.Arrays.asList;
 
 import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
 import de.saxsys.synchronizefx.core.metamodel.Optional;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
+import de.saxsys.synchronizefx.core.metamodel.commands.Value;
 
 /**
  * Repairs the indices of {@link ListCommand}s.
  * 
+ * <p>
+ * {@link AddAllToList} commands are repaired by splitting them into the equivalent sequence of {@link AddToList}
+ * commands. This way bulk changes only need to be split up in the rare case that they are in conflict with changes of
+ * other peers.
+ * </p>
+ * 
  * @author Raik Bieniek
  */
 public class ListCommandIndexRepairer {
@@ -43,6 +52,7 @@ public class ListCommandIndexRepairer {
     private final AddToListRepairer addToListRepairer;
     private final RemoveFromListRepairer removeFromListRepairer;
     private final ReplaceInListRepairer replaceInListRepairer;
+    private final PermuteListRepairer permuteListRepairer;
     private Queue<ListCommand> localCommands;
 
     /**
@@ -54,12 +64,16 @@ public class ListCommandIndexRepairer {
      *            Used to repair {@link RemoveFromList} commands.
      * @param replaceInListRepairer
      *            Used to repair {@link ReplaceInList} commands.
+     * @param permuteListRepairer
+     *            Used to repair {@link PermuteList} commands.
      */
     public ListCommandIndexRepairer(final AddToListRepairer addToListRepairer,
-            final RemoveFromListRepairer removeFromListRepairer, final ReplaceInListRepairer replaceInListRepairer) {
+            final RemoveFromListRepairer removeFromListRepairer, final ReplaceInListRepairer replaceInListRepairer,
+            final PermuteListRepairer permuteListRepairer) {
         this.addToListRepairer = addToListRepairer;
         this.removeFromListRepairer = removeFromListRepairer;
         this.replaceInListRepairer = replaceInListRepairer;
+        this.permuteListRepairer = permuteListRepairer;
     }
 
     /**
@@ -75,12 +89,17 @@ public class ListCommandIndexRepairer {
     public List<? extends ListCommand> repairCommands(final Queue<ListCommand> localCommands,
             final ListCommand remoteCommand) {
         this.localCommands = localCommands;
+        splitAddAllCommands();
         if (remoteCommand instanceof AddToList) {
             return repairCommands((AddToList) remoteCommand);
+        } else if (remoteCommand instanceof AddAllToList) {
+            return repairCommands((AddAllToList) remoteCommand);
         } else if (remoteCommand instanceof RemoveFromList) {
             return repairCommands((RemoveFromList) remoteCommand);
         } else if (remoteCommand instanceof ReplaceInList) {
             return repairCommands((ReplaceInList) remoteCommand);
+        } else if (remoteCommand instanceof PermuteList) {
+            return repairCommands((PermuteList) remoteCommand);
         } else {
             throw failUnknownTyp(remoteCommand);
         }
@@ -100,6 +119,8 @@ public class ListCommandIndexRepairer {
                         .addAll(removeFromListRepairer.repairCommand((RemoveFromList) localCommand, remoteCommand));
             } else if (localCommand instanceof ReplaceInList) {
                 localCommands.add(replaceInListRepairer.repairCommand((ReplaceInList) localCommand, remoteCommand));
+            } else if (localCommand instanceof PermuteList) {
+                localCommands.add(permuteListRepairer.repairCommand((PermuteList) localCommand, remoteCommand));
             } else {
                 throw failUnknownTyp(remoteCommand);
             }
@@ -110,6 +131,14 @@ public class ListCommandIndexRepairer {
         return list;
     }
 
+    private List<ListCommand> repairCommands(final AddAllToList remoteCommand) {
+        final List<ListCommand> repaired = new ArrayList<>(remoteCommand.getValues().size());
+        for (final AddToList part : split(remoteCommand)) {
+            repaired.addAll(repairCommands(part));
+        }
+        return repaired;
+    }
+
     private List<RemoveFromList> repairCommands(final RemoveFromList remoteCommand) {
         List<RemoveFromList> repaired = asList(remoteCommand);
 
@@ -127,6 +156,8 @@ public class ListCommandIndexRepairer {
                     repaired.addAll(removeFromListRepairer.repairCommand(toRepair, (RemoveFromList) localCommand));
                 } else if (localCommand instanceof ReplaceInList) {
                     repaired.addAll(removeFromListRepairer.repairCommand(toRepair, (ReplaceInList) localCommand));
+                } else if (localCommand instanceof PermuteList) {
+                    repaired.addAll(removeFromListRepairer.repairCommand(toRepair, (PermuteList) localCommand));
                 } else {
                     throw failUnknownTyp(remoteCommand);
                 }
@@ -140,6 +171,8 @@ public class ListCommandIndexRepairer {
                         .addAll(removeFromListRepairer.repairCommand((RemoveFromList) localCommand, remoteCommand));
             } else if (localCommand instanceof ReplaceInList) {
                 localCommands.add(replaceInListRepairer.repairCommand((ReplaceInList) localCommand, remoteCommand));
+            } else if (localCommand instanceof PermuteList) {
+                localCommands.add(permuteListRepairer.repairCommand((PermuteList) localCommand, remoteCommand));
             } else {
                 throw failUnknownTyp(remoteCommand);
             }
@@ -170,6 +203,38 @@ public class ListCommandIndexRepairer {
                 if (repairedLocalCommand.isPresent()) {
                     localCommands.add(repairedLocalCommand.get());
                 }
+            } else if (localCommand instanceof PermuteList) {
+                localCommands.add(permuteListRepairer.repairCommand((PermuteList) localCommand, remoteCommand));
+            } else {
+                throw failUnknownTyp(remoteCommand);
+            }
+        }
+
+        final List<ListCommand> list = new ArrayList<>(1);
+        list.add(repaired);
+        return list;
+    }
+
+    private List<ListCommand> repairCommands(final PermuteList remoteCommand) {
+        PermuteList repaired = remoteCommand;
+
+        final int commandCount = localCommands.size();
+        for (int i = 0; i < commandCount; i++) {
+            final ListCommand localCommand = localCommands.poll();
+            repaired = repairRemoteCommand(localCommand, repaired);
+            if (localCommand instanceof AddToList) {
+                localCommands.add(addToListRepairer.repairCommand((AddToList) localCommand, remoteCommand));
+            } else if (localCommand instanceof RemoveFromList) {
+                localCommands
+                        .addAll(removeFromListRepairer.repairCommand((RemoveFromList) localCommand, remoteCommand));
+            } else if (localCommand instanceof ReplaceInList) {
+                localCommands.add(replaceInListRepairer.repairCommand((ReplaceInList) localCommand, remoteCommand));
+            } else if (localCommand instanceof PermuteList) {
+                final Optional<PermuteList> repairedLocalCommand = permuteListRepairer.repairLocalCommand(
+                        (PermuteList) localCommand, remoteCommand);
+                if (repairedLocalCommand.isPresent()) {
+                    localCommands.add(repairedLocalCommand.get());
+                }
             } else {
                 throw failUnknownTyp(remoteCommand);
             }
@@ -187,6 +252,8 @@ public class ListCommandIndexRepairer {
             return addToListRepairer.repairCommand(remoteCommand, (RemoveFromList) localCommand);
         } else if (localCommand instanceof ReplaceInList) {
             return addToListRepairer.repairCommand(remoteCommand, (ReplaceInList) localCommand);
+        } else if (localCommand instanceof PermuteList) {
+            return addToListRepairer.repairCommand(remoteCommand, (PermuteList) localCommand);
         } else {
             throw failUnknownTyp(remoteCommand);
         }
@@ -199,11 +266,48 @@ public class ListCommandIndexRepairer {
             return replaceInListRepairer.repairCommand(remoteCommand, (RemoveFromList) localCommand);
         } else if (localCommand instanceof ReplaceInList) {
             return replaceInListRepairer.repairRemoteCommand(remoteCommand, (ReplaceInList) localCommand);
+        } else if (localCommand instanceof PermuteList) {
+            return replaceInListRepairer.repairCommand(remoteCommand, (PermuteList) localCommand);
+        } else {
+            throw failUnknownTyp(remoteCommand);
+        }
+    }
+
+    private PermuteList repairRemoteCommand(final ListCommand localCommand, final PermuteList remoteCommand) {
+        if (localCommand instanceof AddToList) {
+            return permuteListRepairer.repairCommand(remoteCommand, (AddToList) localCommand);
+        } else if (localCommand instanceof RemoveFromList) {
+            return permuteListRepairer.repairCommand(remoteCommand, (RemoveFromList) localCommand);
+        } else if (localCommand instanceof ReplaceInList) {
+            return permuteListRepairer.repairCommand(remoteCommand, (ReplaceInList) localCommand);
+        } else if (localCommand instanceof PermuteList) {
+            return permuteListRepairer.repairRemoteCommand(remoteCommand, (PermuteList) localCommand);
         } else {
             throw failUnknownTyp(remoteCommand);
         }
     }
 
+    private void splitAddAllCommands() {
+        final int commandCount = localCommands.size();
+        for (int i = 0; i < commandCount; i++) {
+            final ListCommand localCommand = localCommands.poll();
+            if (localCommand instanceof AddAllToList) {
+                localCommands.addAll(split((AddAllToList) localCommand));
+            } else {
+                localCommands.add(localCommand);
+            }
+        }
+    }
+
+    private List<AddToList> split(final AddAllToList command) {
+        final List<AddToList> parts = new ArrayList<>(command.getValues().size());
+        int position = command.getPosition();
+        for (final Value value : command.getValues()) {
+            parts.add(new AddToList(command.getListId(), command.getListVersionChange(), value, position++));
+        }
+        return parts;
+    }
+
     private SynchronizeFXException failUnknownTyp(final ListCommand command) {
         throw new SynchronizeFXException(String.format(
                 "The executor does not know how to handle list commands of type '%s'.", command.getClass()));
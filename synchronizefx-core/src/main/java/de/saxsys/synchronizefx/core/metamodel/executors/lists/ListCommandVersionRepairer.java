@@ -25,12 +25,15 @@ import java.util.Queue;
 import java.util.UUID;
 
 import static java.util.Arrays.asList;
-import static java.util.UUID.randomUUID;
 
 import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+import de.saxsys.synchronizefx.core.metamodel.RandomIdGenerator;
+import de.saxsys.synchronizefx.core.metamodel.Supplier;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand.ListVersionChange;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
 
@@ -41,6 +44,25 @@ import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
  */
 public class ListCommandVersionRepairer {
 
+    private final Supplier<UUID> idGenerator;
+
+    /**
+     * Initializes a repairer that uses {@link RandomIdGenerator} for new list versions.
+     */
+    public ListCommandVersionRepairer() {
+        this(new RandomIdGenerator());
+    }
+
+    /**
+     * Initializes the repairer.
+     * 
+     * @param idGenerator
+     *            Generates the ids for new list versions.
+     */
+    public ListCommandVersionRepairer(final Supplier<UUID> idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
     /**
      * Updates the versions of repaired local commands that should be resent to the server so that they are based on the
      * version the original remote command produced.
@@ -55,11 +77,11 @@ public class ListCommandVersionRepairer {
             final ListCommand originalRemoteCommand) {
 
         localCommands.add(repairCommand(localCommands.poll(), originalRemoteCommand.getListVersionChange()
-                .getToVersion(), randomUUID()));
+                .getToVersion(), idGenerator.get()));
 
         final int count = localCommands.size();
         for (int i = 1; i < count; i++) {
-            localCommands.add(repairCommand(localCommands.poll(), randomUUID(), randomUUID()));
+            localCommands.add(repairCommand(localCommands.poll(), idGenerator.get(), idGenerator.get()));
         }
     }
 
@@ -82,7 +104,7 @@ public class ListCommandVersionRepairer {
         final ListCommand lastLocalCommand = versionRepairedLocalCommands.get(versionRepairedLocalCommands.size() - 1);
 
         if (commandCount == 0) {
-            return asList(new RemoveFromList(lastLocalCommand.getListId(), new ListVersionChange(randomUUID(),
+            return asList(new RemoveFromList(lastLocalCommand.getListId(), new ListVersionChange(idGenerator.get(),
                     lastLocalCommand.getListVersionChange().getToVersion()), 0, 0));
         }
 
@@ -90,8 +112,8 @@ public class ListCommandVersionRepairer {
         for (int i = 0; i < commandCount - 1; i++) {
             repaired.add(indexRepairedRemoteCommands.get(i));
         }
-        repaired.add(repairCommand(indexRepairedRemoteCommands.get(commandCount - 1), randomUUID(), lastLocalCommand
-                .getListVersionChange().getToVersion()));
+        repaired.add(repairCommand(indexRepairedRemoteCommands.get(commandCount - 1), idGenerator.get(),
+                lastLocalCommand.getListVersionChange().getToVersion()));
 
         return repaired;
     }
@@ -101,12 +123,18 @@ public class ListCommandVersionRepairer {
         if (toRepair instanceof AddToList) {
             final AddToList orig = (AddToList) toRepair;
             return new AddToList(orig.getListId(), change, orig.getValue(), orig.getPosition());
+        } else if (toRepair instanceof AddAllToList) {
+            final AddAllToList orig = (AddAllToList) toRepair;
+            return new AddAllToList(orig.getListId(), change, orig.getValues(), orig.getPosition());
         } else if (toRepair instanceof RemoveFromList) {
             final RemoveFromList orig = (RemoveFromList) toRepair;
             return new RemoveFromList(orig.getListId(), change, orig.getStartPosition(), orig.getRemoveCount());
         } else if (toRepair instanceof ReplaceInList) {
             final ReplaceInList orig = (ReplaceInList) toRepair;
             return new ReplaceInList(orig.getListId(), change, orig.getValue(), orig.getPosition());
+        } else if (toRepair instanceof PermuteList) {
+            final PermuteList orig = (PermuteList) toRepair;
+            return new PermuteList(orig.getListId(), change, orig.getStartPosition(), orig.getPermutation());
         } else {
             throw new SynchronizeFXException(String.format(
                     "The executor does not know how to handle list commands of type '%s'.", toRepair.getClass()));
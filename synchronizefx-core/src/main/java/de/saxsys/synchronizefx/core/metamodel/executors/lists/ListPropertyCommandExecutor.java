@@ -19,8 +19,10 @@
 
 package de.saxsys.synchronizefx.core.metamodel.executors.lists;
 
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
 
@@ -39,6 +41,14 @@ public interface ListPropertyCommandExecutor {
      */
     void execute(AddToList command);
 
+    /**
+     * Executes an command that was received from an other peer if appropriate.
+     * 
+     * @param command
+     *            The received command.
+     */
+    void execute(AddAllToList command);
+
     /**
      * Executes an command that was received from an other peer if appropriate.
      * 
@@ -54,4 +64,12 @@ public interface ListPropertyCommandExecutor {
      *            The received command.
      */
     void execute(ReplaceInList command);
+
+    /**
+     * Executes an command that was received from an other peer if appropriate.
+     * 
+     * @param command
+     *            The received command.
+     */
+    void execute(PermuteList command);
 }
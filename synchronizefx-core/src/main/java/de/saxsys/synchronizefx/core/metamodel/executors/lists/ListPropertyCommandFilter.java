@@ -25,8 +25,10 @@ import de.saxsys.synchronizefx.core.metamodel.ListPropertyMetaDataStore;
 import de.saxsys.synchronizefx.core.metamodel.ListPropertyMetaDataStore.ListPropertyMetaData;
 import de.saxsys.synchronizefx.core.metamodel.TemporaryReferenceKeeper;
 import de.saxsys.synchronizefx.core.metamodel.WeakObjectRegistry;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
 import de.saxsys.synchronizefx.core.metamodel.commands.Value;
@@ -100,6 +102,24 @@ public class ListPropertyCommandFilter implements ListPropertyCommandExecutor {
         }
     }
 
+    /**
+     * Filters the passed command and passes it to the executor when it is approved.
+     * 
+     * @param command
+     *            The command to filter
+     */
+    @Override
+    public void execute(final AddAllToList command) {
+        referenceKeeper.cleanReferenceCache();
+        if (couldBeExecuted(command)) {
+            executor.execute(command);
+        } else {
+            for (final Value value : command.getValues()) {
+                keepReferenceIfObservable(value);
+            }
+        }
+    }
+
     /**
      * Filters the passed command and passes it to the executor when it is approved.
      * 
@@ -130,6 +150,20 @@ public class ListPropertyCommandFilter implements ListPropertyCommandExecutor {
         }
     }
 
+    /**
+     * Filters the passed command and passes it to the executor when it is approved.
+     * 
+     * @param command
+     *            The command to filter
+     */
+    @Override
+    public void execute(final PermuteList command) {
+        referenceKeeper.cleanReferenceCache();
+        if (couldBeExecuted(command)) {
+            executor.execute(command);
+        }
+    }
+
     private boolean couldBeExecuted(final ListCommand command) {
         final ListPropertyMetaData metaData = listVersions.getMetaDataOrFail(command.getListId());
         final UUID listVersion = useLocalVerision ? metaData.getLocalVersion() : metaData.getApprovedVersion();
@@ -0,0 +1,217 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.saxsys.synchronizefx.core.metamodel.executors.lists;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import de.saxsys.synchronizefx.core.metamodel.Optional;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
+import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
+import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
+import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
+
+/**
+ * Repairs a remote {@link PermuteList} commands in relation to local {@link ListCommand}s and local
+ * {@link PermuteList} commands in relation to remote {@link ListCommand}s.
+ * 
+ * <p>
+ * When two peers reorder overlapping ranges of the same list at the same time, the reordering of the remote peer
+ * wins and the local one is dropped.
+ * </p>
+ */
+public class PermuteListRepairer {
+
+    /**
+     * Repairs a {@link PermuteList} in relation to an {@link AddToList} command.
+     * 
+     * <p>
+     * When the element was added inside the reordered range, it keeps its index and the other elements of the range
+     * are reordered around it.
+     * </p>
+     * 
+     * @param toRepair
+     *            The command to repair.
+     * @param repairAgainst
+     *            The command to repair against.
+     * @return The repaired command.
+     */
+    public PermuteList repairCommand(final PermuteList toRepair, final AddToList repairAgainst) {
+        final int startPosition = toRepair.getStartPosition();
+        final int[] permutation = toRepair.getPermutation();
+        final int position = repairAgainst.getPosition();
+        if (position <= startPosition) {
+            return createRepaired(toRepair, startPosition + 1, permutation);
+        }
+        if (position >= startPosition + permutation.length) {
+            return toRepair;
+        }
+
+        final int added = position - startPosition;
+        final int[] repaired = new int[permutation.length + 1];
+        for (int i = 0; i < permutation.length; i++) {
+            repaired[i < added ? i : i + 1] = permutation[i] < added ? permutation[i] : permutation[i] + 1;
+        }
+        repaired[added] = added;
+        return createRepaired(toRepair, startPosition, repaired);
+    }
+
+    /**
+     * Repairs a {@link PermuteList} in relation to a {@link RemoveFromList} command.
+     * 
+     * <p>
+     * The elements of the reordered range that where not removed keep the order relative to each other that the
+     * original command would have given them.
+     * </p>
+     * 
+     * @param toRepair
+     *            The command to repair.
+     * @param repairAgainst
+     *            The command to repair against.
+     * @return The repaired command.
+     */
+    public PermuteList repairCommand(final PermuteList toRepair, final RemoveFromList repairAgainst) {
+        final int startPosition = toRepair.getStartPosition();
+        final int[] permutation = toRepair.getPermutation();
+        final int removeStart = repairAgainst.getStartPosition();
+        final int removeEnd = removeStart + repairAgainst.getRemoveCount();
+        final int removedBefore = max(0, min(removeEnd, startPosition) - removeStart);
+
+        final boolean[] targetKept = new boolean[permutation.length];
+        int keptCount = 0;
+        for (int i = 0; i < permutation.length; i++) {
+            if (!isInRange(startPosition + i, removeStart, removeEnd)) {
+                targetKept[permutation[i]] = true;
+                keptCount++;
+            }
+        }
+        // the new target index of a kept element is the number of kept elements with a smaller target index.
+        final int[] newTargets = new int[permutation.length];
+        int keptTargets = 0;
+        for (int target = 0; target < permutation.length; target++) {
+            newTargets[target] = keptTargets;
+            if (targetKept[target]) {
+                keptTargets++;
+            }
+        }
+
+        final int[] repaired = new int[keptCount];
+        int next = 0;
+        for (int i = 0; i < permutation.length; i++) {
+            if (!isInRange(startPosition + i, removeStart, removeEnd)) {
+                repaired[next++] = newTargets[permutation[i]];
+            }
+        }
+        return createRepaired(toRepair, startPosition - removedBefore, repaired);
+    }
+
+    /**
+     * Repairs a {@link PermuteList} in relation to a {@link ReplaceInList} command.
+     * 
+     * @param toRepair
+     *            The command to repair.
+     * @param repairAgainst
+     *            The command to repair against.
+     * @return The repaired command.
+     */
+    public PermuteList repairCommand(final PermuteList toRepair, final ReplaceInList repairAgainst) {
+        return toRepair;
+    }
+
+    /**
+     * Repairs a local {@link PermuteList} in relation to a remote {@link PermuteList} command.
+     * 
+     * @param toRepair
+     *            The local command to repair.
+     * @param repairAgainst
+     *            The remote command to repair against.
+     * @return The repaired command or an empty optional if the reordered ranges overlap and the local command is
+     *         therefore dropped.
+     */
+    public Optional<PermuteList> repairLocalCommand(final PermuteList toRepair, final PermuteList repairAgainst) {
+        if (overlap(toRepair, repairAgainst)) {
+            return Optional.empty();
+        }
+        return Optional.of(toRepair);
+    }
+
+    /**
+     * Repairs a remote {@link PermuteList} in relation to a local {@link PermuteList} command.
+     * 
+     * <p>
+     * If the reordered ranges overlap, the repaired command reorders the elements from the order the local command
+     * produced to the order the remote command would have produced on the original list.
+     * </p>
+     * 
+     * @param toRepair
+     *            The remote command to repair.
+     * @param repairAgainst
+     *            The local command to repair against.
+     * @return The repaired command.
+     */
+    public PermuteList repairRemoteCommand(final PermuteList toRepair, final PermuteList repairAgainst) {
+        if (!overlap(toRepair, repairAgainst)) {
+            return toRepair;
+        }
+        final int startPosition = min(toRepair.getStartPosition(), repairAgainst.getStartPosition());
+        final int endPosition = max(end(toRepair), end(repairAgainst));
+
+        // the original index of the element that is at a specific index after the local command was executed.
+        final int[] originalIndices = new int[endPosition - startPosition];
+        for (int i = 0; i < originalIndices.length; i++) {
+            originalIndices[i] = startPosition + i;
+        }
+        final int[] localPermutation = repairAgainst.getPermutation();
+        for (int i = 0; i < localPermutation.length; i++) {
+            originalIndices[repairAgainst.getStartPosition() + localPermutation[i] - startPosition] = repairAgainst
+                    .getStartPosition() + i;
+        }
+
+        final int[] repaired = new int[originalIndices.length];
+        for (int i = 0; i < repaired.length; i++) {
+            repaired[i] = newIndex(toRepair, originalIndices[i]) - startPosition;
+        }
+        return createRepaired(toRepair, startPosition, repaired);
+    }
+
+    private boolean overlap(final PermuteList first, final PermuteList second) {
+        return first.getStartPosition() < end(second) && second.getStartPosition() < end(first);
+    }
+
+    private int end(final PermuteList command) {
+        return command.getStartPosition() + command.getPermutation().length;
+    }
+
+    private int newIndex(final PermuteList command, final int index) {
+        if (!isInRange(index, command.getStartPosition(), end(command))) {
+            return index;
+        }
+        return command.getStartPosition() + command.getPermutation()[index - command.getStartPosition()];
+    }
+
+    private boolean isInRange(final int index, final int start, final int end) {
+        return index >= start && index < end;
+    }
+
+    private PermuteList createRepaired(final PermuteList toRepair, final int startPosition, //
+            final int[] permutation) {
+        return new PermuteList(toRepair.getListId(), toRepair.getListVersionChange(), startPosition, permutation);
+    }
+}
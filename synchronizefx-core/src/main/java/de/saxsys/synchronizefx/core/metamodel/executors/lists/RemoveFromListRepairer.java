@@ -19,6 +19,8 @@
 
 package de.saxsys.synchronizefx.core.metamodel.executors.lists;
 
+import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
 
 import static java.lang.Math.max;
@@ -27,6 +29,7 @@ import static java.util.Arrays.asList;
 
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
 
@@ -103,6 +106,49 @@ public class RemoveFromListRepairer {
         return repairAddOrReplace(toRepair, repairAgainst.getPosition());
     }
 
+    /**
+     * Repairs a {@link RemoveFromList} in relation to a {@link PermuteList} command.
+     * 
+     * <p>
+     * The elements to remove may be scattered over the list after they where reordered. In this case one command is
+     * returned for each continuous range of elements to remove. The commands are ordered from the end of the list to
+     * the beginning so that executing one command doesn't change the indices of the following ones.
+     * </p>
+     * 
+     * @param toRepair
+     *            The command to repair.
+     * @param repairAgainst
+     *            The command to repair against.
+     * @return The repaired commands.
+     */
+    public List<RemoveFromList> repairCommand(final RemoveFromList toRepair, final PermuteList repairAgainst) {
+        final int start = toRepair.getStartPosition();
+        final int end = start + toRepair.getRemoveCount();
+        final int permutedStart = repairAgainst.getStartPosition();
+        final int[] permutation = repairAgainst.getPermutation();
+        final int permutedEnd = permutedStart + permutation.length;
+        if (end <= permutedStart || start >= permutedEnd) {
+            return asList(toRepair);
+        }
+
+        final int[] positions = new int[toRepair.getRemoveCount()];
+        for (int i = start; i < end; i++) {
+            positions[i - start] = i >= permutedStart && i < permutedEnd ? permutedStart
+                    + permutation[i - permutedStart] : i;
+        }
+        Arrays.sort(positions);
+
+        final LinkedList<RemoveFromList> repaired = new LinkedList<>();
+        int rangeStart = 0;
+        for (int i = 1; i <= positions.length; i++) {
+            if (i == positions.length || positions[i] != positions[i - 1] + 1) {
+                repaired.addFirst(createRepaired(toRepair, positions[rangeStart], i - rangeStart));
+                rangeStart = i;
+            }
+        }
+        return repaired;
+    }
+
     private List<RemoveFromList> repairAddOrReplace(final RemoveFromList toRepair, final int position) {
         if (toRepair.getStartPosition() + toRepair.getRemoveCount() <= position) {
             return asList(toRepair);
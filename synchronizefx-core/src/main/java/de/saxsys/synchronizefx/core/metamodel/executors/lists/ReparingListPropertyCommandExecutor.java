@@ -26,8 +26,10 @@ import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
 import de.saxsys.synchronizefx.core.metamodel.ListPropertyMetaDataStore;
 import de.saxsys.synchronizefx.core.metamodel.ListPropertyMetaDataStore.ListPropertyMetaData;
 import de.saxsys.synchronizefx.core.metamodel.TopologyLayerCallback;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
 
@@ -91,6 +93,11 @@ public class ReparingListPropertyCommandExecutor implements ListPropertyCommandE
         execute((ListCommand) command);
     }
 
+    @Override
+    public void execute(final AddAllToList command) {
+        execute((ListCommand) command);
+    }
+
     @Override
     public void execute(final RemoveFromList command) {
         execute((ListCommand) command);
@@ -101,6 +108,11 @@ public class ReparingListPropertyCommandExecutor implements ListPropertyCommandE
         execute((ListCommand) command);
     }
 
+    @Override
+    public void execute(final PermuteList command) {
+        execute((ListCommand) command);
+    }
+
     /**
      * Logs a command that was locally generated and send to other peers.
      * 
@@ -138,11 +150,13 @@ public class ReparingListPropertyCommandExecutor implements ListPropertyCommandE
                     metaData.getUnapprovedCommands(), command);
 
             // repair versions if local commands are left after repairing indices.
-            versionRepairer.repairLocalCommandsVersion(metaData.getUnapprovedCommands(), command);
-            repairedCommands = versionRepairer.repairRemoteCommandVersion(repairedCommands,
-                    metaData.getUnapprovedCommandsAsList());
-            // re-send repaired local changes
-            topologyLayerCallback.sendCommands((List) metaData.getUnapprovedCommandsAsList());
+            if (!log.isEmpty()) {
+                versionRepairer.repairLocalCommandsVersion(metaData.getUnapprovedCommands(), command);
+                repairedCommands = versionRepairer.repairRemoteCommandVersion(repairedCommands,
+                        metaData.getUnapprovedCommandsAsList());
+                // re-send repaired local changes
+                topologyLayerCallback.sendCommands((List) metaData.getUnapprovedCommandsAsList());
+            }
 
             // execute repaired commands
             for (final ListCommand repaired : repairedCommands) {
@@ -163,10 +177,14 @@ public class ReparingListPropertyCommandExecutor implements ListPropertyCommandE
     private void executeCommand(final ListCommand command) {
         if (command instanceof AddToList) {
             simpleExecutor.execute((AddToList) command);
+        } else if (command instanceof AddAllToList) {
+            simpleExecutor.execute((AddAllToList) command);
         } else if (command instanceof RemoveFromList) {
             simpleExecutor.execute((RemoveFromList) command);
         } else if (command instanceof ReplaceInList) {
             simpleExecutor.execute((ReplaceInList) command);
+        } else if (command instanceof PermuteList) {
+            simpleExecutor.execute((PermuteList) command);
         } else {
             throw new SynchronizeFXException(String.format(
                     "The executor does not know how to handle list commands of type '%s'.", command.getClass()));
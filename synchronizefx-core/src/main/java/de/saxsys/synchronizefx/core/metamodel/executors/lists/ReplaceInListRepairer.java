@@ -22,6 +22,7 @@ package de.saxsys.synchronizefx.core.metamodel.executors.lists;
 import de.saxsys.synchronizefx.core.metamodel.Optional;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
 
@@ -82,6 +83,28 @@ public class ReplaceInListRepairer {
                 toRepair.getPosition() - indicesToDecrese);
     }
 
+    /**
+     * Repairs a {@link ReplaceInList} in relation to a {@link PermuteList} command.
+     * 
+     * <p>
+     * The element to replace is the same but its index may have changed through the reordering.
+     * </p>
+     * 
+     * @param toRepair
+     *            The command to repair.
+     * @param repairAgainst
+     *            The command to repair against.
+     * @return The repaired command.
+     */
+    public ReplaceInList repairCommand(final ReplaceInList toRepair, final PermuteList repairAgainst) {
+        final int relativePosition = toRepair.getPosition() - repairAgainst.getStartPosition();
+        if (relativePosition < 0 || relativePosition >= repairAgainst.getPermutation().length) {
+            return toRepair;
+        }
+        return new ReplaceInList(toRepair.getListId(), toRepair.getListVersionChange(), toRepair.getValue(),
+                repairAgainst.getStartPosition() + repairAgainst.getPermutation()[relativePosition]);
+    }
+
     /**
      * Repairs a local {@link ReplaceInList} in relation to a remote {@link ReplaceInList} command.
      * 
@@ -19,16 +19,27 @@
 
 package de.saxsys.synchronizefx.core.metamodel.executors.lists;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+
+import javafx.beans.property.ListProperty;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 
 import de.saxsys.synchronizefx.core.metamodel.ListPropertyMetaDataStore;
 import de.saxsys.synchronizefx.core.metamodel.SilentChangeExecutor;
 import de.saxsys.synchronizefx.core.metamodel.ValueMapper;
 import de.saxsys.synchronizefx.core.metamodel.WeakObjectRegistry;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
+import de.saxsys.synchronizefx.core.metamodel.commands.Value;
 
 /**
  * Executes all incoming {@link ListCommand}s regardless of whether they are executable or not.
@@ -82,6 +93,25 @@ public class SimpleListPropertyCommandExecutor implements ListPropertyCommandExe
         updateVersion(command);
     }
 
+    @Override
+    public void execute(final AddAllToList command) {
+        final List<Object> list = getListOrFail(command);
+
+        final List<Object> values = new ArrayList<>(command.getValues().size());
+        for (final Value value : command.getValues()) {
+            values.add(valueMapper.map(value));
+        }
+
+        silentChangeExecutor.execute(list, new Runnable() {
+            @Override
+            public void run() {
+                list.addAll(command.getPosition(), values);
+            }
+        });
+
+        updateVersion(command);
+    }
+
     @Override
     public void execute(final RemoveFromList command) {
         final List<Object> list = getListOrFail(command);
@@ -93,10 +123,9 @@ public class SimpleListPropertyCommandExecutor implements ListPropertyCommandExe
                 final int count = command.getRemoveCount();
                 if (position == 0 && list.size() == count) {
                     list.clear();
-                } else {
-                    for (int i = 0; i < count; i++) {
-                        list.remove(position);
-                    }
+                } else if (count > 0) {
+                    // removes the whole range with a single change event.
+                    list.subList(position, position + count).clear();
                 }
             }
         });
@@ -118,6 +147,59 @@ public class SimpleListPropertyCommandExecutor implements ListPropertyCommandExe
         updateVersion(command);
     }
 
+    @Override
+    public void execute(final PermuteList command) {
+        final List<Object> list = getListOrFail(command);
+
+        silentChangeExecutor.execute(list, new Runnable() {
+            @Override
+            public void run() {
+                permute(list, command);
+            }
+        });
+
+        updateVersion(command);
+    }
+
+    /**
+     * Reorders the elements of a list with a single change event.
+     * 
+     * <p>
+     * Where possible the list is sorted by the new indices of its elements so that listeners receive a permutation
+     * change. When an element is contained more than once in the list the new indices can't be told apart by a
+     * {@link Comparator}. In this case the content of the list is replaced with the reordered content.
+     * </p>
+     */
+    @SuppressWarnings("unchecked")
+    private void permute(final List<Object> list, final PermuteList command) {
+        final int startPosition = command.getStartPosition();
+        final int[] permutation = command.getPermutation();
+        if (permutation.length < 2) {
+            return;
+        }
+
+        final List<Object> permuted = new ArrayList<>(list);
+        for (int i = 0; i < permutation.length; i++) {
+            permuted.set(startPosition + permutation[i], list.get(startPosition + i));
+        }
+
+        final ObservableList<Object> observable = list instanceof ListProperty ? ((ListProperty<Object>) list)
+                .get() : (ObservableList<Object>) list;
+        final Map<Object, Integer> newIndices = new IdentityHashMap<>(permuted.size());
+        for (int i = 0; i < permuted.size(); i++) {
+            if (newIndices.put(permuted.get(i), i) != null) {
+                observable.setAll(permuted);
+                return;
+            }
+        }
+        FXCollections.sort(observable, new Comparator<Object>() {
+            @Override
+            public int compare(final Object o1, final Object o2) {
+                return Integer.compare(newIndices.get(o1), newIndices.get(o2));
+            }
+        });
+    }
+
     private void updateVersion(final ListCommand command) {
         listMetaData.getMetaDataOrFail(command.getListId()).setLocalVersion(
                 command.getListVersionChange().getToVersion());
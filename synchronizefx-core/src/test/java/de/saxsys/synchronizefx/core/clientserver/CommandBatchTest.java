@@ -0,0 +1,115 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.clientserver;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.ClearReferences;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+import de.saxsys.synchronizefx.core.metamodel.commands.CreateObservableObject;
+import de.saxsys.synchronizefx.core.metamodel.commands.SetPropertyValue;
+import de.saxsys.synchronizefx.core.metamodel.commands.Value;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@link CommandBatch} merges command lists correctly.
+ */
+public class CommandBatchTest {
+
+    private final UUID property1 = UUID.randomUUID();
+    private final UUID property2 = UUID.randomUUID();
+
+    private CommandBatch cut;
+
+    /**
+     * Creates the batch that is tested.
+     */
+    @Before
+    public void setUp() {
+        cut = new CommandBatch();
+    }
+
+    /**
+     * Only the last {@link SetPropertyValue} for a property should be kept.
+     */
+    @Test
+    public void shouldRemoveSupersededSetPropertyValues() {
+        final SetPropertyValue first = set(property1, 1);
+        final SetPropertyValue other = set(property2, 2);
+        final SetPropertyValue last = set(property1, 3);
+
+        cut.add(commands(first, new ClearReferences()));
+        cut.add(commands(other, new ClearReferences()));
+        cut.add(commands(last, new ClearReferences()));
+
+        final List<Command> merged = cut.drain();
+        assertThat(merged).hasSize(3);
+        assertThat(merged.subList(0, 2)).containsExactly(other, last);
+    }
+
+    /**
+     * Only a single {@link ClearReferences} at the end of the batch should be kept.
+     */
+    @Test
+    public void shouldClearReferencesOnlyAtTheEnd() {
+        final CreateObservableObject create = new CreateObservableObject();
+        final SetPropertyValue set = set(property1, 1);
+
+        cut.add(commands(create, new ClearReferences()));
+        cut.add(commands(set, new ClearReferences()));
+
+        final List<Command> merged = cut.drain();
+        assertThat(merged).hasSize(3);
+        assertThat(merged.get(0)).isSameAs(create);
+        assertThat(merged.get(1)).isSameAs(set);
+        assertThat(merged.get(2)).isInstanceOf(ClearReferences.class);
+    }
+
+    /**
+     * Draining the batch should empty it.
+     */
+    @Test
+    public void shouldBeEmptyAfterDrain() {
+        assertThat(cut.isEmpty()).isTrue();
+
+        cut.add(commands(set(property1, 1), new ClearReferences()));
+        assertThat(cut.isEmpty()).isFalse();
+        assertThat(cut.size()).isEqualTo(1);
+
+        cut.drain();
+        assertThat(cut.isEmpty()).isTrue();
+        assertThat(cut.drain()).isEmpty();
+    }
+
+    private static SetPropertyValue set(final UUID propertyId, final int value) {
+        final Value valueMsg = new Value(value);
+        return new SetPropertyValue(propertyId, valueMsg);
+    }
+
+    private static List<Command> commands(final Command... commands) {
+        return Arrays.asList(commands);
+    }
+}
@@ -0,0 +1,222 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.clientserver;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
+import de.saxsys.synchronizefx.core.metamodel.commands.ClearReferences;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that {@link CompressingSerializer} restores the data of the wrapped {@link Serializer} correctly.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CompressingSerializerTest {
+
+    private final List<Command> commands = Collections.<Command> singletonList(new ClearReferences());
+
+    @Mock
+    private Serializer serializer;
+
+    /**
+     * Messages smaller than the threshold should be passed through with a single header byte.
+     * 
+     * @throws Exception not expected
+     */
+    @Test
+    public void shouldNotCompressSmallMessages() throws Exception {
+        final byte[] data = compressible(100);
+        when(serializer.serialize(commands)).thenReturn(data);
+        when(serializer.deserialize(aryEq(data))).thenReturn(commands);
+        final CompressingSerializer cut = new CompressingSerializer(serializer, 101, null);
+
+        final byte[] message = cut.serialize(commands);
+
+        assertThat(message).hasSize(data.length + 1);
+        assertThat(cut.deserialize(message)).isSameAs(commands);
+    }
+
+    /**
+     * Messages larger than the threshold should be compressed and restored.
+     * 
+     * @throws Exception not expected
+     */
+    @Test
+    public void shouldCompressAndRestoreLargeMessages() throws Exception {
+        final byte[] data = compressible(10000);
+        when(serializer.serialize(commands)).thenReturn(data);
+        when(serializer.deserialize(aryEq(data))).thenReturn(commands);
+        final CompressingSerializer cut = new CompressingSerializer(serializer);
+
+        final byte[] message = cut.serialize(commands);
+
+        assertThat(message.length).isLessThan(data.length / 10);
+        assertThat(cut.deserialize(message)).isSameAs(commands);
+    }
+
+    /**
+     * Data that can't be compressed should not grow by more than the header byte.
+     * 
+     * @throws Exception not expected
+     */
+    @Test
+    public void shouldNotCompressMessagesThatWouldGrow() throws Exception {
+        final byte[] data = new byte[1000];
+        new Random(42).nextBytes(data);
+        when(serializer.serialize(commands)).thenReturn(data);
+        when(serializer.deserialize(aryEq(data))).thenReturn(commands);
+        final CompressingSerializer cut = new CompressingSerializer(serializer, 0, null);
+
+        final byte[] message = cut.serialize(commands);
+
+        assertThat(message).hasSize(data.length + 1);
+        assertThat(cut.deserialize(message)).isSameAs(commands);
+    }
+
+    /**
+     * A preset dictionary should make small messages smaller than without it.
+     * 
+     * @throws Exception not expected
+     */
+    @Test
+    public void shouldUseDictionaryForCompression() throws Exception {
+        final byte[] dictionary = "de.saxsys.synchronizefx.example.Person firstName lastName".getBytes("UTF-8");
+        final byte[] data = "de.saxsys.synchronizefx.example.Person lastName firstName".getBytes("UTF-8");
+        when(serializer.serialize(commands)).thenReturn(data);
+        when(serializer.deserialize(aryEq(data))).thenReturn(commands);
+        final CompressingSerializer withDictionary = new CompressingSerializer(serializer, 0, dictionary);
+        final CompressingSerializer withoutDictionary = new CompressingSerializer(serializer, 0, null);
+
+        final byte[] message = withDictionary.serialize(commands);
+
+        assertThat(message.length).isLessThan(withoutDictionary.serialize(commands).length);
+        assertThat(withDictionary.deserialize(message)).isSameAs(commands);
+    }
+
+    /**
+     * A message compressed with a dictionary can't be restored without one.
+     * 
+     * @throws Exception not expected
+     */
+    @Test(expected = SynchronizeFXException.class)
+    public void shouldFailWhenDictionaryIsMissing() throws Exception {
+        final byte[] data = compressible(1000);
+        when(serializer.serialize(commands)).thenReturn(data);
+        final byte[] message = new CompressingSerializer(serializer, 0, "dictionary".getBytes("UTF-8"))
+                .serialize(commands);
+
+        new CompressingSerializer(serializer, 0, null).deserialize(message);
+    }
+
+    /**
+     * Highly compressible messages should be restored even though their compressed data is very small.
+     * 
+     * @throws Exception not expected
+     */
+    @Test
+    public void shouldRestoreHighlyCompressedMessages() throws Exception {
+        final byte[] data = new byte[1024 * 1024];
+        when(serializer.serialize(commands)).thenReturn(data);
+        when(serializer.deserialize(aryEq(data))).thenReturn(commands);
+        final CompressingSerializer cut = new CompressingSerializer(serializer);
+
+        assertThat(cut.deserialize(cut.serialize(commands))).isSameAs(commands);
+    }
+
+    /**
+     * A message that claims a size its compressed data can't possibly have should be rejected before memory for the
+     * claimed size is allocated.
+     * 
+     * @throws Exception not expected
+     */
+    @Test(expected = SynchronizeFXException.class)
+    public void shouldRejectMessagesWithImpossibleLengths() throws Exception {
+        when(serializer.serialize(commands)).thenReturn(compressible(1000));
+        final byte[] message = new CompressingSerializer(serializer, 0, null).serialize(commands);
+        ByteBuffer.wrap(message).putInt(1, Integer.MAX_VALUE - 1);
+
+        new CompressingSerializer(serializer, 0, null).deserialize(message);
+    }
+
+    /**
+     * The streaming methods should produce and accept the same format as the array based ones.
+     * 
+     * @throws Exception not expected
+     */
+    @Test
+    public void shouldSupportStreaming() throws Exception {
+        final byte[] data = compressible(2000);
+        when(serializer.serialize(commands)).thenReturn(data);
+        when(serializer.deserialize(aryEq(data))).thenReturn(commands);
+        final CompressingSerializer cut = new CompressingSerializer(serializer);
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        cut.serialize(commands, target);
+
+        assertThat(target.toByteArray()).isEqualTo(cut.serialize(commands));
+        final ByteBuffer buffer = ByteBuffer.allocate(target.size() + 4);
+        buffer.putShort((short) 7).put(target.toByteArray()).putShort((short) 7);
+        buffer.position(2).limit(2 + target.size());
+        assertThat(cut.deserialize(buffer)).isSameAs(commands);
+        assertThat(buffer.position()).isEqualTo(2);
+    }
+
+    /**
+     * The compressing serializer should only create new instances when the wrapped serializer does so.
+     */
+    @Test
+    public void shouldWrapConnectionSerializersOfTheDelegate() {
+        assertThat(new CompressingSerializer(serializer).createConnectionSerializer()).isInstanceOf(
+                CompressingSerializer.class);
+
+        final ConnectionAwareSerializer stateless = mock(ConnectionAwareSerializer.class);
+        when(stateless.createConnectionSerializer()).thenReturn(stateless);
+        final CompressingSerializer statelessCut = new CompressingSerializer(stateless);
+        assertThat(statelessCut.createConnectionSerializer()).isSameAs(statelessCut);
+
+        final ConnectionAwareSerializer stateful = mock(ConnectionAwareSerializer.class);
+        when(stateful.createConnectionSerializer()).thenReturn(mock(Serializer.class));
+        final CompressingSerializer statefulCut = new CompressingSerializer(stateful);
+        assertThat(statefulCut.createConnectionSerializer()).isNotSameAs(statefulCut);
+    }
+
+    private byte[] compressible(final int size) {
+        final byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i % 16);
+        }
+        return data;
+    }
+}
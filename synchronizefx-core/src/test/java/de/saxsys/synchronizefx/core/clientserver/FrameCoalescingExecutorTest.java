@@ -0,0 +1,147 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.saxsys.synchronizefx.core.clientserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import de.saxsys.synchronizefx.core.clientserver.FrameCoalescingExecutor.BacklogListener;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@link FrameCoalescingExecutor} executes changes in batches per frame.
+ * 
+ * <p>
+ * The JavaFX thread is not available in these tests. Frames are simulated by calling
+ * {@link FrameCoalescingExecutor#executeFrame()} directly.
+ * </p>
+ */
+public class FrameCoalescingExecutorTest {
+
+    private final List<String> executed = new ArrayList<>();
+    private final List<String> backlog = new ArrayList<>();
+
+    private final BacklogListener backlogListener = new BacklogListener() {
+        @Override
+        public void fallingBehind(final int pendingChanges) {
+            backlog.add("behind " + pendingChanges);
+        }
+
+        @Override
+        public void caughtUp() {
+            backlog.add("caught up");
+        }
+    };
+
+    private FrameCoalescingExecutor cut;
+
+    /**
+     * Creates the executor that is tested.
+     */
+    @Before
+    public void setUp() {
+        cut = new FrameCoalescingExecutor(1, TimeUnit.MINUTES, backlogListener);
+    }
+
+    /**
+     * All changes passed between two frames should be executed in a single frame in the order they where passed.
+     */
+    @Test
+    public void shouldExecuteAllChangesInOneFrame() {
+        assertThat(cut.enqueue(record("1"))).isTrue();
+        assertThat(cut.enqueue(record("2"))).isFalse();
+        assertThat(cut.enqueue(record("3"))).isFalse();
+        assertThat(cut.getPendingCount()).isEqualTo(3);
+
+        assertThat(cut.executeFrame()).isFalse();
+        assertThat(executed).containsExactly("1", "2", "3");
+        assertThat(cut.getPendingCount()).isEqualTo(0);
+        assertThat(backlog).isEmpty();
+    }
+
+    /**
+     * Frames need to be scheduled again for changes that are passed after all previous changes where executed.
+     */
+    @Test
+    public void shouldRequestNewFramesWhenIdle() {
+        cut.enqueue(record("1"));
+        cut.executeFrame();
+
+        assertThat(cut.enqueue(record("2"))).isTrue();
+        assertThat(cut.executeFrame()).isFalse();
+        assertThat(executed).containsExactly("1", "2");
+    }
+
+    /**
+     * When the time budget of a frame is exceeded, the remaining changes should be executed in the next frames and the
+     * backlog should be reported.
+     */
+    @Test
+    public void shouldContinueInNextFrameWhenBudgetIsExceeded() {
+        // every change exceeds the budget.
+        cut = new FrameCoalescingExecutor(0, TimeUnit.NANOSECONDS, backlogListener);
+        cut.enqueue(record("1"));
+        cut.enqueue(record("2"));
+        cut.enqueue(record("3"));
+
+        assertThat(cut.executeFrame()).isTrue();
+        assertThat(executed).containsExactly("1");
+        assertThat(backlog).containsExactly("behind 2");
+
+        assertThat(cut.executeFrame()).isTrue();
+        assertThat(executed).containsExactly("1", "2");
+        assertThat(backlog).containsExactly("behind 2");
+
+        assertThat(cut.executeFrame()).isFalse();
+        assertThat(executed).containsExactly("1", "2", "3");
+        assertThat(backlog).containsExactly("behind 2", "caught up");
+    }
+
+    /**
+     * A failing change should not prevent the execution of the following changes.
+     */
+    @Test
+    public void shouldExecuteChangesAfterFailingChange() {
+        cut.enqueue(record("1"));
+        cut.enqueue(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("expected by the test");
+            }
+        });
+        cut.enqueue(record("3"));
+
+        cut.executeFrame();
+        assertThat(executed).containsExactly("1", "3");
+    }
+
+    private Runnable record(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                executed.add(name);
+            }
+        };
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.clientserver;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.ClearReferences;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+import de.saxsys.synchronizefx.core.metamodel.commands.SetRootElement;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@link InitialStateCache} holds the snapshot and the delta correctly.
+ */
+public class InitialStateCacheTest {
+
+    private final List<Command> chunk1 = commands(new SetRootElement(), new SetRootElement());
+    private final List<Command> chunk2 = commands(new SetRootElement(), new ClearReferences());
+
+    private InitialStateCache cut;
+
+    /**
+     * Creates the cache that is tested.
+     */
+    @Before
+    public void setUp() {
+        cut = new InitialStateCache();
+    }
+
+    /**
+     * The cache should not be valid before a walk through the domain model has finished.
+     */
+    @Test
+    public void shouldBeInvalidUntilSnapshotIsFinished() {
+        assertThat(cut.isValid()).isFalse();
+
+        cut.startSnapshot();
+        cut.addToSnapshot(chunk1);
+        assertThat(cut.isValid()).isFalse();
+
+        cut.addToSnapshot(chunk2);
+        cut.finishSnapshot();
+        assertThat(cut.isValid()).isTrue();
+        assertThat(cut.getSnapshot()).isEqualTo(chunks(chunk1, chunk2));
+    }
+
+    /**
+     * Commands that are send after the snapshot was created should be part of the delta.
+     */
+    @Test
+    public void shouldCollectCommandsSentAfterSnapshot() {
+        final Command change1 = new SetRootElement();
+        final Command change2 = new ClearReferences();
+
+        cut.commandsSent(commands(new SetRootElement()));
+        cut.startSnapshot();
+        cut.addToSnapshot(chunk1);
+        cut.addToSnapshot(chunk2);
+        cut.finishSnapshot();
+
+        cut.commandsSent(commands(change1));
+        cut.commandsSent(commands(change2));
+
+        assertThat(cut.isValid()).isTrue();
+        assertThat(cut.getDelta()).containsExactly(change1, change2);
+        assertThat(cut.getSnapshotVersion()).isEqualTo(1);
+        assertThat(cut.getVersion()).isEqualTo(3);
+    }
+
+    /**
+     * Commands that are send while the snapshot is created are added to the snapshot by the walk if they are not
+     * reflected in it and therefore must not be part of the delta.
+     */
+    @Test
+    public void shouldNotCollectCommandsSentWhileSnapshotIsCreated() {
+        final Command change1 = new SetRootElement();
+        final Command change2 = new ClearReferences();
+
+        cut.startSnapshot();
+        cut.addToSnapshot(chunk1);
+        cut.commandsSent(commands(change1));
+        cut.addToSnapshot(chunk2);
+        cut.finishSnapshot();
+        cut.commandsSent(commands(change2));
+
+        assertThat(cut.getSnapshot()).isEqualTo(chunks(chunk1, chunk2));
+        assertThat(cut.getDelta()).containsExactly(change2);
+        assertThat(cut.getSnapshotVersion()).isEqualTo(1);
+    }
+
+    /**
+     * A failed walk should leave the cache invalid.
+     */
+    @Test
+    public void shouldDiscardSnapshotInCreationWhenInvalidated() {
+        cut.startSnapshot();
+        cut.addToSnapshot(chunk1);
+        cut.invalidate();
+        cut.finishSnapshot();
+
+        assertThat(cut.isValid()).isFalse();
+    }
+
+    /**
+     * When the delta gets bigger than the snapshot, the cache should be invalidated.
+     */
+    @Test
+    public void shouldBeInvalidatedWhenDeltaExceedsSnapshot() {
+        cut.startSnapshot();
+        cut.addToSnapshot(chunk1);
+        cut.finishSnapshot();
+
+        cut.commandsSent(commands(new SetRootElement(), new ClearReferences()));
+        assertThat(cut.isValid()).isTrue();
+
+        cut.commandsSent(commands(new ClearReferences()));
+        assertThat(cut.isValid()).isFalse();
+    }
+
+    /**
+     * Starting a new walk should discard the old snapshot.
+     */
+    @Test
+    public void shouldDiscardOldSnapshotWhenNewWalkStarts() {
+        cut.startSnapshot();
+        cut.addToSnapshot(chunk1);
+        cut.finishSnapshot();
+
+        cut.startSnapshot();
+        assertThat(cut.isValid()).isFalse();
+
+        cut.addToSnapshot(chunk2);
+        cut.finishSnapshot();
+        assertThat(cut.getSnapshot()).isEqualTo(chunks(chunk2));
+        assertThat(cut.getDelta()).isEmpty();
+    }
+
+    private static List<Command> commands(final Command... commands) {
+        return Arrays.asList(commands);
+    }
+
+    @SafeVarargs
+    private static List<List<Command>> chunks(final List<Command>... chunks) {
+        return Arrays.asList(chunks);
+    }
+}
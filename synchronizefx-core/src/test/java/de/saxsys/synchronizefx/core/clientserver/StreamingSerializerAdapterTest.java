@@ -0,0 +1,105 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.clientserver;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.ClearReferences;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that {@link StreamingSerializerAdapter} passes the correct data to and from the adapted {@link Serializer}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class StreamingSerializerAdapterTest {
+
+    private final List<Command> commands = Collections.<Command> singletonList(new ClearReferences());
+
+    @Mock
+    private Serializer serializer;
+
+    private StreamingSerializer cut;
+
+    /**
+     * Creates the adapter that is tested.
+     */
+    @Before
+    public void setUp() {
+        cut = StreamingSerializerAdapter.adapt(serializer);
+    }
+
+    /**
+     * The serialized form of the commands should be written to the stream.
+     * 
+     * @throws Exception not expected
+     */
+    @Test
+    public void shouldWriteSerializedCommandsToStream() throws Exception {
+        when(serializer.serialize(commands)).thenReturn(new byte[] {1, 2, 3 });
+        final ByteArrayOutputStream target = new ByteArrayOutputStream();
+
+        cut.serialize(commands, target);
+
+        assertThat(target.toByteArray()).isEqualTo(new byte[] {1, 2, 3 });
+    }
+
+    /**
+     * Only the remaining bytes of a buffer should be deserialized and the buffer should not be changed.
+     * 
+     * @throws Exception not expected
+     */
+    @Test
+    public void shouldDeserializeOnlyRemainingBytesOfBuffer() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.wrap(new byte[] {0, 1, 2, 3, 4 }, 1, 3);
+        when(serializer.deserialize(any(byte[].class))).thenReturn(commands);
+
+        assertThat(cut.deserialize(buffer)).isSameAs(commands);
+
+        verify(serializer).deserialize(new byte[] {1, 2, 3 });
+        assertThat(buffer.position()).isEqualTo(1);
+        assertThat(buffer.remaining()).isEqualTo(3);
+    }
+
+    /**
+     * Serializers that already support streaming don't need an adapter.
+     */
+    @Test
+    public void shouldNotAdaptStreamingSerializers() {
+        final StreamingSerializer streaming = mock(StreamingSerializer.class);
+
+        assertThat(StreamingSerializerAdapter.adapt(streaming)).isSameAs(streaming);
+        assertThat(cut).isNotSameAs(serializer);
+    }
+}
@@ -19,8 +19,8 @@
 
 package de.saxsys.synchronizefx.core.inmemorypeers;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
@@ -55,7 +55,7 @@ public class InMemoryServer<T> implements CommandTransferServer {
             return thread;
         }
     });
-    private final List<InMemoryClient<T>> clients = new ArrayList<>();
+    private final List<InMemoryClient<T>> clients = new CopyOnWriteArrayList<>();
 
     private final T model;
 
@@ -97,7 +97,6 @@ public class InMemoryServer<T> implements CommandTransferServer {
     @SuppressWarnings("unchecked")
     @Override
     public void onConnectFinished(final Object client) {
-        // this will only happen in the server thread
         clients.add((InMemoryClient<T>) client);
     }
 
@@ -171,12 +170,16 @@ public class InMemoryServer<T> implements CommandTransferServer {
      *            The client that wants to connect.
      */
     void connect(final InMemoryClient<T> client) {
-        executeInServerThread(new Runnable() {
+        // The server thread is also used to change the domain model. It must not be blocked while a new client
+        // receives the domain model.
+        final Thread connector = new Thread(new Runnable() {
             @Override
             public void run() {
                 callback.onConnect(client);
             }
-        });
+        }, "In-memory SynchronizeFX connect thread " + System.identityHashCode(client));
+        connector.setDaemon(true);
+        connector.start();
     }
 
     /**
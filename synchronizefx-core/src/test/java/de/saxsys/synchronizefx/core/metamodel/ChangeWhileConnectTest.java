@@ -21,6 +21,7 @@ package de.saxsys.synchronizefx.core.metamodel;
 
 import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ListProperty;
@@ -330,16 +331,22 @@ public class ChangeWhileConnectTest {
             propertyVisitorThreadShouldWakeUp = true;
             threadWaitMonitor.notify();
         }
+        final CountDownLatch walkerFinished = new CountDownLatch(1);
         meta.getModelWalkingSynchronizer().doWhenModelWalkerFinished(ActionType.TEST, new Runnable() {
             @Override
             public void run() {
-                // noting to do, just block.
+                walkerFinished.countDown();
             }
         });
+        try {
+            walkerFinished.await();
+        } catch (final InterruptedException e) {
+            fail("Waiting for the PropertyVisitor thread to finish was interrupted.");
+        }
     }
 
     /**
-     * Executes code in a new thread and waits until this new thread goes to sleep.
+     * Executes code in a new thread and waits until this new thread goes to sleep or has finished.
      * 
      * <p>
      * The test cases in this class block the Property Walker thread until they allow it to continue. The also change
@@ -347,7 +354,7 @@ public class ChangeWhileConnectTest {
      * until the property walking finishes. This results in a dead lock.
      * </p>
      * <p>
-     * Therefore this method does the property changing in a new thread and waits for until it goes to sleep. This
+     * Therefore this method does the property changing in a new thread and waits until it goes to sleep. This
      * ensures that the property value has changed befor this method returns.
      * </p>
      * 
@@ -357,7 +364,7 @@ public class ChangeWhileConnectTest {
     private void doInNewThread(final Runnable runnable) {
         Thread newThread = new Thread(runnable);
         newThread.start();
-        while (newThread.getState() != Thread.State.WAITING) {
+        while (newThread.getState() != Thread.State.WAITING && newThread.getState() != Thread.State.TERMINATED) {
             try {
                 Thread.sleep(1);
             } catch (InterruptedException e) {
@@ -0,0 +1,364 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.metamodel;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.ClearReferences;
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+import de.saxsys.synchronizefx.core.metamodel.commands.CreateObservableObject;
+import de.saxsys.synchronizefx.core.metamodel.commands.SetRootElement;
+import de.saxsys.synchronizefx.core.testutils.ComplexDomainModel;
+import de.saxsys.synchronizefx.core.testutils.ComplexDomainModel.Sprint;
+import de.saxsys.synchronizefx.core.testutils.ComplexDomainModel.Story;
+import de.saxsys.synchronizefx.core.testutils.ComplexDomainModel.Task;
+import de.saxsys.synchronizefx.core.testutils.EasyCommandsForDomainModel;
+import de.saxsys.synchronizefx.core.testutils.SaveParameterCallback;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link MetaModel#commandsForDomainModel(int, CommandChunksForDomainModelCallback)} produces chunks that
+ * reproduce the domain model when they are executed one after another.
+ */
+public class ChunkedCommandsForDomainModelTest {
+
+    private static final int CHUNK_SIZE = 7;
+
+    private static final Executor CALLING_THREAD = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+    };
+
+    private ComplexDomainModel root;
+    private MetaModel meta;
+
+    private final List<List<Command>> chunks = new ArrayList<>();
+    private List<Command> lastChunk;
+
+    private ConcurrentDomainModelWalk walk;
+
+    /**
+     * Initializes an example domain model and walks through it in chunks.
+     */
+    @Before
+    public void init() {
+        root = new ComplexDomainModel();
+        for (int i = 0; i < 3; i++) {
+            final Sprint sprint = new Sprint();
+            for (int j = 0; j < 4; j++) {
+                final Story story = new Story();
+                for (int k = 0; k < 5; k++) {
+                    final Task task = new Task();
+                    task.setName("task " + i + "." + j + "." + k);
+                    story.getTasks().add(task);
+                }
+                sprint.getStories().add(story);
+            }
+            root.getSprints().add(sprint);
+        }
+        meta = new MetaModel(new SaveParameterCallback(), root);
+
+        meta.commandsForDomainModel(CHUNK_SIZE, new CommandChunksForDomainModelCallback() {
+            @Override
+            public void commandChunkReady(final List<Command> commands) {
+                assertNull("No chunk should be passed after the last chunk.", lastChunk);
+                chunks.add(commands);
+            }
+
+            @Override
+            public void commandsReady(final List<Command> commands) {
+                lastChunk = commands;
+            }
+        });
+    }
+
+    /**
+     * The domain model should be split in multiple chunks that don't exceed the requested size.
+     */
+    @Test
+    public void testChunksAreBounded() {
+        assertTrue(chunks.size() > 1);
+        for (final List<Command> chunk : chunks) {
+            assertEquals(CHUNK_SIZE, chunk.size());
+        }
+    }
+
+    /**
+     * The last chunk should set the root element and clear the references only after everything else was created.
+     */
+    @Test
+    public void testLastChunkFinishesTheDomainModel() {
+        final int size = lastChunk.size();
+        assertTrue(lastChunk.get(size - 2) instanceof SetRootElement);
+        assertTrue(lastChunk.get(size - 1) instanceof ClearReferences);
+        for (final List<Command> chunk : chunks) {
+            for (final Command command : chunk) {
+                assertTrue(!(command instanceof SetRootElement) && !(command instanceof ClearReferences));
+            }
+        }
+    }
+
+    /**
+     * Executing the chunks one after another should reproduce the domain model.
+     */
+    @Test
+    public void testChunksReproduceDomainModel() {
+        final SaveParameterCallback copyCb = new SaveParameterCallback();
+        final MetaModel copyMeta = new MetaModel(copyCb);
+        for (final List<Command> chunk : chunks) {
+            copyMeta.execute(chunk);
+        }
+        copyMeta.execute(lastChunk);
+
+        final ComplexDomainModel copy = (ComplexDomainModel) copyCb.getRoot();
+        assertEquals(root.getSprints(), copy.getSprints());
+    }
+
+    /**
+     * Chunked commands should contain the same types of commands in the same order as the commands created in a single
+     * list.
+     */
+    @Test
+    public void testChunksContainSameCommandsAsSingleList() {
+        final List<Command> joined = new ArrayList<>();
+        for (final List<Command> chunk : chunks) {
+            joined.addAll(chunk);
+        }
+        joined.addAll(lastChunk);
+
+        final List<Command> single = EasyCommandsForDomainModel.commandsForDomainModel(meta);
+        assertEquals(single.size(), joined.size());
+        for (int i = 0; i < single.size(); i++) {
+            assertEquals(single.get(i).getClass(), joined.get(i).getClass());
+        }
+    }
+
+    /**
+     * A walk that doesn't block changes should let them pass while it is in progress. Applying these changes after
+     * the chunks should reproduce the changed domain model.
+     */
+    @Test
+    public void testChangesArePassedWhileWalkingConcurrently() {
+        final SaveParameterCallback cb = new SaveParameterCallback();
+        final MetaModel concurrentMeta = new MetaModel(cb, root);
+        final Task changed = root.getSprints().get(0).getStories().get(0).getTasks().get(0);
+        final List<List<Command>> concurrentChunks = new ArrayList<>();
+        final List<List<Command>> changes = new ArrayList<>();
+        walk = concurrentMeta.prepareConcurrentWalk(CHUNK_SIZE, CALLING_THREAD);
+
+        final CommandChunksForDomainModelCallback callback = new CommandChunksForDomainModelCallback() {
+            @Override
+            public void commandChunkReady(final List<Command> commands) {
+                concurrentChunks.add(commands);
+                if (concurrentChunks.size() == 2) {
+                    // already walked through
+                    changed.setName("changed while walking");
+                    changes.add(walk.commandsForChange(cb.getCommands()));
+                }
+            }
+
+            @Override
+            public void commandsReady(final List<Command> commands) {
+                concurrentChunks.add(commands);
+            }
+        };
+        walk.walk(callback);
+        assertEquals(1, changes.size());
+        assertTrue(!changes.get(0).isEmpty());
+
+        final SaveParameterCallback copyCb = new SaveParameterCallback();
+        final MetaModel copyMeta = new MetaModel(copyCb);
+        for (final List<Command> chunk : concurrentChunks) {
+            copyMeta.execute(chunk);
+        }
+        copyMeta.execute(changes.get(0));
+
+        final ComplexDomainModel copy = (ComplexDomainModel) copyCb.getRoot();
+        assertEquals(root.getSprints(), copy.getSprints());
+        assertEquals("changed while walking", copy.getSprints().get(0).getStories().get(0).getTasks().get(0)
+                .getName());
+    }
+
+    /**
+     * Lists that are changed by the model change thread while an other thread walks through the domain model should
+     * be reproduced correctly when the changes are applied after the chunks.
+     * 
+     * <p>
+     * The walk reads the lists at different times than the changes are done. Each list must be transfered with the
+     * version it had when its elements where read so that changes which are already contained in the chunks are
+     * dropped and all others are applied.
+     * </p>
+     * 
+     * @throws Exception not expected
+     */
+    @Test
+    public void testListChangesOnTheModelThreadWhileWalkingConcurrently() throws Exception {
+        final List<Command> changes = new ArrayList<>();
+        final SaveParameterCallback cb = new SaveParameterCallback() {
+            @Override
+            public void sendCommands(final List<Command> commands) {
+                // only called by the model change thread
+                changes.addAll(walk.commandsForChange(commands));
+            }
+        };
+        final MetaModel concurrentMeta = new MetaModel(cb, root);
+        final List<Story> stories = new ArrayList<>();
+        for (final Sprint sprint : root.getSprints()) {
+            stories.addAll(sprint.getStories());
+        }
+        final ExecutorService modelThread = Executors.newSingleThreadExecutor();
+        final List<List<Command>> concurrentChunks = new ArrayList<>();
+        walk = concurrentMeta.prepareConcurrentWalk(CHUNK_SIZE, modelThread);
+
+        final CommandChunksForDomainModelCallback callback = new CommandChunksForDomainModelCallback() {
+            @Override
+            public void commandChunkReady(final List<Command> commands) {
+                concurrentChunks.add(commands);
+                final int change = concurrentChunks.size();
+                // the walk continues while the model thread changes lists that where or are still to be read.
+                modelThread.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        final List<Task> tasks = stories.get(change % stories.size()).getTasks();
+                        final Task added = new Task();
+                        added.setName("added while walking " + change);
+                        tasks.add(0, added);
+                        tasks.remove(tasks.size() - 1);
+                        tasks.add(tasks.remove(1));
+                        final List<Task> others = stories.get((change * 7) % stories.size()).getTasks();
+                        final Task inserted = new Task();
+                        inserted.setName("inserted while walking " + change);
+                        others.add(others.size() / 2, inserted);
+                    }
+                });
+            }
+
+            @Override
+            public void commandsReady(final List<Command> commands) {
+                concurrentChunks.add(commands);
+            }
+        };
+
+        try {
+            walk.walk(callback);
+            // wait until all changes are done.
+            modelThread.submit(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }).get();
+        } finally {
+            modelThread.shutdown();
+        }
+        assertTrue(concurrentChunks.size() > 2);
+
+        final SaveParameterCallback copyCb = new SaveParameterCallback();
+        final MetaModel copyMeta = new MetaModel(copyCb);
+        for (final List<Command> chunk : concurrentChunks) {
+            copyMeta.execute(chunk);
+        }
+        copyMeta.execute(changes);
+
+        final ComplexDomainModel copy = (ComplexDomainModel) copyCb.getRoot();
+        assertEquals(root.getSprints(), copy.getSprints());
+    }
+
+    /**
+     * Objects that are added to a part of the domain model which was not walked through yet should be created only
+     * once for the new peer.
+     * 
+     * <p>
+     * The walk creates such objects when it reaches them. Creating them again with the changes would register them a
+     * second time and let the copy diverge silently. Objects that are moved from a part which was not walked through
+     * yet to a part that was already walked through must still be created.
+     * </p>
+     */
+    @Test
+    public void testObjectsAddedToPartsNotWalkedThroughYetAreCreatedOnce() {
+        final List<Command> changes = new ArrayList<>();
+        final SaveParameterCallback cb = new SaveParameterCallback() {
+            @Override
+            public void sendCommands(final List<Command> commands) {
+                changes.addAll(walk.commandsForChange(commands));
+            }
+        };
+        final MetaModel concurrentMeta = new MetaModel(cb, root);
+        final List<Task> firstTasks = root.getSprints().get(0).getStories().get(0).getTasks();
+        final List<Task> lastTasks = root.getSprints().get(2).getStories().get(3).getTasks();
+        final List<List<Command>> concurrentChunks = new ArrayList<>();
+        walk = concurrentMeta.prepareConcurrentWalk(CHUNK_SIZE, CALLING_THREAD);
+
+        walk.walk(new CommandChunksForDomainModelCallback() {
+            @Override
+            public void commandChunkReady(final List<Command> commands) {
+                concurrentChunks.add(commands);
+                if (concurrentChunks.size() == 1) {
+                    final Task added = new Task();
+                    added.setName("added while walking");
+                    lastTasks.add(added);
+                } else if (concurrentChunks.size() == 10) {
+                    final Task moved = lastTasks.remove(0);
+                    firstTasks.add(moved);
+                }
+            }
+
+            @Override
+            public void commandsReady(final List<Command> commands) {
+                concurrentChunks.add(commands);
+            }
+        });
+        concurrentChunks.add(changes);
+
+        final Set<UUID> created = new HashSet<>();
+        for (final List<Command> chunk : concurrentChunks) {
+            for (final Command command : chunk) {
+                if (command instanceof CreateObservableObject) {
+                    assertTrue("An object was created twice.",
+                            created.add(((CreateObservableObject) command).getObjectId()));
+                }
+            }
+        }
+
+        final SaveParameterCallback copyCb = new SaveParameterCallback();
+        final MetaModel copyMeta = new MetaModel(copyCb);
+        for (final List<Command> chunk : concurrentChunks) {
+            copyMeta.execute(chunk);
+        }
+
+        final ComplexDomainModel copy = (ComplexDomainModel) copyCb.getRoot();
+        assertEquals(root.getSprints(), copy.getSprints());
+        assertEquals("added while walking", copy.getSprints().get(2).getStories().get(3).getTasks().get(4).getName());
+    }
+}
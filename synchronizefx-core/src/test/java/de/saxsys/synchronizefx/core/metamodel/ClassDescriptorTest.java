@@ -0,0 +1,211 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.metamodel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ListProperty;
+import javafx.beans.property.MapProperty;
+import javafx.beans.property.SetProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleListProperty;
+import javafx.beans.property.SimpleMapProperty;
+import javafx.beans.property.SimpleSetProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+import de.saxsys.synchronizefx.core.metamodel.ClassDescriptor.PropertyField;
+import de.saxsys.synchronizefx.core.metamodel.ClassDescriptor.PropertyKind;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks if {@link ClassDescriptor} works as expected.
+ */
+public class ClassDescriptorTest {
+
+    /**
+     * All {@link javafx.beans.property.Property} fields should be found, including inherited ones, and classified
+     * correctly. Fields of the class itself should come before the fields of its super classes.
+     */
+    @Test
+    public void shouldDescribePropertyFieldsInDeclarationOrder() {
+        final List<PropertyField> fields = ClassDescriptor.forClass(Child.class).getPropertyFields();
+
+        assertThat(fields).hasSize(5);
+        assertThat(fields.get(0).getName()).isEqualTo("name");
+        assertThat(fields.get(0).getKind()).isEqualTo(PropertyKind.SINGLE_VALUE);
+        assertThat(fields.get(1).getName()).isEqualTo("list");
+        assertThat(fields.get(1).getKind()).isEqualTo(PropertyKind.LIST);
+        assertThat(fields.get(2).getName()).isEqualTo("set");
+        assertThat(fields.get(2).getKind()).isEqualTo(PropertyKind.SET);
+        assertThat(fields.get(3).getName()).isEqualTo("map");
+        assertThat(fields.get(3).getKind()).isEqualTo(PropertyKind.MAP);
+        assertThat(fields.get(4).getName()).isEqualTo("name");
+        assertThat(fields.get(4).getKind()).isEqualTo(PropertyKind.SINGLE_VALUE);
+    }
+
+    /**
+     * When looking up a field by its name, fields of sub classes should hide fields of super classes with the same
+     * name.
+     * 
+     * @throws IllegalAccessException
+     *             Not expected to be thrown.
+     */
+    @Test
+    public void shouldPreferFieldsOfSubClassesWhenLookingUpByName() throws IllegalAccessException {
+        final Child child = new Child();
+
+        final Optional<PropertyField> field = ClassDescriptor.forClass(Child.class).getPropertyField("name");
+
+        assertThat(field.isPresent()).isTrue();
+        assertThat(field.get().get(child)).isSameAs(child.name);
+    }
+
+    /**
+     * Looking up a field that doesn't exist or is no {@link javafx.beans.property.Property} should yield an empty
+     * {@link Optional}.
+     */
+    @Test
+    public void shouldReturnEmptyOptionalForUnknownFields() {
+        final ClassDescriptor descriptor = ClassDescriptor.forClass(Child.class);
+
+        assertThat(descriptor.getPropertyField("unknown").isPresent()).isFalse();
+        assertThat(descriptor.getPropertyField("noProperty").isPresent()).isFalse();
+    }
+
+    /**
+     * Classes without {@link javafx.beans.property.Property} fields are simple objects.
+     */
+    @Test
+    public void shouldRecognizeSimpleObjects() {
+        assertThat(ClassDescriptor.forClass(String.class).isObservableObject()).isFalse();
+        assertThat(ClassDescriptor.forClass(Child.class).isObservableObject()).isTrue();
+    }
+
+    /**
+     * The description of a class should only be created once.
+     */
+    @Test
+    public void shouldCacheDescriptions() {
+        assertThat(ClassDescriptor.forClass(Child.class)).isSameAs(ClassDescriptor.forClass(Child.class));
+    }
+
+    /**
+     * Cached descriptions should not keep the described classes reachable. Otherwise the class loaders of redeployed
+     * applications could never be garbage collected.
+     * 
+     * @throws Exception
+     *             not expected
+     */
+    @Test
+    public void shouldNotPreventClassLoadersFromBeingCollected() throws Exception {
+        final WeakReference<ClassLoader> loader = describeInSeparateClassLoader(Isolated.class);
+
+        for (int i = 0; i < 20 && loader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(loader.get()).isNull();
+    }
+
+    private WeakReference<ClassLoader> describeInSeparateClassLoader(final Class<?> clazz)
+        throws ClassNotFoundException {
+        final ClassLoader loader = new IsolatingClassLoader(clazz.getName());
+        final Class<?> isolated = loader.loadClass(clazz.getName());
+        assertThat(isolated).isNotSameAs(clazz);
+        assertThat(ClassDescriptor.forClass(isolated).isObservableObject()).isTrue();
+        return new WeakReference<>(loader);
+    }
+
+    /**
+     * An exemplary super class of an observable object.
+     */
+    private static class Parent {
+        final MapProperty<String, Integer> map = new SimpleMapProperty<>();
+        final IntegerProperty name = new SimpleIntegerProperty();
+    }
+
+    /**
+     * An exemplary observable object.
+     */
+    private static class Child extends Parent {
+        final StringProperty name = new SimpleStringProperty();
+        final ListProperty<String> list = new SimpleListProperty<>();
+        final int noProperty = 5;
+        final SetProperty<String> set = new SimpleSetProperty<>();
+    }
+
+    /**
+     * An exemplary observable object that is loaded by {@link IsolatingClassLoader}.
+     */
+    private static class Isolated {
+        final StringProperty name = new SimpleStringProperty();
+    }
+
+    /**
+     * Loads a single class itself like the class loader of a web application does. All other classes are loaded by
+     * the class loader of this test.
+     */
+    private static final class IsolatingClassLoader extends ClassLoader {
+        private final String isolatedClass;
+
+        IsolatingClassLoader(final String isolatedClass) {
+            super(ClassDescriptorTest.class.getClassLoader());
+            this.isolatedClass = isolatedClass;
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(isolatedClass)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                final Class<?> loaded = findLoadedClass(name);
+                if (loaded != null) {
+                    return loaded;
+                }
+                final byte[] bytes = readClassFile(name);
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+        }
+
+        private byte[] readClassFile(final String name) throws ClassNotFoundException {
+            try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[4096];
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    bytes.write(buffer, 0, read);
+                }
+                return bytes.toByteArray();
+            } catch (final IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.saxsys.synchronizefx.core.metamodel;
+
+import java.util.List;
+
+import javafx.beans.property.ListProperty;
+import javafx.beans.property.MapProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.Property;
+import javafx.beans.property.SetProperty;
+import javafx.beans.property.SimpleListProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.FXCollections;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+import de.saxsys.synchronizefx.core.testutils.EasyCommandsForDomainModel;
+import de.saxsys.synchronizefx.core.testutils.SaveParameterCallback;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that domain models that are nested much deeper than the call stack would allow can be walked through.
+ */
+public class DeepDomainModelTest {
+
+    private static final int DEPTH = 20000;
+
+    /**
+     * The {@link PropertyVisitor} should visit every object of a deep domain model.
+     * 
+     * @throws IllegalAccessException
+     *             not expected
+     */
+    @Test
+    public void visitorShouldWalkThroughDeepDomainModels() throws IllegalAccessException {
+        final Node root = chain(DEPTH);
+        final CountingVisitor visitor = new CountingVisitor();
+        visitor.startVisiting(root);
+        assertTrue(visitor.continueVisiting(Integer.MAX_VALUE));
+        assertEquals(DEPTH, visitor.visited);
+    }
+
+    /**
+     * A walk through the domain model can be paused and resumed.
+     * 
+     * @throws IllegalAccessException
+     *             not expected
+     */
+    @Test
+    public void visitorShouldWalkThroughDomainModelInSlices() throws IllegalAccessException {
+        final Node root = chain(100);
+        final CountingVisitor visitor = new CountingVisitor();
+        visitor.startVisiting(root);
+        assertFalse(visitor.continueVisiting(10));
+        assertTrue(visitor.visited < 100);
+
+        int slices = 1;
+        while (!visitor.continueVisiting(10)) {
+            slices++;
+        }
+        assertTrue(slices > 1);
+        assertEquals(100, visitor.visited);
+    }
+
+    /**
+     * The commands created for a deep domain model should reproduce it on an other peer.
+     */
+    @Test
+    public void commandsForDeepDomainModelsShouldReproduceTheModel() {
+        final Node root = chain(DEPTH);
+        final MetaModel meta = new MetaModel(new SaveParameterCallback(), root);
+        final List<Command> commands = EasyCommandsForDomainModel.commandsForDomainModel(meta);
+
+        final SaveParameterCallback copyCb = new SaveParameterCallback();
+        new MetaModel(copyCb).execute(commands);
+
+        assertEquals(DEPTH, depthOf((Node) copyCb.getRoot()));
+    }
+
+    /**
+     * Deep object graphs that are added to an already synchronized domain model should be synchronized too.
+     */
+    @Test
+    public void deepObjectsAddedToTheDomainModelShouldBeSynchronized() {
+        final Node root = new Node();
+        final SaveParameterCallback cb = new SaveParameterCallback();
+        final MetaModel meta = new MetaModel(cb, root);
+        final SaveParameterCallback copyCb = new SaveParameterCallback();
+        final MetaModel copyMeta = new MetaModel(copyCb);
+        copyMeta.execute(EasyCommandsForDomainModel.commandsForDomainModel(meta));
+
+        root.children.add(chain(DEPTH));
+        copyMeta.execute(cb.getCommands());
+
+        final Node copy = (Node) copyCb.getRoot();
+        assertEquals(DEPTH, depthOf(copy.children.get(0)));
+    }
+
+    private static Node chain(final int depth) {
+        final Node root = new Node();
+        Node current = root;
+        for (int i = 1; i < depth; i++) {
+            final Node next = new Node();
+            if (i % 2 == 0) {
+                current.next.set(next);
+            } else {
+                current.children.add(next);
+            }
+            current = next;
+        }
+        return root;
+    }
+
+    private static int depthOf(final Node root) {
+        int depth = 0;
+        Node current = root;
+        while (current != null) {
+            depth++;
+            current = current.next.get() != null ? current.next.get() : current.children.isEmpty() ? null
+                    : current.children.get(0);
+        }
+        return depth;
+    }
+
+    /**
+     * Counts the observable objects it visits.
+     */
+    private static class CountingVisitor extends PropertyVisitor {
+        private int visited;
+
+        @Override
+        protected void visitObservableObjectStart() {
+            visited++;
+        }
+
+        @Override
+        protected boolean visitCollectionProperty(final ListProperty<?> fieldValue) {
+            return true;
+        }
+
+        @Override
+        protected boolean visitCollectionProperty(final MapProperty<?, ?> fieldValue) {
+            return true;
+        }
+
+        @Override
+        protected boolean visitCollectionProperty(final SetProperty<?> fieldValue) {
+            return true;
+        }
+
+        @Override
+        protected boolean visitSingleValueProperty(final Property<?> fieldValue) {
+            return true;
+        }
+    }
+
+    /**
+     * An element of a deeply nested domain model.
+     */
+    public static class Node {
+        private final ObjectProperty<Node> next = new SimpleObjectProperty<>();
+        private final ListProperty<Node> children = new SimpleListProperty<>(
+                FXCollections.<Node> observableArrayList());
+    }
+}
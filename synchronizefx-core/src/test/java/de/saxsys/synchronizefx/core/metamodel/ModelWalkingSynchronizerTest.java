@@ -0,0 +1,185 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.saxsys.synchronizefx.core.metamodel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.saxsys.synchronizefx.core.metamodel.ModelWalkingSynchronizer.ActionType;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@link ModelWalkingSynchronizer} queues actions while a model walker is active and executes them in the
+ * correct order.
+ */
+public class ModelWalkingSynchronizerTest {
+
+    private static final int THREADS = 8;
+    private static final int ACTIONS_PER_THREAD = 5000;
+
+    private ModelWalkingSynchronizer cut;
+    private final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+
+    /**
+     * Creates the synchronizer that is tested.
+     */
+    @Before
+    public void setUp() {
+        cut = new ModelWalkingSynchronizer();
+    }
+
+    /**
+     * When no model walker is active, actions should be executed immediately.
+     */
+    @Test
+    public void shouldExecuteActionsImmediatelyWhenNoWalkerIsActive() {
+        cut.doWhenModelWalkerFinished(ActionType.LOCAL_PROPERTY_CHANGES, record("local"));
+        assertThat(executed).containsExactly("local");
+    }
+
+    /**
+     * Actions passed while a model walker is active should be queued and executed ordered by their type when the
+     * walker finishes.
+     */
+    @Test
+    public void shouldExecuteQueuedActionsOrderedByTypeWhenWalkerFinishes() {
+        cut.startModelWalking();
+        cut.doWhenModelWalkerFinished(ActionType.TEST, record("test"));
+        cut.doWhenModelWalkerFinished(ActionType.INCOMMING_COMMANDS, record("incomming 1"));
+        cut.doWhenModelWalkerFinished(ActionType.LOCAL_PROPERTY_CHANGES, record("local 1"));
+        cut.doWhenModelWalkerFinished(ActionType.INCOMMING_COMMANDS, record("incomming 2"));
+        cut.doWhenModelWalkerFinished(ActionType.LOCAL_PROPERTY_CHANGES, record("local 2"));
+        assertThat(executed).isEmpty();
+
+        cut.finishedModelWalking();
+        assertThat(executed).containsExactly("local 1", "local 2", "incomming 1", "incomming 2", "test");
+
+        cut.doWhenModelWalkerFinished(ActionType.TEST, record("after"));
+        assertThat(executed).endsWith("after");
+    }
+
+    /**
+     * Actions that are passed while the queued actions are executed should be queued too so that they are not
+     * executed before the actions that where passed earlier.
+     */
+    @Test
+    public void shouldQueueActionsPassedWhileQueuedActionsAreExecuted() {
+        cut.startModelWalking();
+        cut.doWhenModelWalkerFinished(ActionType.INCOMMING_COMMANDS, new Runnable() {
+            @Override
+            public void run() {
+                executed.add("incomming 1");
+                cut.doWhenModelWalkerFinished(ActionType.LOCAL_PROPERTY_CHANGES, record("local"));
+            }
+        });
+        cut.doWhenModelWalkerFinished(ActionType.INCOMMING_COMMANDS, record("incomming 2"));
+
+        cut.finishedModelWalking();
+        assertThat(executed).containsExactly("incomming 1", "local", "incomming 2");
+    }
+
+    /**
+     * Many threads that pass actions while model walkers are started and finished concurrently should neither be
+     * blocked nor lose actions. The actions of a single thread must be executed in the order they where passed and
+     * never while a walker is active.
+     * 
+     * @throws InterruptedException
+     *             not expected
+     */
+    @Test(timeout = 30000)
+    public void shouldExecuteAllActionsInOrderUnderContention() throws InterruptedException {
+        final AtomicBoolean walking = new AtomicBoolean();
+        final AtomicBoolean executedWhileWalking = new AtomicBoolean();
+        final AtomicBoolean executedOutOfOrder = new AtomicBoolean();
+        final AtomicInteger executedCount = new AtomicInteger();
+        final CountDownLatch producersFinished = new CountDownLatch(THREADS);
+
+        final List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final ActionType type = t % 2 == 0 ? ActionType.LOCAL_PROPERTY_CHANGES : ActionType.INCOMMING_COMMANDS;
+            producers.add(new Thread() {
+                private int lastExecuted = -1;
+
+                @Override
+                public void run() {
+                    for (int i = 0; i < ACTIONS_PER_THREAD; i++) {
+                        final int sequence = i;
+                        cut.doWhenModelWalkerFinished(type, new Runnable() {
+                            @Override
+                            public void run() {
+                                if (walking.get()) {
+                                    executedWhileWalking.set(true);
+                                }
+                                if (lastExecuted + 1 != sequence) {
+                                    executedOutOfOrder.set(true);
+                                }
+                                lastExecuted = sequence;
+                                executedCount.incrementAndGet();
+                            }
+                        });
+                    }
+                    producersFinished.countDown();
+                }
+            });
+        }
+
+        final Thread walker = new Thread() {
+            @Override
+            public void run() {
+                while (producersFinished.getCount() > 0) {
+                    cut.startModelWalking();
+                    walking.set(true);
+                    Thread.yield();
+                    walking.set(false);
+                    cut.finishedModelWalking();
+                }
+            }
+        };
+
+        walker.start();
+        for (final Thread producer : producers) {
+            producer.start();
+        }
+        assertThat(producersFinished.await(20, TimeUnit.SECONDS)).isTrue();
+        walker.join();
+
+        // all actions passed after the last walk have been executed immediately.
+        assertThat(executedCount.get()).isEqualTo(THREADS * ACTIONS_PER_THREAD);
+        assertThat(executedWhileWalking.get()).isFalse();
+        assertThat(executedOutOfOrder.get()).isFalse();
+    }
+
+    private Runnable record(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                executed.add(name);
+            }
+        };
+    }
+}
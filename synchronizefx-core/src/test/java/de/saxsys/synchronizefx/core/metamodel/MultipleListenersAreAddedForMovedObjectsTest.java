@@ -161,4 +161,42 @@ public class MultipleListenersAreAddedForMovedObjectsTest {
         copyMeta.execute(originalCb.getCommands());
         assertEquals(originalDomainModel.getSprints(), copyDomainModel.getSprints());
     }
+
+    /**
+     * Objects that where already known and are moved into a newly created object should still report their changes
+     * exactly once while the new objects report changes too.
+     */
+    @Test
+    public void knownObjectsInNewlyCreatedObjectsShouldReportChangesOnce() {
+        final Task taskA = new Task();
+        taskA.setName("taskA");
+        final Story storyA = new Story();
+        storyA.getTasks().add(taskA);
+        final Sprint sprintA = new Sprint();
+        sprintA.getStories().add(storyA);
+        originalDomainModel.getSprints().add(sprintA);
+        copyMeta.execute(originalCb.getCommands());
+
+        final List<Command> commands = new ArrayList<>();
+        final Story storyB = new Story();
+        storyB.getTasks().add(storyA.getTasks().remove(0));
+        commands.addAll(originalCb.getCommands());
+        sprintA.getStories().add(storyB);
+        commands.addAll(originalCb.getCommands());
+        copyMeta.execute(commands);
+        assertEquals(originalDomainModel.getSprints(), copyDomainModel.getSprints());
+
+        taskA.setName("renamed");
+        // set, clearReferences
+        assertEquals(2, originalCb.getCommands().size());
+        copyMeta.execute(originalCb.getCommands());
+
+        final Task taskB = new Task();
+        taskB.setName("taskB");
+        storyB.getTasks().add(taskB);
+        // create, set, addToList, clearReferences
+        assertEquals(4, originalCb.getCommands().size());
+        copyMeta.execute(originalCb.getCommands());
+        assertEquals(originalDomainModel.getSprints(), copyDomainModel.getSprints());
+    }
 }
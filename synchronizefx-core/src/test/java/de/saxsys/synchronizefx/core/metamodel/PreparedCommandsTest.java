@@ -0,0 +1,192 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.saxsys.synchronizefx.core.metamodel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.beans.property.ListProperty;
+import javafx.beans.property.MapProperty;
+import javafx.beans.property.SetProperty;
+import javafx.beans.property.SimpleListProperty;
+import javafx.beans.property.SimpleMapProperty;
+import javafx.beans.property.SimpleSetProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.FXCollections;
+
+import de.saxsys.synchronizefx.core.metamodel.commands.Command;
+import de.saxsys.synchronizefx.core.testutils.EasyCommandsForDomainModel;
+import de.saxsys.synchronizefx.core.testutils.SaveParameterCallback;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that commands can be prepared in an other thread than the one that executes them.
+ */
+public class PreparedCommandsTest {
+
+    private Root root;
+    private SaveParameterCallback cb;
+    private MetaModel meta;
+
+    private SaveParameterCallback copyCb;
+    private MetaModel copyMeta;
+
+    /**
+     * Creates an example domain model and a meta model for a copy of it.
+     */
+    @Before
+    public void setUp() {
+        root = new Root();
+        root.children.add(new Child("list child"));
+        root.childrenByName.put("map child", new Child("map child value"));
+        root.childSet.add(new Child("set child"));
+
+        cb = new SaveParameterCallback();
+        meta = new MetaModel(cb, root);
+        copyCb = new SaveParameterCallback();
+        copyMeta = new MetaModel(copyCb);
+    }
+
+    /**
+     * Preparing commands should not change the domain model. Only executing the prepared commands should.
+     * 
+     * @throws InterruptedException
+     *             not expected
+     */
+    @Test
+    public void shouldReproduceDomainModelWithCommandsPreparedInOtherThread() throws InterruptedException {
+        final List<Object> prepared = prepareInOtherThread(EasyCommandsForDomainModel.commandsForDomainModel(meta));
+        assertThat(copyCb.getRoot()).isNull();
+
+        copyMeta.executePrepared(prepared);
+
+        final Root copy = (Root) copyCb.getRoot();
+        assertThat(copy.children.get(0).name.get()).isEqualTo("list child");
+        assertThat(copy.childrenByName.get("map child").name.get()).isEqualTo("map child value");
+        assertThat(copy.childSet.iterator().next().name.get()).isEqualTo("set child");
+    }
+
+    /**
+     * Collection changes that are prepared should not be visible before they are executed.
+     * 
+     * @throws InterruptedException
+     *             not expected
+     */
+    @Test
+    public void shouldChangeCollectionsOnlyWhenPreparedCommandsAreExecuted() throws InterruptedException {
+        copyMeta.execute(EasyCommandsForDomainModel.commandsForDomainModel(meta));
+        final Root copy = (Root) copyCb.getRoot();
+
+        root.childrenByName.put("new", new Child("new map child"));
+        final List<Object> mapChange = prepareInOtherThread(cb.getCommands());
+        root.childSet.add(new Child("new set child"));
+        final List<Object> setChange = prepareInOtherThread(cb.getCommands());
+        assertThat(copy.childrenByName).hasSize(1);
+        assertThat(copy.childSet).hasSize(1);
+
+        copyMeta.executePrepared(mapChange);
+        copyMeta.executePrepared(setChange);
+        assertThat(copy.childrenByName.get("new").name.get()).isEqualTo("new map child");
+        assertThat(copy.childSet).hasSize(2);
+    }
+
+    /**
+     * When multiple changes of the same property are prepared, only the last one should change the property when they
+     * are executed.
+     * 
+     * @throws InterruptedException
+     *             not expected
+     */
+    @Test
+    public void shouldOnlyExecuteLastPreparedChangeOfAProperty() throws InterruptedException {
+        copyMeta.execute(EasyCommandsForDomainModel.commandsForDomainModel(meta));
+        final Root copy = (Root) copyCb.getRoot();
+        final List<String> observedValues = new ArrayList<>();
+        copy.children.get(0).name.addListener(new ChangeListener<String>() {
+            @Override
+            public void changed(final ObservableValue<? extends String> observable, final String oldValue,
+                    final String newValue) {
+                observedValues.add(newValue);
+            }
+        });
+
+        final List<List<Object>> batches = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            root.children.get(0).name.set("change " + i);
+            batches.add(prepareInOtherThread(cb.getCommands()));
+        }
+        for (final List<Object> batch : batches) {
+            copyMeta.executePrepared(batch);
+        }
+        assertThat(observedValues).containsExactly("change 2");
+
+        // Changes that are prepared after the last one was executed are not superseded.
+        root.children.get(0).name.set("change 3");
+        copyMeta.executePrepared(prepareInOtherThread(cb.getCommands()));
+        assertThat(observedValues).containsExactly("change 2", "change 3");
+    }
+
+    private List<Object> prepareInOtherThread(final List<Command> commands) throws InterruptedException {
+        final List<Object> prepared = new ArrayList<>();
+        final Thread preparer = new Thread() {
+            @Override
+            public void run() {
+                prepared.addAll(copyMeta.prepare(commands));
+            }
+        };
+        preparer.start();
+        preparer.join();
+        return prepared;
+    }
+
+    /**
+     * The root of the example domain model.
+     */
+    public static class Root {
+        private final ListProperty<Child> children = new SimpleListProperty<>(
+                FXCollections.<Child> observableArrayList());
+        private final MapProperty<String, Child> childrenByName = new SimpleMapProperty<>(
+                FXCollections.<String, Child> observableHashMap());
+        private final SetProperty<Child> childSet = new SimpleSetProperty<>(FXCollections.<Child> observableSet());
+    }
+
+    /**
+     * An element of the example domain model.
+     */
+    public static class Child {
+        private final StringProperty name = new SimpleStringProperty();
+
+        /**
+         * Creates a child without a name.
+         */
+        public Child() {
+        }
+
+        Child(final String name) {
+            this.name.set(name);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.saxsys.synchronizefx.core.metamodel;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that {@link SequentialIdGenerator} generates unique ids.
+ */
+public class SequentialIdGeneratorTest {
+
+    /**
+     * The generated ids should never repeat.
+     */
+    @Test
+    public void shouldGenerateUniqueIds() {
+        final SequentialIdGenerator cut = new SequentialIdGenerator();
+        final Set<UUID> ids = new HashSet<>();
+
+        for (int i = 0; i < 10000; i++) {
+            assertThat(ids.add(cut.get())).isTrue();
+        }
+    }
+
+    /**
+     * Different generators should use different prefixes so that the ids of different peers don't collide.
+     */
+    @Test
+    public void shouldUseDifferentPrefixesForDifferentInstances() {
+        final UUID first = new SequentialIdGenerator().get();
+        final UUID second = new SequentialIdGenerator().get();
+
+        assertThat(first.getMostSignificantBits()).isNotEqualTo(second.getMostSignificantBits());
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    /**
+     * The generated ids should never have the version of the ids generated by {@link UUID#randomUUID()}.
+     */
+    @Test
+    public void shouldNotCollideWithRandomIds() {
+        assertThat(new SequentialIdGenerator(-1L).get().version()).isEqualTo(0);
+        assertThat(new SequentialIdGenerator().get().version()).isEqualTo(0);
+        assertThat(UUID.randomUUID().version()).isEqualTo(4);
+    }
+
+    /**
+     * Fixed prefixes should be used as most significant bits of the ids.
+     */
+    @Test
+    public void shouldUseFixedPrefix() {
+        final SequentialIdGenerator cut = new SequentialIdGenerator(42);
+
+        assertThat(cut.get()).isEqualTo(new UUID(42, 1));
+        assertThat(cut.get()).isEqualTo(new UUID(42, 2));
+    }
+}
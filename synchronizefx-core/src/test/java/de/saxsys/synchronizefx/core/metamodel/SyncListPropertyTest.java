@@ -19,6 +19,8 @@
 
 package de.saxsys.synchronizefx.core.metamodel;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -29,9 +31,11 @@ import javafx.beans.property.SimpleListProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.Command;
 import de.saxsys.synchronizefx.core.metamodel.commands.CreateObservableObject;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
 import de.saxsys.synchronizefx.core.metamodel.commands.SetPropertyValue;
@@ -42,10 +46,12 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -185,6 +191,138 @@ public class SyncListPropertyTest {
         assertEquals(4, replaceCommand.getRemoveCount());
     }
 
+    /**
+     * Adding several elements at once should result in a single {@link AddAllToList} command.
+     */
+    @Test
+    public void testAddAll() {
+        root.wrappedList.add("Test Value 0");
+        root.wrappedList.addAll(Arrays.asList("Test Value 1", "Test Value 2", "Test Value 3"));
+
+        // the add all command and a clear references command
+        assertEquals(2, cb.getCommands().size());
+        final AddAllToList msg1 = (AddAllToList) cb.getCommands().get(0);
+        assertEquals(1, msg1.getPosition());
+        assertEquals(3, msg1.getValues().size());
+        assertEquals("Test Value 3", msg1.getValues().get(2).getSimpleObjectValue());
+
+        root.childList.addAll(new Child(1), new Child(2));
+        final List<Command> commands = cb.getCommands();
+        // create and set commands for both children come first.
+        final CreateObservableObject child1 = (CreateObservableObject) commands.get(0);
+        final CreateObservableObject child2 = (CreateObservableObject) commands.get(2);
+        final AddAllToList msg2 = (AddAllToList) commands.get(4);
+        assertEquals(6, commands.size());
+        assertEquals(child1.getObjectId(), msg2.getValues().get(0).getObservableObjectId());
+        assertEquals(child2.getObjectId(), msg2.getValues().get(1).getObservableObjectId());
+    }
+
+    /**
+     * Replacing the content of a list with a content of an other size should remove the old range and add the new
+     * one.
+     */
+    @Test
+    public void testSetAll() {
+        simpleTestData();
+
+        root.wrappedList.setAll("42", "43");
+
+        final List<Command> commands = cb.getCommands();
+        // the remove command, the add all command and a clear references command
+        assertEquals(3, commands.size());
+        final RemoveFromList remove = (RemoveFromList) commands.get(0);
+        assertEquals(0, remove.getStartPosition());
+        assertEquals(4, remove.getRemoveCount());
+        final AddAllToList add = (AddAllToList) commands.get(1);
+        assertEquals(0, add.getPosition());
+        assertEquals("42", add.getValues().get(0).getSimpleObjectValue());
+        assertEquals("43", add.getValues().get(1).getSimpleObjectValue());
+    }
+
+    /**
+     * Tests that the commands that are generated for changes of ranges of elements can be applied.
+     */
+    @Test
+    public void testApplyGeneratedBulkCommands() {
+        final SaveParameterCallback copyCb = new SaveParameterCallback();
+        final MetaModel copy = new MetaModel(copyCb);
+
+        copy.execute(EasyCommandsForDomainModel.commandsForDomainModel(model));
+        final Root copyRoot = (Root) copyCb.getRoot();
+
+        root.wrappedList.addAll("a", "b", "c", "d");
+        copy.execute(cb.getCommands());
+        assertEquals(root, copyRoot);
+
+        root.childList.addAll(new Child(1), new Child(2), new Child(3));
+        copy.execute(cb.getCommands());
+        assertEquals(root, copyRoot);
+
+        root.wrappedList.remove(1, 3);
+        copy.execute(cb.getCommands());
+        assertEquals(root, copyRoot);
+
+        root.childList.setAll(new Child(4), new Child(5));
+        copy.execute(cb.getCommands());
+        assertEquals(root, copyRoot);
+    }
+
+    /**
+     * Sorting a list should result in a single {@link PermuteList} command.
+     */
+    @Test
+    public void testSort() {
+        root.wrappedList.addAll("c", "a", "b");
+
+        FXCollections.sort(root.wrappedList.get());
+
+        final List<Command> commands = cb.getCommands();
+        assertEquals(1, commands.size());
+        final PermuteList permute = (PermuteList) commands.get(0);
+        assertEquals(0, permute.getStartPosition());
+        assertArrayEquals(new int[] {2, 0, 1 }, permute.getPermutation());
+    }
+
+    /**
+     * Replacing the content of a list with the same elements in an other order should be synchronized as a
+     * {@link PermuteList} command instead of removing and adding all elements.
+     */
+    @Test
+    public void testSetAllWithReorderedElements() {
+        simpleTestData();
+
+        FXCollections.reverse(root.childList);
+
+        final List<Command> commands = cb.getCommands();
+        assertEquals(1, commands.size());
+        final PermuteList permute = (PermuteList) commands.get(0);
+        assertArrayEquals(new int[] {2, 1, 0 }, permute.getPermutation());
+    }
+
+    /**
+     * Tests that the commands that are generated when elements of a list are reordered can be applied.
+     */
+    @Test
+    public void testApplyGeneratedPermuteCommands() {
+        simpleTestData();
+        final SaveParameterCallback copyCb = new SaveParameterCallback();
+        final MetaModel copy = new MetaModel(copyCb);
+
+        copy.execute(EasyCommandsForDomainModel.commandsForDomainModel(model));
+        final Root copyRoot = (Root) copyCb.getRoot();
+        final Child someChild = copyRoot.childList.get(0);
+
+        FXCollections.sort(root.wrappedList.get(), Collections.reverseOrder());
+        copy.execute(cb.getCommands());
+        assertEquals(root, copyRoot);
+
+        FXCollections.reverse(root.childList);
+        copy.execute(cb.getCommands());
+        assertEquals(root, copyRoot);
+        // the elements should be moved, not recreated
+        assertSame(someChild, copyRoot.childList.get(2));
+    }
+
     /**
      * Tests that commands that modify a map can be applied.
      * 
@@ -19,7 +19,11 @@
 
 package de.saxsys.synchronizefx.core.metamodel;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import de.saxsys.synchronizefx.core.exceptions.ObjectToIdMappingException;
 
@@ -148,4 +152,115 @@ public class WeakObjectRegistryTest {
         assertThat(queriedObject.isPresent()).isTrue();
         assertThat(queriedObject.get()).isSameAs(newObject);
     }
+
+    /**
+     * All objects should still be found when the registry has to grow, even for ids that only differ slightly.
+     */
+    @Test
+    public void shouldFindAllObjectsAfterRegisteringMany() {
+        final List<Object> objects = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            final Object object = new Object();
+            objects.add(object);
+            cut.registerObject(object, new UUID(0, i));
+        }
+
+        for (int i = 0; i < objects.size(); i++) {
+            assertThat(cut.getByIdOrFail(new UUID(0, i))).isSameAs(objects.get(i));
+            assertThat(cut.getById(0, i).get()).isSameAs(objects.get(i));
+            assertThat(cut.getIdOrFail(objects.get(i))).isEqualTo(new UUID(0, i));
+        }
+    }
+
+    /**
+     * Registering an other object for an id that is already known should replace the object for this id.
+     */
+    @Test
+    public void shouldReplaceObjectsForReusedIds() {
+        final Object first = new Object();
+        final Object second = new Object();
+        final UUID id = UUID.randomUUID();
+
+        cut.registerObject(first, id);
+        cut.registerObject(second, id);
+
+        assertThat(cut.getByIdOrFail(id)).isSameAs(second);
+        assertThat(cut.getIdOrFail(second)).isEqualTo(id);
+    }
+
+    /**
+     * Objects that are not referenced anywhere else should not be kept alive by the registry.
+     * 
+     * @throws Exception not expected
+     */
+    @Test
+    public void shouldNotPreventGarbageCollection() throws Exception {
+        final UUID id = UUID.randomUUID();
+        cut.registerObject(new Object(), id);
+
+        for (int i = 0; i < 50 && cut.getById(id).isPresent(); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(cut.getById(id).isPresent()).isFalse();
+
+        final Object object = new Object();
+        cut.registerObject(object, id);
+        assertThat(cut.getByIdOrFail(id)).isSameAs(object);
+    }
+
+    /**
+     * Readers should always find objects that were registered before while other objects are registered
+     * concurrently.
+     * 
+     * @throws Exception not expected
+     */
+    @Test
+    public void shouldSupportConcurrentReaders() throws Exception {
+        final List<Object> known = new ArrayList<>();
+        final List<UUID> knownIds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final Object object = new Object();
+            known.add(object);
+            knownIds.add(cut.registerIfUnknown(object));
+        }
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final Thread reader = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (running.get()) {
+                            for (int i = 0; i < known.size(); i++) {
+                                assertThat(cut.getByIdOrFail(knownIds.get(i))).isSameAs(known.get(i));
+                                assertThat(cut.getIdOrFail(known.get(i))).isEqualTo(knownIds.get(i));
+                            }
+                        }
+                    } catch (final Throwable e) {
+                        failure.set(e);
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        final List<Object> added = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            final Object object = new Object();
+            added.add(object);
+            cut.registerIfUnknown(object);
+        }
+        running.set(false);
+        for (final Thread reader : readers) {
+            reader.join();
+        }
+
+        assertThat(failure.get()).isNull();
+        for (final Object object : added) {
+            assertThat(cut.getId(object).isPresent()).isTrue();
+        }
+    }
 }
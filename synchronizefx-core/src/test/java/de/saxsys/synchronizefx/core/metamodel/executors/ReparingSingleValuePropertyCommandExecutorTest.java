@@ -145,4 +145,22 @@ public class ReparingSingleValuePropertyCommandExecutorTest {
         // Property 1 has changed
         verify(executor).execute(exemplaryProperty1Change);
     }
+
+    /**
+     * A skipped command should never be executed but it should still remove the first entry of the log if it is equal
+     * to it.
+     */
+    @Test
+    public void shouldRemoveSkippedCommandFromTheLogWithoutExecutingIt() {
+        cut.skip(exemplaryProperty1Change);
+        verifyNoMoreInteractions(executor);
+
+        cut.logLocalCommand(exemplaryProperty1Change);
+        cut.skip(exemplaryProperty1Change);
+        verifyNoMoreInteractions(executor);
+
+        cut.execute(exemplaryProperty1Change);
+        // the log is empty again
+        verify(executor).execute(exemplaryProperty1Change);
+    }
 }
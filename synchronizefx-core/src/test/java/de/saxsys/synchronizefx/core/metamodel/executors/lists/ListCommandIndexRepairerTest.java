@@ -22,14 +22,19 @@ package de.saxsys.synchronizefx.core.metamodel.executors.lists;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.UUID;
 
 import static java.util.Arrays.asList;
+import static java.util.UUID.randomUUID;
 
 import de.saxsys.synchronizefx.core.metamodel.Optional;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
+import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand.ListVersionChange;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
+import de.saxsys.synchronizefx.core.metamodel.commands.Value;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -58,6 +63,9 @@ public class ListCommandIndexRepairerTest {
     @Mock
     private ReplaceInListRepairer replaceInListRepairer;
 
+    @Mock
+    private PermuteListRepairer permuteListRepairer;
+
     @InjectMocks
     private ListCommandIndexRepairer cut;
 
@@ -127,6 +135,63 @@ public class ListCommandIndexRepairerTest {
         assertThat(localQueue).containsExactly(repairedLocal);
     }
 
+    /**
+     * Remote {@link AddAllToList} commands are repaired by splitting them into single {@link AddToList} commands.
+     */
+    @Test
+    public void shouldSplitRemoteAddAllToListCommandsForRepairing() {
+        final ListCommandIndexRepairer repairer = realRepairer();
+        final UUID listId = randomUUID();
+        final ListVersionChange version = new ListVersionChange(randomUUID(), randomUUID());
+
+        // [p, q, r] -> [q, r] locally and [p, q, x, y, r] remotely.
+        final RemoveFromList local = new RemoveFromList(listId, version, 0, 1);
+        final Queue<ListCommand> localQueue = queue(local);
+        final AddAllToList remote = new AddAllToList(listId, version, asList(new Value("x"), new Value("y")), 2);
+
+        final List<? extends ListCommand> repairCommands = repairer.repairCommands(localQueue, remote);
+
+        assertThat(repairCommands).hasSize(2);
+        assertThat(((AddToList) repairCommands.get(0)).getPosition()).isEqualTo(1);
+        assertThat(((AddToList) repairCommands.get(0)).getValue().getSimpleObjectValue()).isEqualTo("x");
+        assertThat(((AddToList) repairCommands.get(1)).getPosition()).isEqualTo(2);
+        assertThat(((AddToList) repairCommands.get(1)).getValue().getSimpleObjectValue()).isEqualTo("y");
+        assertThat(localQueue).containsExactly(local);
+    }
+
+    /**
+     * Local {@link AddAllToList} commands are repaired by splitting them into single {@link AddToList} commands.
+     */
+    @Test
+    public void shouldSplitLocalAddAllToListCommandsForRepairing() {
+        final ListCommandIndexRepairer repairer = realRepairer();
+        final UUID listId = randomUUID();
+        final ListVersionChange version = new ListVersionChange(randomUUID(), randomUUID());
+
+        // [p, q] -> [a, b, p, q] locally and [p] remotely.
+        final Queue<ListCommand> localQueue = queue(new AddAllToList(listId, version, asList(new Value("a"),
+                new Value("b")), 0));
+        final RemoveFromList remote = new RemoveFromList(listId, version, 1, 1);
+
+        final List<? extends ListCommand> repairCommands = repairer.repairCommands(localQueue, remote);
+
+        assertThat(repairCommands).hasSize(1);
+        assertThat(((RemoveFromList) repairCommands.get(0)).getStartPosition()).isEqualTo(3);
+        assertThat(((RemoveFromList) repairCommands.get(0)).getRemoveCount()).isEqualTo(1);
+        assertThat(localQueue).hasSize(2);
+        final AddToList first = (AddToList) localQueue.poll();
+        final AddToList second = (AddToList) localQueue.poll();
+        assertThat(first.getPosition()).isEqualTo(0);
+        assertThat(first.getValue().getSimpleObjectValue()).isEqualTo("a");
+        assertThat(second.getPosition()).isEqualTo(1);
+        assertThat(second.getValue().getSimpleObjectValue()).isEqualTo("b");
+    }
+
+    private ListCommandIndexRepairer realRepairer() {
+        return new ListCommandIndexRepairer(new AddToListRepairer(), new RemoveFromListRepairer(),
+                new ReplaceInListRepairer(), new PermuteListRepairer());
+    }
+
     private Queue<ListCommand> queue(final ListCommand... commands) {
         final Queue<ListCommand> list = new LinkedList<>();
         for (final ListCommand command : commands) {
@@ -0,0 +1,218 @@
+/**
+ * This file is part of SynchronizeFX.
+ * 
+ * Copyright (C) 2013-2014 Saxonia Systems AG
+ *
+ * SynchronizeFX is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SynchronizeFX is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SynchronizeFX. If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.saxsys.synchronizefx.core.metamodel.executors.lists;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Arrays.asList;
+import static java.util.UUID.randomUUID;
+
+import de.saxsys.synchronizefx.core.metamodel.Optional;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
+import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
+import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand.ListVersionChange;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
+import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
+import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
+import de.saxsys.synchronizefx.core.metamodel.commands.Value;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests if {@link PermuteListRepairer} works as expected.
+ * 
+ * <p>
+ * Besides checking the repaired indices directly, the tests check that a peer that executes a local command followed
+ * by the repaired remote command ends up with the same list as a peer that executes the remote command followed by
+ * the repaired local command.
+ * </p>
+ */
+public class PermuteListRepairerTest {
+
+    private static final UUID SOME_LIST = randomUUID();
+    private static final ListVersionChange SOME_CHANGE = new ListVersionChange(randomUUID(), randomUUID());
+
+    private final PermuteListRepairer cut = new PermuteListRepairer();
+
+    // ///////////////
+    // / AddToList ///
+    // ///////////////
+
+    /**
+     * When an element is added before the reordered range, the range should be moved.
+     */
+    @Test
+    public void shouldMoveRangeWhenElementIsAddedBeforeIt() {
+        final PermuteList toRepair = permute(2, 1, 0);
+        final AddToList repairAgainst = new AddToList(SOME_LIST, SOME_CHANGE, new Value("x"), 1);
+
+        final PermuteList repaired = cut.repairCommand(toRepair, repairAgainst);
+
+        assertThat(repaired.getStartPosition()).isEqualTo(3);
+        assertThat(repaired.getPermutation()).containsExactly(1, 0);
+    }
+
+    /**
+     * When an element is added inside the reordered range, it should keep its index while the other elements are
+     * reordered around it.
+     */
+    @Test
+    public void shouldKeepElementsAddedInsideTheRangeAtTheirIndex() {
+        final List<String> base = asList("a", "b", "c", "d");
+        final PermuteList remote = permute(0, 3, 2, 1, 0);
+        final AddToList local = new AddToList(SOME_LIST, SOME_CHANGE, new Value("x"), 2);
+
+        final PermuteList repairedRemote = cut.repairCommand(remote, local);
+        final AddToList repairedLocal = new AddToListRepairer().repairCommand(local, remote);
+
+        assertThat(execute(base, local, repairedRemote)).containsExactly("d", "c", "x", "b", "a");
+        assertThat(execute(base, remote, repairedLocal)).containsExactly("d", "c", "x", "b", "a");
+    }
+
+    // ////////////////////
+    // / RemoveFromList ///
+    // ////////////////////
+
+    /**
+     * When elements are removed before the reordered range, the range should be moved.
+     */
+    @Test
+    public void shouldMoveRangeWhenElementsAreRemovedBeforeIt() {
+        final PermuteList toRepair = permute(5, 1, 0);
+        final RemoveFromList repairAgainst = new RemoveFromList(SOME_LIST, SOME_CHANGE, 1, 3);
+
+        final PermuteList repaired = cut.repairCommand(toRepair, repairAgainst);
+
+        assertThat(repaired.getStartPosition()).isEqualTo(2);
+        assertThat(repaired.getPermutation()).containsExactly(1, 0);
+    }
+
+    /**
+     * When elements of the reordered range are removed, the remaining elements should keep their new order relative
+     * to each other.
+     */
+    @Test
+    public void shouldKeepRelativeOrderOfElementsThatWhereNotRemoved() {
+        final List<String> base = asList("a", "b", "c", "d", "e", "f");
+        // b, c, d, e -> e, c, b, d
+        final PermuteList remote = permute(1, 2, 1, 3, 0);
+        final RemoveFromList local = new RemoveFromList(SOME_LIST, SOME_CHANGE, 0, 3);
+
+        final PermuteList repairedRemote = cut.repairCommand(remote, local);
+        final List<RemoveFromList> repairedLocal = new RemoveFromListRepairer().repairCommand(local, remote);
+
+        assertThat(repairedRemote.getStartPosition()).isEqualTo(0);
+        assertThat(execute(base, local, repairedRemote)).containsExactly("e", "d", "f");
+        final List<ListCommand> remoteFirst = new ArrayList<ListCommand>(repairedLocal);
+        remoteFirst.add(0, remote);
+        assertThat(execute(base, remoteFirst.toArray(new ListCommand[0]))).containsExactly("e", "d", "f");
+    }
+
+    // ///////////////////
+    // / ReplaceInList ///
+    // ///////////////////
+
+    /**
+     * Replacing an element doesn't change the order of the elements.
+     */
+    @Test
+    public void shouldNotChangePermutationWhenElementIsReplaced() {
+        final List<String> base = asList("a", "b", "c");
+        final PermuteList remote = permute(0, 1, 2, 0);
+        final ReplaceInList local = new ReplaceInList(SOME_LIST, SOME_CHANGE, new Value("x"), 2);
+
+        final PermuteList repairedRemote = cut.repairCommand(remote, local);
+        final ReplaceInList repairedLocal = new ReplaceInListRepairer().repairCommand(local, remote);
+
+        assertThat(repairedRemote).isSameAs(remote);
+        assertThat(repairedLocal.getPosition()).isEqualTo(0);
+        assertThat(execute(base, local, repairedRemote)).containsExactly("x", "a", "b");
+        assertThat(execute(base, remote, repairedLocal)).containsExactly("x", "a", "b");
+    }
+
+    // /////////////////
+    // / PermuteList ///
+    // /////////////////
+
+    /**
+     * When the ranges of a local and a remote reordering overlap, the local one should be dropped and the remote one
+     * should produce the order it would have produced on the original list.
+     */
+    @Test
+    public void shouldDropLocalPermutationAndRestoreRemoteOrderWhenRangesOverlap() {
+        final List<String> base = asList("a", "b", "c", "d", "e");
+        final PermuteList remote = permute(0, 2, 1, 0);
+        final PermuteList local = permute(2, 2, 1, 0);
+
+        final Optional<PermuteList> repairedLocal = cut.repairLocalCommand(local, remote);
+        final PermuteList repairedRemote = cut.repairRemoteCommand(remote, local);
+
+        assertThat(repairedLocal.isPresent()).isFalse();
+        assertThat(execute(base, local, repairedRemote)).containsExactly("c", "b", "a", "d", "e");
+    }
+
+    /**
+     * Reorderings of different ranges don't influence each other.
+     */
+    @Test
+    public void shouldKeepBothPermutationsWhenRangesDoNotOverlap() {
+        final List<String> base = asList("a", "b", "c", "d");
+        final PermuteList remote = permute(0, 1, 0);
+        final PermuteList local = permute(2, 1, 0);
+
+        final Optional<PermuteList> repairedLocal = cut.repairLocalCommand(local, remote);
+        final PermuteList repairedRemote = cut.repairRemoteCommand(remote, local);
+
+        assertThat(repairedLocal.get()).isSameAs(local);
+        assertThat(repairedRemote).isSameAs(remote);
+        assertThat(execute(base, local, repairedRemote)).containsExactly("b", "a", "d", "c");
+    }
+
+    private PermuteList permute(final int startPosition, final int... permutation) {
+        return new PermuteList(SOME_LIST, SOME_CHANGE, startPosition, permutation);
+    }
+
+    private List<String> execute(final List<String> base, final ListCommand... commands) {
+        final List<String> list = new ArrayList<>(base);
+        for (final ListCommand command : commands) {
+            if (command instanceof AddToList) {
+                final AddToList add = (AddToList) command;
+                list.add(add.getPosition(), (String) add.getValue().getSimpleObjectValue());
+            } else if (command instanceof RemoveFromList) {
+                final RemoveFromList remove = (RemoveFromList) command;
+                list.subList(remove.getStartPosition(), remove.getStartPosition() + remove.getRemoveCount()).clear();
+            } else if (command instanceof ReplaceInList) {
+                final ReplaceInList replace = (ReplaceInList) command;
+                list.set(replace.getPosition(), (String) replace.getValue().getSimpleObjectValue());
+            } else {
+                final PermuteList permute = (PermuteList) command;
+                final List<String> old = new ArrayList<>(list);
+                for (int i = 0; i < permute.getPermutation().length; i++) {
+                    list.set(permute.getStartPosition() + permute.getPermutation()[i],
+                            old.get(permute.getStartPosition() + i));
+                }
+            }
+        }
+        return list;
+    }
+}
@@ -34,6 +34,7 @@ import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.Command;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand.ListVersionChange;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
 import de.saxsys.synchronizefx.core.metamodel.commands.Value;
@@ -43,17 +44,22 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentMatcher;
 import org.mockito.InjectMocks;
+import org.mockito.Matchers;
 import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -211,6 +217,35 @@ public class ReparingListPropertyCommandExecutorTest {
         verify(topologyLayerCallback).sendCommands(Arrays.<Command> asList(localCommand1, localCommand2));
     }
 
+    /**
+     * Repairing indices can drop local commands, e.g. when a remote peer reordered the same elements. When no local
+     * commands are left there is nothing to resend and the repaired remote commands are executed with their original
+     * versions.
+     */
+    @Test
+    public void shouldOnlyExecuteRepairedRemoteCommandsWhenAllLocalCommandsWhereDropped() {
+        final PermuteList remoteCommand = new PermuteList(EXEMPLARY_ADD_COMMAND.getListId(), OTHER_CHANGE, 0,
+                new int[] {1, 0 });
+        final PermuteList localCommand = new PermuteList(EXEMPLARY_ADD_COMMAND.getListId(), EXEMPLARY_CHANGE, 0,
+                new int[] {1, 0 });
+        final PermuteList repairedRemoteCommand = new PermuteList(EXEMPLARY_ADD_COMMAND.getListId(), OTHER_CHANGE, 0,
+                new int[] {0, 1 });
+
+        doAnswer(new Answer<List<ListCommand>>() {
+            @Override
+            public List<ListCommand> answer(final InvocationOnMock invocation) {
+                ((Queue<?>) invocation.getArguments()[0]).clear();
+                return Arrays.<ListCommand> asList(repairedRemoteCommand);
+            }
+        }).when(indexRepairer).repairCommands(Matchers.<Queue<ListCommand>> any(), same(remoteCommand));
+
+        cut.logLocalCommand(localCommand);
+        cut.execute(remoteCommand);
+
+        verify(simpleExecutor).execute(repairedRemoteCommand);
+        verifyZeroInteractions(versionRepairer, topologyLayerCallback);
+    }
+
     /**
      * There should be a separate command log for each list.
      */
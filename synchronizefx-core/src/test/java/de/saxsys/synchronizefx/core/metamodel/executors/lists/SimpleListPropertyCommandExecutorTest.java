@@ -21,19 +21,23 @@ package de.saxsys.synchronizefx.core.metamodel.executors.lists;
 
 import java.util.UUID;
 
+import static java.util.Arrays.asList;
 import static java.util.UUID.randomUUID;
 
 import javafx.beans.property.ListProperty;
 import javafx.beans.property.SimpleListProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 
 import de.saxsys.synchronizefx.core.metamodel.ListPropertyMetaDataStore;
 import de.saxsys.synchronizefx.core.metamodel.ListPropertyMetaDataStore.ListPropertyMetaData;
 import de.saxsys.synchronizefx.core.metamodel.SilentChangeExecutor;
 import de.saxsys.synchronizefx.core.metamodel.ValueMapper;
 import de.saxsys.synchronizefx.core.metamodel.WeakObjectRegistry;
+import de.saxsys.synchronizefx.core.metamodel.commands.AddAllToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.AddToList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ListCommand.ListVersionChange;
+import de.saxsys.synchronizefx.core.metamodel.commands.PermuteList;
 import de.saxsys.synchronizefx.core.metamodel.commands.RemoveFromList;
 import de.saxsys.synchronizefx.core.metamodel.commands.ReplaceInList;
 import de.saxsys.synchronizefx.core.metamodel.commands.Value;
@@ -81,6 +85,8 @@ public class SimpleListPropertyCommandExecutorTest {
     @InjectMocks
     private SimpleListPropertyCommandExecutor cut;
 
+    private int changeEvents;
+
     /**
      * Sets up the default behavior of the mocks.
      */
@@ -138,6 +144,95 @@ public class SimpleListPropertyCommandExecutorTest {
         assertThat(exemplaryList.get()).containsExactly("first", "forth");
     }
 
+    /**
+     * The executor should be able to execute {@link AddAllToList} commands.
+     */
+    @Test
+    public void shouldExecuteAddAllToListCommands() {
+        exemplaryList.addAll("first", "fifth");
+
+        final AddAllToList command = new AddAllToList(exemplaryListId, exemplaryVersionChange, asList(new Value(
+                "second"), new Value("third"), new Value("forth")), 1);
+
+        cut.execute(command);
+
+        assertThat(exemplaryList.get()).containsExactly("first", "second", "third", "forth", "fifth");
+    }
+
+    /**
+     * Ranges of elements should be added and removed with a single change of the list instead of one change per
+     * element.
+     */
+    @Test
+    public void shouldChangeRangesOfElementsWithASingleChangeEvent() {
+        exemplaryList.addAll("first", "second", "third", "forth", "fifth");
+        exemplaryList.addListener(new ListChangeListener<String>() {
+            @Override
+            public void onChanged(final Change<? extends String> change) {
+                while (change.next()) {
+                    changeEvents++;
+                }
+            }
+        });
+
+        cut.execute(new RemoveFromList(exemplaryListId, exemplaryVersionChange, 1, 3));
+        assertThat(changeEvents).isEqualTo(1);
+
+        cut.execute(new AddAllToList(exemplaryListId, exemplaryVersionChange, asList(new Value("a"),
+                new Value("b")), 1));
+        assertThat(changeEvents).isEqualTo(2);
+
+        assertThat(exemplaryList.get()).containsExactly("first", "a", "b", "fifth");
+    }
+
+    /**
+     * The executor should be able to execute {@link PermuteList} commands.
+     */
+    @Test
+    public void shouldExecutePermuteListCommands() {
+        exemplaryList.addAll("first", "second", "third", "forth", "fifth");
+
+        cut.execute(new PermuteList(exemplaryListId, exemplaryVersionChange, 1, new int[] {2, 0, 1 }));
+
+        assertThat(exemplaryList.get()).containsExactly("first", "third", "forth", "second", "fifth");
+    }
+
+    /**
+     * Reordering elements should result in a single permutation change so that views can keep track of their
+     * elements.
+     */
+    @Test
+    public void shouldReorderElementsWithASinglePermutationEvent() {
+        exemplaryList.addAll("first", "second", "third");
+        exemplaryList.addListener(new ListChangeListener<String>() {
+            @Override
+            public void onChanged(final Change<? extends String> change) {
+                while (change.next()) {
+                    assertThat(change.wasPermutated()).isTrue();
+                    changeEvents++;
+                }
+            }
+        });
+
+        cut.execute(new PermuteList(exemplaryListId, exemplaryVersionChange, 0, new int[] {2, 1, 0 }));
+
+        assertThat(changeEvents).isEqualTo(1);
+        assertThat(exemplaryList.get()).containsExactly("third", "second", "first");
+    }
+
+    /**
+     * Lists that contain the same element more than once should be reordered correctly as well.
+     */
+    @Test
+    public void shouldReorderListsThatContainAnElementMoreThanOnce() {
+        final String duplicate = "duplicate";
+        exemplaryList.addAll(duplicate, "first", duplicate, "second");
+
+        cut.execute(new PermuteList(exemplaryListId, exemplaryVersionChange, 0, new int[] {1, 3, 2, 0 }));
+
+        assertThat(exemplaryList.get()).containsExactly("second", duplicate, duplicate, "first");
+    }
+
     /**
      * The executor should be able to execute {@link ReplaceInList} commands.
      */
@@ -22,6 +22,7 @@ package de.saxsys.synchronizefx;
 import java.util.concurrent.Executor;
 
 import de.saxsys.synchronizefx.core.clientserver.ClientCallback;
+import de.saxsys.synchronizefx.core.clientserver.CompressingSerializer;
 import de.saxsys.synchronizefx.core.clientserver.SynchronizeFxClient;
 import de.saxsys.synchronizefx.kryo.KryoSerializer;
 import de.saxsys.synchronizefx.netty.tcp.NettyClient;
@@ -37,6 +38,8 @@ class ClientBuilder implements ClientCallbackStep, OptionalClientStep, ClientAdd
     private int port = DEFAULT_PORT;
     private String address = "localhost";
     private final KryoSerializer serializer = new KryoSerializer();
+    private Integer compressionThreshold;
+    private byte[] compressionDictionary;
     private ClientCallback callback;
     private Executor changeExecutor;
 
@@ -64,6 +67,13 @@ class ClientBuilder implements ClientCallbackStep, OptionalClientStep, ClientAdd
         return this;
     }
     
+    @Override
+    public OptionalClientStep compression(final int threshold, final byte[] dictionary) {
+        this.compressionThreshold = threshold;
+        this.compressionDictionary = dictionary;
+        return this;
+    }
+
     @Override
     public OptionalClientStep modelChangeExecutor(final Executor executor) {
         this.changeExecutor = executor;
@@ -72,11 +82,18 @@ class ClientBuilder implements ClientCallbackStep, OptionalClientStep, ClientAdd
 
     @Override
     public SynchronizeFxClient build() {
-        final NettyClient netty = new NettyClient(address, port, serializer);
+        final NettyClient netty = new NettyClient(address, port, transferSerializer());
         if (changeExecutor == null) {
             return new SynchronizeFxClient(netty, callback);
         } else {
             return new SynchronizeFxClient(netty, callback, changeExecutor);
         }
     }
+
+    private de.saxsys.synchronizefx.core.clientserver.Serializer transferSerializer() {
+        if (compressionThreshold == null) {
+            return serializer;
+        }
+        return new CompressingSerializer(serializer, compressionThreshold, compressionDictionary);
+    }
 }
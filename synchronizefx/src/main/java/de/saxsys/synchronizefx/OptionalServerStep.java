@@ -26,6 +26,27 @@ import de.saxsys.synchronizefx.core.clientserver.SynchronizeFxServer;
  */
 public interface OptionalServerStep extends OptionalStep<OptionalServerStep> {
 
+    /**
+     * Sets the maximal count of commands per chunk when sending the domain model to newly connecting clients.
+     * 
+     * @param chunkSize The maximal count of commands per chunk. Pass 0 to send the whole domain model in a single
+     *            chunk.
+     * @return The builder to provide a fluent API.
+     * @see SynchronizeFxServer#setInitialStateChunkSize(int)
+     */
+    OptionalServerStep initialStateChunkSize(int chunkSize);
+
+    /**
+     * Enables the batching of changes done on the server side.
+     * 
+     * @param window The time in milliseconds that changes are collected before they are send.
+     * @param maxCommands The count of commands after which the collected changes are send before the time window has
+     *            passed.
+     * @return The builder to provide a fluent API.
+     * @see SynchronizeFxServer#setCommandBatching(long, int)
+     */
+    OptionalServerStep commandBatching(long window, int maxCommands);
+
     /**
      * Creates a server instance for serving a domain model.
      * 
@@ -69,8 +69,9 @@ public interface OptionalStep<K> {
      * 
      * <p>
      * If this method is not used, SynchronizeFX will uses an {@link Executor} for clients that executes all changes
-     * in the JavaFX thread (see {@link javafx.application.Platform#runLater(Runnable)}. For servers an
-     * {@link Executor} is used, that executes all changes in the network thread that received them.
+     * in the JavaFX thread in batches once per frame (see
+     * {@link de.saxsys.synchronizefx.core.clientserver.FrameCoalescingExecutor}). For servers an {@link Executor} is
+     * used, that executes all changes in the network thread that received them.
      * </p>
      * 
      * <p>
@@ -81,4 +82,25 @@ public interface OptionalStep<K> {
      * @return The builder to provide a fluent API.
      */
     K modelChangeExecutor(final Executor executor);
+
+    /**
+     * Compresses the messages exchanged between server and clients with the Deflate algorithm.
+     * 
+     * <p>
+     * Compression reduces the network usage when large messages are exchanged, for example when a client connects to
+     * a server with a big domain model. It costs some CPU time on both sides. Messages smaller than the threshold are
+     * not compressed. A preset dictionary with byte sequences that are typical for the domain model like class and
+     * property names improves the compression of small messages.
+     * </p>
+     * 
+     * <p>
+     * When compression is enabled for the server it has to be enabled with the same dictionary for all clients too
+     * and vice versa.
+     * </p>
+     * 
+     * @param threshold The minimal size in bytes a message must have to be compressed.
+     * @param dictionary The preset dictionary or <code>null</code> if none should be used.
+     * @return The builder to provide a fluent API.
+     */
+    K compression(final int threshold, final byte[] dictionary);
 }
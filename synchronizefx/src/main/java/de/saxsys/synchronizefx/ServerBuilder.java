@@ -21,6 +21,7 @@ package de.saxsys.synchronizefx;
 
 import java.util.concurrent.Executor;
 
+import de.saxsys.synchronizefx.core.clientserver.CompressingSerializer;
 import de.saxsys.synchronizefx.core.clientserver.ServerCallback;
 import de.saxsys.synchronizefx.core.clientserver.SynchronizeFxServer;
 import de.saxsys.synchronizefx.kryo.KryoSerializer;
@@ -36,10 +37,15 @@ class ServerBuilder implements ServerModelStep, ServerCallbackStep, OptionalServ
 
     private int port = DEFAULT_PORT;
     private final KryoSerializer serializer = new KryoSerializer();
+    private Integer compressionThreshold;
+    private byte[] compressionDictionary;
     private ServerCallback callback;
     private Object model;
 
     private Executor changeExecutor;
+    private Integer initialStateChunkSize;
+    private long batchWindow;
+    private int maxBatchSize;
 
     @Override
     public OptionalServerStep port(final int port) {
@@ -65,20 +71,55 @@ class ServerBuilder implements ServerModelStep, ServerCallbackStep, OptionalServ
         return this;
     }
 
+    @Override
+    public OptionalServerStep compression(final int threshold, final byte[] dictionary) {
+        this.compressionThreshold = threshold;
+        this.compressionDictionary = dictionary;
+        return this;
+    }
+
     @Override
     public OptionalServerStep modelChangeExecutor(final Executor executor) {
         this.changeExecutor = executor;
         return this;
     }
 
+    @Override
+    public OptionalServerStep initialStateChunkSize(final int chunkSize) {
+        this.initialStateChunkSize = chunkSize;
+        return this;
+    }
+
+    @Override
+    public OptionalServerStep commandBatching(final long window, final int maxCommands) {
+        this.batchWindow = window;
+        this.maxBatchSize = maxCommands;
+        return this;
+    }
+
     @Override
     public SynchronizeFxServer build() {
-        final NettyServer netty = new NettyServer(port, serializer);
+        final NettyServer netty = new NettyServer(port, transferSerializer());
 
+        final SynchronizeFxServer server;
         if (changeExecutor == null) {
-            return new SynchronizeFxServer(model, netty, callback);
+            server = new SynchronizeFxServer(model, netty, callback);
         } else {
-            return new SynchronizeFxServer(model, netty, changeExecutor, callback);
+            server = new SynchronizeFxServer(model, netty, changeExecutor, callback);
+        }
+        if (initialStateChunkSize != null) {
+            server.setInitialStateChunkSize(initialStateChunkSize);
+        }
+        if (batchWindow > 0) {
+            server.setCommandBatching(batchWindow, maxBatchSize);
+        }
+        return server;
+    }
+
+    private de.saxsys.synchronizefx.core.clientserver.Serializer transferSerializer() {
+        if (compressionThreshold == null) {
+            return serializer;
         }
+        return new CompressingSerializer(serializer, compressionThreshold, compressionDictionary);
     }
 }
@@ -85,7 +85,8 @@ public class SynchronizeFxStepBuilderTest {
         final SynchronizeFxClient client =
                 SynchronizeFxBuilder.create().client().address("192.168.0.1").callback(clientCallback).port(16789)
                         .customSerializer(Double.class, doubleSerializer)
-                        .customSerializer(Integer.class, integerSerializer).build();
+                        .customSerializer(Integer.class, integerSerializer)
+                        .compression(256, new byte[] {1, 2, 3 }).build();
         Assert.assertNotNull(client);
     }
 
@@ -96,7 +97,8 @@ public class SynchronizeFxStepBuilderTest {
     public void testSimplestPossibleServer() {
         final SynchronizeFxServer server =
                 SynchronizeFxBuilder.create().server().model(modelObject).callback(serverCallback)
-                        .modelChangeExecutor(changeExecutor).build();
+                        .modelChangeExecutor(changeExecutor)
+                        .initialStateChunkSize(500).commandBatching(20, 1000).build();
         Assert.assertNotNull(server);
     }
 
@@ -108,7 +110,8 @@ public class SynchronizeFxStepBuilderTest {
         final SynchronizeFxServer server =
                 SynchronizeFxBuilder.create().server().model(modelObject).callback(serverCallback)
                         .customSerializer(Double.class, doubleSerializer).port(16789)
-                        .customSerializer(Integer.class, integerSerializer).modelChangeExecutor(changeExecutor).build();
+                        .customSerializer(Integer.class, integerSerializer).modelChangeExecutor(changeExecutor)
+                        .initialStateChunkSize(500).commandBatching(20, 1000).compression(256, null).build();
         Assert.assertNotNull(server);
     }
 }
@@ -21,51 +21,63 @@ package de.saxsys.synchronizefx.netty.base;
 
 import java.util.List;
 
+import de.saxsys.synchronizefx.core.clientserver.ConnectionAwareSerializer;
 import de.saxsys.synchronizefx.core.clientserver.Serializer;
+import de.saxsys.synchronizefx.core.clientserver.StreamingSerializer;
+import de.saxsys.synchronizefx.core.clientserver.StreamingSerializerAdapter;
+import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
 import de.saxsys.synchronizefx.core.metamodel.commands.Command;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageCodec;
 
 /**
  * Translates Netty {@link ByteBuf}s to {@link List}s of SynchronizeFX {@link Command}s using a {@link Serializer}.
  * 
+ * <p>
+ * A new instance must be created for every channel as it may keep state for the connection it is used for.
+ * </p>
+ * 
  * @author Raik Bieniek
  */
 public class CommandToBinaryByteBuf extends MessageToMessageCodec<ByteBuf, List<Command>> {
 
-    private final Serializer serializer;
+    private final StreamingSerializer serializer;
 
     /**
      * Initializes the codec.
      * 
      * @param serializer The implementation for serializing and deserializing <code>byte[]</code> to SynchronizeFX
-     *            commands.
+     *            commands. If it is a {@link ConnectionAwareSerializer}, a dedicated serializer for the channel of
+     *            this codec is created from it. If it is a {@link StreamingSerializer} the commands are serialized
+     *            directly into and deserialized directly from the buffers of the channel.
      */
     public CommandToBinaryByteBuf(final Serializer serializer) {
-        this.serializer = serializer;
+        if (serializer instanceof ConnectionAwareSerializer) {
+            this.serializer = StreamingSerializerAdapter.adapt(((ConnectionAwareSerializer) serializer)
+                    .createConnectionSerializer());
+        } else {
+            this.serializer = StreamingSerializerAdapter.adapt(serializer);
+        }
     }
 
     @Override
     protected void decode(final ChannelHandlerContext ctx, final ByteBuf msg, final List<Object> out) throws Exception {
-        byte[] data;
-        if (msg.hasArray()) {
-            data = msg.array();
-        } else {
-            data = new byte[msg.readableBytes()];
-            msg.readBytes(data);
-        }
-
-        out.add(serializer.deserialize(data));
+        out.add(serializer.deserialize(msg.nioBuffer()));
     }
 
     @Override
     protected void encode(final ChannelHandlerContext ctx, final List<Command> msg, final List<Object> out)
         throws Exception {
-        final ByteBuf buffer = Unpooled.wrappedBuffer(serializer.serialize(msg));
-        buffer.retain();
+        final ByteBuf buffer = ctx.alloc().buffer();
+        try {
+            serializer.serialize(msg, new ByteBufOutputStream(buffer));
+        } catch (final SynchronizeFXException e) {
+            buffer.release();
+            throw e;
+        }
         out.add(buffer);
     }
 }
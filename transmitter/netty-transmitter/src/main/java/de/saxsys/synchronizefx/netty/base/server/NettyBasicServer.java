@@ -22,11 +22,18 @@ package de.saxsys.synchronizefx.netty.base.server;
 import java.util.List;
 
 import de.saxsys.synchronizefx.core.clientserver.CommandTransferServer;
+import de.saxsys.synchronizefx.core.clientserver.ConnectionAwareSerializer;
 import de.saxsys.synchronizefx.core.clientserver.NetworkToTopologyCallbackServer;
+import de.saxsys.synchronizefx.core.clientserver.Serializer;
+import de.saxsys.synchronizefx.core.clientserver.StreamingSerializer;
+import de.saxsys.synchronizefx.core.clientserver.StreamingSerializerAdapter;
 import de.saxsys.synchronizefx.core.exceptions.SynchronizeFXException;
 import de.saxsys.synchronizefx.core.metamodel.commands.Command;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.group.ChannelGroup;
@@ -49,15 +56,39 @@ public abstract class NettyBasicServer implements CommandTransferServer {
     private ChannelGroup clients = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
 
     private final int port;
+    private final Serializer serializer;
     private NetworkToTopologyCallbackServer callback;
 
+    /**
+     * The serializer used to serialize commands that are send to multiple clients only once or <code>null</code> if
+     * they need to be serialized for every client separately.
+     */
+    private StreamingSerializer broadcastSerializer;
+
     /**
      * Initializes an instance.
      * 
      * @param port The port to listen on when the server is {@link #start()}ed.
      */
     public NettyBasicServer(final int port) {
+        this(port, null);
+    }
+
+    /**
+     * Initializes an instance that serializes commands which are send to multiple clients only once.
+     * 
+     * <p>
+     * The pipeline created by {@link #createChannelInitializer()} must accept {@link io.netty.buffer.ByteBuf}s that
+     * contain data serialized with <code>serializer</code>. If the serializer is a {@link ConnectionAwareSerializer}
+     * that keeps state for every connection, the commands are serialized for every client separately.
+     * </p>
+     * 
+     * @param port The port to listen on when the server is {@link #start()}ed.
+     * @param serializer The serializer that is used by the channel pipelines of this server.
+     */
+    public NettyBasicServer(final int port, final Serializer serializer) {
         this.port = port;
+        this.serializer = serializer;
     }
 
     /**
@@ -70,6 +101,16 @@ public abstract class NettyBasicServer implements CommandTransferServer {
 
     @Override
     public void start() throws SynchronizeFXException {
+        if (serializer instanceof ConnectionAwareSerializer) {
+            // The serializer returns itself if it doesn't need state for connections.
+            final Serializer connectionSerializer = ((ConnectionAwareSerializer) serializer)
+                    .createConnectionSerializer();
+            this.broadcastSerializer = connectionSerializer == serializer ? StreamingSerializerAdapter
+                    .adapt(serializer) : null;
+        } else if (serializer != null) {
+            this.broadcastSerializer = StreamingSerializerAdapter.adapt(serializer);
+        }
+
         this.connectionAccptorGroup = new NioEventLoopGroup();
         this.clientConnectionGroup = new NioEventLoopGroup();
 
@@ -79,7 +120,8 @@ public abstract class NettyBasicServer implements CommandTransferServer {
         ServerBootstrap bootstrap = new ServerBootstrap();
         bootstrap.group(connectionAccptorGroup, clientConnectionGroup).channel(NioServerSocketChannel.class)
                 .childHandler(channelInitializer).childOption(ChannelOption.TCP_NODELAY, true)
-                .childOption(ChannelOption.SO_KEEPALIVE, true);
+                .childOption(ChannelOption.SO_KEEPALIVE, true)
+                .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
 
         bootstrap.bind(port).syncUninterruptibly();
     }
@@ -96,7 +138,10 @@ public abstract class NettyBasicServer implements CommandTransferServer {
 
     @Override
     public void sendToAll(final List<Command> commands) {
-        clients.writeAndFlush(commands);
+        final Object message = serializeForBroadcast(commands);
+        if (message != null) {
+            clients.writeAndFlush(message);
+        }
     }
 
     @Override
@@ -106,7 +151,11 @@ public abstract class NettyBasicServer implements CommandTransferServer {
 
     @Override
     public void sendToAllExcept(final List<Command> commands, final Object nonReciver) {
-        clients.writeAndFlush(commands, new ChannelMatcher() {
+        final Object message = serializeForBroadcast(commands);
+        if (message == null) {
+            return;
+        }
+        clients.writeAndFlush(message, new ChannelMatcher() {
             @Override
             public boolean matches(final Channel candidate) {
                 return candidate != nonReciver;
@@ -114,6 +163,34 @@ public abstract class NettyBasicServer implements CommandTransferServer {
         });
     }
 
+    /**
+     * Serializes commands that should be send to multiple clients.
+     * 
+     * <p>
+     * The {@link ChannelGroup} writes a retained duplicate of a {@link io.netty.buffer.ByteBuf} to every channel. This
+     * way the commands are only serialized once no matter how many clients are connected.
+     * </p>
+     * 
+     * @param commands The commands to serialize.
+     * @return The serialized commands, the commands itself if they need to be serialized for every client separately
+     *         or <code>null</code> if the serialization failed.
+     */
+    private Object serializeForBroadcast(final List<Command> commands) {
+        if (broadcastSerializer == null) {
+            return commands;
+        }
+        final ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            broadcastSerializer.serialize(commands, new ByteBufOutputStream(buffer));
+            return buffer;
+        } catch (final SynchronizeFXException e) {
+            buffer.release();
+            shutdown();
+            callback.onFatalError(e);
+            return null;
+        }
+    }
+
     @Override
     public void shutdown() {
         connectionAccptorGroup.shutdownGracefully().addListener(new GenericFutureListener<Future<Object>>() {
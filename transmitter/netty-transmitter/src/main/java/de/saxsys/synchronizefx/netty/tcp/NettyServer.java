@@ -47,7 +47,7 @@ public class NettyServer extends NettyBasicServer {
      * @param serializer The serializer that should be used to serialize SynchronizeFX messages.
      */
     public NettyServer(final int port, final Serializer serializer) {
-        super(port);
+        super(port, serializer);
         this.serializer = serializer;
     }
 
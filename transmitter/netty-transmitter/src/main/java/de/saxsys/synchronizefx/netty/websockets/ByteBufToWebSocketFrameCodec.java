@@ -53,7 +53,8 @@ class ByteBufToWebSocketFrameCodec extends MessageToMessageCodec<WebSocketFrame,
 
     @Override
     protected void encode(final ChannelHandlerContext ctx, final ByteBuf msg, final List<Object> out) throws Exception {
-        out.add(new BinaryWebSocketFrame(msg));
+        // the frame is passed to other handlers while msg is released after this method so it needs to be retained.
+        out.add(new BinaryWebSocketFrame(msg.retain()));
     }
 
     @Override